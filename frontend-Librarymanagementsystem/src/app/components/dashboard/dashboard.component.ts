@@ -1,18 +1,18 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { MatSnackBar } from '@angular/material/snack-bar';
 import { BookService } from '../../services/book.service';
 import { UserService } from '../../services/user.service';
 import { BorrowService } from '../../services/borrow.service';
 import { DashboardService } from '../../services/dashboard.service';
 import { DashboardStats, BorrowRecord } from '../../models';
-import { forkJoin } from 'rxjs';
+import { forkJoin, Subscription } from 'rxjs';
 
 @Component({
   selector: 'app-dashboard',
   templateUrl: './dashboard.component.html',
   styleUrls: ['./dashboard.component.css']
 })
-export class DashboardComponent implements OnInit {
+export class DashboardComponent implements OnInit, OnDestroy {
   stats: DashboardStats = {
     totalBooks: 0,
     availableBooks: 0,
@@ -26,6 +26,7 @@ export class DashboardComponent implements OnInit {
   booksDueToday: BorrowRecord[] = [];
   isLoading = true;
   error: string | null = null;
+  private statsStream?: Subscription;
 
   constructor(
     private bookService: BookService,
@@ -39,6 +40,10 @@ export class DashboardComponent implements OnInit {
     this.loadDashboardData();
   }
 
+  ngOnDestroy(): void {
+    this.statsStream?.unsubscribe();
+  }
+
   loadDashboardData(): void {
     this.isLoading = true;
     this.error = null;
@@ -46,6 +51,7 @@ export class DashboardComponent implements OnInit {
     this.dashboardService.getDashboardStats().subscribe({
       next: (dashboardStats) => {
         this.stats = dashboardStats;
+        this.subscribeToLiveStats();
         this.loadAdditionalData();
       },
       error: (error) => {
@@ -55,6 +61,15 @@ export class DashboardComponent implements OnInit {
     });
   }
 
+  // Keep the counters current from the server push stream instead of re-polling
+  private subscribeToLiveStats(): void {
+    this.statsStream?.unsubscribe();
+    this.statsStream = this.dashboardService.streamDashboardStats(this.stats).subscribe({
+      next: (liveStats) => this.stats = liveStats,
+      error: (error) => console.warn('Dashboard stream failed:', error)
+    });
+  }
+
   private loadAdditionalData(): void {
     forkJoin({
       overdueRecords: this.borrowService.getOverdueRecords(),
@@ -1,5 +1,5 @@
 // src/app/services/dashboard.service.ts
-import { Injectable } from '@angular/core';
+import { Injectable, NgZone } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { DashboardStats } from '../models';
@@ -13,11 +13,37 @@ export class DashboardService {
 
   constructor(
     private http: HttpClient,
-    private authService: AuthService
+    private authService: AuthService,
+    private zone: NgZone
   ) { }
 
   getDashboardStats(): Observable<DashboardStats> {
     const headers = this.authService.getAuthHeader();
     return this.http.get<DashboardStats>(this.API_URL, { headers });
   }
+
+  // Live stats over Server-Sent Events: a full snapshot on connect, then deltas
+  streamDashboardStats(initial: DashboardStats): Observable<DashboardStats> {
+    return new Observable<DashboardStats>(observer => {
+      let current = { ...initial };
+      const source = new EventSource(`${this.API_URL}/stream`);
+
+      source.addEventListener('snapshot', (event: MessageEvent) => {
+        current = JSON.parse(event.data);
+        this.zone.run(() => observer.next(current));
+      });
+
+      source.addEventListener('delta', (event: MessageEvent) => {
+        const deltas = JSON.parse(event.data) as Partial<DashboardStats>;
+        const next = { ...current };
+        (Object.keys(deltas) as (keyof DashboardStats)[]).forEach(key => {
+          next[key] = (next[key] ?? 0) + (deltas[key] ?? 0);
+        });
+        current = next;
+        this.zone.run(() => observer.next(current));
+      });
+
+      return () => source.close();
+    });
+  }
 }
\ No newline at end of file
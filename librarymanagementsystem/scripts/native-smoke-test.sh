@@ -0,0 +1,93 @@
+#!/bin/bash
+# Smoke test for the native image: boots target/librarymanagementsystem on the embedded
+# H2 profile, exercises the catalogue, login, borrow/return and stats endpoints, and
+# reports time to first request and resident memory.
+#
+#   mvn -Pnative native:compile -DskipTests && scripts/native-smoke-test.sh
+#   APP_CMD="java -Dspring.aot.enabled=true -jar target/librarymanagementsystem-0.0.1-SNAPSHOT.jar" \
+#       scripts/native-smoke-test.sh      # same checks on the JVM, for comparison
+#
+# Exits non-zero when the application does not start or a check fails.
+
+set -u
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8083}
+BASE=http://localhost:$PORT
+TIMEOUT_S=${TIMEOUT_S:-120}
+APP_CMD=${APP_CMD:-target/librarymanagementsystem}
+LOG=target/native-smoke-test.log
+
+if [ -z "${APP_CMD##target/*}" ] && [ ! -x "${APP_CMD%% *}" ]; then
+    echo "${APP_CMD%% *} not found; build it with mvn -Pnative native:compile -DskipTests" >&2
+    exit 1
+fi
+
+# Resident and peak resident memory of the process, in MB
+memory() {
+    awk '/^VmRSS|^VmHWM/ { printf "%s %d MB  ", $1, $2 / 1024 }' "/proc/$1/status"
+}
+
+failures=0
+check() {
+    local expected=$1 method=$2 path=$3
+    shift 3
+    local status
+    status=$(curl -s -o /dev/null -w '%{http_code}' -X "$method" "$@" "$BASE$path")
+    if [ "$status" = "$expected" ]; then
+        echo "  ok   $method $path -> $status"
+    else
+        echo "  FAIL $method $path -> $status (expected $expected)"
+        failures=$((failures + 1))
+    fi
+}
+
+start=$(date +%s%N)
+# shellcheck disable=SC2086
+$APP_CMD --spring.profiles.active=embedded --server.port="$PORT" > "$LOG" 2>&1 &
+pid=$!
+trap 'kill $pid 2> /dev/null' EXIT
+
+deadline=$((SECONDS + TIMEOUT_S))
+until curl -sf -o /dev/null "$BASE/api/books"; do
+    if ! kill -0 "$pid" 2> /dev/null || [ $SECONDS -ge $deadline ]; then
+        echo "No response from $BASE/api/books, see $LOG" >&2
+        exit 1
+    fi
+    sleep 0.02
+done
+elapsed=$((($(date +%s%N) - start) / 1000000))
+# The admin and sample data are created by runners that finish before "Started"
+until grep -q 'Started [A-Za-z]* in' "$LOG"; do
+    sleep 0.02
+done
+started=$(grep -o 'Started [A-Za-z]* in [0-9.]* seconds' "$LOG" | grep -o '[0-9.]* seconds')
+
+echo "$APP_CMD"
+echo "time to first request: $elapsed ms (context started in $started)"
+echo "memory after startup: $(memory $pid)"
+
+check 200 GET /api/books
+check 200 GET /api/books/2
+check 200 GET /api/users
+check 200 GET /api/users/stats
+check 200 POST /api/auth/login -H 'Content-Type: application/json' -d '{"username":"admin","password":"admin123"}'
+check 401 POST /api/auth/login -H 'Content-Type: application/json' -d '{"username":"admin","password":"wrong"}'
+borrow=$(curl -s -X POST "$BASE/api/borrow/borrow?userId=2&bookId=3")
+borrow_id=$(echo "$borrow" | grep -o '"id":[0-9]*' | head -1 | cut -d: -f2)
+if [ -n "$borrow_id" ]; then
+    echo "  ok   POST /api/borrow/borrow -> loan $borrow_id"
+    check 200 PUT "/api/borrow/return/$borrow_id"
+else
+    echo "  FAIL POST /api/borrow/borrow -> $borrow"
+    failures=$((failures + 1))
+fi
+check 200 GET /api/borrow/stats
+check 200 GET /api/borrow/overdue
+
+echo "memory after checks:  $(memory $pid)"
+if [ $failures -gt 0 ]; then
+    echo "$failures check(s) failed, see $LOG"
+    exit 1
+fi
+echo "all checks passed"
@@ -0,0 +1,84 @@
+#!/bin/bash
+# Time to first request: launches the packaged application RUNS times and measures the
+# wall-clock time from launching the JVM to the first HTTP 200 from PROBE_URL.
+#
+#   mvn package -DskipTests && scripts/startup-benchmark.sh
+#   PROFILES=fast-start,embedded scripts/startup-benchmark.sh
+#   MODE=cds scripts/startup-benchmark.sh        # class data sharing archive
+#   mvn -Paot -Daot.profiles=embedded package -DskipTests && MODE=aot scripts/startup-benchmark.sh
+#
+# The embedded profile needs no database server, so runs are comparable between machines.
+# Later profiles win, so list fast-start before embedded (embedded creates the schema).
+
+set -u
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PROFILES=${PROFILES:-embedded}
+MODE=${MODE:-jar}
+PORT=${PORT:-8083}
+PROBE_URL=${PROBE_URL:-http://localhost:$PORT/api/books}
+TIMEOUT_S=${TIMEOUT_S:-180}
+JAR=target/librarymanagementsystem-0.0.1-SNAPSHOT.jar
+CDS_DIR=target/cds
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR not found; run mvn package -DskipTests first" >&2
+    exit 1
+fi
+
+JVM_OPTS=${JAVA_OPTS:-}
+APP_JAR=$JAR
+case "$MODE" in
+    jar)
+        ;;
+    aot)
+        JVM_OPTS="$JVM_OPTS -Dspring.aot.enabled=true"
+        ;;
+    cds)
+        # Extract the jar (CDS needs classes on a plain classpath) and record a training run
+        # that stops right after the context is refreshed
+        if [ ! -f "$CDS_DIR/application.jsa" ] || [ "$JAR" -nt "$CDS_DIR/application.jsa" ]; then
+            rm -rf "$CDS_DIR"
+            java -Djarmode=tools -jar "$JAR" extract --destination "$CDS_DIR" > /dev/null || exit 1
+            # shellcheck disable=SC2086
+            java $JVM_OPTS -XX:ArchiveClassesAtExit="$CDS_DIR/application.jsa" -Dspring.context.exit=onRefresh \
+                -jar "$CDS_DIR/$(basename "$JAR")" --spring.profiles.active="$PROFILES" \
+                > "$CDS_DIR/training.log" 2>&1 || { echo "CDS training run failed, see $CDS_DIR/training.log" >&2; exit 1; }
+        fi
+        JVM_OPTS="$JVM_OPTS -XX:SharedArchiveFile=$CDS_DIR/application.jsa"
+        APP_JAR="$CDS_DIR/$(basename "$JAR")"
+        ;;
+    *)
+        echo "MODE must be jar, aot or cds" >&2
+        exit 1
+        ;;
+esac
+
+LOG=target/startup-benchmark.log
+results=()
+echo "mode=$MODE profiles=$PROFILES runs=$RUNS probe=$PROBE_URL"
+for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    # shellcheck disable=SC2086
+    java $JVM_OPTS -jar "$APP_JAR" --spring.profiles.active="$PROFILES" --server.port="$PORT" > "$LOG" 2>&1 &
+    pid=$!
+    deadline=$((SECONDS + TIMEOUT_S))
+    until curl -sf -o /dev/null "$PROBE_URL"; do
+        if ! kill -0 "$pid" 2> /dev/null || [ $SECONDS -ge $deadline ]; then
+            echo "run $run: no response from $PROBE_URL, see $LOG" >&2
+            kill "$pid" 2> /dev/null
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$((($(date +%s%N) - start) / 1000000))
+    started=$(grep -o 'Started [A-Za-z]* in [0-9.]* seconds' "$LOG" | grep -o '[0-9.]* seconds')
+    echo "run $run: first request after $elapsed ms (context started in ${started:-n/a, still starting})"
+    results+=("$elapsed")
+    kill "$pid"
+    wait "$pid" 2> /dev/null
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "time to first request: min ${sorted[0]} ms, median ${sorted[$((RUNS / 2))]} ms, max ${sorted[$((RUNS - 1))]} ms"
@@ -1,18 +1,27 @@
 package com.wipro.librarymanagementsystem;
 
+import com.wipro.librarymanagementsystem.config.StartupInitializer;
 import com.wipro.librarymanagementsystem.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is only used by the reactive catalogue, which opens its own pool; Boot's R2DBC setup would
+// add a second (embedded) database and a reactive transaction manager next to the JPA one
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class LibraryManagementSystemApplication implements CommandLineRunner {
 
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private StartupInitializer startupInitializer;
+
     public static void main(String[] args) {
         SpringApplication.run(LibraryManagementSystemApplication.class, args);
     }
@@ -20,7 +29,10 @@ public class LibraryManagementSystemApplication implements CommandLineRunner {
     @Override
     @Order(1) // Run first, before data seeding
     public void run(String... args) throws Exception {
-        // Initialize default admin on application startup
+        // Initialize default admin on application startup (in the background in deferred mode)
+        if (startupInitializer.isDeferred()) {
+            return;
+        }
         adminService.initializeDefaultAdmin();
     }
 }
\ No newline at end of file
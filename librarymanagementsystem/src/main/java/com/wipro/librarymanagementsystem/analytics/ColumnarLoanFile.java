@@ -0,0 +1,260 @@
+package com.wipro.librarymanagementsystem.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// On-disk format of a loan snapshot partition: a header listing each column and its
+// compressed size, then one gzip block per column. Numbers are delta and zigzag varint
+// encoded (ids and dates are mostly increasing, so the deltas are small); dictionary
+// columns store their values once followed by varint codes. A reader decompresses only
+// the columns its query touches.
+public final class ColumnarLoanFile {
+
+    public static final String EXTENSION = ".lcol";
+
+    public static final String ID = "id";
+    public static final String BOOK_ID = "bookId";
+    public static final String USER_ID = "userId";
+    public static final String GENRE = "genre";
+    public static final String MEMBERSHIP = "membershipType";
+    public static final String STATUS = "status";
+    public static final String BORROW_DAY = "borrowDay";
+    public static final String DUE_DAY = "dueDay";
+    public static final String RETURN_DAY = "returnDay";
+    public static final String FINE_CENTS = "fineCents";
+
+    private static final int MAGIC = 0x4C434F4C;
+    private static final short VERSION = 1;
+
+    private ColumnarLoanFile() {
+    }
+
+    // Write to a temporary file and move it into place, so readers never see a partial partition
+    public static long write(Path path, LoanColumns columns) throws IOException {
+        Map<String, byte[]> blocks = new LinkedHashMap<>();
+        blocks.put(ID, compress(out -> writeLongs(out, columns.id, columns.rows)));
+        blocks.put(BOOK_ID, compress(out -> writeLongs(out, columns.bookId, columns.rows)));
+        blocks.put(USER_ID, compress(out -> writeLongs(out, columns.userId, columns.rows)));
+        blocks.put(GENRE, compress(out -> writeDictionary(out, columns.genreDictionary, columns.genre, columns.rows)));
+        blocks.put(MEMBERSHIP, compress(out -> writeDictionary(out, columns.membershipDictionary, columns.membership, columns.rows)));
+        blocks.put(STATUS, compress(out -> writeDictionary(out, columns.statusDictionary, columns.status, columns.rows)));
+        blocks.put(BORROW_DAY, compress(out -> writeInts(out, columns.borrowDay, columns.rows)));
+        blocks.put(DUE_DAY, compress(out -> writeInts(out, columns.dueDay, columns.rows)));
+        blocks.put(RETURN_DAY, compress(out -> writeInts(out, columns.returnDay, columns.rows)));
+        blocks.put(FINE_CENTS, compress(out -> writeLongs(out, columns.fineCents, columns.rows)));
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(columns.rows);
+            out.writeShort(blocks.size());
+            for (Map.Entry<String, byte[]> block : blocks.entrySet()) {
+                out.writeUTF(block.getKey());
+                out.writeInt(block.getValue().length);
+            }
+            for (byte[] block : blocks.values()) {
+                out.write(block);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(path);
+    }
+
+    // Read the named columns of a partition; the others stay null in the result
+    public static LoanColumns read(Path path, Set<String> wanted) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (header.readInt() != MAGIC) {
+                throw new IOException("Not a loan snapshot file: " + path);
+            }
+            short version = header.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported loan snapshot version " + version + ": " + path);
+            }
+            LoanColumns columns = new LoanColumns();
+            columns.rows = header.readInt();
+            int count = header.readShort();
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            long headerSize = 4 + 2 + 4 + 2;
+            for (int i = 0; i < count; i++) {
+                String name = header.readUTF();
+                sizes.put(name, header.readInt());
+                headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length + 4;
+            }
+            long offset = headerSize;
+            for (Map.Entry<String, Integer> column : sizes.entrySet()) {
+                if (wanted.contains(column.getKey())) {
+                    ByteBuffer block = ByteBuffer.allocate(column.getValue());
+                    while (block.hasRemaining()) {
+                        if (channel.read(block, offset + block.position()) < 0) {
+                            throw new IOException("Truncated loan snapshot file: " + path);
+                        }
+                    }
+                    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                            new GZIPInputStream(new ByteArrayInputStream(block.array()))))) {
+                        decode(column.getKey(), in, columns);
+                    }
+                }
+                offset += column.getValue();
+            }
+            return columns;
+        }
+    }
+
+    private static void decode(String name, DataInputStream in, LoanColumns columns) throws IOException {
+        int rows = columns.rows;
+        switch (name) {
+            case ID -> columns.id = readLongs(in, rows);
+            case BOOK_ID -> columns.bookId = readLongs(in, rows);
+            case USER_ID -> columns.userId = readLongs(in, rows);
+            case GENRE -> {
+                columns.genreDictionary = readDictionary(in);
+                columns.genre = readCodes(in, rows);
+            }
+            case MEMBERSHIP -> {
+                columns.membershipDictionary = readDictionary(in);
+                columns.membership = readCodes(in, rows);
+            }
+            case STATUS -> {
+                columns.statusDictionary = readDictionary(in);
+                columns.status = readCodes(in, rows);
+            }
+            case BORROW_DAY -> columns.borrowDay = readInts(in, rows);
+            case DUE_DAY -> columns.dueDay = readInts(in, rows);
+            case RETURN_DAY -> columns.returnDay = readInts(in, rows);
+            case FINE_CENTS -> columns.fineCents = readLongs(in, rows);
+            default -> {
+                // Columns added by a newer writer are skipped
+            }
+        }
+    }
+
+    private interface BlockWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] compress(BlockWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(bytes), 1 << 16))) {
+            writer.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values, int rows) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(out, zigzag(values[i] - previous));
+            previous = values[i];
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int rows) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(out, zigzag(values[i] - previous));
+            previous = values[i];
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, String[] dictionary, int[] codes, int rows) throws IOException {
+        writeVarLong(out, dictionary.length);
+        for (String value : dictionary) {
+            out.writeUTF(value == null ? "" : value);
+        }
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(out, codes[i]);
+        }
+    }
+
+    private static long[] readLongs(DataInputStream in, int rows) throws IOException {
+        long[] values = new long[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += unzigzag(readVarLong(in));
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static int[] readInts(DataInputStream in, int rows) throws IOException {
+        int[] values = new int[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += unzigzag(readVarLong(in));
+            values[i] = (int) previous;
+        }
+        return values;
+    }
+
+    private static String[] readDictionary(DataInputStream in) throws IOException {
+        String[] dictionary = new String[(int) readVarLong(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+        if (dictionary.length > 0) {
+            dictionary[0] = null;
+        }
+        return dictionary;
+    }
+
+    private static int[] readCodes(DataInputStream in, int rows) throws IOException {
+        int[] codes = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            codes[i] = (int) readVarLong(in);
+        }
+        return codes;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated column block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in column block");
+    }
+}
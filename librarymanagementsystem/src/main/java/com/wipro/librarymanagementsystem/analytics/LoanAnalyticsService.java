@@ -0,0 +1,385 @@
+package com.wipro.librarymanagementsystem.analytics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+// Group-by/filter queries over the columnar loan snapshot. Each month partition is
+// scanned on its own worker: filters run as tight loops over the primitive columns
+// into a selection vector, then the selected rows are aggregated per group. Partition
+// results are merged by label, since every partition has its own dictionaries.
+@Service
+public class LoanAnalyticsService {
+
+    public enum Dimension {
+        GENRE("genre", ColumnarLoanFile.GENRE),
+        MEMBERSHIP_TYPE("membershipType", ColumnarLoanFile.MEMBERSHIP),
+        STATUS("status", ColumnarLoanFile.STATUS),
+        MONTH("month", ColumnarLoanFile.BORROW_DAY),
+        BOOK_ID("bookId", ColumnarLoanFile.BOOK_ID),
+        USER_ID("userId", ColumnarLoanFile.USER_ID);
+
+        private final String label;
+        private final String column;
+
+        Dimension(String label, String column) {
+            this.label = label;
+            this.column = column;
+        }
+
+        public String getLabel() { return label; }
+
+        // Dimensions with a handful of values per partition are aggregated into dense arrays
+        boolean isDense() {
+            return this != BOOK_ID && this != USER_ID;
+        }
+
+        public static Dimension fromLabel(String label) {
+            for (Dimension dimension : values()) {
+                if (dimension.label.equalsIgnoreCase(label.trim())) {
+                    return dimension;
+                }
+            }
+            throw new RuntimeException("Unknown dimension '" + label
+                    + "', expected genre, membershipType, status, month, bookId or userId");
+        }
+    }
+
+    // Borrow-date range is inclusive; null filters match everything
+    public record LoanQuery(LocalDate from, LocalDate to, List<Dimension> groupBy, String genre,
+                            String membershipType, String status, Long bookId, Long userId, int limit) {
+    }
+
+    private static final int LOANS = 0;
+    private static final int RETURNED = 1;
+    private static final int OVERDUE = 2;
+    private static final int FINE_CENTS = 3;
+    private static final int LOAN_DAYS = 4;
+    private static final int METRICS = 5;
+
+    @Value("${library.analytics.query.parallelism:0}")
+    private int parallelism;
+
+    @Value("${library.analytics.query.max-group-by:3}")
+    private int maxGroupBy;
+
+    @Autowired
+    private LoanSnapshotExporter exporter;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : new ForkJoinPool();
+    }
+
+    public Map<String, Object> query(LoanQuery query) {
+        if (query.groupBy().size() > maxGroupBy) {
+            throw new RuntimeException("At most " + maxGroupBy + " groupBy dimensions are supported");
+        }
+        if (query.from() != null && query.to() != null && query.from().isAfter(query.to())) {
+            throw new RuntimeException("from must not be after to");
+        }
+        long start = System.currentTimeMillis();
+        YearMonth firstMonth = query.from() == null ? null : YearMonth.from(query.from());
+        YearMonth lastMonth = query.to() == null ? null : YearMonth.from(query.to());
+        List<Map.Entry<YearMonth, Path>> partitions = new ArrayList<>();
+        for (Map.Entry<YearMonth, Path> partition : exporter.partitions().entrySet()) {
+            YearMonth month = partition.getKey();
+            if ((firstMonth == null || !month.isBefore(firstMonth)) && (lastMonth == null || !month.isAfter(lastMonth))) {
+                partitions.add(partition);
+            }
+        }
+
+        int today = (int) LocalDate.now().toEpochDay();
+        PartitionResult merged;
+        try {
+            merged = pool.submit(() -> partitions.parallelStream()
+                    .map(partition -> scan(partition.getKey(), partition.getValue(), query, today))
+                    .reduce(new PartitionResult(), PartitionResult::merge)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Analytics query interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Analytics query failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        List<Map<String, Object>> groups = new ArrayList<>();
+        merged.groups.forEach((key, metrics) -> {
+            Map<String, Object> group = new LinkedHashMap<>();
+            for (int d = 0; d < query.groupBy().size(); d++) {
+                group.put(query.groupBy().get(d).label, key.get(d));
+            }
+            group.put("loans", metrics[LOANS]);
+            group.put("returned", metrics[RETURNED]);
+            group.put("overdue", metrics[OVERDUE]);
+            group.put("fines", BigDecimal.valueOf(metrics[FINE_CENTS], 2));
+            group.put("avgLoanDays", metrics[RETURNED] == 0 ? null
+                    : Math.round(metrics[LOAN_DAYS] * 100.0 / metrics[RETURNED]) / 100.0);
+            groups.add(group);
+        });
+        groups.sort(Comparator.comparing((Map<String, Object> group) -> (Long) group.get("loans")).reversed());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("snapshotExportedAt", exporter.getExportedAt());
+        result.put("partitionsScanned", partitions.size());
+        result.put("rowsScanned", merged.rowsScanned);
+        result.put("rowsMatched", merged.rowsMatched);
+        result.put("totalGroups", groups.size());
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        result.put("groups", groups.size() > query.limit() ? new ArrayList<>(groups.subList(0, query.limit())) : groups);
+        return result;
+    }
+
+    private PartitionResult scan(YearMonth month, Path path, LoanQuery query, int today) {
+        Set<String> wanted = new HashSet<>(List.of(ColumnarLoanFile.BORROW_DAY, ColumnarLoanFile.DUE_DAY,
+                ColumnarLoanFile.RETURN_DAY, ColumnarLoanFile.FINE_CENTS));
+        query.groupBy().forEach(dimension -> wanted.add(dimension.column));
+        if (query.genre() != null) {
+            wanted.add(ColumnarLoanFile.GENRE);
+        }
+        if (query.membershipType() != null) {
+            wanted.add(ColumnarLoanFile.MEMBERSHIP);
+        }
+        if (query.status() != null) {
+            wanted.add(ColumnarLoanFile.STATUS);
+        }
+        if (query.bookId() != null) {
+            wanted.add(ColumnarLoanFile.BOOK_ID);
+        }
+        if (query.userId() != null) {
+            wanted.add(ColumnarLoanFile.USER_ID);
+        }
+
+        LoanColumns columns;
+        try {
+            columns = ColumnarLoanFile.read(path, wanted);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        PartitionResult result = new PartitionResult();
+        result.rowsScanned = columns.rows;
+
+        // Filters on dictionary columns become code comparisons; a value absent from the partition matches nothing
+        int genreCode = codeOf(columns.genreDictionary, query.genre());
+        int membershipCode = codeOf(columns.membershipDictionary, query.membershipType());
+        int statusCode = codeOf(columns.statusDictionary, query.status());
+        if (genreCode == -2 || membershipCode == -2 || statusCode == -2) {
+            return result;
+        }
+        int fromDay = query.from() == null ? Integer.MIN_VALUE : (int) query.from().toEpochDay();
+        int toDay = query.to() == null ? Integer.MAX_VALUE : (int) query.to().toEpochDay();
+        boolean checkDays = fromDay > month.atDay(1).toEpochDay() || toDay < month.atEndOfMonth().toEpochDay();
+        long bookId = query.bookId() == null ? 0 : query.bookId();
+        long userId = query.userId() == null ? 0 : query.userId();
+
+        int[] selection = new int[columns.rows];
+        int selected = 0;
+        for (int i = 0; i < columns.rows; i++) {
+            if (checkDays && (columns.borrowDay[i] < fromDay || columns.borrowDay[i] > toDay)) {
+                continue;
+            }
+            if (genreCode >= 0 && columns.genre[i] != genreCode) {
+                continue;
+            }
+            if (membershipCode >= 0 && columns.membership[i] != membershipCode) {
+                continue;
+            }
+            if (statusCode >= 0 && columns.status[i] != statusCode) {
+                continue;
+            }
+            if (query.bookId() != null && columns.bookId[i] != bookId) {
+                continue;
+            }
+            if (query.userId() != null && columns.userId[i] != userId) {
+                continue;
+            }
+            selection[selected++] = i;
+        }
+        result.rowsMatched = selected;
+        if (selected == 0) {
+            return result;
+        }
+
+        List<Dimension> dimensions = query.groupBy();
+        boolean dense = dimensions.stream().allMatch(Dimension::isDense);
+        int[] ordinals = new int[selected];
+        List<long[]> hashedKeys = new ArrayList<>();
+        int groupCount;
+        int[] radix = new int[dimensions.size()];
+        if (dense) {
+            groupCount = 1;
+            for (int d = 0; d < dimensions.size(); d++) {
+                radix[d] = cardinality(columns, dimensions.get(d));
+                groupCount *= radix[d];
+            }
+            for (int k = 0; k < selected; k++) {
+                int ordinal = 0;
+                for (int d = 0; d < dimensions.size(); d++) {
+                    ordinal = ordinal * radix[d] + (int) value(columns, dimensions.get(d), selection[k]);
+                }
+                ordinals[k] = ordinal;
+            }
+        } else {
+            Map<GroupKey, Integer> index = new HashMap<>();
+            for (int k = 0; k < selected; k++) {
+                long[] values = new long[dimensions.size()];
+                for (int d = 0; d < dimensions.size(); d++) {
+                    values[d] = value(columns, dimensions.get(d), selection[k]);
+                }
+                GroupKey key = new GroupKey(values);
+                Integer ordinal = index.get(key);
+                if (ordinal == null) {
+                    ordinal = hashedKeys.size();
+                    index.put(key, ordinal);
+                    hashedKeys.add(values);
+                }
+                ordinals[k] = ordinal;
+            }
+            groupCount = hashedKeys.size();
+        }
+
+        long[] metrics = new long[groupCount * METRICS];
+        for (int k = 0; k < selected; k++) {
+            int i = selection[k];
+            int base = ordinals[k] * METRICS;
+            metrics[base + LOANS]++;
+            metrics[base + FINE_CENTS] += columns.fineCents[i];
+            int returnDay = columns.returnDay[i];
+            int dueDay = columns.dueDay[i];
+            if (returnDay != LoanColumns.NO_DAY) {
+                metrics[base + RETURNED]++;
+                metrics[base + LOAN_DAYS] += returnDay - columns.borrowDay[i];
+                if (dueDay != LoanColumns.NO_DAY && returnDay > dueDay) {
+                    metrics[base + OVERDUE]++;
+                }
+            } else if (dueDay != LoanColumns.NO_DAY && dueDay < today) {
+                metrics[base + OVERDUE]++;
+            }
+        }
+
+        for (int g = 0; g < groupCount; g++) {
+            if (metrics[g * METRICS + LOANS] == 0) {
+                continue;
+            }
+            long[] values = dense ? decode(g, radix) : hashedKeys.get(g);
+            List<Object> labels = new ArrayList<>(dimensions.size());
+            for (int d = 0; d < dimensions.size(); d++) {
+                labels.add(label(columns, dimensions.get(d), values[d], month));
+            }
+            result.groups.put(labels, Arrays.copyOfRange(metrics, g * METRICS, (g + 1) * METRICS));
+        }
+        return result;
+    }
+
+    // -1 when there is no filter, -2 when the value does not occur in the partition
+    private static int codeOf(String[] dictionary, String value) {
+        if (value == null) {
+            return -1;
+        }
+        for (int code = 1; code < dictionary.length; code++) {
+            if (dictionary[code].equalsIgnoreCase(value.trim())) {
+                return code;
+            }
+        }
+        return -2;
+    }
+
+    private static int cardinality(LoanColumns columns, Dimension dimension) {
+        switch (dimension) {
+            case GENRE: return columns.genreDictionary.length;
+            case MEMBERSHIP_TYPE: return columns.membershipDictionary.length;
+            case STATUS: return columns.statusDictionary.length;
+            default: return 1;
+        }
+    }
+
+    // Month is constant within a partition, so it contributes nothing to the row's key
+    private static long value(LoanColumns columns, Dimension dimension, int row) {
+        switch (dimension) {
+            case GENRE: return columns.genre[row];
+            case MEMBERSHIP_TYPE: return columns.membership[row];
+            case STATUS: return columns.status[row];
+            case BOOK_ID: return columns.bookId[row];
+            case USER_ID: return columns.userId[row];
+            default: return 0;
+        }
+    }
+
+    private static Object label(LoanColumns columns, Dimension dimension, long value, YearMonth month) {
+        switch (dimension) {
+            case GENRE: return columns.genreDictionary[(int) value];
+            case MEMBERSHIP_TYPE: return columns.membershipDictionary[(int) value];
+            case STATUS: return columns.statusDictionary[(int) value];
+            case MONTH: return month.toString();
+            default: return value;
+        }
+    }
+
+    private static long[] decode(int ordinal, int[] radix) {
+        long[] values = new long[radix.length];
+        for (int d = radix.length - 1; d >= 0; d--) {
+            values[d] = ordinal % radix[d];
+            ordinal /= radix[d];
+        }
+        return values;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private record GroupKey(long[] values) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof GroupKey key && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    // Metrics per group keyed by display labels, so partitions with different dictionaries merge
+    private static class PartitionResult {
+        private final Map<List<Object>, long[]> groups = new HashMap<>();
+        private long rowsScanned;
+        private long rowsMatched;
+
+        PartitionResult merge(PartitionResult other) {
+            PartitionResult merged = new PartitionResult();
+            merged.rowsScanned = rowsScanned + other.rowsScanned;
+            merged.rowsMatched = rowsMatched + other.rowsMatched;
+            groups.forEach((key, metrics) -> merged.groups.put(key, metrics.clone()));
+            other.groups.forEach((key, metrics) -> merged.groups.merge(key, metrics.clone(), (a, b) -> {
+                for (int m = 0; m < METRICS; m++) {
+                    a[m] += b[m];
+                }
+                return a;
+            }));
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.wipro.librarymanagementsystem.analytics;
+
+import com.wipro.librarymanagementsystem.dto.LoanFact;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One month of loans held column by column in primitive arrays. Dates are epoch days
+// (returnDay is NO_DAY while the loan is open), fines are cents, and the low-cardinality
+// strings are dictionary codes. A column a query did not ask for is left null.
+public class LoanColumns {
+
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    int rows;
+    long[] id;
+    long[] bookId;
+    long[] userId;
+    int[] genre;
+    int[] membership;
+    int[] status;
+    int[] borrowDay;
+    int[] dueDay;
+    int[] returnDay;
+    long[] fineCents;
+    String[] genreDictionary;
+    String[] membershipDictionary;
+    String[] statusDictionary;
+
+    public int getRows() {
+        return rows;
+    }
+
+    // Accumulates loans row by row and hands them over as columns
+    public static class Builder {
+        private int rows;
+        private long[] id = new long[1024];
+        private long[] bookId = new long[1024];
+        private long[] userId = new long[1024];
+        private int[] genre = new int[1024];
+        private int[] membership = new int[1024];
+        private int[] status = new int[1024];
+        private int[] borrowDay = new int[1024];
+        private int[] dueDay = new int[1024];
+        private int[] returnDay = new int[1024];
+        private long[] fineCents = new long[1024];
+        private final Dictionary genres = new Dictionary();
+        private final Dictionary memberships = new Dictionary();
+        private final Dictionary statuses = new Dictionary();
+
+        public void add(LoanFact loan) {
+            if (rows == id.length) {
+                grow(rows * 2);
+            }
+            id[rows] = loan.getId();
+            bookId[rows] = loan.getBookId();
+            userId[rows] = loan.getUserId();
+            genre[rows] = genres.code(loan.getGenre() == null || loan.getGenre().isBlank() ? null : loan.getGenre().trim());
+            membership[rows] = memberships.code(loan.getMembershipType() == null ? null : loan.getMembershipType().name());
+            status[rows] = statuses.code(loan.getStatus() == null ? null : loan.getStatus().name());
+            borrowDay[rows] = (int) loan.getBorrowDate().toLocalDate().toEpochDay();
+            dueDay[rows] = loan.getDueDate() == null ? NO_DAY : (int) loan.getDueDate().toLocalDate().toEpochDay();
+            returnDay[rows] = loan.getReturnDate() == null ? NO_DAY : (int) loan.getReturnDate().toLocalDate().toEpochDay();
+            BigDecimal fine = loan.getFineAmount();
+            fineCents[rows] = fine == null ? 0 : fine.movePointRight(2).longValue();
+            rows++;
+        }
+
+        public LoanColumns build() {
+            grow(rows);
+            LoanColumns columns = new LoanColumns();
+            columns.rows = rows;
+            columns.id = id;
+            columns.bookId = bookId;
+            columns.userId = userId;
+            columns.genre = genre;
+            columns.membership = membership;
+            columns.status = status;
+            columns.borrowDay = borrowDay;
+            columns.dueDay = dueDay;
+            columns.returnDay = returnDay;
+            columns.fineCents = fineCents;
+            columns.genreDictionary = genres.values();
+            columns.membershipDictionary = memberships.values();
+            columns.statusDictionary = statuses.values();
+            return columns;
+        }
+
+        private void grow(int size) {
+            id = Arrays.copyOf(id, size);
+            bookId = Arrays.copyOf(bookId, size);
+            userId = Arrays.copyOf(userId, size);
+            genre = Arrays.copyOf(genre, size);
+            membership = Arrays.copyOf(membership, size);
+            status = Arrays.copyOf(status, size);
+            borrowDay = Arrays.copyOf(borrowDay, size);
+            dueDay = Arrays.copyOf(dueDay, size);
+            returnDay = Arrays.copyOf(returnDay, size);
+            fineCents = Arrays.copyOf(fineCents, size);
+        }
+    }
+
+    // Code 0 is reserved for null
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>(List.of(""));
+
+        int code(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        String[] values() {
+            String[] array = values.toArray(new String[0]);
+            array[0] = null;
+            return array;
+        }
+    }
+}
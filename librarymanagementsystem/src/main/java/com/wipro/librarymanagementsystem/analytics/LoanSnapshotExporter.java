@@ -0,0 +1,231 @@
+package com.wipro.librarymanagementsystem.analytics;
+
+import com.wipro.librarymanagementsystem.dto.LoanFact;
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.service.LoanArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Exports loan history to columnar files on local disk, one partition per borrow month,
+// so analytical queries never run against the OLTP tables. The first run writes every
+// month; later runs rewrite only the current month and months with loans created or
+// changed since the previous run. Overdue counts are derived from due dates at query
+// time, so open loans do not need re-exporting as they age. Reads go through read-only
+// transactions, so they are served by a replica when replicas are enabled; changes are
+// looked for from a margin before the previous run's start, which covers what a lagging
+// replica had not applied then and transactions that committed after stamping updatedAt.
+@Component
+public class LoanSnapshotExporter {
+
+    private static final String MANIFEST = "manifest.properties";
+
+    @Value("${library.analytics.snapshot.path:analytics/loans}")
+    private Path directory;
+
+    @Value("${library.analytics.snapshot.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${library.analytics.snapshot.change-margin-seconds:300}")
+    private long changeMarginSeconds;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+
+    @Autowired
+    private LoanArchiveService loanArchiveService;
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LoanSnapshotExporter(PlatformTransactionManager transactionManager) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    // A missing snapshot is written in the background once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (Files.exists(directory.resolve(MANIFEST))) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                export();
+            } catch (RuntimeException e) {
+                System.out.println("Initial loan snapshot export failed: " + e.getMessage());
+            }
+        }, "loan-snapshot-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(cron = "${library.analytics.snapshot.cron:0 45 1 * * *}")
+    public void scheduledExport() {
+        try {
+            export();
+        } catch (RuntimeException e) {
+            System.out.println("Loan snapshot export skipped: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> export() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("A loan snapshot export is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime runStartedAt = LocalDateTime.now();
+            Files.createDirectories(directory);
+            Properties manifest = readManifest();
+            String exportedAt = manifest.getProperty("exportedAt");
+
+            TreeSet<YearMonth> months = new TreeSet<>();
+            if (exportedAt == null || partitions().isEmpty()) {
+                LocalDateTime earliest = readOnlyTemplate.execute(status -> loanArchiveService.findEarliestBorrowDate());
+                if (earliest != null) {
+                    for (YearMonth month = YearMonth.from(earliest); !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+                        months.add(month);
+                    }
+                }
+            } else {
+                LocalDateTime since = LocalDateTime.parse(exportedAt).minusSeconds(changeMarginSeconds);
+                List<LocalDate> days = readOnlyTemplate.execute(status -> borrowRecordRepository.findBorrowDaysChangedSince(since));
+                days.forEach(day -> months.add(YearMonth.from(day)));
+                months.add(YearMonth.now());
+            }
+
+            long rows = 0;
+            long bytes = 0;
+            for (YearMonth month : months) {
+                LoanColumns columns = loadMonth(month);
+                bytes += ColumnarLoanFile.write(partitionPath(month), columns);
+                rows += columns.getRows();
+            }
+            manifest.setProperty("exportedAt", runStartedAt.toString());
+            writeManifest(manifest);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("months", months.size());
+            summary.put("rows", rows);
+            summary.put("bytes", bytes);
+            summary.put("elapsedMs", System.currentTimeMillis() - start);
+            System.out.println("Loan snapshot exported: " + summary);
+            return summary;
+        } catch (IOException e) {
+            throw new RuntimeException("Loan snapshot export failed: " + e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Archived loans are read too, so a month keeps its rows after they leave borrow_records
+    private LoanColumns loadMonth(YearMonth month) {
+        LoanColumns.Builder builder = new LoanColumns.Builder();
+        loadMonth(month, archivedBorrowRecordRepository::findLoanFactChunk, builder);
+        loadMonth(month, borrowRecordRepository::findLoanFactChunk, builder);
+        return builder.build();
+    }
+
+    private interface LoanFactSource {
+        List<LoanFact> chunk(LocalDateTime afterDate, Long afterId, LocalDateTime to, Pageable pageable);
+    }
+
+    private void loadMonth(YearMonth month, LoanFactSource source, LoanColumns.Builder builder) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime afterDate = from;
+        long afterId = 0;
+        while (true) {
+            LocalDateTime chunkAfterDate = afterDate;
+            long chunkAfterId = afterId;
+            List<LoanFact> chunk = readOnlyTemplate.execute(status -> source.chunk(
+                    chunkAfterDate, chunkAfterId, to, PageRequest.of(0, chunkSize)));
+            chunk.forEach(builder::add);
+            if (chunk.size() < chunkSize) {
+                return;
+            }
+            LoanFact last = chunk.get(chunk.size() - 1);
+            afterDate = last.getBorrowDate();
+            afterId = last.getId();
+        }
+    }
+
+    // Partition files currently on disk, by month
+    public Map<YearMonth, Path> partitions() {
+        Map<YearMonth, Path> partitions = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return partitions;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "loans-*" + ColumnarLoanFile.EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String month = name.substring("loans-".length(), name.length() - ColumnarLoanFile.EXTENSION.length());
+                partitions.put(YearMonth.parse(month), file);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot list loan snapshot partitions: " + e.getMessage(), e);
+        }
+        return partitions;
+    }
+
+    public String getExportedAt() {
+        return readManifest().getProperty("exportedAt");
+    }
+
+    private Path partitionPath(YearMonth month) {
+        return directory.resolve("loans-" + month + ColumnarLoanFile.EXTENSION);
+    }
+
+    // Replaced in one move like the partitions, so a crash never leaves a truncated manifest
+    private void writeManifest(Properties manifest) throws IOException {
+        Path path = directory.resolve(MANIFEST);
+        Path temp = path.resolveSibling(MANIFEST + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            manifest.store(out, "Loan snapshot export");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Properties readManifest() {
+        Properties manifest = new Properties();
+        Path path = directory.resolve(MANIFEST);
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                manifest.load(in);
+            } catch (IOException e) {
+                System.out.println("Ignoring unreadable loan snapshot manifest: " + e.getMessage());
+            }
+        }
+        return manifest;
+    }
+}
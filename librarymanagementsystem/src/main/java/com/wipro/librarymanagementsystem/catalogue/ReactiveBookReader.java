@@ -0,0 +1,79 @@
+package com.wipro.librarymanagementsystem.catalogue;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+// Catalogue reads of BookRepository over R2DBC, with the same filters, but always ordered by id
+// so that pages and streams are stable. Rows are emitted as the driver reads them and only as
+// fast as the subscriber requests them.
+public class ReactiveBookReader {
+
+    private static final String SELECT_BOOKS = "SELECT id, title, author, isbn, genre, publication_year, "
+            + "total_copies, available_copies, created_at, updated_at FROM books";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveBookReader(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // All books
+    public Flux<Book> findAll() {
+        return databaseClient.sql(SELECT_BOOKS + " ORDER BY id")
+                .map(ReactiveBookReader::toBook)
+                .all();
+    }
+
+    // Books whose title or author contains the keyword, ignoring case
+    public Flux<Book> searchByTitleOrAuthor(String keyword) {
+        return databaseClient.sql(SELECT_BOOKS + " WHERE LOWER(title) LIKE LOWER(CONCAT('%', :keyword, '%'))"
+                        + " OR LOWER(author) LIKE LOWER(CONCAT('%', :keyword, '%')) ORDER BY id")
+                .bind("keyword", keyword)
+                .map(ReactiveBookReader::toBook)
+                .all();
+    }
+
+    // Books of a genre, ignoring case
+    public Flux<Book> findByGenre(String genre) {
+        return databaseClient.sql(SELECT_BOOKS + " WHERE LOWER(genre) = LOWER(:genre) ORDER BY id")
+                .bind("genre", genre)
+                .map(ReactiveBookReader::toBook)
+                .all();
+    }
+
+    // Books with a copy on the shelf, optionally of one genre; a null page reads them all
+    public Flux<Book> findAvailable(String genre, Integer page, int size) {
+        String sql = SELECT_BOOKS + " WHERE available_copies > 0"
+                + (genre == null ? "" : " AND LOWER(genre) = LOWER(:genre)")
+                + " ORDER BY id"
+                + (page == null ? "" : " LIMIT :size OFFSET :offset");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        if (genre != null) {
+            spec = spec.bind("genre", genre);
+        }
+        if (page != null) {
+            spec = spec.bind("size", size).bind("offset", (long) page * size);
+        }
+        return spec.map(ReactiveBookReader::toBook).all();
+    }
+
+    private static Book toBook(Readable row) {
+        Book book = new Book();
+        book.setId(row.get("id", Long.class));
+        book.setTitle(row.get("title", String.class));
+        book.setAuthor(row.get("author", String.class));
+        book.setIsbn(row.get("isbn", String.class));
+        book.setGenre(row.get("genre", String.class));
+        book.setPublicationYear(row.get("publication_year", Integer.class));
+        book.setTotalCopies(row.get("total_copies", Integer.class));
+        book.setAvailableCopies(row.get("available_copies", Integer.class));
+        // The setters above touch updatedAt, so the stored timestamps go last
+        book.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        book.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return book;
+    }
+}
@@ -0,0 +1,98 @@
+package com.wipro.librarymanagementsystem.catalogue;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.service.TableVersionService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+// Read-only book endpoints of the reactive catalogue, at the same paths and with the same
+// parameters as BookController. The body is a Flux written as it is read, as one JSON array
+// or, for Accept: application/x-ndjson, one book per line. Invalid parameters are a 400.
+public class ReactiveCatalogueHandler {
+
+    private final ReactiveBookReader bookReader;
+    private final TableVersionService tableVersionService;
+
+    public ReactiveCatalogueHandler(ReactiveBookReader bookReader, TableVersionService tableVersionService) {
+        this.bookReader = bookReader;
+        this.tableVersionService = tableVersionService;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/api/books", this::getAllBooks)
+                .GET("/api/books/search", this::searchBooks)
+                .GET("/api/books/available", this::getAvailableBooks)
+                .GET("/api/books/genre/{genre}/available", this::getAvailableBooksByGenre)
+                .GET("/api/books/genre/{genre}", this::getBooksByGenre)
+                .onError(IllegalArgumentException.class, (e, request) -> ServerResponse.badRequest().build())
+                .build();
+    }
+
+    // Get all books (conditional GET: unchanged catalogue is answered with 304 without a query)
+    private Mono<ServerResponse> getAllBooks(ServerRequest request) {
+        String etag = tableVersionService.etag(TableVersionService.Table.BOOKS);
+        return request.checkNotModified(etag)
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                        .contentType(contentType(request)).body(bookReader.findAll(), Book.class)));
+    }
+
+    // Search books by keyword (title or author)
+    private Mono<ServerResponse> searchBooks(ServerRequest request) {
+        return books(request, () -> bookReader.searchByTitleOrAuthor(request.queryParam("keyword")
+                .orElseThrow(() -> new IllegalArgumentException("keyword is required"))));
+    }
+
+    // Get books by genre
+    private Mono<ServerResponse> getBooksByGenre(ServerRequest request) {
+        return books(request, () -> bookReader.findByGenre(request.pathVariable("genre")));
+    }
+
+    // Get available books only; page and size fetch one page ordered by id
+    private Mono<ServerResponse> getAvailableBooks(ServerRequest request) {
+        return books(request, () -> bookReader.findAvailable(null,
+                intParam(request, "page", null), intParam(request, "size", 20)));
+    }
+
+    // Get available books in a genre; page and size fetch one page ordered by id
+    private Mono<ServerResponse> getAvailableBooksByGenre(ServerRequest request) {
+        return books(request, () -> bookReader.findAvailable(request.pathVariable("genre"),
+                intParam(request, "page", null), intParam(request, "size", 20)));
+    }
+
+    // Parameters are read inside the Mono so that a bad one reaches the onError handler
+    private static Mono<ServerResponse> books(ServerRequest request, Supplier<Flux<Book>> books) {
+        return Mono.defer(() -> ServerResponse.ok().contentType(contentType(request)).body(books.get(), Book.class));
+    }
+
+    // Functional endpoints do not negotiate the body type, so pick NDJSON only when asked for
+    private static MediaType contentType(ServerRequest request) {
+        return request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+    }
+
+    private static Integer intParam(ServerRequest request, String name, Integer defaultValue) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0 || ("size".equals(name) && parsed == 0)) {
+                throw new IllegalArgumentException(name + " is out of range: " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.wipro.librarymanagementsystem.catalogue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wipro.librarymanagementsystem.config.SecurityConfig;
+import com.wipro.librarymanagementsystem.service.TableVersionService;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+
+// Non-blocking variant of the catalogue reads, for clients that hold many connections open
+// (catalogue browsers, kiosks polling availability). It runs next to the servlet API on its own
+// port: WebFlux routes on Reactor Netty, a handful of event-loop threads for all connections,
+// and an R2DBC pool of its own instead of Hikari. Only reads are served here; every write still
+// goes through the servlet API, whose ETags the reactive list shares.
+@Component
+@ConditionalOnProperty(name = "library.reactive-catalogue.enabled", havingValue = "true")
+public class ReactiveCatalogueServer implements SmartLifecycle {
+
+    @Value("${library.reactive-catalogue.port:8084}")
+    private int port;
+
+    @Value("${library.reactive-catalogue.r2dbc-url}")
+    private String r2dbcUrl;
+
+    @Value("${library.reactive-catalogue.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${library.reactive-catalogue.password:${spring.datasource.password}}")
+    private String password;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TableVersionService tableVersionService;
+
+    private ConnectionFactory connectionFactory;
+    private DisposableServer server;
+
+    @Override
+    public void start() {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username);
+        if (password != null && !password.isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        connectionFactory = ConnectionFactories.get(options.build());
+        ReactiveCatalogueHandler handler = new ReactiveCatalogueHandler(
+                new ReactiveBookReader(DatabaseClient.create(connectionFactory)), tableVersionService);
+
+        // Same JSON as the servlet API (ISO dates and so on); x-ndjson writes and flushes per book
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper,
+                MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+        // Same browser origins as the servlet API; this port sits outside its security filter chain
+        CorsConfiguration corsConfiguration = new CorsConfiguration();
+        corsConfiguration.setAllowedOriginPatterns(SecurityConfig.ALLOWED_ORIGIN_PATTERNS);
+        corsConfiguration.setAllowedMethods(List.of("GET", "HEAD", "OPTIONS"));
+        corsConfiguration.setAllowedHeaders(List.of("*"));
+        corsConfiguration.setExposedHeaders(List.of("*"));
+        UrlBasedCorsConfigurationSource cors = new UrlBasedCorsConfigurationSource();
+        cors.registerCorsConfiguration("/**", corsConfiguration);
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(encoder))
+                .webFilter(new CorsWebFilter(cors))
+                .build();
+
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(handler.routes(), strategies)))
+                .bindNow();
+        System.out.println("Reactive catalogue listening on port " + server.port());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow(Duration.ofSeconds(5));
+            server = null;
+        }
+        if (connectionFactory instanceof Closeable closeable) {
+            Mono.from(closeable.close()).block(Duration.ofSeconds(5));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
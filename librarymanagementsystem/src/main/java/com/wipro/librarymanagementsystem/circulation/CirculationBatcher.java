@@ -0,0 +1,211 @@
+package com.wipro.librarymanagementsystem.circulation;
+
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.service.BatchedWrites;
+import com.wipro.librarymanagementsystem.service.BookService;
+import com.wipro.librarymanagementsystem.service.BorrowRecordService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Applies the borrow, return and extend scans of all kiosk streams through BorrowRecordService.
+// One worker takes whatever scans queued up while the previous batch was running (plus those
+// arriving within batch-window-ms) and applies them in one transaction, so a busy desk pays
+// for one commit per batch instead of one per scan. A scan the service refuses fails the
+// batch, which BatchedWrites then re-runs one scan per transaction so that only the refused
+// scan is rejected. Availability scans are reads and are answered straight away.
+@Component
+@ConditionalOnProperty(name = "library.circulation.stream.enabled", havingValue = "true")
+public class CirculationBatcher {
+
+    @Value("${library.circulation.batch-size:50}")
+    private int batchSize;
+
+    @Value("${library.circulation.batch-window-ms:0}")
+    private long batchWindowMillis;
+
+    @Value("${library.circulation.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Autowired
+    private BorrowRecordService borrowRecordService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final TransactionTemplate writeTemplate;
+    private final ScanHandler scanHandler = new ScanHandler();
+    private BlockingQueue<Pending> queue;
+    private Thread worker;
+    private volatile boolean running = true;
+
+    private Timer batchTimer;
+    private DistributionSummary batchSizes;
+    private Counter okCounter;
+    private Counter rejectedCounter;
+    private Counter errorCounter;
+
+    public CirculationBatcher(PlatformTransactionManager transactionManager) {
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchTimer = Timer.builder("library.circulation.batch")
+                .description("Time to apply one batch of kiosk scans")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("library.circulation.batch.size")
+                .description("Kiosk scans applied per transaction")
+                .register(meterRegistry);
+        okCounter = scanCounter("ok");
+        rejectedCounter = scanCounter("rejected");
+        errorCounter = scanCounter("error");
+        Gauge.builder("library.circulation.queue.depth", queue, BlockingQueue::size)
+                .description("Kiosk scans waiting for the next batch")
+                .register(meterRegistry);
+
+        worker = new Thread(this::run, "circulation-batcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private Counter scanCounter(String outcome) {
+        return Counter.builder("library.circulation.scans").tag("outcome", outcome)
+                .description("Kiosk scans answered on the circulation stream")
+                .register(meterRegistry);
+    }
+
+    // Completes with the reply once the scan's batch has committed (or the scan was refused)
+    public CompletableFuture<CirculationReply> submit(CirculationScan scan) {
+        String problem = scan.problem();
+        if (problem != null) {
+            return CompletableFuture.completedFuture(count(CirculationReply.rejected(scan.id(), problem)));
+        }
+        if (scan.op() == CirculationScan.Operation.AVAILABILITY) {
+            return CompletableFuture.completedFuture(count(availability(scan)));
+        }
+        Pending pending = new Pending(scan, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            return CompletableFuture.completedFuture(count(CirculationReply.error(scan.id(), "Circulation queue is full, send the scan again")));
+        }
+        return pending.reply;
+    }
+
+    private CirculationReply availability(CirculationScan scan) {
+        try {
+            return bookService.getBookById(scan.bookId())
+                    .map(book -> CirculationReply.availability(scan.id(), book))
+                    .orElseGet(() -> CirculationReply.rejected(scan.id(), "Book not found with id: " + scan.bookId()));
+        } catch (RuntimeException e) {
+            return CirculationReply.error(scan.id(), e.getMessage());
+        }
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Pending> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+                while (batch.size() < batchSize && System.nanoTime() < deadline) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                applyBatch(batch);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void applyBatch(List<Pending> batch) {
+        long start = System.nanoTime();
+        List<CirculationScan> scans = batch.stream().map(Pending::scan).toList();
+        List<CirculationReply> replies;
+        try {
+            replies = BatchedWrites.apply(writeTemplate, scans, scanHandler);
+        } catch (RuntimeException e) {
+            // The batch failed on a connection or lock problem; the kiosks send the scans again
+            replies = scans.stream().map(scan -> CirculationReply.error(scan.id(), e.getMessage())).toList();
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).reply.complete(count(replies.get(i)));
+        }
+    }
+
+    // A refused scan is rejected; one that fails transiently on its own is an error the kiosk retries
+    private class ScanHandler implements BatchedWrites.Handler<CirculationScan, CirculationReply> {
+
+        @Override
+        public CirculationReply apply(CirculationScan scan) {
+            BorrowRecord record = switch (scan.op()) {
+                case BORROW -> borrowRecordService.borrowBook(scan.userId(), scan.bookId());
+                case RETURN -> borrowRecordService.returnBook(scan.borrowRecordId());
+                case EXTEND -> borrowRecordService.extendDueDate(scan.borrowRecordId(), scan.additionalDays());
+                case AVAILABILITY -> throw new IllegalStateException("Availability scans are not batched");
+            };
+            return CirculationReply.loan(scan.id(), record);
+        }
+
+        @Override
+        public CirculationReply refused(CirculationScan scan, RuntimeException e) {
+            return CirculationReply.rejected(scan.id(), e.getMessage());
+        }
+
+        @Override
+        public CirculationReply unavailable(CirculationScan scan, RuntimeException e) {
+            return CirculationReply.error(scan.id(), e.getMessage());
+        }
+    }
+
+    private CirculationReply count(CirculationReply reply) {
+        switch (reply.status()) {
+            case OK -> okCounter.increment();
+            case REJECTED -> rejectedCounter.increment();
+            case ERROR -> errorCounter.increment();
+        }
+        return reply;
+    }
+
+    // Apply what is already queued, then stop the worker
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(5000);
+    }
+
+    private record Pending(CirculationScan scan, CompletableFuture<CirculationReply> reply) {
+    }
+}
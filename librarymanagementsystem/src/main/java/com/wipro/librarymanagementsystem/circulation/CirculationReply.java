@@ -0,0 +1,44 @@
+package com.wipro.librarymanagementsystem.circulation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Answer to one scan. OK carries the loan (borrow, return, extend) or the book's copies
+// (availability); REJECTED means the library refused the scan, as a 400 would on the REST
+// API; ERROR means it could not be processed right now and may be sent again.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CirculationReply(
+        String id,
+        Status status,
+        Long borrowRecordId,
+        Long bookId,
+        LocalDateTime dueDate,
+        BigDecimal fineAmount,
+        Integer availableCopies,
+        String error) {
+
+    public enum Status {
+        OK, REJECTED, ERROR
+    }
+
+    public static CirculationReply loan(String id, BorrowRecord record) {
+        return new CirculationReply(id, Status.OK, record.getId(), record.getBook().getId(),
+                record.getDueDate(), record.getFineAmount(), null, null);
+    }
+
+    public static CirculationReply availability(String id, Book book) {
+        return new CirculationReply(id, Status.OK, null, book.getId(), null, null, book.getAvailableCopies(), null);
+    }
+
+    public static CirculationReply rejected(String id, String error) {
+        return new CirculationReply(id, Status.REJECTED, null, null, null, null, null, error);
+    }
+
+    public static CirculationReply error(String id, String error) {
+        return new CirculationReply(id, Status.ERROR, null, null, null, null, null, error);
+    }
+}
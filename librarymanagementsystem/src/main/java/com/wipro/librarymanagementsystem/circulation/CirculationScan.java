@@ -0,0 +1,32 @@
+package com.wipro.librarymanagementsystem.circulation;
+
+// One kiosk scan on the circulation stream. The id is chosen by the kiosk and echoed in
+// the reply, so scans can be pipelined and answered out of order. BORROW takes userId and
+// bookId, RETURN the borrowRecordId, EXTEND the borrowRecordId and additionalDays, and
+// AVAILABILITY the bookId.
+public record CirculationScan(
+        String id,
+        Operation op,
+        Long userId,
+        Long bookId,
+        Long borrowRecordId,
+        Integer additionalDays) {
+
+    public enum Operation {
+        BORROW, RETURN, EXTEND, AVAILABILITY
+    }
+
+    // What is missing or out of range for the operation (same bounds as the REST endpoints), or null
+    public String problem() {
+        if (op == null) {
+            return "op is required";
+        }
+        return switch (op) {
+            case BORROW -> userId == null || bookId == null ? "BORROW needs userId and bookId" : null;
+            case RETURN -> borrowRecordId == null ? "RETURN needs borrowRecordId" : null;
+            case EXTEND -> borrowRecordId == null || additionalDays == null || additionalDays <= 0 || additionalDays > 30
+                    ? "EXTEND needs borrowRecordId and additionalDays between 1 and 30" : null;
+            case AVAILABILITY -> bookId == null ? "AVAILABILITY needs bookId" : null;
+        };
+    }
+}
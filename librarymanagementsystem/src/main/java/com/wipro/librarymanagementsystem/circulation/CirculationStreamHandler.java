@@ -0,0 +1,70 @@
+package com.wipro.librarymanagementsystem.circulation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Kiosk side of the circulation stream: each text frame is one JSON CirculationScan, each
+// reply one JSON CirculationReply carrying the scan's id. A kiosk keeps the connection open
+// and sends scans without waiting for earlier replies.
+@Component
+@ConditionalOnProperty(name = "library.circulation.stream.enabled", havingValue = "true")
+public class CirculationStreamHandler extends TextWebSocketHandler {
+
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
+    @Autowired
+    private CirculationBatcher circulationBatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Replies are sent from the batcher's thread as well as the receiving one, so sends go through a decorator that serializes them
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(),
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        WebSocketSession kiosk = sessions.get(session.getId());
+        CirculationScan scan;
+        try {
+            scan = objectMapper.readValue(message.getPayload(), CirculationScan.class);
+        } catch (JsonProcessingException e) {
+            send(kiosk, CirculationReply.rejected(null, "Unreadable scan: " + e.getOriginalMessage()));
+            return;
+        }
+        circulationBatcher.submit(scan).thenAccept(reply -> send(kiosk, reply));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    private void send(WebSocketSession kiosk, CirculationReply reply) {
+        try {
+            kiosk.sendMessage(new TextMessage(objectMapper.writeValueAsString(reply)));
+        } catch (IOException | RuntimeException e) {
+            // The kiosk learns nothing about this scan and must look it up after reconnecting
+            System.out.println("Circulation stream " + kiosk.getId() + ": reply to scan " + reply.id()
+                    + " not delivered: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.wipro.librarymanagementsystem.circulation.CirculationStreamHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+// Kiosk circulation stream at ws://host:port/api/circulation/stream, served by the same
+// Tomcat connector as the REST API. The handshake accepts the browser origins of SecurityConfig
+// only, so a page from elsewhere cannot drive checkouts; kiosk clients that send no Origin pass.
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(name = "library.circulation.stream.enabled", havingValue = "true")
+public class CirculationStreamConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private CirculationStreamHandler circulationStreamHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(circulationStreamHandler, "/api/circulation/stream")
+                .setAllowedOriginPatterns(SecurityConfig.ALLOWED_ORIGIN_PATTERNS.toArray(String[]::new));
+    }
+}
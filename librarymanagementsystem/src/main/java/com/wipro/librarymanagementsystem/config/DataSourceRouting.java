@@ -0,0 +1,28 @@
+package com.wipro.librarymanagementsystem.config;
+
+import java.util.function.Supplier;
+
+// Thread-bound override that forces the current work onto the primary database
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {}
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    // Run the supplier with replica routing disabled (read-your-writes, lag fallback)
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (isPrimaryForced()) {
+            return work.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+}
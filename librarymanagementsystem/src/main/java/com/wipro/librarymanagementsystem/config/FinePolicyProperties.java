@@ -0,0 +1,49 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.wipro.librarymanagementsystem.entity.User;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Fine rules per membership type, bound from library.fines.policies.<TYPE>.*
+@Component
+@ConfigurationProperties(prefix = "library.fines")
+public class FinePolicyProperties {
+
+    private Map<User.MembershipType, Policy> policies = new EnumMap<>(User.MembershipType.class);
+
+    // Used for membership types without their own entry: the historical $1/day, uncapped
+    private Policy defaultPolicy = new Policy();
+
+    public Policy policyFor(User.MembershipType membershipType) {
+        Policy policy = membershipType == null ? null : policies.get(membershipType);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    public Map<User.MembershipType, Policy> getPolicies() { return policies; }
+    public void setPolicies(Map<User.MembershipType, Policy> policies) { this.policies = policies; }
+
+    public Policy getDefaultPolicy() { return defaultPolicy; }
+    public void setDefaultPolicy(Policy defaultPolicy) { this.defaultPolicy = defaultPolicy; }
+
+    public static class Policy {
+        // Charged for each full day past the due date once the grace period is over
+        private BigDecimal dailyRate = new BigDecimal("1.00");
+        // Days after the due date that are never charged
+        private int graceDays = 0;
+        // Ceiling for a single loan; null means uncapped
+        private BigDecimal maxFine;
+
+        public BigDecimal getDailyRate() { return dailyRate; }
+        public void setDailyRate(BigDecimal dailyRate) { this.dailyRate = dailyRate; }
+
+        public int getGraceDays() { return graceDays; }
+        public void setGraceDays(int graceDays) { this.graceDays = graceDays; }
+
+        public BigDecimal getMaxFine() { return maxFine; }
+        public void setMaxFine(BigDecimal maxFine) { this.maxFine = maxFine; }
+    }
+}
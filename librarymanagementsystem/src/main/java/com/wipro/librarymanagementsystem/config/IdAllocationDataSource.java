@@ -0,0 +1,76 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// The table-backed id generator allocates a block of ids on a second connection while the
+// inserting transaction still holds its first, and every other inserting transaction waits on
+// the generator's lock with its own connection held. Taking that second connection from the
+// shared pool deadlocks as soon as the writers fill the pool, until the connection timeout.
+// A connection asked for while this thread's transaction already has one can only be such an
+// isolated allocation, so it comes from a small pool of its own on the primary; at most one
+// allocation per sequence runs at a time, so that pool never waits on the shared one.
+public class IdAllocationDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final HikariDataSource idPool;
+
+    public IdAllocationDataSource(DataSource dataSource, int poolSize) {
+        super(dataSource);
+        HikariDataSource primary = primaryPool(dataSource);
+        idPool = new HikariDataSource();
+        // Same database, driver and credentials; the pool itself starts on the first allocation
+        primary.copyStateTo(idPool);
+        idPool.setPoolName("id-allocation");
+        idPool.setMaximumPoolSize(poolSize);
+        idPool.setMinimumIdle(0);
+        idPool.setReadOnly(false);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return isIsolatedAllocation() ? idPool.getConnection() : super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return isIsolatedAllocation() ? idPool.getConnection() : super.getConnection(username, password);
+    }
+
+    private boolean isIsolatedAllocation() {
+        return TransactionSynchronizationManager.getResource(this) instanceof ConnectionHolder holder
+                && holder.getConnectionHandle() != null;
+    }
+
+    public HikariDataSource getIdPool() {
+        return idPool;
+    }
+
+    @Override
+    public void close() throws Exception {
+        idPool.close();
+        if (getTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    // The Hikari pool writes go to: the data source itself, or the primary behind the replica router
+    static HikariDataSource primaryPool(DataSource dataSource) {
+        DataSource current = dataSource;
+        while (current instanceof DelegatingDataSource delegating) {
+            current = delegating.getTargetDataSource();
+        }
+        if (current instanceof ReplicaRoutingDataSource routing) {
+            current = routing.getResolvedDefaultDataSource();
+        }
+        if (current instanceof HikariDataSource hikari) {
+            return hikari;
+        }
+        throw new IllegalStateException("No Hikari pool behind data source " + dataSource);
+    }
+}
@@ -0,0 +1,43 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.wipro.librarymanagementsystem.entity.User;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Loan limits per membership type, bound from library.loans.limits.<TYPE>.*
+@Component
+@ConfigurationProperties(prefix = "library.loans")
+public class LoanLimitProperties {
+
+    private Map<User.MembershipType, Limit> limits = new EnumMap<>(User.MembershipType.class);
+
+    // Used for membership types without their own entry
+    private Limit defaultLimit = new Limit();
+
+    public Limit limitFor(User.MembershipType membershipType) {
+        Limit limit = membershipType == null ? null : limits.get(membershipType);
+        return limit != null ? limit : defaultLimit;
+    }
+
+    public Map<User.MembershipType, Limit> getLimits() { return limits; }
+    public void setLimits(Map<User.MembershipType, Limit> limits) { this.limits = limits; }
+
+    public Limit getDefaultLimit() { return defaultLimit; }
+    public void setDefaultLimit(Limit defaultLimit) { this.defaultLimit = defaultLimit; }
+
+    public static class Limit {
+        // Open loans a user may hold at once
+        private int maxActiveLoans = 5;
+        // Overdue loans a user may hold and still borrow; 0 blocks borrowing on any overdue loan
+        private int maxOverdueLoans = 0;
+
+        public int getMaxActiveLoans() { return maxActiveLoans; }
+        public void setMaxActiveLoans(int maxActiveLoans) { this.maxActiveLoans = maxActiveLoans; }
+
+        public int getMaxOverdueLoans() { return maxOverdueLoans; }
+        public void setMaxOverdueLoans(int maxOverdueLoans) { this.maxOverdueLoans = maxOverdueLoans; }
+    }
+}
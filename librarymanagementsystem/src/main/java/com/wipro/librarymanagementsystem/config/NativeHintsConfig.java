@@ -0,0 +1,71 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.wipro.librarymanagementsystem.circulation.CirculationReply;
+import com.wipro.librarymanagementsystem.circulation.CirculationScan;
+import com.wipro.librarymanagementsystem.controller.BorrowController;
+import com.wipro.librarymanagementsystem.controller.UserController;
+import com.wipro.librarymanagementsystem.dto.AuthResponse;
+import com.wipro.librarymanagementsystem.dto.BookAvailability;
+import com.wipro.librarymanagementsystem.dto.BookFacetValues;
+import com.wipro.librarymanagementsystem.dto.DailyBorrowCount;
+import com.wipro.librarymanagementsystem.dto.LoanFact;
+import com.wipro.librarymanagementsystem.dto.LoanNotice;
+import com.wipro.librarymanagementsystem.dto.LoanRollupRow;
+import com.wipro.librarymanagementsystem.dto.LoginRequest;
+import com.wipro.librarymanagementsystem.dto.OverdueLoan;
+import com.wipro.librarymanagementsystem.dto.UserBookPair;
+import com.wipro.librarymanagementsystem.dto.UserLoanCount;
+import com.wipro.librarymanagementsystem.entity.Admin;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.FineBalance;
+import com.wipro.librarymanagementsystem.entity.FineLedgerEntry;
+import com.wipro.librarymanagementsystem.entity.Hold;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.journal.LoanJournalApplier;
+import com.wipro.librarymanagementsystem.notification.NotificationRunSummary;
+import com.wipro.librarymanagementsystem.service.PopularityService;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+// Hints for the GraalVM native image (mvn -Pnative native:compile). Spring AOT already
+// covers the beans, repositories, security filter chain and the types controllers
+// declare in their signatures; what is listed here is only reached by reflection at run
+// time: objects Jackson finds inside Map<String, Object> responses, the entities and the
+// JPQL "SELECT new" projections Hibernate instantiates, and classpath templates.
+@Configuration
+@RegisterReflectionForBinding({
+        Book.class, User.class, BorrowRecord.class, Admin.class, Hold.class, FineBalance.class, FineLedgerEntry.class,
+        AuthResponse.class, AuthResponse.AdminInfo.class, LoginRequest.class,
+        BorrowController.BorrowStats.class, UserController.UserStats.class,
+        PopularityService.RankedBook.class, LoanJournalApplier.Outcome.class, NotificationRunSummary.class,
+        CirculationScan.class, CirculationReply.class
+})
+@ImportRuntimeHints(NativeHintsConfig.LibraryRuntimeHints.class)
+public class NativeHintsConfig {
+
+    // Targets of "SELECT new ..." in the repositories
+    private static final List<Class<?>> QUERY_PROJECTIONS = List.of(
+            BookAvailability.class, BookFacetValues.class, DailyBorrowCount.class, LoanFact.class, LoanNotice.class,
+            LoanRollupRow.class, OverdueLoan.class, UserBookPair.class, UserLoanCount.class
+    );
+
+    static class LibraryRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> projection : QUERY_PROJECTIONS) {
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            // Read through ClassPathResource by NotificationTemplates
+            hints.resources().registerPattern("notifications/*.txt");
+        }
+    }
+}
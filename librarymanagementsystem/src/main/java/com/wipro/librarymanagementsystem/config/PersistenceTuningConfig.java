@@ -0,0 +1,118 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+@Configuration
+public class PersistenceTuningConfig {
+
+    // Must match allocationSize on the entity @SequenceGenerator mappings
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Sequence table -> entity table it hands out ids for
+    private static final Map<String, String> ID_SEQUENCES = Map.of(
+            "book_seq", "books",
+            "user_seq", "users",
+            "borrow_record_seq", "borrow_records"
+    );
+
+    // MySQL Connector/J settings that make JDBC batching and statement caching effective
+    private static final Map<String, String> MYSQL_DRIVER_PROPERTIES = Map.of(
+            "rewriteBatchedStatements", "true",
+            "cachePrepStmts", "true",
+            "prepStmtCacheSize", "250",
+            "prepStmtCacheSqlLimit", "2048",
+            "useServerPrepStmts", "true",
+            "cacheResultSetMetadata", "true",
+            "elideSetAutoCommits", "true",
+            "maintainTimeStats", "false"
+    );
+
+    // Size the Hikari pool from the servlet thread model unless it was configured explicitly
+    @Bean
+    public static BeanPostProcessor hikariTuningPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    tune(dataSource, environment);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Serve the id generator's isolated allocations from their own pool (see IdAllocationDataSource)
+    @Bean
+    public static BeanPostProcessor idAllocationPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof IdAllocationDataSource)) {
+                    return new IdAllocationDataSource(dataSource,
+                            environment.getProperty("library.persistence.id-allocation-pool-size", Integer.class, 4));
+                }
+                return bean;
+            }
+        };
+    }
+
+    static void tune(HikariDataSource dataSource, Environment environment) {
+        if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+            int poolSize = recommendedPoolSize(environment);
+            dataSource.setMaximumPoolSize(poolSize);
+            // Keep the core-sized part warm; the headroom above it is opened on demand and retired when idle
+            if (!environment.containsProperty("spring.datasource.hikari.minimum-idle")) {
+                dataSource.setMinimumIdle(Math.min(poolSize, connectionsByCores(environment)));
+            }
+        }
+
+        String url = dataSource.getJdbcUrl();
+        if (url != null && url.startsWith("jdbc:mysql:")) {
+            MYSQL_DRIVER_PROPERTIES.forEach((key, value) -> {
+                if (!url.contains(key + "=") && !dataSource.getDataSourceProperties().containsKey(key)) {
+                    dataSource.addDataSourceProperty(key, value);
+                }
+            });
+        }
+    }
+
+    // Connections beyond (2 x cores + 1) mostly queue inside MySQL, but on small machines that
+    // leaves concurrent checkouts queueing for a connection: keep a floor
+    // (library.persistence.min-pool-size) and never exceed the request threads
+    static int recommendedPoolSize(Environment environment) {
+        int requestThreads = environment.getProperty("server.tomcat.threads.max", Integer.class, 200);
+        int floor = environment.getProperty("library.persistence.min-pool-size", Integer.class, 10);
+        return Math.max(2, Math.min(requestThreads, Math.max(floor, connectionsByCores(environment))));
+    }
+
+    static int connectionsByCores(Environment environment) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return environment.getProperty("library.persistence.connections-per-core", Integer.class, 2) * cores + 1;
+    }
+
+    // Move the pooled id sequences past any rows inserted with AUTO_INCREMENT (init.sql, older schemas).
+    // Startup fails when one cannot be moved: inserts would otherwise collide with existing ids.
+    @Bean
+    @Order(0)
+    public CommandLineRunner idSequenceAligner(JdbcTemplate jdbcTemplate) {
+        return args -> ID_SEQUENCES.forEach((sequence, table) -> {
+            try {
+                jdbcTemplate.update("UPDATE " + sequence + " SET next_val = GREATEST(next_val, "
+                        + "(SELECT COALESCE(MAX(id), 0) + " + (ID_ALLOCATION_SIZE + 1) + " FROM " + table + "))");
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not align id sequence " + sequence + " with table " + table, e);
+            }
+        });
+    }
+}
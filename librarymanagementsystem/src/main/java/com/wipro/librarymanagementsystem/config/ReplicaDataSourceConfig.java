@@ -0,0 +1,66 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Enabled with library.datasource.replicas.enabled=true and a comma separated list of replica urls
+@Configuration
+@ConditionalOnProperty(name = "library.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        PersistenceTuningConfig.tune(primary, environment);
+
+        String[] urls = environment.getProperty("library.datasource.replicas.urls", String[].class, new String[0]);
+        String username = environment.getProperty("library.datasource.replicas.username", properties.getUsername());
+        String password = environment.getProperty("library.datasource.replicas.password", properties.getPassword());
+
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls[i].trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            if (properties.getDriverClassName() != null) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setReadOnly(true);
+            PersistenceTuningConfig.tune(replica, environment);
+            replicas.add(new ReplicaRoutingDataSource.Replica(replica.getPoolName(), replica));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    // The lazy proxy defers the physical connection until the first statement,
+    // by which point the transaction's read-only flag is known to the router
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaRoutingDataSource replicaRoutingDataSource, Environment environment) {
+        return new ReplicaHealthMonitor(
+                replicaRoutingDataSource,
+                environment.getProperty("library.datasource.replicas.lag-query", "SHOW REPLICA STATUS"),
+                environment.getProperty("library.datasource.replicas.max-lag-seconds", Long.class, 5L));
+    }
+}
@@ -0,0 +1,71 @@
+package com.wipro.librarymanagementsystem.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.Map;
+
+// Periodically probes each replica and takes it out of rotation when it is down or too far behind
+public class ReplicaHealthMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+
+    public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource, String lagQuery, long maxLagSeconds) {
+        this.routingDataSource = routingDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${library.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            boolean wasHealthy = replica.isHealthy();
+            try {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                Long lag = readLagSeconds(replica, jdbcTemplate);
+                replica.setLagSeconds(lag != null ? lag : Long.MAX_VALUE);
+                replica.setHealthy(lag != null && lag <= maxLagSeconds);
+            } catch (Exception e) {
+                replica.setHealthy(false);
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                System.out.println("Replica " + replica.getName() + " is now "
+                        + (replica.isHealthy() ? "in rotation" : "out of rotation (lag " + replica.getLagSeconds() + "s)"));
+            }
+        }
+    }
+
+    // Empty result means the instance is not replicating (e.g. a local copy): treat as caught up.
+    // A null lag column means replication is stopped, and a lag that cannot be read (e.g. no
+    // REPLICATION CLIENT grant) is not known to be small: both take the replica out of rotation.
+    private Long readLagSeconds(ReplicaRoutingDataSource.Replica replica, JdbcTemplate jdbcTemplate) {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return 0L;
+        }
+        List<Map<String, Object>> rows;
+        try {
+            rows = jdbcTemplate.queryForList(lagQuery);
+        } catch (Exception e) {
+            // Logged when the replica leaves rotation, not on every check while it stays out
+            if (replica.isHealthy()) {
+                System.out.println("Replica " + replica.getName() + ": lag query '" + lagQuery
+                        + "' failed, taking it out of rotation: " + e.getMessage());
+            }
+            return null;
+        }
+        if (rows.isEmpty()) {
+            return 0L;
+        }
+        for (Map.Entry<String, Object> column : rows.get(0).entrySet()) {
+            if (column.getKey().equalsIgnoreCase("Seconds_Behind_Source")
+                    || column.getKey().equalsIgnoreCase("Seconds_Behind_Master")) {
+                return column.getValue() != null ? ((Number) column.getValue()).longValue() : null;
+            }
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,74 @@
+package com.wipro.librarymanagementsystem.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a healthy replica and everything else to the primary
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (DataSourceRouting.isPrimaryForced()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        // Round-robin over replicas, skipping any that are down or lagging
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    // A replica pool plus its last observed health
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile long lagSeconds;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() { return name; }
+        public DataSource getDataSource() { return dataSource; }
+
+        public boolean isHealthy() { return healthy; }
+        public void setHealthy(boolean healthy) { this.healthy = healthy; }
+
+        public long getLagSeconds() { return lagSeconds; }
+        public void setLagSeconds(long lagSeconds) { this.lagSeconds = lagSeconds; }
+    }
+}
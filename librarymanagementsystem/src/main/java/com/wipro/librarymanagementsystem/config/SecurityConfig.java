@@ -11,11 +11,16 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Browser origins allowed to call the API; endpoints served outside this filter chain
+    // (the circulation WebSocket, the reactive catalogue port) use the same list
+    public static final List<String> ALLOWED_ORIGIN_PATTERNS = List.of("http://localhost:*");
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -31,6 +36,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/login").permitAll()
                 .requestMatchers("/api/test/**").permitAll()
                 .requestMatchers("/api/dashboard").permitAll() // Add this for testing
+                .requestMatchers("/api/dashboard/stream").permitAll()
                 
                 // Allow public book browsing
                 .requestMatchers("/api/books").permitAll() 
@@ -50,7 +56,7 @@ public class SecurityConfig {
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOriginPatterns(Arrays.asList("http://localhost:*"));
+        configuration.setAllowedOriginPatterns(ALLOWED_ORIGIN_PATTERNS);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
@@ -0,0 +1,75 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.wipro.librarymanagementsystem.service.AdminService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Creates the default admin and the sample data. Normally both run as command line
+// runners before the application reports itself started. With
+// library.startup.deferred-init=true they are skipped there and run on a background
+// thread once the application is up, so the HTTP port opens without waiting for the
+// admin BCrypt hash and the seeding queries. Until that finishes this indicator reports
+// OUT_OF_SERVICE, which keeps the readiness probe (and the load balancer) away.
+@Component
+public class StartupInitializer implements HealthIndicator {
+
+    @Value("${library.startup.deferred-init:false}")
+    private boolean deferred;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private ObjectProvider<DataSeeder> dataSeeder;
+
+    private volatile boolean complete;
+    private volatile String failure;
+
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!deferred) {
+            complete = true;
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                adminService.initializeDefaultAdmin();
+                dataSeeder.ifAvailable(DataSeeder::seed);
+                complete = true;
+                System.out.println("Deferred startup initialization finished in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            } catch (RuntimeException e) {
+                failure = e.getMessage();
+                System.out.println("Deferred startup initialization failed: " + e.getMessage());
+            }
+        }, "startup-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public Health health() {
+        if (complete) {
+            return Health.up().build();
+        }
+        if (failure != null) {
+            return Health.down().withDetail("error", failure).build();
+        }
+        return Health.outOfService().withDetail("deferredInit", "running").build();
+    }
+}
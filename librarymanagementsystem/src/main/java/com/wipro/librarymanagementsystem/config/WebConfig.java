@@ -0,0 +1,48 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.wipro.librarymanagementsystem.json.ListingJsonMessageConverter;
+import com.wipro.librarymanagementsystem.protobuf.ProtobufMessageConverter;
+import com.wipro.librarymanagementsystem.protobuf.ProtobufSchemas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Value("${library.json.listing-writer.enabled:true}")
+    private boolean listingWriterEnabled;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProtobufSchemas protobufSchemas;
+
+    // application/cbor with the JSON ObjectMapper's settings (ISO dates and so on), so the
+    // binary form has the same shape; replaces the default CBOR converter in place, after JSON
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // Book and loan lists are written by the streaming listing converter, ahead of Jackson;
+    // it shares the ObjectMapper's JsonFactory so generator settings stay the same.
+    // Protobuf goes last so clients that accept anything keep getting JSON.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (listingWriterEnabled) {
+            converters.add(0, new ListingJsonMessageConverter(objectMapper.getFactory()));
+        }
+        converters.add(new ProtobufMessageConverter(protobufSchemas));
+    }
+}
@@ -0,0 +1,93 @@
+package com.wipro.librarymanagementsystem.controller;
+
+import com.wipro.librarymanagementsystem.analytics.LoanAnalyticsService;
+import com.wipro.librarymanagementsystem.analytics.LoanSnapshotExporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+    
+    @Autowired
+    private LoanAnalyticsService loanAnalyticsService;
+    
+    @Autowired
+    private LoanSnapshotExporter loanSnapshotExporter;
+    
+    // Ad-hoc group-by over the loan snapshot, never touching the database
+    // e.g. /api/analytics/loans?groupBy=genre,month&from=2025-01-01&to=2025-12-31&membershipType=STUDENT
+    @GetMapping("/loans")
+    public ResponseEntity<Map<String, Object>> queryLoans(
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String membershipType,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            List<LoanAnalyticsService.Dimension> dimensions = new ArrayList<>();
+            if (groupBy != null) {
+                for (String dimension : groupBy) {
+                    dimensions.add(LoanAnalyticsService.Dimension.fromLabel(dimension));
+                }
+            }
+            LoanAnalyticsService.LoanQuery query = new LoanAnalyticsService.LoanQuery(
+                    from == null ? null : LocalDate.parse(from),
+                    to == null ? null : LocalDate.parse(to),
+                    dimensions, genre, membershipType, status, bookId, userId, Math.max(limit, 1));
+            return ResponseEntity.ok(loanAnalyticsService.query(query));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Partition files of the current snapshot
+    @GetMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> getSnapshot() {
+        try {
+            List<Map<String, Object>> partitions = new ArrayList<>();
+            for (Map.Entry<YearMonth, Path> partition : loanSnapshotExporter.partitions().entrySet()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("month", partition.getKey().toString());
+                entry.put("bytes", Files.size(partition.getValue()));
+                partitions.add(entry);
+            }
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("exportedAt", loanSnapshotExporter.getExportedAt());
+            snapshot.put("partitions", partitions);
+            return ResponseEntity.ok(snapshot);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Export changed months now instead of waiting for the nightly run
+    @PostMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> exportSnapshot() {
+        try {
+            return ResponseEntity.ok(loanSnapshotExporter.export());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.wipro.librarymanagementsystem.controller;
 
+import com.wipro.librarymanagementsystem.config.DataSourceRouting;
 import com.wipro.librarymanagementsystem.entity.Book;
 import com.wipro.librarymanagementsystem.service.BookService;
+import com.wipro.librarymanagementsystem.service.PopularityService;
+import com.wipro.librarymanagementsystem.service.TableVersionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -19,12 +26,23 @@ public class BookController {
     @Autowired
     private BookService bookService;
     
-    // Get all books
+    @Autowired
+    private TableVersionService tableVersionService;
+    
+    @Value("${library.books.max-page-size:100}")
+    private int maxPageSize;
+    
+    // Get all books (conditional GET: unchanged catalogue is answered with 304 without a query)
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
+    public ResponseEntity<List<Book>> getAllBooks(WebRequest request) {
         try {
-            List<Book> books = bookService.getAllBooks();
-            return ResponseEntity.ok(books);
+            String etag = tableVersionService.etag(TableVersionService.Table.BOOKS);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            // Read on the primary, which the version counters track (see TableVersionService)
+            List<Book> books = DataSourceRouting.onPrimary(bookService::getAllBooks);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(books);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -75,17 +93,73 @@ public class BookController {
         }
     }
     
-    // Get available books only
+    // Get available books only; page and size fetch one page ordered by id
     @GetMapping("/available")
-    public ResponseEntity<List<Book>> getAvailableBooks() {
+    public ResponseEntity<List<Book>> getAvailableBooks(@RequestParam(required = false) Integer page,
+                                                        @RequestParam(defaultValue = "20") int size) {
+        if (!isValidPage(page, size)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<Book> books = page == null
+                    ? bookService.getAvailableBooks()
+                    : bookService.getAvailableBooks(page, size);
+            return ResponseEntity.ok(books);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get available books in a genre; page and size fetch one page ordered by id
+    @GetMapping("/genre/{genre}/available")
+    public ResponseEntity<List<Book>> getAvailableBooksByGenre(@PathVariable String genre,
+                                                               @RequestParam(required = false) Integer page,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        if (!isValidPage(page, size)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<Book> books = bookService.getAvailableBooks();
+            List<Book> books = page == null
+                    ? bookService.getAvailableBooksByGenre(genre)
+                    : bookService.getAvailableBooksByGenre(genre, page, size);
             return ResponseEntity.ok(books);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    // Most borrowed books in a rolling window: 7d, 30d or 365d
+    @GetMapping("/popular")
+    public ResponseEntity<List<Map<String, Object>>> getPopularBooks(@RequestParam(defaultValue = "30d") String window,
+                                                                     @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(bookService.getPopularBooks(PopularityService.Window.fromLabel(window), limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Faceted browsing: repeat a filter for "or" within a facet, e.g. ?genre=History&genre=Fiction&decade=1990
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> browseCatalogue(@RequestParam(required = false) List<String> genre,
+                                                               @RequestParam(required = false) List<Integer> decade,
+                                                               @RequestParam(required = false) List<String> author,
+                                                               @RequestParam(required = false) Boolean available,
+                                                               @RequestParam(defaultValue = "20") int authorLimit,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        if (!isValidPage(page, size) || authorLimit < 1 || authorLimit > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(bookService.browseCatalogue(genre, decade, author, available, authorLimit, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Add new book
     @PostMapping
     public ResponseEntity<Book> createBook(@Valid @RequestBody Book book) {
@@ -125,6 +199,19 @@ public class BookController {
         }
     }
     
+    // "Patrons who borrowed this also borrowed"
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<Map<String, Object>>> getRecommendations(@PathVariable Long id,
+                                                                        @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(bookService.getRecommendations(id, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Check if book is available
     @GetMapping("/{id}/availability")
     public ResponseEntity<Boolean> isBookAvailable(@PathVariable Long id) {
@@ -137,4 +224,12 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    // page >= 0 and 1 <= size <= library.books.max-page-size, with page * size still an int offset
+    private boolean isValidPage(Integer page, int size) {
+        if (size < 1 || size > maxPageSize) {
+            return false;
+        }
+        return page == null || (page >= 0 && page <= Integer.MAX_VALUE / size);
+    }
 }
\ No newline at end of file
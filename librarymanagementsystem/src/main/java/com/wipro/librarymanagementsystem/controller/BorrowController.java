@@ -1,13 +1,19 @@
 package com.wipro.librarymanagementsystem.controller;
 
+import com.wipro.librarymanagementsystem.config.DataSourceRouting;
 import com.wipro.librarymanagementsystem.entity.BorrowRecord;
 import com.wipro.librarymanagementsystem.service.BorrowRecordService;
+import com.wipro.librarymanagementsystem.service.LoanArchiveService;
+import com.wipro.librarymanagementsystem.service.TableVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -18,12 +24,23 @@ public class BorrowController {
     @Autowired
     private BorrowRecordService borrowRecordService;
     
-    // Get all borrow records
+    @Autowired
+    private TableVersionService tableVersionService;
+    
+    @Autowired
+    private LoanArchiveService loanArchiveService;
+    
+    // Get all borrow records (records embed their user and book, so all three versions form the ETag)
     @GetMapping
-    public ResponseEntity<List<BorrowRecord>> getAllBorrowRecords() {
+    public ResponseEntity<List<BorrowRecord>> getAllBorrowRecords(WebRequest request) {
         try {
-            List<BorrowRecord> records = borrowRecordService.getAllBorrowRecordsWithUserAndBook();
-            return ResponseEntity.ok(records);
+            String etag = tableVersionService.etag(TableVersionService.Table.BORROW_RECORDS,
+                    TableVersionService.Table.BOOKS, TableVersionService.Table.USERS);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            List<BorrowRecord> records = DataSourceRouting.onPrimary(borrowRecordService::getAllBorrowRecordsWithUserAndBook);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(records);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -69,9 +86,10 @@ public class BorrowController {
     
     // Get borrow history by user
     @GetMapping("/user/{userId}/history")
-    public ResponseEntity<List<BorrowRecord>> getBorrowHistoryByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<BorrowRecord>> getBorrowHistoryByUser(@PathVariable Long userId,
+                                                                 @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<BorrowRecord> records = borrowRecordService.getBorrowHistoryByUser(userId);
+            List<BorrowRecord> records = borrowRecordService.getBorrowHistoryByUser(userId, includeArchived);
             return ResponseEntity.ok(records);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -93,11 +111,24 @@ public class BorrowController {
         }
     }
     
+    // Get loan counts and limits for a user
+    @GetMapping("/user/{userId}/limits")
+    public ResponseEntity<Map<String, Object>> getLoanLimits(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(borrowRecordService.getLoanLimitStatus(userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Get borrow history by book
     @GetMapping("/book/{bookId}/history")
-    public ResponseEntity<List<BorrowRecord>> getBorrowHistoryByBook(@PathVariable Long bookId) {
+    public ResponseEntity<List<BorrowRecord>> getBorrowHistoryByBook(@PathVariable Long bookId,
+                                                                 @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<BorrowRecord> records = borrowRecordService.getBorrowHistoryByBook(bookId);
+            List<BorrowRecord> records = borrowRecordService.getBorrowHistoryByBook(bookId, includeArchived);
             return ResponseEntity.ok(records);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -157,6 +188,18 @@ public class BorrowController {
         }
     }
     
+    // Move old returned loans to the archive now instead of waiting for the nightly run
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveReturnedLoans() {
+        try {
+            return ResponseEntity.ok(loanArchiveService.archiveReturnedLoans());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     // Get borrowing statistics
     @GetMapping("/stats")
     public ResponseEntity<BorrowStats> getBorrowingStats() {
@@ -1,40 +1,35 @@
 package com.wipro.librarymanagementsystem.controller;
 
-import com.wipro.librarymanagementsystem.repository.BookRepository;
-import com.wipro.librarymanagementsystem.repository.UserRepository;
-import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.service.DashboardStatsService;
+import com.wipro.librarymanagementsystem.service.DashboardStreamService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
 
-    private final BookRepository bookRepository;
-    private final UserRepository userRepository;
-    private final BorrowRecordRepository borrowRecordRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final DashboardStreamService dashboardStreamService;
 
-    public DashboardController(BookRepository bookRepository,
-                               UserRepository userRepository,
-                               BorrowRecordRepository borrowRecordRepository) {
-        this.bookRepository = bookRepository;
-        this.userRepository = userRepository;
-        this.borrowRecordRepository = borrowRecordRepository;
+    public DashboardController(DashboardStatsService dashboardStatsService,
+                               DashboardStreamService dashboardStreamService) {
+        this.dashboardStatsService = dashboardStatsService;
+        this.dashboardStreamService = dashboardStreamService;
     }
 
+    // Answered from the in-memory counters, no queries per request
     @GetMapping
     public Map<String, Object> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalBooks", bookRepository.count());
-        stats.put("availableBooks", bookRepository.findAllAvailableBooks().size());
-        stats.put("totalUsers", userRepository.count());
-        stats.put("activeUsers", userRepository.countByIsActiveTrue());
-        stats.put("currentlyBorrowed", borrowRecordRepository.findByStatus(
-                com.wipro.librarymanagementsystem.entity.BorrowRecord.BorrowStatus.BORROWED
-        ).size());
-        stats.put("overdueBooks", borrowRecordRepository.findOverdueRecords().size());
-        return stats;
+        return dashboardStatsService.getStats();
     }
-}
\ No newline at end of file
+
+    // Live counters: a "snapshot" event on connect, then coalesced "delta" events
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboardStats() {
+        return dashboardStreamService.subscribe();
+    }
+}
@@ -0,0 +1,74 @@
+package com.wipro.librarymanagementsystem.controller;
+
+import com.wipro.librarymanagementsystem.entity.FineBalance;
+import com.wipro.librarymanagementsystem.entity.FineLedgerEntry;
+import com.wipro.librarymanagementsystem.service.FineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/fines")
+@CrossOrigin(origins = "*")
+public class FineController {
+    
+    @Autowired
+    private FineService fineService;
+    
+    // System-wide outstanding fines
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getFineSummary() {
+        try {
+            return ResponseEntity.ok(fineService.getSummary());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Outstanding fines of one user
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<FineBalance> getUserBalance(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(fineService.getBalance(userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Ledger entries of one user
+    @GetMapping("/users/{userId}/ledger")
+    public ResponseEntity<List<FineLedgerEntry>> getUserLedger(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(fineService.getLedger(userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Pay off part or all of a user's fines
+    @PostMapping("/users/{userId}/payments")
+    public ResponseEntity<FineBalance> recordPayment(@PathVariable Long userId, @RequestParam BigDecimal amount) {
+        try {
+            return ResponseEntity.ok(fineService.recordPayment(userId, amount));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Run the accrual now instead of waiting for the nightly schedule
+    @PostMapping("/accrue")
+    public ResponseEntity<Map<String, Object>> accrueFines() {
+        try {
+            return ResponseEntity.ok(fineService.accrueOutstandingFines());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
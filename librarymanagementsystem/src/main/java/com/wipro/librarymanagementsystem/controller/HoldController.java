@@ -0,0 +1,76 @@
+package com.wipro.librarymanagementsystem.controller;
+
+import com.wipro.librarymanagementsystem.entity.Hold;
+import com.wipro.librarymanagementsystem.service.HoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/holds")
+@CrossOrigin(origins = "*")
+public class HoldController {
+
+    @Autowired
+    private HoldService holdService;
+
+    // Place a hold on a book that has no copy on the shelf
+    @PostMapping
+    public ResponseEntity<Hold> placeHold(@RequestParam Long userId, @RequestParam Long bookId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(holdService.placeHold(userId, bookId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Cancel a waiting or ready hold
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Hold> cancelHold(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(holdService.cancelHold(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Queue position and estimated availability of a hold
+    @GetMapping("/{id}/position")
+    public ResponseEntity<Map<String, Object>> getPosition(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(holdService.getQueueStatus(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Active holds of a user
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<List<Hold>> getUserHolds(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(holdService.getActiveHoldsByUser(userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Number of holds waiting for a book
+    @GetMapping("/books/{bookId}")
+    public ResponseEntity<Map<String, Object>> getBookQueue(@PathVariable Long bookId) {
+        try {
+            return ResponseEntity.ok(Map.of("bookId", bookId, "waiting", holdService.getQueueLength(bookId)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
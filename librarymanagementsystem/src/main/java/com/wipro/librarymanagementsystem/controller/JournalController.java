@@ -0,0 +1,105 @@
+package com.wipro.librarymanagementsystem.controller;
+
+import com.wipro.librarymanagementsystem.journal.LoanCommand;
+import com.wipro.librarymanagementsystem.journal.LoanJournal;
+import com.wipro.librarymanagementsystem.journal.LoanJournalApplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Journaled checkouts and returns: the command is acknowledged with 202 once it is on
+// disk in the loan journal, and applied to the database shortly after. Callers poll
+// /api/journal/commands/{sequence} for the borrow record id or the rejection reason.
+// A command not synced within the ack timeout is also answered with 202, status UNKNOWN:
+// it may still become durable and be applied, so only its status tells the outcome.
+@RestController
+@RequestMapping("/api/journal")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class JournalController {
+
+    @Autowired
+    private LoanJournal loanJournal;
+
+    @Autowired
+    private LoanJournalApplier loanJournalApplier;
+
+    // Borrow a book through the journal
+    @PostMapping("/borrow")
+    public ResponseEntity<Map<String, Object>> borrowBook(@RequestParam Long userId, @RequestParam Long bookId) {
+        if (userId <= 0 || bookId <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(accepted(loanJournal.appendDurably(LoanCommand.Type.BORROW, userId, bookId, 0)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Return a book through the journal
+    @PutMapping("/return/{borrowRecordId}")
+    public ResponseEntity<Map<String, Object>> returnBook(@PathVariable Long borrowRecordId) {
+        if (borrowRecordId <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(accepted(loanJournal.appendDurably(LoanCommand.Type.RETURN, 0, 0, borrowRecordId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Outcome of a journaled command
+    @GetMapping("/commands/{sequence}")
+    public ResponseEntity<LoanJournalApplier.Outcome> getOutcome(@PathVariable long sequence) {
+        try {
+            LoanJournalApplier.Outcome outcome = loanJournalApplier.getOutcome(sequence);
+            return outcome == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(outcome);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Journal position, apply lag and group commit figures
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("lastSequence", loanJournal.getLastSequence());
+            status.put("durableSequence", loanJournal.getDurableSequence());
+            status.put("appliedSequence", loanJournalApplier.getAppliedSequence());
+            status.put("lagCommands", loanJournalApplier.getLagCommands());
+            status.put("lagMs", loanJournalApplier.getLagMillis());
+            status.put("segments", loanJournal.segmentCount());
+            status.put("meanGroupSize", Math.round(loanJournal.getMeanGroupSize() * 100) / 100.0);
+            status.put("meanSyncMs", Math.round(loanJournal.getMeanSyncMillis() * 1000) / 1000.0);
+            status.put("failure", loanJournal.getFailure());
+            return ResponseEntity.ok(status);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static Map<String, Object> accepted(LoanJournal.Ack ack) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sequence", ack.sequence());
+        body.put("status", ack.durable() ? "ACCEPTED" : "UNKNOWN");
+        if (!ack.durable()) {
+            body.put("message", "Outcome unknown: the journal did not confirm the write in time; poll statusUrl");
+        }
+        body.put("statusUrl", "/api/journal/commands/" + ack.sequence());
+        return body;
+    }
+}
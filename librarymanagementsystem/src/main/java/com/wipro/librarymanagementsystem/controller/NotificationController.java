@@ -0,0 +1,38 @@
+package com.wipro.librarymanagementsystem.controller;
+
+import com.wipro.librarymanagementsystem.entity.NotificationMarker;
+import com.wipro.librarymanagementsystem.notification.NotificationRunSummary;
+import com.wipro.librarymanagementsystem.notification.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = "*")
+public class NotificationController {
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    // Run the reminder batch now instead of waiting for the schedule; without a kind both run
+    @PostMapping("/run")
+    public ResponseEntity<List<NotificationRunSummary>> runNotifications(
+            @RequestParam(required = false) NotificationMarker.Kind kind) {
+        try {
+            List<NotificationRunSummary> summaries = new ArrayList<>();
+            for (NotificationMarker.Kind each : NotificationMarker.Kind.values()) {
+                if (kind == null || kind == each) {
+                    summaries.add(notificationService.run(each));
+                }
+            }
+            return ResponseEntity.ok(summaries);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
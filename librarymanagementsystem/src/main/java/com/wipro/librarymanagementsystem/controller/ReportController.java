@@ -0,0 +1,56 @@
+package com.wipro.librarymanagementsystem.controller;
+
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.service.LoanRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+    
+    @Autowired
+    private LoanRollupService loanRollupService;
+    
+    // Loans, returns, late returns and fines per day, week or month, served from the daily rollups
+    // e.g. /api/reports/timeseries?from=2025-01-01&to=2025-06-30&granularity=week&groupBy=genre
+    @GetMapping("/timeseries")
+    public ResponseEntity<Map<String, Object>> getTimeSeries(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String membershipType,
+            @RequestParam(required = false) String groupBy) {
+        try {
+            User.MembershipType type = membershipType == null || membershipType.isBlank() ? null
+                    : User.MembershipType.valueOf(membershipType.trim().toUpperCase());
+            return ResponseEntity.ok(loanRollupService.getTimeSeries(LocalDate.parse(from), LocalDate.parse(to),
+                    LoanRollupService.Granularity.fromLabel(granularity), genre, type, groupBy));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Recompute the rollups of past days from the borrow records; to defaults to yesterday
+    @PostMapping("/rollups/backfill")
+    public ResponseEntity<Map<String, Object>> backfillRollups(@RequestParam String from,
+                                                               @RequestParam(required = false) String to) {
+        try {
+            return ResponseEntity.ok(loanRollupService.backfill(LocalDate.parse(from),
+                    to == null ? null : LocalDate.parse(to)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
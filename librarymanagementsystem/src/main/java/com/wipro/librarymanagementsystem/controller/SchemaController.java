@@ -0,0 +1,41 @@
+package com.wipro.librarymanagementsystem.controller;
+
+import com.wipro.librarymanagementsystem.protobuf.ProtobufSchemas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Protobuf schemas of the binary API (Accept: application/x-protobuf), for clients to compile
+@RestController
+@RequestMapping("/api/schemas")
+@CrossOrigin(origins = "*")
+public class SchemaController {
+
+    @Autowired
+    private ProtobufSchemas protobufSchemas;
+
+    // Message names with a schema
+    @GetMapping
+    public ResponseEntity<List<String>> getMessageNames() {
+        try {
+            return ResponseEntity.ok(protobufSchemas.getMessageNames());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // .proto source of one message, e.g. /api/schemas/BorrowRecordList.proto
+    @GetMapping(value = "/{message}.proto", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getSchema(@PathVariable String message) {
+        try {
+            String source = protobufSchemas.getSource(message);
+            return source == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(source);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.wipro.librarymanagementsystem.controller;
 
+import com.wipro.librarymanagementsystem.config.DataSourceRouting;
 import com.wipro.librarymanagementsystem.entity.User;
 import com.wipro.librarymanagementsystem.service.UserService;
+import com.wipro.librarymanagementsystem.service.TableVersionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,12 +23,19 @@ public class UserController {
     @Autowired
     private UserService userService;
     
-    // Get all users
+    @Autowired
+    private TableVersionService tableVersionService;
+    
+    // Get all users (conditional GET on the users table version)
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<User>> getAllUsers(WebRequest request) {
         try {
-            List<User> users = userService.getAllUsers();
-            return ResponseEntity.ok(users);
+            String etag = tableVersionService.etag(TableVersionService.Table.USERS);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            List<User> users = DataSourceRouting.onPrimary(userService::getAllUsers);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(users);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -0,0 +1,28 @@
+package com.wipro.librarymanagementsystem.dto;
+
+// Id, genre and shelf count of one book, used to build the in-memory availability index
+public class BookAvailability {
+    
+    private Long bookId;
+    private String genre;
+    private Integer availableCopies;
+    
+    // Constructors
+    public BookAvailability() {}
+    
+    public BookAvailability(Long bookId, String genre, Integer availableCopies) {
+        this.bookId = bookId;
+        this.genre = genre;
+        this.availableCopies = availableCopies;
+    }
+    
+    // Getters and Setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+    
+    public Integer getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(Integer availableCopies) { this.availableCopies = availableCopies; }
+}
@@ -0,0 +1,33 @@
+package com.wipro.librarymanagementsystem.dto;
+
+// Facet values of one book, used to build the in-memory catalogue facet index
+public class BookFacetValues {
+    
+    private Long bookId;
+    private String genre;
+    private String author;
+    private Integer publicationYear;
+    
+    // Constructors
+    public BookFacetValues() {}
+    
+    public BookFacetValues(Long bookId, String genre, String author, Integer publicationYear) {
+        this.bookId = bookId;
+        this.genre = genre;
+        this.author = author;
+        this.publicationYear = publicationYear;
+    }
+    
+    // Getters and Setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+    
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+    
+    public Integer getPublicationYear() { return publicationYear; }
+    public void setPublicationYear(Integer publicationYear) { this.publicationYear = publicationYear; }
+}
@@ -0,0 +1,30 @@
+package com.wipro.librarymanagementsystem.dto;
+
+import java.time.LocalDate;
+
+// Number of loans of one book started on one day, used to warm the popularity counters
+public class DailyBorrowCount {
+    
+    private Long bookId;
+    private LocalDate day;
+    private long count;
+    
+    // Constructors
+    public DailyBorrowCount() {}
+    
+    public DailyBorrowCount(Long bookId, LocalDate day, Long count) {
+        this.bookId = bookId;
+        this.day = day;
+        this.count = count == null ? 0 : count;
+    }
+    
+    // Getters and Setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
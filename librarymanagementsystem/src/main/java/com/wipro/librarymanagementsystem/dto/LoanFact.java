@@ -0,0 +1,70 @@
+package com.wipro.librarymanagementsystem.dto;
+
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Flattened loan with the book and user attributes analytics groups by, read for the columnar snapshot
+public class LoanFact {
+    
+    private Long id;
+    private Long bookId;
+    private Long userId;
+    private String genre;
+    private User.MembershipType membershipType;
+    private LocalDateTime borrowDate;
+    private LocalDateTime dueDate;
+    private LocalDateTime returnDate;
+    private BorrowRecord.BorrowStatus status;
+    private BigDecimal fineAmount;
+    
+    // Constructors
+    public LoanFact() {}
+    
+    public LoanFact(Long id, Long bookId, Long userId, String genre, User.MembershipType membershipType,
+                    LocalDateTime borrowDate, LocalDateTime dueDate, LocalDateTime returnDate,
+                    BorrowRecord.BorrowStatus status, BigDecimal fineAmount) {
+        this.id = id;
+        this.bookId = bookId;
+        this.userId = userId;
+        this.genre = genre;
+        this.membershipType = membershipType;
+        this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.status = status;
+        this.fineAmount = fineAmount;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+    
+    public User.MembershipType getMembershipType() { return membershipType; }
+    public void setMembershipType(User.MembershipType membershipType) { this.membershipType = membershipType; }
+    
+    public LocalDateTime getBorrowDate() { return borrowDate; }
+    public void setBorrowDate(LocalDateTime borrowDate) { this.borrowDate = borrowDate; }
+    
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+    
+    public LocalDateTime getReturnDate() { return returnDate; }
+    public void setReturnDate(LocalDateTime returnDate) { this.returnDate = returnDate; }
+    
+    public BorrowRecord.BorrowStatus getStatus() { return status; }
+    public void setStatus(BorrowRecord.BorrowStatus status) { this.status = status; }
+    
+    public BigDecimal getFineAmount() { return fineAmount; }
+    public void setFineAmount(BigDecimal fineAmount) { this.fineAmount = fineAmount; }
+}
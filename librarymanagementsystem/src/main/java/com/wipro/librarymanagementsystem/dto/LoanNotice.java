@@ -0,0 +1,67 @@
+package com.wipro.librarymanagementsystem.dto;
+
+import java.time.LocalDateTime;
+
+// Flat row for loan notifications, filled by a JPQL constructor expression
+// so batch runs never load BorrowRecord entities
+public class LoanNotice {
+    
+    private Long borrowRecordId;
+    private Long userId;
+    private String email;
+    private String firstName;
+    private Long bookId;
+    private String title;
+    private String author;
+    private LocalDateTime dueDate;
+    
+    // Constructors
+    public LoanNotice() {}
+    
+    public LoanNotice(Long borrowRecordId, Long userId, String email, String firstName,
+                      Long bookId, String title, String author, LocalDateTime dueDate) {
+        this.borrowRecordId = borrowRecordId;
+        this.userId = userId;
+        this.email = email;
+        this.firstName = firstName;
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.dueDate = dueDate;
+    }
+    
+    // Getters and Setters
+    public Long getBorrowRecordId() { return borrowRecordId; }
+    public void setBorrowRecordId(Long borrowRecordId) { this.borrowRecordId = borrowRecordId; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+    
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+    
+    @Override
+    public String toString() {
+        return "LoanNotice{" +
+                "borrowRecordId=" + borrowRecordId +
+                ", userId=" + userId +
+                ", title='" + title + '\'' +
+                ", dueDate=" + dueDate +
+                '}';
+    }
+}
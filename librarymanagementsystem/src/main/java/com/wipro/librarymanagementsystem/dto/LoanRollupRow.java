@@ -0,0 +1,63 @@
+package com.wipro.librarymanagementsystem.dto;
+
+import com.wipro.librarymanagementsystem.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Circulation totals of one day, genre and membership type aggregated from borrow records,
+// used to backfill the daily rollups
+public class LoanRollupRow {
+    
+    private LocalDate day;
+    private String genre;
+    private User.MembershipType membershipType;
+    private long loans;
+    private long returns;
+    private long overdueReturns;
+    private BigDecimal fines = BigDecimal.ZERO;
+    
+    // Constructors
+    public LoanRollupRow() {}
+    
+    // Loans started on the day
+    public LoanRollupRow(LocalDate day, String genre, User.MembershipType membershipType, Long loans) {
+        this.day = day;
+        this.genre = genre;
+        this.membershipType = membershipType;
+        this.loans = loans == null ? 0 : loans;
+    }
+    
+    // Loans returned on the day
+    public LoanRollupRow(LocalDate day, String genre, User.MembershipType membershipType,
+                         Long returns, Long overdueReturns, BigDecimal fines) {
+        this.day = day;
+        this.genre = genre;
+        this.membershipType = membershipType;
+        this.returns = returns == null ? 0 : returns;
+        this.overdueReturns = overdueReturns == null ? 0 : overdueReturns;
+        this.fines = fines == null ? BigDecimal.ZERO : fines;
+    }
+    
+    // Getters and Setters
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+    
+    public User.MembershipType getMembershipType() { return membershipType; }
+    public void setMembershipType(User.MembershipType membershipType) { this.membershipType = membershipType; }
+    
+    public long getLoans() { return loans; }
+    public void setLoans(long loans) { this.loans = loans; }
+    
+    public long getReturns() { return returns; }
+    public void setReturns(long returns) { this.returns = returns; }
+    
+    public long getOverdueReturns() { return overdueReturns; }
+    public void setOverdueReturns(long overdueReturns) { this.overdueReturns = overdueReturns; }
+    
+    public BigDecimal getFines() { return fines; }
+    public void setFines(BigDecimal fines) { this.fines = fines; }
+}
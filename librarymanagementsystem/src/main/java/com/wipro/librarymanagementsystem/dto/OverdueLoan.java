@@ -0,0 +1,43 @@
+package com.wipro.librarymanagementsystem.dto;
+
+import com.wipro.librarymanagementsystem.entity.User;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Open overdue loan as seen by the nightly fine accrual; fineAmount is what has accrued so far
+public class OverdueLoan {
+    
+    private Long borrowRecordId;
+    private Long userId;
+    private User.MembershipType membershipType;
+    private LocalDateTime dueDate;
+    private BigDecimal fineAmount;
+    
+    // Constructors
+    public OverdueLoan() {}
+    
+    public OverdueLoan(Long borrowRecordId, Long userId, User.MembershipType membershipType,
+                       LocalDateTime dueDate, BigDecimal fineAmount) {
+        this.borrowRecordId = borrowRecordId;
+        this.userId = userId;
+        this.membershipType = membershipType;
+        this.dueDate = dueDate;
+        this.fineAmount = fineAmount;
+    }
+    
+    // Getters and Setters
+    public Long getBorrowRecordId() { return borrowRecordId; }
+    public void setBorrowRecordId(Long borrowRecordId) { this.borrowRecordId = borrowRecordId; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public User.MembershipType getMembershipType() { return membershipType; }
+    public void setMembershipType(User.MembershipType membershipType) { this.membershipType = membershipType; }
+    
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+    
+    public BigDecimal getFineAmount() { return fineAmount; }
+    public void setFineAmount(BigDecimal fineAmount) { this.fineAmount = fineAmount; }
+}
@@ -0,0 +1,23 @@
+package com.wipro.librarymanagementsystem.dto;
+
+// A user and a book they have borrowed at least once, used to build the recommendation model
+public class UserBookPair {
+    
+    private Long userId;
+    private Long bookId;
+    
+    // Constructors
+    public UserBookPair() {}
+    
+    public UserBookPair(Long userId, Long bookId) {
+        this.userId = userId;
+        this.bookId = bookId;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+}
@@ -0,0 +1,28 @@
+package com.wipro.librarymanagementsystem.dto;
+
+// Open loans of one user, used to warm and reconcile the in-memory loan counters
+public class UserLoanCount {
+    
+    private Long userId;
+    private long activeLoans;
+    private long overdueLoans;
+    
+    // Constructors
+    public UserLoanCount() {}
+    
+    public UserLoanCount(Long userId, Long activeLoans, Long overdueLoans) {
+        this.userId = userId;
+        this.activeLoans = activeLoans == null ? 0 : activeLoans;
+        this.overdueLoans = overdueLoans == null ? 0 : overdueLoans;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public long getActiveLoans() { return activeLoans; }
+    public void setActiveLoans(long activeLoans) { this.activeLoans = activeLoans; }
+    
+    public long getOverdueLoans() { return overdueLoans; }
+    public void setOverdueLoans(long overdueLoans) { this.overdueLoans = overdueLoans; }
+}
@@ -0,0 +1,113 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A returned loan moved out of borrow_records by the archival job. The id is the original
+// borrow record id; user and book are plain ids without foreign keys, so the archive never
+// blocks deleting a user or book (their archived loans are removed with them).
+@Entity
+@Table(name = "borrow_records_archive",
+       indexes = {
+           @Index(name = "idx_archive_user", columnList = "user_id, borrow_date"),
+           @Index(name = "idx_archive_book", columnList = "book_id, borrow_date"),
+           @Index(name = "idx_archive_borrow_date", columnList = "borrow_date"),
+           @Index(name = "idx_archive_return_date", columnList = "return_date")
+       })
+public class ArchivedBorrowRecord {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "borrow_date")
+    private LocalDateTime borrowDate;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDateTime dueDate;
+
+    @Column(name = "return_date")
+    private LocalDateTime returnDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BorrowRecord.BorrowStatus status;
+
+    @Column(name = "fine_amount", precision = 10, scale = 2)
+    private BigDecimal fineAmount;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    public ArchivedBorrowRecord() {}
+
+    // The loan as a detached BorrowRecord, so history responses keep their shape
+    public BorrowRecord toBorrowRecord(User user, Book book) {
+        BorrowRecord record = new BorrowRecord();
+        record.setId(id);
+        record.setUser(user);
+        record.setBook(book);
+        record.setBorrowDate(borrowDate);
+        record.setDueDate(dueDate);
+        record.setReturnDate(returnDate);
+        record.setStatus(status);
+        record.setFineAmount(fineAmount);
+        record.setNotes(notes);
+        record.setCreatedAt(createdAt);
+        record.setUpdatedAt(updatedAt);
+        return record;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public LocalDateTime getBorrowDate() { return borrowDate; }
+    public void setBorrowDate(LocalDateTime borrowDate) { this.borrowDate = borrowDate; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+
+    public LocalDateTime getReturnDate() { return returnDate; }
+    public void setReturnDate(LocalDateTime returnDate) { this.returnDate = returnDate; }
+
+    public BorrowRecord.BorrowStatus getStatus() { return status; }
+    public void setStatus(BorrowRecord.BorrowStatus status) { this.status = status; }
+
+    public BigDecimal getFineAmount() { return fineAmount; }
+    public void setFineAmount(BigDecimal fineAmount) { this.fineAmount = fineAmount; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
@@ -7,13 +7,19 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+// Fixed JSON property order; it also numbers the protobuf fields (ProtobufSchemas), so add new properties at the end
+@JsonPropertyOrder({"id", "title", "author", "isbn", "genre", "publicationYear", "totalCopies", "availableCopies",
+        "createdAt", "updatedAt", "borrowedCopies", "available"})
 @Entity
 @Table(name = "books")
 public class Book {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (table-backed on MySQL) so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Title is required")
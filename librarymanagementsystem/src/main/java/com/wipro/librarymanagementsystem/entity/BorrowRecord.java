@@ -8,15 +8,23 @@ import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 
 
+// Fixed JSON property order; it also numbers the protobuf fields (ProtobufSchemas), so add new properties at the end
+@JsonPropertyOrder({"id", "user", "book", "borrowDate", "dueDate", "returnDate", "status", "fineAmount", "notes",
+        "createdAt", "updatedAt", "overdue", "daysOverdue"})
+// Borrow-date index serves the date-range scans of reporting backfills and snapshot exports
 @Entity
-@Table(name = "borrow_records")
+@Table(name = "borrow_records",
+       indexes = @Index(name = "idx_borrow_records_borrow_date", columnList = "borrow_date"))
 public class BorrowRecord {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (table-backed on MySQL) so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_record_seq")
+    @SequenceGenerator(name = "borrow_record_seq", sequenceName = "borrow_record_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.EAGER)
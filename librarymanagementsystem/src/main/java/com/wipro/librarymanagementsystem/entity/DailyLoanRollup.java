@@ -0,0 +1,79 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Circulation totals for one day, genre and membership type. Loans count on the day
+// they started; returns, late returns and fines count on the day the book came back.
+@Entity
+@Table(name = "daily_loan_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rollup_day_genre_membership",
+                                             columnNames = {"rollup_date", "genre", "membership_type"}))
+public class DailyLoanRollup {
+
+    // Books without a genre are reported under this value
+    public static final String NO_GENRE = "Unclassified";
+
+    @Id
+    // Rows are only written by the native upsert, which leaves the id to auto-increment
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false, length = 100)
+    private String genre;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "membership_type", nullable = false, length = 20)
+    private User.MembershipType membershipType;
+
+    @Column(nullable = false)
+    private long loans;
+
+    @Column(name = "returned_loans", nullable = false)
+    private long returns;
+
+    @Column(name = "overdue_returns", nullable = false)
+    private long overdueReturns;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal fines = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public DailyLoanRollup() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+
+    public User.MembershipType getMembershipType() { return membershipType; }
+    public void setMembershipType(User.MembershipType membershipType) { this.membershipType = membershipType; }
+
+    public long getLoans() { return loans; }
+    public void setLoans(long loans) { this.loans = loans; }
+
+    public long getReturns() { return returns; }
+    public void setReturns(long returns) { this.returns = returns; }
+
+    public long getOverdueReturns() { return overdueReturns; }
+    public void setOverdueReturns(long overdueReturns) { this.overdueReturns = overdueReturns; }
+
+    public BigDecimal getFines() { return fines; }
+    public void setFines(BigDecimal fines) { this.fines = fines; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
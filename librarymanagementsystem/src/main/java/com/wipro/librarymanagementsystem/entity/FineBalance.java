@@ -0,0 +1,52 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running totals of a user's fine ledger, maintained with every ledger insert so
+// balance queries never have to sum the ledger
+@Entity
+@Table(name = "fine_balances")
+public class FineBalance {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal outstanding = BigDecimal.ZERO;
+
+    @Column(name = "total_accrued", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAccrued = BigDecimal.ZERO;
+
+    @Column(name = "total_paid", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public FineBalance() {}
+
+    public FineBalance(Long userId) {
+        this.userId = userId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public BigDecimal getOutstanding() { return outstanding; }
+    public void setOutstanding(BigDecimal outstanding) { this.outstanding = outstanding; }
+
+    public BigDecimal getTotalAccrued() { return totalAccrued; }
+    public void setTotalAccrued(BigDecimal totalAccrued) { this.totalAccrued = totalAccrued; }
+
+    public BigDecimal getTotalPaid() { return totalPaid; }
+    public void setTotalPaid(BigDecimal totalPaid) { this.totalPaid = totalPaid; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
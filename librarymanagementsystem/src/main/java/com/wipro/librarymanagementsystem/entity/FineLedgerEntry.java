@@ -0,0 +1,73 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One movement on a user's fine account. Rows are only ever inserted; corrections are
+// new entries, so the ledger is a complete history of how every balance came about.
+@Entity
+@Immutable
+@Table(name = "fine_ledger",
+       indexes = {
+           @Index(name = "idx_fine_ledger_user", columnList = "user_id, id"),
+           @Index(name = "idx_fine_ledger_loan", columnList = "borrow_record_id")
+       })
+public class FineLedgerEntry {
+
+    @Id
+    // Pooled sequence (table-backed on MySQL) so a nightly chunk is inserted as one JDBC batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fine_ledger_seq")
+    @SequenceGenerator(name = "fine_ledger_seq", sequenceName = "fine_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Null for entries not tied to a loan (payments)
+    @Column(name = "borrow_record_id")
+    private Long borrowRecordId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private EntryType entryType;
+
+    // Positive amounts increase what the user owes, negative amounts reduce it
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    // Loan's accrued fine after this entry (accruals and return settlements)
+    @Column(name = "accrued_total", precision = 10, scale = 2)
+    private BigDecimal accruedTotal;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Enum for ledger entry type
+    public enum EntryType {
+        ACCRUAL, RETURN_SETTLEMENT, PAYMENT
+    }
+
+    // Constructors
+    protected FineLedgerEntry() {}
+
+    public FineLedgerEntry(Long userId, Long borrowRecordId, EntryType entryType,
+                           BigDecimal amount, BigDecimal accruedTotal) {
+        this.userId = userId;
+        this.borrowRecordId = borrowRecordId;
+        this.entryType = entryType;
+        this.amount = amount;
+        this.accruedTotal = accruedTotal;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public Long getBorrowRecordId() { return borrowRecordId; }
+    public EntryType getEntryType() { return entryType; }
+    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getAccruedTotal() { return accruedTotal; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
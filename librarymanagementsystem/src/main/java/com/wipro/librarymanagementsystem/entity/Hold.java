@@ -0,0 +1,102 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A patron's place in the queue for a book that has no copy on the shelf
+@Entity
+@Table(name = "holds",
+       indexes = {
+           @Index(name = "idx_holds_status", columnList = "status, id"),
+           @Index(name = "idx_holds_user", columnList = "user_id, status")
+       })
+public class Hold {
+
+    @Id
+    // Pooled sequence (table-backed on MySQL); ids also give the FIFO order within a book's queue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hold_seq")
+    @SequenceGenerator(name = "hold_seq", sequenceName = "hold_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private HoldStatus status = HoldStatus.WAITING;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // When a returned copy was set aside for this hold
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    // Pickup deadline while READY
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // When the hold was borrowed, cancelled or expired
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    // Enum for hold status
+    public enum HoldStatus {
+        WAITING, READY, FULFILLED, CANCELLED, EXPIRED
+    }
+
+    // Constructors
+    public Hold() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Hold(Long userId, Long bookId) {
+        this();
+        this.userId = userId;
+        this.bookId = bookId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public HoldStatus getStatus() { return status; }
+    public void setStatus(HoldStatus status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getReadyAt() { return readyAt; }
+    public void setReadyAt(LocalDateTime readyAt) { this.readyAt = readyAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getClosedAt() { return closedAt; }
+    public void setClosedAt(LocalDateTime closedAt) { this.closedAt = closedAt; }
+
+    // Helper method to check if the hold still occupies a place in the queue
+    public boolean isActive() {
+        return status == HoldStatus.WAITING || status == HoldStatus.READY;
+    }
+
+    @Override
+    public String toString() {
+        return "Hold{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", bookId=" + bookId +
+                ", status=" + status +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
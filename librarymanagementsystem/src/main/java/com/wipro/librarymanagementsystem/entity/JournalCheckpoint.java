@@ -0,0 +1,42 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Last journal sequence whose effects are in the database. It is written in the same
+// transaction as those effects, so after a crash replay resumes exactly where the
+// committed work stops.
+@Entity
+@Table(name = "journal_checkpoints")
+public class JournalCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public JournalCheckpoint() {
+    }
+
+    public JournalCheckpoint(String name, long appliedSequence) {
+        this.name = name;
+        this.appliedSequence = appliedSequence;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getAppliedSequence() { return appliedSequence; }
+    public void setAppliedSequence(long appliedSequence) { this.appliedSequence = appliedSequence; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,65 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Records that a loan notification of a given kind was sent; the unique key makes
+// a second send for the same loan impossible, even from another instance
+@Entity
+@Table(name = "notification_markers",
+       uniqueConstraints = @UniqueConstraint(name = "uk_notification_loan_kind",
+                                             columnNames = {"borrow_record_id", "kind"}))
+public class NotificationMarker {
+
+    @Id
+    // Pooled sequence (table-backed on MySQL) so a user's markers are inserted in one batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_marker_seq")
+    @SequenceGenerator(name = "notification_marker_seq", sequenceName = "notification_marker_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "borrow_record_id", nullable = false)
+    private Long borrowRecordId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Kind kind;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+
+    // Enum for notification kind
+    public enum Kind {
+        DUE_SOON, OVERDUE
+    }
+
+    // Constructors
+    public NotificationMarker() {
+        this.sentAt = LocalDateTime.now();
+    }
+
+    public NotificationMarker(Long borrowRecordId, Long userId, Kind kind) {
+        this();
+        this.borrowRecordId = borrowRecordId;
+        this.userId = userId;
+        this.kind = kind;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getBorrowRecordId() { return borrowRecordId; }
+    public void setBorrowRecordId(Long borrowRecordId) { this.borrowRecordId = borrowRecordId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Kind getKind() { return kind; }
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
@@ -0,0 +1,110 @@
+package com.wipro.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A message for external systems, written in the same transaction as the change it describes
+// and delivered later by the outbox relay
+@Entity
+@Table(name = "outbox_events",
+       indexes = @Index(name = "idx_outbox_unpublished", columnList = "published_at, id"))
+public class OutboxEvent {
+
+    @Id
+    // The relay delivers in id order, but ids are taken at insert and not at commit: a slow
+    // transaction can commit an event after a higher id was delivered, so consumers must not
+    // rely on delivery order across aggregates
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Stable per logical event; consumers use it to drop redeliveries
+    @Column(name = "dedup_key", nullable = false, unique = true, length = 150)
+    private String dedupKey;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "aggregate_type", nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Set while a relay is sending the event; a claim left behind by a dead relay expires
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    // Constructors
+    public OutboxEvent() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public OutboxEvent(String dedupKey, String eventType, String aggregateType, Long aggregateId, String payload) {
+        this();
+        this.dedupKey = dedupKey;
+        this.eventType = eventType;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getDedupKey() { return dedupKey; }
+    public void setDedupKey(String dedupKey) { this.dedupKey = dedupKey; }
+
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+
+    public String getAggregateType() { return aggregateType; }
+    public void setAggregateType(String aggregateType) { this.aggregateType = aggregateType; }
+
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(LocalDateTime claimedUntil) { this.claimedUntil = claimedUntil; }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id=" + id +
+                ", dedupKey='" + dedupKey + '\'' +
+                ", eventType='" + eventType + '\'' +
+                ", publishedAt=" + publishedAt +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
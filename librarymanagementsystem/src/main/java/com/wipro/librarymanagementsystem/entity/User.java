@@ -7,14 +7,20 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+// Fixed JSON property order; it also numbers the protobuf fields (ProtobufSchemas), so add new properties at the end
+@JsonPropertyOrder({"id", "username", "email", "firstName", "lastName", "phone", "address", "membershipType", "isActive",
+        "createdAt", "updatedAt", "fullName"})
 @Entity
 @Table(name = "users")
 public class User {
     
 	
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (table-backed on MySQL) so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 	
     
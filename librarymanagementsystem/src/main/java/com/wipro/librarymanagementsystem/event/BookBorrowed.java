@@ -0,0 +1,34 @@
+package com.wipro.librarymanagementsystem.event;
+
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+
+import java.time.LocalDateTime;
+
+public record BookBorrowed(
+        Long borrowRecordId,
+        Long bookId,
+        Long userId,
+        String genre,
+        User.MembershipType membershipType,
+        LocalDateTime borrowDate,
+        LocalDateTime dueDate,
+        LocalDateTime occurredAt) implements DomainEvent {
+
+    public static BookBorrowed of(BorrowRecord record) {
+        return new BookBorrowed(
+                record.getId(),
+                record.getBook().getId(),
+                record.getUser().getId(),
+                record.getBook().getGenre(),
+                record.getUser().getMembershipType(),
+                record.getBorrowDate(),
+                record.getDueDate(),
+                LocalDateTime.now());
+    }
+
+    @Override
+    public Long aggregateId() {
+        return bookId;
+    }
+}
@@ -0,0 +1,49 @@
+package com.wipro.librarymanagementsystem.event;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+
+import java.time.LocalDateTime;
+
+// Catalogue change: before is null for a new book, after is null for a deleted one
+public record BookChanged(
+        Long bookId,
+        BookSnapshot before,
+        BookSnapshot after,
+        LocalDateTime occurredAt) implements DomainEvent {
+
+    public BookChanged(Long bookId, BookSnapshot before, BookSnapshot after) {
+        this(bookId, before, after, LocalDateTime.now());
+    }
+
+    @Override
+    public Long aggregateId() {
+        return bookId;
+    }
+
+    public boolean isCreated() {
+        return before == null;
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+
+    public record BookSnapshot(
+            Long id,
+            String title,
+            String author,
+            String genre,
+            Integer publicationYear,
+            Integer totalCopies,
+            Integer availableCopies) {
+
+        public static BookSnapshot of(Book book) {
+            return new BookSnapshot(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(),
+                    book.getPublicationYear(), book.getTotalCopies(), book.getAvailableCopies());
+        }
+
+        public boolean isAvailable() {
+            return availableCopies != null && availableCopies > 0;
+        }
+    }
+}
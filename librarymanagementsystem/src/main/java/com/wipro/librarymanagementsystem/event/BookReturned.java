@@ -0,0 +1,44 @@
+package com.wipro.librarymanagementsystem.event;
+
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record BookReturned(
+        Long borrowRecordId,
+        Long bookId,
+        Long userId,
+        String genre,
+        User.MembershipType membershipType,
+        LocalDateTime borrowDate,
+        LocalDateTime dueDate,
+        LocalDateTime returnDate,
+        boolean overdue,
+        BorrowRecord.BorrowStatus previousStatus,
+        BigDecimal fineAmount,
+        LocalDateTime occurredAt) implements DomainEvent {
+
+    // previousStatus: the loan's status before the return (BORROWED or OVERDUE)
+    public static BookReturned of(BorrowRecord record, boolean overdue, BorrowRecord.BorrowStatus previousStatus) {
+        return new BookReturned(
+                record.getId(),
+                record.getBook().getId(),
+                record.getUser().getId(),
+                record.getBook().getGenre(),
+                record.getUser().getMembershipType(),
+                record.getBorrowDate(),
+                record.getDueDate(),
+                record.getReturnDate(),
+                overdue,
+                previousStatus,
+                record.getFineAmount(),
+                LocalDateTime.now());
+    }
+
+    @Override
+    public Long aggregateId() {
+        return bookId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.wipro.librarymanagementsystem.event;
+
+import java.time.LocalDateTime;
+
+// Something that happened to a book, loan or user, published after the change commits
+public interface DomainEvent {
+
+    // Events with the same aggregate id are delivered to consumers in publish order
+    Long aggregateId();
+
+    LocalDateTime occurredAt();
+}
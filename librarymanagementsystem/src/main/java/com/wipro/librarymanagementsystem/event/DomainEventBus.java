@@ -0,0 +1,268 @@
+package com.wipro.librarymanagementsystem.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// In-process bus for domain events. Events are handed over only after the publishing
+// transaction commits and are spread over a fixed set of partitions by aggregate id;
+// each partition is a bounded queue drained by one worker thread, so consumers see
+// the events of one book or user in the order they were published. Publishing never waits:
+// it runs in after-commit callbacks, where the request thread still holds its JDBC connection.
+// An event that finds its partition full is dropped instead; every consumer of its type is
+// then marked stale and rebuilt from the database by its registered resync once the events
+// published before the drop have been dispatched.
+@Component
+public class DomainEventBus {
+
+    @Value("${library.events.partitions:4}")
+    private int partitionCount;
+
+    @Value("${library.events.buffer-size:1024}")
+    private int bufferSize;
+
+    @Value("${library.events.shutdown-timeout-ms:2000}")
+    private long shutdownTimeoutMillis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    // Consumer -> full rebuild of its state from the database
+    private final Map<String, Runnable> resyncs = new ConcurrentHashMap<>();
+    // Consumer -> time of the last drop it missed, until its resync has run
+    private final Map<String, Long> staleConsumers = new ConcurrentHashMap<>();
+    private Partition[] partitions;
+    private Counter droppedCounter;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        droppedCounter = Counter.builder("library.events.dropped")
+                .description("Events discarded because their partition was full")
+                .register(meterRegistry);
+        Gauge.builder("library.events.stale.consumers", staleConsumers, Map::size)
+                .description("Consumers that missed a dropped event and wait for their resync")
+                .register(meterRegistry);
+        partitions = new Partition[partitionCount];
+        running = true;
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+            partitions[i].worker.start();
+        }
+    }
+
+    // Register a consumer for one event type (and its subtypes)
+    public <T extends DomainEvent> void subscribe(String consumer, Class<T> type, Consumer<T> handler) {
+        Timer timer = Timer.builder("library.events.consumer.duration")
+                .tag("consumer", consumer)
+                .register(meterRegistry);
+        Counter failures = Counter.builder("library.events.consumer.failures")
+                .tag("consumer", consumer)
+                .register(meterRegistry);
+        subscriptions.add(new Subscription<>(consumer, type, handler, timer, failures));
+    }
+
+    // Register how a consumer rebuilds its state when one of its events had to be dropped
+    public void onDropped(String consumer, Runnable resync) {
+        resyncs.put(consumer, resync);
+    }
+
+    // Publish after the current transaction commits, or immediately when there is none.
+    // Rolled-back changes therefore never reach consumers.
+    public void publish(DomainEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    // A full partition drops the event at once and leaves its consumers to the resync
+    private void enqueue(DomainEvent event) {
+        Partition partition = partitions[Math.floorMod(Long.hashCode(event.aggregateId()), partitions.length)];
+        if (partition.queue.offer(new Envelope(event, System.nanoTime()))) {
+            partition.published.increment();
+            return;
+        }
+        droppedCounter.increment();
+        long droppedAt = System.nanoTime();
+        Set<String> affected = new TreeSet<>();
+        for (Subscription<?> subscription : subscriptions) {
+            if (subscription.type.isInstance(event)) {
+                affected.add(subscription.consumer);
+                staleConsumers.put(subscription.consumer, droppedAt);
+            }
+        }
+        System.out.println("Dropped " + event.getClass().getSimpleName() + " for aggregate "
+                + event.aggregateId() + ": event partition " + partition.index + " is full; resyncing " + affected);
+    }
+
+    // Rebuild the consumers that missed an event. Waits until everything queued before the
+    // drop has been dispatched, so the rebuild is not overtaken by older events.
+    @Scheduled(fixedDelayString = "${library.events.resync-interval-ms:1000}")
+    public void resyncStaleConsumers() {
+        if (staleConsumers.isEmpty()) {
+            return;
+        }
+        long oldestPending = 0;
+        for (Partition partition : partitions) {
+            long pending = partition.oldestPending();
+            if (pending != 0 && (oldestPending == 0 || pending - oldestPending < 0)) {
+                oldestPending = pending;
+            }
+        }
+        for (Map.Entry<String, Long> stale : staleConsumers.entrySet()) {
+            String consumer = stale.getKey();
+            long droppedAt = stale.getValue();
+            if (oldestPending != 0 && oldestPending - droppedAt < 0) {
+                continue;
+            }
+            Runnable resync = resyncs.get(consumer);
+            if (resync == null) {
+                staleConsumers.remove(consumer, droppedAt);
+                System.out.println("Event consumer " + consumer + " has no resync; its state stays stale"
+                        + " until its next scheduled rebuild");
+                continue;
+            }
+            try {
+                resync.run();
+                staleConsumers.remove(consumer, droppedAt);
+                System.out.println("Event consumer " + consumer + " resynced after a dropped event");
+            } catch (RuntimeException e) {
+                // Stays stale and is retried on the next run
+                System.out.println("Resync of event consumer " + consumer + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(DomainEvent event) {
+        for (Subscription<?> subscription : subscriptions) {
+            if (!subscription.type.isInstance(event)) {
+                continue;
+            }
+            Subscription<DomainEvent> target = (Subscription<DomainEvent>) subscription;
+            long start = System.nanoTime();
+            try {
+                target.handler.accept(event);
+            } catch (RuntimeException e) {
+                // One failing consumer must not stall the partition for the others
+                target.failures.increment();
+                System.out.println("Event consumer " + target.consumer + " failed on "
+                        + event.getClass().getSimpleName() + ": " + e.getMessage());
+            } finally {
+                target.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // Drain what is already queued, then stop the workers
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.worker.join(shutdownTimeoutMillis);
+        }
+    }
+
+    private class Partition implements Runnable {
+        private final int index;
+        private final BlockingQueue<Envelope> queue;
+        private final Thread worker;
+        private final Counter published;
+        private final Counter consumed;
+        // Enqueue time of the event being dispatched, 0 when idle
+        private final AtomicLong inFlightSince = new AtomicLong();
+
+        Partition(int index) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+            this.worker = new Thread(this, "domain-events-" + index);
+            this.worker.setDaemon(true);
+            String partitionTag = Integer.toString(index);
+            this.published = Counter.builder("library.events.published")
+                    .tag("partition", partitionTag)
+                    .register(meterRegistry);
+            this.consumed = Counter.builder("library.events.consumed")
+                    .tag("partition", partitionTag)
+                    .register(meterRegistry);
+            Gauge.builder("library.events.queue.depth", queue, BlockingQueue::size)
+                    .tag("partition", partitionTag)
+                    .description("Events waiting to be dispatched")
+                    .register(meterRegistry);
+            Gauge.builder("library.events.consumer.lag", this, Partition::lagSeconds)
+                    .tag("partition", partitionTag)
+                    .description("Age in seconds of the oldest event not yet fully consumed")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Envelope envelope = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (envelope == null) {
+                        continue;
+                    }
+                    inFlightSince.set(envelope.enqueuedAt);
+                    dispatch(envelope.event);
+                    consumed.increment();
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    inFlightSince.set(0);
+                }
+            }
+        }
+
+        // Enqueue time of the oldest event not yet fully consumed, 0 when there is none
+        private long oldestPending() {
+            long oldest = inFlightSince.get();
+            if (oldest == 0) {
+                Envelope head = queue.peek();
+                oldest = head == null ? 0 : head.enqueuedAt;
+            }
+            return oldest;
+        }
+
+        private double lagSeconds() {
+            long oldest = oldestPending();
+            return oldest == 0 ? 0 : (System.nanoTime() - oldest) / 1e9;
+        }
+    }
+
+    private record Envelope(DomainEvent event, long enqueuedAt) {
+    }
+
+    private record Subscription<T extends DomainEvent>(
+            String consumer, Class<T> type, Consumer<T> handler, Timer timer, Counter failures) {
+    }
+}
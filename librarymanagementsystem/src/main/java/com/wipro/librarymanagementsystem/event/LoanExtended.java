@@ -0,0 +1,22 @@
+package com.wipro.librarymanagementsystem.event;
+
+import java.time.LocalDateTime;
+
+public record LoanExtended(
+        Long borrowRecordId,
+        Long bookId,
+        Long userId,
+        LocalDateTime previousDueDate,
+        LocalDateTime dueDate,
+        LocalDateTime occurredAt) implements DomainEvent {
+
+    public LoanExtended(Long borrowRecordId, Long bookId, Long userId,
+                        LocalDateTime previousDueDate, LocalDateTime dueDate) {
+        this(borrowRecordId, bookId, userId, previousDueDate, dueDate, LocalDateTime.now());
+    }
+
+    @Override
+    public Long aggregateId() {
+        return bookId;
+    }
+}
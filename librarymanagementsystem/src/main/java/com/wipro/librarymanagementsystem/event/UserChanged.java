@@ -0,0 +1,42 @@
+package com.wipro.librarymanagementsystem.event;
+
+import com.wipro.librarymanagementsystem.entity.User;
+
+import java.time.LocalDateTime;
+
+// Patron change: before is null for a new user, after is null for a deleted one
+public record UserChanged(
+        Long userId,
+        UserSnapshot before,
+        UserSnapshot after,
+        LocalDateTime occurredAt) implements DomainEvent {
+
+    public UserChanged(Long userId, UserSnapshot before, UserSnapshot after) {
+        this(userId, before, after, LocalDateTime.now());
+    }
+
+    @Override
+    public Long aggregateId() {
+        return userId;
+    }
+
+    public boolean isCreated() {
+        return before == null;
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+
+    public record UserSnapshot(
+            Long id,
+            String username,
+            User.MembershipType membershipType,
+            boolean active) {
+
+        public static UserSnapshot of(User user) {
+            return new UserSnapshot(user.getId(), user.getUsername(), user.getMembershipType(),
+                    Boolean.TRUE.equals(user.getIsActive()));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.wipro.librarymanagementsystem.journal;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// A checkout or return accepted into the loan journal. A borrow carries the user and
+// book, a return the borrow record; the unused ids are 0. acceptedAtMillis is when the
+// caller was acknowledged and becomes the loan's borrow or return date when applied.
+public record LoanCommand(
+        long sequence,
+        Type type,
+        long userId,
+        long bookId,
+        long borrowRecordId,
+        long acceptedAtMillis) {
+
+    public enum Type {
+        BORROW, RETURN
+    }
+
+    public LocalDateTime acceptedAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(acceptedAtMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,511 @@
+package com.wipro.librarymanagementsystem.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+// Append-only journal of loan commands in memory-mapped segment files. Records have a
+// fixed size (length, CRC32, then the command), so the record for any sequence is found
+// by arithmetic. Appends only copy bytes into the mapping; one flusher thread forces
+// everything appended since its last pass to disk and acknowledges all of those callers
+// at once (group commit), so the cost of a sync is shared by every checkout that arrived
+// while the previous one was running. Only synced commands are visible to readers.
+@Component
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class LoanJournal {
+
+    private static final String SEGMENT_PREFIX = "loans-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int BODY_SIZE = 8 + 1 + 8 + 8 + 8 + 8;
+    private static final int RECORD_SIZE = 4 + 4 + BODY_SIZE;
+
+    @Value("${library.journal.path:journal}")
+    private Path directory;
+
+    @Value("${library.journal.segment-size-mb:16}")
+    private int segmentSizeMb;
+
+    @Value("${library.journal.group-commit-wait-ms:0}")
+    private long groupCommitWaitMillis;
+
+    @Value("${library.journal.ack-timeout-ms:5000}")
+    private long ackTimeoutMillis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private List<Pending> pending = new ArrayList<>();
+    private final Set<Segment> unsynced = new LinkedHashSet<>();
+    private long nextSequence = 1;
+    private volatile long durableSequence;
+    private volatile String failure;
+    private boolean closed;
+    private Thread flusher;
+
+    private Counter borrowCounter;
+    private Counter returnCounter;
+    private Timer syncTimer;
+    private DistributionSummary groupSize;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        for (Path file : files) {
+            Segment segment = Segment.open(file, firstSequenceOf(file), segmentBytes());
+            int torn = segment.recover();
+            if (torn >= 0) {
+                System.out.println("Loan journal " + file.getFileName() + ": discarded a torn record at offset " + torn);
+            }
+            if (!segments.isEmpty() && segments.get(segments.size() - 1).lastSequence() + 1 != segment.firstSequence) {
+                // The previous segment lost its tail, so nothing after it was ever acknowledged
+                System.out.println("Loan journal " + file.getFileName() + " does not follow sequence "
+                        + segments.get(segments.size() - 1).lastSequence() + "; discarding it");
+                segment.truncateAfter(segment.firstSequence - 1);
+                segment.delete();
+                continue;
+            }
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.open(segmentPath(1), 1, segmentBytes()));
+        }
+        Segment last = segments.get(segments.size() - 1);
+        nextSequence = last.lastSequence() + 1;
+        durableSequence = last.lastSequence();
+
+        borrowCounter = Counter.builder("library.journal.appended").tag("type", "borrow")
+                .description("Loan commands appended to the journal")
+                .register(meterRegistry);
+        returnCounter = Counter.builder("library.journal.appended").tag("type", "return")
+                .description("Loan commands appended to the journal")
+                .register(meterRegistry);
+        syncTimer = Timer.builder("library.journal.sync")
+                .description("Time to force one group of journal records to disk")
+                .register(meterRegistry);
+        groupSize = DistributionSummary.builder("library.journal.group.size")
+                .description("Commands acknowledged per journal sync")
+                .register(meterRegistry);
+        Gauge.builder("library.journal.segments", this, journal -> journal.segmentCount())
+                .register(meterRegistry);
+
+        flusher = new Thread(this::flushLoop, "loan-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        System.out.println("Loan journal opened: " + segments.size() + " segments, last sequence " + durableSequence);
+    }
+
+    // Append a command and wait until it is on disk. A command still unsynced after the ack
+    // timeout is not failed: it may yet become durable and be applied, so it is returned
+    // with durable=false and its outcome is only known from the command's status.
+    public Ack appendDurably(LoanCommand.Type type, long userId, long bookId, long borrowRecordId) {
+        Appended appended = append(type, userId, bookId, borrowRecordId);
+        try {
+            appended.synced().get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+            return new Ack(appended.sequence(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Ack(appended.sequence(), false);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Loan journal write failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            return new Ack(appended.sequence(), false);
+        }
+    }
+
+    // The synced future completes with the sequence once the command is durable
+    public Appended append(LoanCommand.Type type, long userId, long bookId, long borrowRecordId) {
+        CompletableFuture<Long> synced = new CompletableFuture<>();
+        long sequence;
+        synchronized (this) {
+            if (failure != null) {
+                throw new RuntimeException("Loan journal is unavailable: " + failure);
+            }
+            if (closed) {
+                throw new RuntimeException("Loan journal is closed");
+            }
+            Segment segment = segments.get(segments.size() - 1);
+            if (segment.isFull()) {
+                segment = roll();
+            }
+            sequence = nextSequence++;
+            segment.write(new LoanCommand(sequence, type, userId, bookId, borrowRecordId, System.currentTimeMillis()));
+            unsynced.add(segment);
+            pending.add(new Pending(sequence, synced));
+            notifyAll();
+        }
+        (type == LoanCommand.Type.BORROW ? borrowCounter : returnCounter).increment();
+        return new Appended(sequence, synced);
+    }
+
+    // Durable commands after the given sequence, in order
+    public List<LoanCommand> readAfter(long afterSequence, int max) {
+        List<Segment> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+        }
+        List<LoanCommand> commands = new ArrayList<>();
+        long sequence = afterSequence + 1;
+        long durable = durableSequence;
+        for (int i = 0; i < snapshot.size(); i++) {
+            Segment segment = snapshot.get(i);
+            long last = i + 1 < snapshot.size() ? snapshot.get(i + 1).firstSequence - 1 : durable;
+            while (commands.size() < max && sequence <= durable && sequence <= last && sequence >= segment.firstSequence) {
+                commands.add(segment.read(sequence));
+                sequence++;
+            }
+        }
+        return commands;
+    }
+
+    // Delete segments whose commands are all applied; the newest segment is always kept
+    public void release(long appliedSequence) {
+        List<Segment> released = new ArrayList<>();
+        synchronized (this) {
+            while (segments.size() > 1 && segments.get(0).lastSequence() <= appliedSequence
+                    && !unsynced.contains(segments.get(0))) {
+                released.add(segments.remove(0));
+            }
+        }
+        for (Segment segment : released) {
+            segment.delete();
+        }
+    }
+
+    // Never hand out a sequence at or below one the database has already applied,
+    // for example after the journal directory was lost. The old segments are all applied
+    // and are deleted, so the segments on disk never have a gap in their sequences.
+    public synchronized void skipTo(long appliedSequence) {
+        if (nextSequence > appliedSequence) {
+            return;
+        }
+        System.out.println("Loan journal is behind the applied sequence " + appliedSequence + "; starting a new segment");
+        nextSequence = appliedSequence + 1;
+        durableSequence = appliedSequence;
+        segments.forEach(Segment::delete);
+        segments.clear();
+        try {
+            segments.add(Segment.open(segmentPath(nextSequence), nextSequence, segmentBytes()));
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot create loan journal segment: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    // A command appended before a failed sync but not durable by then was discarded
+    public boolean isDiscarded(long sequence) {
+        return failure != null && sequence > durableSequence;
+    }
+
+    public double getMeanGroupSize() {
+        return groupSize.mean();
+    }
+
+    public double getMeanSyncMillis() {
+        return syncTimer.mean(TimeUnit.MILLISECONDS);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<Pending> group;
+            Map<Segment, Integer> toSync = new LinkedHashMap<>();
+            synchronized (this) {
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        wait();
+                    }
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    // Optionally hold the door open a little longer so more callers share the sync
+                    if (groupCommitWaitMillis > 0 && !closed) {
+                        wait(groupCommitWaitMillis);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                group = pending;
+                pending = new ArrayList<>();
+                unsynced.forEach(segment -> toSync.put(segment, segment.writtenBytes()));
+                unsynced.clear();
+            }
+            long start = System.nanoTime();
+            try {
+                toSync.forEach(Segment::sync);
+            } catch (RuntimeException e) {
+                // A failed sync may have lost pages; nothing written after it can be trusted.
+                // The unsynced records are zeroed before their callers hear of the failure, so
+                // a restart cannot recover and replay commands that were reported as failed.
+                synchronized (this) {
+                    failure = e.toString();
+                    group.addAll(pending);
+                    pending = new ArrayList<>();
+                    discardAfter(durableSequence);
+                }
+                System.out.println("Loan journal sync failed, rejecting further commands: " + failure);
+                group.forEach(waiter -> waiter.synced().completeExceptionally(e));
+                continue;
+            }
+            syncTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            groupSize.record(group.size());
+            durableSequence = group.get(group.size() - 1).sequence();
+            group.forEach(waiter -> waiter.synced().complete(waiter.sequence()));
+        }
+    }
+
+    // Called with the lock held: drop every record after the given sequence, deleting the
+    // segments that start after it
+    private void discardAfter(long sequence) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.lastSequence() <= sequence) {
+                break;
+            }
+            segment.truncateAfter(sequence);
+            if (segment.firstSequence > sequence && i > 0) {
+                segments.remove(i);
+                segment.delete();
+            }
+        }
+        unsynced.clear();
+    }
+
+    private Segment roll() {
+        Segment full = segments.get(segments.size() - 1);
+        try {
+            Segment next = Segment.open(segmentPath(nextSequence), nextSequence, segmentBytes());
+            segments.add(next);
+            unsynced.add(full);
+            return next;
+        } catch (IOException e) {
+            failure = "cannot create segment: " + e.getMessage();
+            throw new RuntimeException("Loan journal is unavailable: " + failure, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        if (flusher != null) {
+            flusher.join(ackTimeoutMillis);
+        }
+        synchronized (this) {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+        }
+    }
+
+    private long segmentBytes() {
+        return (long) segmentSizeMb * 1024 * 1024 / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", firstSequence) + SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Pending(long sequence, CompletableFuture<Long> synced) {
+    }
+
+    public record Appended(long sequence, CompletableFuture<Long> synced) {
+    }
+
+    // durable is false when the command was not synced within the ack timeout
+    public record Ack(long sequence, boolean durable) {
+    }
+
+    // One mapped file holding the commands from firstSequence on, in sequence order
+    private static final class Segment {
+        private final Path path;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int records;
+        private int syncedBytes;
+
+        private Segment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long firstSequence, long size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        // Count the intact records; a torn tail left by a crash is zeroed so it is overwritten.
+        // Returns the offset of the torn record, or -1 if the segment ended cleanly.
+        int recover() {
+            int capacity = buffer.capacity() / RECORD_SIZE;
+            while (records < capacity) {
+                int offset = records * RECORD_SIZE;
+                int length = buffer.getInt(offset);
+                if (length == 0) {
+                    break;
+                }
+                if (length != BODY_SIZE || buffer.getInt(offset + 4) != checksum(offset)
+                        || buffer.getLong(offset + 8) != firstSequence + records) {
+                    for (int i = offset; i < buffer.capacity(); i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    buffer.force();
+                    syncedBytes = offset;
+                    return offset;
+                }
+                records++;
+            }
+            syncedBytes = records * RECORD_SIZE;
+            return -1;
+        }
+
+        // Zero the records after the given sequence and force that to disk where it still can be
+        void truncateAfter(long sequence) {
+            int keep = (int) Math.max(0, Math.min(records, sequence - firstSequence + 1));
+            int from = keep * RECORD_SIZE;
+            for (int i = from; i < records * RECORD_SIZE; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            records = keep;
+            syncedBytes = Math.min(syncedBytes, from);
+            try {
+                buffer.force();
+            } catch (RuntimeException e) {
+                System.out.println("Cannot force the truncation of loan journal segment " + path.getFileName()
+                        + ": " + e.getMessage());
+            }
+        }
+
+        boolean isFull() {
+            return (records + 1) * RECORD_SIZE > buffer.capacity();
+        }
+
+        long lastSequence() {
+            return firstSequence + records - 1;
+        }
+
+        // Called with the journal lock held
+        void write(LoanCommand command) {
+            int offset = records * RECORD_SIZE;
+            buffer.putLong(offset + 8, command.sequence());
+            buffer.put(offset + 16, (byte) command.type().ordinal());
+            buffer.putLong(offset + 17, command.userId());
+            buffer.putLong(offset + 25, command.bookId());
+            buffer.putLong(offset + 33, command.borrowRecordId());
+            buffer.putLong(offset + 41, command.acceptedAtMillis());
+            buffer.putInt(offset + 4, checksum(offset));
+            buffer.putInt(offset, BODY_SIZE);
+            records++;
+        }
+
+        LoanCommand read(long sequence) {
+            int offset = (int) (sequence - firstSequence) * RECORD_SIZE;
+            if (buffer.getInt(offset + 4) != checksum(offset)) {
+                throw new RuntimeException("Loan journal record " + sequence + " in " + path.getFileName()
+                        + " is corrupt");
+            }
+            return new LoanCommand(
+                    buffer.getLong(offset + 8),
+                    LoanCommand.Type.values()[buffer.get(offset + 16)],
+                    buffer.getLong(offset + 17),
+                    buffer.getLong(offset + 25),
+                    buffer.getLong(offset + 33),
+                    buffer.getLong(offset + 41));
+        }
+
+        // Called with the journal lock held
+        int writtenBytes() {
+            return records * RECORD_SIZE;
+        }
+
+        // Force the bytes up to end written since the last sync; only the flusher calls this
+        void sync(int end) {
+            if (end > syncedBytes) {
+                buffer.force(syncedBytes, end - syncedBytes);
+                syncedBytes = end;
+            }
+        }
+
+        private int checksum(int offset) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset + 8, BODY_SIZE));
+            return (int) crc.getValue();
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Cannot close loan journal segment " + path.getFileName() + ": " + e.getMessage());
+            }
+        }
+
+        void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.out.println("Cannot delete loan journal segment " + path.getFileName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.wipro.librarymanagementsystem.journal;
+
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.repository.JournalCheckpointRepository;
+import com.wipro.librarymanagementsystem.service.BatchedWrites;
+import com.wipro.librarymanagementsystem.service.BorrowRecordService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Projects journaled loan commands into the JPA tables through BorrowRecordService, in
+// sequence order. A batch runs in one transaction together with the checkpoint update,
+// so every command takes effect exactly once even across crashes: on startup whatever
+// follows the checkpoint is replayed. A command the service rejects (book unavailable,
+// limit reached...) fails the batch, which BatchedWrites then re-runs one command per
+// transaction up to the rejected one, so only that command is recorded as rejected.
+// Database outages stop the run and the same commands are retried on the next one.
+@Component
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class LoanJournalApplier {
+
+    private static final String CHECKPOINT = "loan-journal";
+
+    @Value("${library.journal.apply-batch-size:200}")
+    private int batchSize;
+
+    @Value("${library.journal.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${library.journal.outcomes-retained:10000}")
+    private int outcomesRetained;
+
+    @Autowired
+    private LoanJournal journal;
+
+    @Autowired
+    private BorrowRecordService borrowRecordService;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final TransactionTemplate writeTemplate;
+    private final CommandHandler commandHandler = new CommandHandler();
+    private volatile long appliedSequence;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Map<Long, Outcome> outcomes;
+
+    private Counter appliedCounter;
+    private Counter rejectedCounter;
+
+    public LoanJournalApplier(PlatformTransactionManager transactionManager) {
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Result of one command, kept in memory for the most recent ones
+    public record Outcome(long sequence, String status, Long borrowRecordId, String error) {
+    }
+
+    @PostConstruct
+    public void start() {
+        appliedSequence = writeTemplate.execute(status -> checkpointRepository.findById(CHECKPOINT)
+                .map(checkpoint -> checkpoint.getAppliedSequence())
+                .orElse(0L));
+        journal.skipTo(appliedSequence);
+        outcomes = Collections.synchronizedMap(new LinkedHashMap<Long, Outcome>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Outcome> eldest) {
+                return size() > outcomesRetained;
+            }
+        });
+
+        appliedCounter = Counter.builder("library.journal.applied").tag("outcome", "applied")
+                .description("Journaled loan commands projected into the database")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("library.journal.applied").tag("outcome", "rejected")
+                .description("Journaled loan commands projected into the database")
+                .register(meterRegistry);
+        Gauge.builder("library.journal.apply.lag", this, applier -> applier.getLagCommands())
+                .description("Durable journal commands not yet applied to the database")
+                .register(meterRegistry);
+        Gauge.builder("library.journal.apply.lag.age", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest journal command not yet applied")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Apply what the previous process acknowledged but never applied, and log how long it took
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        long backlog = getLagCommands();
+        if (backlog == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        System.out.println("Replaying " + backlog + " journaled loan commands after sequence " + appliedSequence);
+        apply();
+        System.out.println("Journal replay finished at sequence " + appliedSequence + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @Scheduled(fixedDelayString = "${library.journal.apply-interval-ms:100}")
+    public synchronized void apply() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (applyBatch() == 0) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Applying the loan journal stopped at sequence " + appliedSequence
+                    + ", retrying on the next run: " + e.getMessage());
+        } finally {
+            updateLag();
+            journal.release(appliedSequence);
+        }
+    }
+
+    // Returns the number of commands applied or rejected
+    private int applyBatch() {
+        List<LoanCommand> batch = journal.readAfter(appliedSequence, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // Database outages are thrown out of the run and the same commands are retried on the next one
+        return BatchedWrites.apply(writeTemplate, batch, commandHandler).size();
+    }
+
+    // Each transaction also moves the checkpoint past its commands; the re-run after a rejection
+    // stops at the rejected command, and the rest go in the next batch
+    private class CommandHandler implements BatchedWrites.Handler<LoanCommand, Outcome> {
+
+        @Override
+        public Outcome apply(LoanCommand command) {
+            BorrowRecord record = switch (command.type()) {
+                case BORROW -> borrowRecordService.borrowBook(command.userId(), command.bookId(), command.acceptedAt());
+                case RETURN -> borrowRecordService.returnBook(command.borrowRecordId(), command.acceptedAt());
+            };
+            return new Outcome(command.sequence(), "APPLIED", record.getId(), null);
+        }
+
+        @Override
+        public void beforeCommit(List<LoanCommand> applied) {
+            checkpointRepository.advance(CHECKPOINT, applied.get(applied.size() - 1).sequence(), LocalDateTime.now());
+        }
+
+        @Override
+        public Outcome refused(LoanCommand command, RuntimeException e) {
+            // The rejection is final; move past it so it is not retried forever
+            writeTemplate.executeWithoutResult(status ->
+                    checkpointRepository.advance(CHECKPOINT, command.sequence(), LocalDateTime.now()));
+            return new Outcome(command.sequence(), "REJECTED", null, e.getMessage());
+        }
+
+        @Override
+        public void completed(LoanCommand command, Outcome outcome) {
+            appliedSequence = command.sequence();
+            outcomes.put(outcome.sequence(), outcome);
+            ("APPLIED".equals(outcome.status()) ? appliedCounter : rejectedCounter).increment();
+        }
+
+        @Override
+        public boolean stopAtRefusal() {
+            return true;
+        }
+    }
+
+    private void updateLag() {
+        List<LoanCommand> next = journal.readAfter(appliedSequence, 1);
+        lagMillis.set(next.isEmpty() ? 0 : Math.max(0, System.currentTimeMillis() - next.get(0).acceptedAtMillis()));
+    }
+
+    // Status of a journaled command; commands applied too long ago to be remembered are COMPLETED,
+    // and ones discarded by a failed journal sync are FAILED and never applied
+    public Outcome getOutcome(long sequence) {
+        if (sequence <= 0 || sequence > journal.getLastSequence()) {
+            return null;
+        }
+        if (journal.isDiscarded(sequence)) {
+            return new Outcome(sequence, "FAILED", null, "Loan journal sync failed: " + journal.getFailure());
+        }
+        Outcome outcome = outcomes.get(sequence);
+        if (outcome != null) {
+            return outcome;
+        }
+        return new Outcome(sequence, sequence > appliedSequence ? "PENDING" : "COMPLETED", null, null);
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getLagCommands() {
+        return Math.max(0, journal.getDurableSequence() - appliedSequence);
+    }
+
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+}
@@ -0,0 +1,91 @@
+package com.wipro.librarymanagementsystem.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// Serves controller methods declared to return List<Book> or List<BorrowRecord> through
+// ListingJsonWriter. Registered ahead of the Jackson converter, so every other body type
+// (single entities, maps, DTOs) and every request body still goes through the ObjectMapper.
+public class ListingJsonMessageConverter extends AbstractGenericHttpMessageConverter<List<?>> {
+
+    private final JsonFactory jsonFactory;
+
+    public ListingJsonMessageConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    // Only when the declared element type is known; raw lists are left to Jackson
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return elementType(type) != null && supports(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(List<?> list, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Class<?> elementType = elementType(type);
+        try (JsonGenerator generator = jsonFactory.createGenerator(
+                StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            ListingJsonWriter writer = new ListingJsonWriter(generator);
+            if (elementType == Book.class) {
+                writer.writeBooks((List<Book>) list);
+            } else {
+                writer.writeBorrowRecords((List<BorrowRecord>) list);
+            }
+        }
+    }
+
+    @Override
+    protected List<?> readInternal(Class<? extends List<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Listing converter is write-only", inputMessage);
+    }
+
+    @Override
+    public List<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Listing converter is write-only", inputMessage);
+    }
+
+    // Book or BorrowRecord for List<Book> / List<BorrowRecord>, otherwise null
+    static Class<?> elementType(Type type) {
+        if (!(type instanceof ParameterizedType parameterized) || parameterized.getRawType() != List.class) {
+            return null;
+        }
+        Type element = parameterized.getActualTypeArguments()[0];
+        return element == Book.class || element == BorrowRecord.class ? (Class<?>) element : null;
+    }
+}
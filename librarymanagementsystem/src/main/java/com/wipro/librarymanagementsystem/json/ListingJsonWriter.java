@@ -0,0 +1,281 @@
+package com.wipro.librarymanagementsystem.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Writes Book and BorrowRecord lists straight to a JsonGenerator, producing the same
+// JSON the ObjectMapper does (same properties, nulls and number and date formats) without
+// bean introspection or per-value temporary objects: field names are pre-encoded,
+// dates are formatted into a reused char buffer and zero fines are written from
+// constant digits. Any change to the entities' JSON shape must be mirrored here.
+public class ListingJsonWriter {
+
+    private static final SerializableString ID = name("id");
+    private static final SerializableString TITLE = name("title");
+    private static final SerializableString AUTHOR = name("author");
+    private static final SerializableString ISBN = name("isbn");
+    private static final SerializableString GENRE = name("genre");
+    private static final SerializableString PUBLICATION_YEAR = name("publicationYear");
+    private static final SerializableString TOTAL_COPIES = name("totalCopies");
+    private static final SerializableString AVAILABLE_COPIES = name("availableCopies");
+    private static final SerializableString CREATED_AT = name("createdAt");
+    private static final SerializableString UPDATED_AT = name("updatedAt");
+    private static final SerializableString BORROWED_COPIES = name("borrowedCopies");
+    private static final SerializableString AVAILABLE = name("available");
+
+    private static final SerializableString USERNAME = name("username");
+    private static final SerializableString EMAIL = name("email");
+    private static final SerializableString FIRST_NAME = name("firstName");
+    private static final SerializableString LAST_NAME = name("lastName");
+    private static final SerializableString PHONE = name("phone");
+    private static final SerializableString ADDRESS = name("address");
+    private static final SerializableString MEMBERSHIP_TYPE = name("membershipType");
+    private static final SerializableString IS_ACTIVE = name("isActive");
+    private static final SerializableString FULL_NAME = name("fullName");
+
+    private static final SerializableString USER = name("user");
+    private static final SerializableString BOOK = name("book");
+    private static final SerializableString BORROW_DATE = name("borrowDate");
+    private static final SerializableString DUE_DATE = name("dueDate");
+    private static final SerializableString RETURN_DATE = name("returnDate");
+    private static final SerializableString STATUS = name("status");
+    private static final SerializableString FINE_AMOUNT = name("fineAmount");
+    private static final SerializableString NOTES = name("notes");
+    private static final SerializableString OVERDUE = name("overdue");
+    private static final SerializableString DAYS_OVERDUE = name("daysOverdue");
+
+    // "0", "0.0", "0.00"... for zero amounts of each scale
+    private static final char[] ZERO_DIGITS = "0.000000".toCharArray();
+    private static final int MAX_ZERO_SCALE = ZERO_DIGITS.length - 2;
+
+    private final JsonGenerator generator;
+    private final char[] buffer = new char[256];
+
+    public ListingJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    private static SerializableString name(String name) {
+        return new SerializedString(name);
+    }
+
+    public void writeBooks(List<Book> books) throws IOException {
+        generator.writeStartArray();
+        for (Book book : books) {
+            writeBook(book);
+        }
+        generator.writeEndArray();
+    }
+
+    public void writeBorrowRecords(List<BorrowRecord> records) throws IOException {
+        generator.writeStartArray();
+        for (BorrowRecord record : records) {
+            writeBorrowRecord(record);
+        }
+        generator.writeEndArray();
+    }
+
+    public void writeBook(Book book) throws IOException {
+        if (book == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        writeLong(ID, book.getId());
+        writeString(TITLE, book.getTitle());
+        writeString(AUTHOR, book.getAuthor());
+        writeString(ISBN, book.getIsbn());
+        writeString(GENRE, book.getGenre());
+        writeInteger(PUBLICATION_YEAR, book.getPublicationYear());
+        writeInteger(TOTAL_COPIES, book.getTotalCopies());
+        writeInteger(AVAILABLE_COPIES, book.getAvailableCopies());
+        writeDateTime(CREATED_AT, book.getCreatedAt());
+        writeDateTime(UPDATED_AT, book.getUpdatedAt());
+        writeInteger(BORROWED_COPIES, book.getBorrowedCopies());
+        generator.writeFieldName(AVAILABLE);
+        generator.writeBoolean(book.isAvailable());
+        generator.writeEndObject();
+    }
+
+    public void writeUser(User user) throws IOException {
+        if (user == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        writeLong(ID, user.getId());
+        writeString(USERNAME, user.getUsername());
+        writeString(EMAIL, user.getEmail());
+        writeString(FIRST_NAME, user.getFirstName());
+        writeString(LAST_NAME, user.getLastName());
+        writeString(PHONE, user.getPhone());
+        writeString(ADDRESS, user.getAddress());
+        writeEnum(MEMBERSHIP_TYPE, user.getMembershipType());
+        generator.writeFieldName(IS_ACTIVE);
+        if (user.getIsActive() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(user.getIsActive());
+        }
+        writeDateTime(CREATED_AT, user.getCreatedAt());
+        writeDateTime(UPDATED_AT, user.getUpdatedAt());
+        // Same text as User.getFullName(), assembled in the buffer instead of a new String
+        generator.writeFieldName(FULL_NAME);
+        int length = append(user.getFirstName(), 0);
+        if (length >= 0) {
+            buffer[length++] = ' ';
+            length = append(user.getLastName(), length);
+        }
+        if (length < 0) {
+            generator.writeString(user.getFullName());
+        } else {
+            generator.writeString(buffer, 0, length);
+        }
+        generator.writeEndObject();
+    }
+
+    public void writeBorrowRecord(BorrowRecord record) throws IOException {
+        if (record == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        writeLong(ID, record.getId());
+        generator.writeFieldName(USER);
+        writeUser(record.getUser());
+        generator.writeFieldName(BOOK);
+        writeBook(record.getBook());
+        writeDateTime(BORROW_DATE, record.getBorrowDate());
+        writeDateTime(DUE_DATE, record.getDueDate());
+        writeDateTime(RETURN_DATE, record.getReturnDate());
+        writeEnum(STATUS, record.getStatus());
+        writeDecimal(FINE_AMOUNT, record.getFineAmount());
+        writeString(NOTES, record.getNotes());
+        writeDateTime(CREATED_AT, record.getCreatedAt());
+        writeDateTime(UPDATED_AT, record.getUpdatedAt());
+        // getDaysOverdue() is 0 unless the loan is overdue; skip its clock read otherwise
+        boolean overdue = record.isOverdue();
+        generator.writeFieldName(OVERDUE);
+        generator.writeBoolean(overdue);
+        generator.writeFieldName(DAYS_OVERDUE);
+        generator.writeNumber(overdue ? record.getDaysOverdue() : 0L);
+        generator.writeEndObject();
+    }
+
+    private void writeLong(SerializableString name, Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+
+    private void writeInteger(SerializableString name, Integer value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.intValue());
+        }
+    }
+
+    private void writeString(SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private void writeEnum(SerializableString name, Enum<?> value) throws IOException {
+        writeString(name, value == null ? null : value.name());
+    }
+
+    // BigDecimal.toString() digits, as Jackson writes them; zero needs no conversion
+    private void writeDecimal(SerializableString name, BigDecimal value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value.signum() == 0 && value.scale() >= 0 && value.scale() <= MAX_ZERO_SCALE) {
+            generator.writeNumber(ZERO_DIGITS, 0, value.scale() == 0 ? 1 : value.scale() + 2);
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private void writeDateTime(SerializableString name, LocalDateTime value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int length = formatDateTime(value, buffer);
+        if (length < 0) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        } else {
+            generator.writeString(buffer, 0, length);
+        }
+    }
+
+    // Copies the value (or "null", as string concatenation would) into the buffer at offset,
+    // leaving room for one more char; returns the new length, or -1 when it does not fit
+    private int append(String value, int offset) {
+        String text = value == null ? "null" : value;
+        if (offset + text.length() >= buffer.length) {
+            return -1;
+        }
+        text.getChars(0, text.length(), buffer, offset);
+        return offset + text.length();
+    }
+
+    // ISO_LOCAL_DATE_TIME, the format Jackson uses for LocalDateTime: seconds always present,
+    // fraction only when non-zero and without trailing zeros. Returns -1 outside years 0-9999.
+    static int formatDateTime(LocalDateTime value, char[] out) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        int pos = digits(year, 4, out, 0);
+        out[pos++] = '-';
+        pos = digits(value.getMonthValue(), 2, out, pos);
+        out[pos++] = '-';
+        pos = digits(value.getDayOfMonth(), 2, out, pos);
+        out[pos++] = 'T';
+        pos = digits(value.getHour(), 2, out, pos);
+        out[pos++] = ':';
+        pos = digits(value.getMinute(), 2, out, pos);
+        out[pos++] = ':';
+        pos = digits(value.getSecond(), 2, out, pos);
+        int nano = value.getNano();
+        if (nano > 0) {
+            out[pos++] = '.';
+            int end = digits(nano, 9, out, pos);
+            while (out[end - 1] == '0') {
+                end--;
+            }
+            pos = end;
+        }
+        return pos;
+    }
+
+    // Zero-padded decimal digits of value at pos; returns the position after them
+    private static int digits(int value, int width, char[] out, int pos) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+}
@@ -0,0 +1,15 @@
+package com.wipro.librarymanagementsystem.notification;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Default sender for development: writes the message to the console
+@Component
+@ConditionalOnProperty(name = "library.notifications.sender", havingValue = "log", matchIfMissing = true)
+public class LoggingNotificationSender implements NotificationSender {
+
+    @Override
+    public void send(NotificationMessage message) {
+        System.out.println("Notification to " + message.to() + ": " + message.subject());
+    }
+}
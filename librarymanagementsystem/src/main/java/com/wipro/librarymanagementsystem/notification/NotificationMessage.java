@@ -0,0 +1,5 @@
+package com.wipro.librarymanagementsystem.notification;
+
+// One rendered message for one user
+public record NotificationMessage(Long userId, String to, String subject, String body) {
+}
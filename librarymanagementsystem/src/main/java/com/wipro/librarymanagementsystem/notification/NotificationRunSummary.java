@@ -0,0 +1,13 @@
+package com.wipro.librarymanagementsystem.notification;
+
+import com.wipro.librarymanagementsystem.entity.NotificationMarker;
+
+// Outcome of one batch run
+public record NotificationRunSummary(
+        NotificationMarker.Kind kind,
+        long loans,
+        long messagesSent,
+        long messagesFailed,
+        long skippedAlreadyClaimed,
+        long durationMillis) {
+}
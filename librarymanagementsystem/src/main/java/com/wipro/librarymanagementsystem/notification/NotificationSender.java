@@ -0,0 +1,7 @@
+package com.wipro.librarymanagementsystem.notification;
+
+// Delivery channel for rendered notifications; throwing marks the message as not sent
+public interface NotificationSender {
+
+    void send(NotificationMessage message) throws Exception;
+}
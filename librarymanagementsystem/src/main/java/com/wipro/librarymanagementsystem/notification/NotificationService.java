@@ -0,0 +1,202 @@
+package com.wipro.librarymanagementsystem.notification;
+
+import com.wipro.librarymanagementsystem.dto.LoanNotice;
+import com.wipro.librarymanagementsystem.entity.NotificationMarker;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.NotificationMarkerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Batch engine for due-soon and overdue reminders. Open loans are streamed in keyset
+// chunks ordered by (user, loan), grouped into one message per user and sent on a small
+// pool. Only one chunk plus the in-flight messages are held in memory at any time.
+@Service
+public class NotificationService {
+
+    @Value("${library.notifications.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${library.notifications.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${library.notifications.due-soon-days:2}")
+    private int dueSoonDays;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private NotificationMarkerRepository notificationMarkerRepository;
+
+    @Autowired
+    private NotificationTemplates notificationTemplates;
+
+    @Autowired
+    private NotificationSender notificationSender;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private ExecutorService senderPool;
+    private Semaphore inFlight;
+
+    public NotificationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void init() {
+        senderPool = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "notification-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Bounds queued plus running messages, so a large run cannot outpace the sender
+        inFlight = new Semaphore(maxConcurrency * 2);
+    }
+
+    @Scheduled(cron = "${library.notifications.cron:0 0 8 * * *}")
+    public void runScheduled() {
+        for (NotificationMarker.Kind kind : NotificationMarker.Kind.values()) {
+            NotificationRunSummary summary = run(kind);
+            System.out.println("Notification run " + summary);
+        }
+    }
+
+    // Runs are serialized; a run that overlaps the previous one would only find claimed loans
+    public synchronized NotificationRunSummary run(NotificationMarker.Kind kind) {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = kind == NotificationMarker.Kind.OVERDUE ? LocalDateTime.of(1970, 1, 1, 0, 0) : now;
+        LocalDateTime to = kind == NotificationMarker.Kind.OVERDUE ? now : now.plusDays(dueSoonDays);
+
+        Counts counts = new Counts();
+        List<LoanNotice> group = new ArrayList<>();
+        long afterUserId = 0;
+        long afterId = 0;
+        while (true) {
+            long chunkUserId = afterUserId;
+            long chunkId = afterId;
+            List<LoanNotice> chunk = readOnlyTemplate.execute(status -> borrowRecordRepository.findLoanNoticeChunk(
+                    kind, from, to, chunkUserId, chunkId, PageRequest.of(0, chunkSize)));
+            for (LoanNotice notice : chunk) {
+                // A user's loans can straddle two chunks, so a group is only closed when the user changes
+                if (!group.isEmpty() && !group.get(0).getUserId().equals(notice.getUserId())) {
+                    dispatch(kind, group, counts);
+                    group = new ArrayList<>();
+                }
+                group.add(notice);
+            }
+            counts.loans.addAndGet(chunk.size());
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            LoanNotice last = chunk.get(chunk.size() - 1);
+            afterUserId = last.getUserId();
+            afterId = last.getBorrowRecordId();
+        }
+        if (!group.isEmpty()) {
+            dispatch(kind, group, counts);
+        }
+        awaitInFlight();
+        return new NotificationRunSummary(kind, counts.loans.get(), counts.sent.get(), counts.failed.get(),
+                counts.skipped.get(), System.currentTimeMillis() - start);
+    }
+
+    private void dispatch(NotificationMarker.Kind kind, List<LoanNotice> loans, Counts counts) {
+        inFlight.acquireUninterruptibly();
+        try {
+            senderPool.execute(() -> {
+                try {
+                    send(kind, loans, counts);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    // Claim the loans first (unique marker per loan and kind), then send only the claimed
+    // ones; a failed send releases the claims so the next run picks the loans up again
+    private void send(NotificationMarker.Kind kind, List<LoanNotice> loans, Counts counts) {
+        List<LoanNotice> claimed = claim(kind, loans);
+        if (claimed.isEmpty()) {
+            // Another run or instance already claimed these loans
+            counts.skipped.incrementAndGet();
+            return;
+        }
+        List<Long> loanIds = claimed.stream().map(LoanNotice::getBorrowRecordId).toList();
+        try {
+            notificationSender.send(notificationTemplates.render(kind, claimed));
+            counts.sent.incrementAndGet();
+        } catch (Exception e) {
+            counts.failed.incrementAndGet();
+            System.out.println("Could not send " + kind + " notification to user " + loans.get(0).getUserId()
+                    + ": " + e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> notificationMarkerRepository.deleteClaims(kind, loanIds));
+        }
+    }
+
+    // The whole group in one batch; if any loan is already claimed the batch rolls back and
+    // each loan is claimed on its own, so one taken loan does not hold back the others
+    private List<LoanNotice> claim(NotificationMarker.Kind kind, List<LoanNotice> loans) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> notificationMarkerRepository.saveAll(
+                    loans.stream().map(loan -> marker(kind, loan)).toList()));
+            return loans;
+        } catch (DataIntegrityViolationException e) {
+            List<LoanNotice> claimed = new ArrayList<>();
+            for (LoanNotice loan : loans) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> notificationMarkerRepository.save(marker(kind, loan)));
+                    claimed.add(loan);
+                } catch (DataIntegrityViolationException alreadyClaimed) {
+                    // Claimed by another run or instance
+                }
+            }
+            return claimed;
+        }
+    }
+
+    private static NotificationMarker marker(NotificationMarker.Kind kind, LoanNotice loan) {
+        return new NotificationMarker(loan.getBorrowRecordId(), loan.getUserId(), kind);
+    }
+
+    private void awaitInFlight() {
+        int permits = maxConcurrency * 2;
+        inFlight.acquireUninterruptibly(permits);
+        inFlight.release(permits);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senderPool.shutdown();
+    }
+
+    private static class Counts {
+        private final AtomicLong loans = new AtomicLong();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+    }
+}
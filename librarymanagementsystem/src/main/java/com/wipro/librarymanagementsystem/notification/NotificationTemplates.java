@@ -0,0 +1,83 @@
+package com.wipro.librarymanagementsystem.notification;
+
+import com.wipro.librarymanagementsystem.dto.LoanNotice;
+import com.wipro.librarymanagementsystem.entity.NotificationMarker;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Plain-text templates from classpath:notifications/<kind>.txt. The first line is
+// "Subject: ...", {{name}} placeholders are replaced, and the block between
+// {{#loans}} and {{/loans}} is repeated once per loan.
+@Component
+public class NotificationTemplates {
+
+    private static final String LOANS_START = "{{#loans}}";
+    private static final String LOANS_END = "{{/loans}}";
+    private static final DateTimeFormatter DUE_DATE = DateTimeFormatter.ofPattern("EEE d MMM yyyy");
+
+    private final Map<NotificationMarker.Kind, Template> templates = new EnumMap<>(NotificationMarker.Kind.class);
+
+    public NotificationTemplates() throws IOException {
+        for (NotificationMarker.Kind kind : NotificationMarker.Kind.values()) {
+            String name = "notifications/" + kind.name().toLowerCase().replace('_', '-') + ".txt";
+            try (InputStream in = new ClassPathResource(name).getInputStream()) {
+                templates.put(kind, Template.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    // Render one message covering all of a user's loans
+    public NotificationMessage render(NotificationMarker.Kind kind, List<LoanNotice> loans) {
+        Template template = templates.get(kind);
+        LoanNotice first = loans.get(0);
+        Map<String, String> values = Map.of(
+                "firstName", first.getFirstName(),
+                "count", Integer.toString(loans.size()));
+
+        StringBuilder body = new StringBuilder(fill(template.header, values));
+        for (LoanNotice loan : loans) {
+            body.append(fill(template.loanLine, Map.of(
+                    "title", loan.getTitle(),
+                    "author", loan.getAuthor(),
+                    "dueDate", DUE_DATE.format(loan.getDueDate()))));
+        }
+        body.append(fill(template.footer, values));
+        return new NotificationMessage(first.getUserId(), first.getEmail(),
+                fill(template.subject, values), body.toString());
+    }
+
+    private static String fill(String text, Map<String, String> values) {
+        String result = text;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            result = result.replace("{{" + entry.getKey() + "}}", entry.getValue() == null ? "" : entry.getValue());
+        }
+        return result;
+    }
+
+    private record Template(String subject, String header, String loanLine, String footer) {
+
+        static Template parse(String source) {
+            String text = source.replace("\r\n", "\n");
+            int firstLineEnd = text.indexOf('\n');
+            String subject = text.substring(0, firstLineEnd).replaceFirst("^Subject:\\s*", "");
+            String rest = text.substring(firstLineEnd + 1);
+            int start = rest.indexOf(LOANS_START);
+            int end = rest.indexOf(LOANS_END);
+            if (start < 0 || end < start) {
+                throw new IllegalStateException("Notification template is missing the {{#loans}} block");
+            }
+            return new Template(subject,
+                    rest.substring(0, start),
+                    rest.substring(start + LOANS_START.length(), end).replaceFirst("^\n", ""),
+                    rest.substring(end + LOANS_END.length()).replaceFirst("^\n", ""));
+        }
+    }
+}
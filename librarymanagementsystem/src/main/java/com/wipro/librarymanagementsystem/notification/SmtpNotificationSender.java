@@ -0,0 +1,30 @@
+package com.wipro.librarymanagementsystem.notification;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+// Sends through the SMTP server configured with spring.mail.* (a local stub in development)
+@Component
+@ConditionalOnProperty(name = "library.notifications.sender", havingValue = "smtp")
+public class SmtpNotificationSender implements NotificationSender {
+
+    @Value("${library.notifications.from:library@localhost}")
+    private String from;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Override
+    public void send(NotificationMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(from);
+        mail.setTo(message.to());
+        mail.setSubject(message.subject());
+        mail.setText(message.body());
+        mailSender.send(mail);
+    }
+}
@@ -0,0 +1,47 @@
+package com.wipro.librarymanagementsystem.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wipro.librarymanagementsystem.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Appends one JSON line per event and fsyncs before acknowledging the batch
+@Component
+@ConditionalOnProperty(name = "library.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    @Value("${library.outbox.file.path:outbox/outbox-events.jsonl}")
+    private Path path;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void send(List<OutboxEvent> batch) throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : batch) {
+            lines.append(objectMapper.writeValueAsString(OutboxSink.toMessage(objectMapper, event))).append('\n');
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileOutputStream out = new FileOutputStream(path.toFile(), true)) {
+            out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            out.getChannel().force(false);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+}
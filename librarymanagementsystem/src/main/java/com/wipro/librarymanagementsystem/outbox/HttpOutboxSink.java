@@ -0,0 +1,57 @@
+package com.wipro.librarymanagementsystem.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.wipro.librarymanagementsystem.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// POSTs each batch as a JSON array; any 2xx response acknowledges the whole batch
+@Component
+@ConditionalOnProperty(name = "library.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    @Value("${library.outbox.http.url:http://localhost:8090/events}")
+    private URI url;
+
+    @Value("${library.outbox.http.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Override
+    public void send(List<OutboxEvent> batch) throws Exception {
+        ArrayNode body = objectMapper.createArrayNode();
+        for (OutboxEvent event : batch) {
+            body.add(OutboxSink.toMessage(objectMapper, event));
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new RuntimeException("Outbox endpoint answered " + response.statusCode());
+        }
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+}
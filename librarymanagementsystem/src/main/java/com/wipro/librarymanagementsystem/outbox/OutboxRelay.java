@@ -0,0 +1,161 @@
+package com.wipro.librarymanagementsystem.outbox;
+
+import com.wipro.librarymanagementsystem.entity.OutboxEvent;
+import com.wipro.librarymanagementsystem.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains the outbox to the configured sink in id order. A batch is claimed for a lease in
+// one short transaction, sent with no transaction or row lock held, and marked published
+// in a second one. If the sink fails the claim is released and the batch is retried with
+// backoff; if the process dies after sending, the claim expires and the batch is sent
+// again (at-least-once, consumers dedupe on dedupKey).
+@Component
+public class OutboxRelay {
+
+    @Value("${library.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${library.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${library.outbox.max-backoff-ms:60000}")
+    private long maxBackoffMillis;
+
+    @Value("${library.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${library.outbox.claim-lease-ms:60000}")
+    private long claimLeaseMillis;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxSink sink;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private int consecutiveFailures;
+    private long nextAttemptAt;
+
+    private Counter relayedCounter;
+    private Counter failedBatchCounter;
+    private Timer batchTimer;
+
+    public OutboxRelay(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        relayedCounter = Counter.builder("library.outbox.relayed")
+                .tag("sink", sink.name())
+                .description("Outbox events delivered to the sink")
+                .register(meterRegistry);
+        failedBatchCounter = Counter.builder("library.outbox.failed.batches")
+                .tag("sink", sink.name())
+                .register(meterRegistry);
+        batchTimer = Timer.builder("library.outbox.batch.duration")
+                .tag("sink", sink.name())
+                .register(meterRegistry);
+        Gauge.builder("library.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events not yet delivered")
+                .register(meterRegistry);
+        Gauge.builder("library.outbox.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest undelivered outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.relay-interval-ms:1000}")
+    public synchronized void relay() {
+        if (System.currentTimeMillis() < nextAttemptAt) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (relayBatch() < batchSize) {
+                    break;
+                }
+            }
+            consecutiveFailures = 0;
+        } catch (RuntimeException e) {
+            // Exponential backoff while the sink is down, so it is not hammered
+            consecutiveFailures++;
+            long backoff = Math.min(maxBackoffMillis, 1000L << Math.min(consecutiveFailures, 16));
+            nextAttemptAt = System.currentTimeMillis() + backoff;
+            System.out.println("Outbox relay to " + sink.name() + " failed, retrying in " + backoff + " ms: "
+                    + e.getMessage());
+        } finally {
+            updateBacklogMetrics();
+        }
+    }
+
+    // Returns the number of events delivered
+    private int relayBatch() {
+        // The claim's expiry also identifies it, so it is kept at a precision the column stores
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime claimedUntil = now.plus(Duration.ofMillis(claimLeaseMillis));
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<OutboxEvent> claimed = outboxEventRepository.lockNextBatch(now, PageRequest.of(0, batchSize));
+            claimed.forEach(event -> event.setClaimedUntil(claimedUntil));
+            return claimed;
+        });
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+
+        long start = System.nanoTime();
+        try {
+            sink.send(batch);
+        } catch (Exception e) {
+            failedBatchCounter.increment();
+            String error = String.valueOf(e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.recordFailedAttempt(
+                    ids, claimedUntil, error.length() > 500 ? error.substring(0, 500) : error));
+            throw new RuntimeException("Sink " + sink.name() + " rejected batch: " + e, e);
+        }
+        batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.markPublished(ids, LocalDateTime.now()));
+        relayedCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    private void updateBacklogMetrics() {
+        pending.set(outboxEventRepository.countByPublishedAtIsNull());
+        LocalDateTime oldest = outboxEventRepository.findOldestUnpublishedCreatedAt();
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+    }
+
+    // Delivered rows are only kept for troubleshooting
+    @Scheduled(fixedDelay = 3600000, initialDelay = 600000)
+    public void purgeDelivered() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.wipro.librarymanagementsystem.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.OutboxEvent;
+import com.wipro.librarymanagementsystem.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Writes outbox rows. Must run inside the transaction that makes the change,
+// so the message exists if and only if the change committed.
+@Service
+public class OutboxService {
+
+    public static final String LOAN_CREATED = "LoanCreated";
+    public static final String LOAN_RETURNED = "LoanReturned";
+    public static final String LOAN_EXTENDED = "LoanExtended";
+    public static final String FINE_ASSESSED = "FineAssessed";
+
+    private static final String LOAN = "Loan";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(String eventType, String aggregateType, Long aggregateId,
+                              String dedupKey, Map<String, Object> payload) {
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            return outboxEventRepository.save(new OutboxEvent(dedupKey, eventType, aggregateType, aggregateId, json));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize outbox payload for " + dedupKey, e);
+        }
+    }
+
+    // Loan lifecycle message; the dedup key identifies the loan and the transition
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent recordLoanEvent(String eventType, BorrowRecord record) {
+        String dedupKey = eventType + ":" + record.getId();
+        if (LOAN_EXTENDED.equals(eventType)) {
+            // A loan can be extended more than once; each new due date is its own event
+            dedupKey += ":" + record.getDueDate();
+        }
+        return record(eventType, LOAN, record.getId(), dedupKey, loanPayload(record));
+    }
+
+    private Map<String, Object> loanPayload(BorrowRecord record) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("borrowRecordId", record.getId());
+        payload.put("userId", record.getUser().getId());
+        payload.put("username", record.getUser().getUsername());
+        payload.put("membershipType", record.getUser().getMembershipType());
+        payload.put("bookId", record.getBook().getId());
+        payload.put("isbn", record.getBook().getIsbn());
+        payload.put("title", record.getBook().getTitle());
+        payload.put("borrowDate", record.getBorrowDate());
+        payload.put("dueDate", record.getDueDate());
+        payload.put("returnDate", record.getReturnDate());
+        payload.put("status", record.getStatus());
+        BigDecimal fine = record.getFineAmount();
+        payload.put("fineAmount", fine != null ? fine : BigDecimal.ZERO);
+        return payload;
+    }
+}
@@ -0,0 +1,30 @@
+package com.wipro.librarymanagementsystem.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.wipro.librarymanagementsystem.entity.OutboxEvent;
+
+import java.util.List;
+
+// Destination for relayed outbox events. send returns only once the whole batch is
+// durably accepted; any exception makes the relay retry the batch later, so a sink
+// may see the same event twice and downstream consumers dedupe on dedupKey.
+public interface OutboxSink {
+
+    void send(List<OutboxEvent> batch) throws Exception;
+
+    String name();
+
+    // Wire format shared by the sinks: envelope fields plus the payload as a JSON object
+    static ObjectNode toMessage(ObjectMapper mapper, OutboxEvent event) throws JsonProcessingException {
+        ObjectNode message = mapper.createObjectNode();
+        message.put("dedupKey", event.getDedupKey());
+        message.put("eventType", event.getEventType());
+        message.put("aggregateType", event.getAggregateType());
+        message.put("aggregateId", event.getAggregateId());
+        message.put("createdAt", event.getCreatedAt().toString());
+        message.set("payload", mapper.readTree(event.getPayload()));
+        return message;
+    }
+}
@@ -0,0 +1,83 @@
+package com.wipro.librarymanagementsystem.protobuf;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// Answers Accept: application/x-protobuf for responses declared as Book, User, BorrowRecord
+// or a List of them; any other body is not acceptable in protobuf (406). Like Spring's own
+// protobuf converter it names the message and its schema in X-Protobuf-* headers.
+public class ProtobufMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final ProtobufSchemas schemas;
+
+    public ProtobufMessageConverter(ProtobufSchemas schemas) {
+        super(PROTOBUF);
+        this.schemas = schemas;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return schemas.messageType(clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return messageType(type, clazz) != null && canWrite(mediaType);
+    }
+
+    // Content negotiation only sees the runtime class, which for a list says nothing about the
+    // elements; offer protobuf for any List and let canWrite(Type, ...) decide on the element type
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+    }
+
+    // From the declared type, which carries the list element type; else from the runtime class
+    private Class<?> messageType(Type type, Class<?> clazz) {
+        Class<?> messageType = type != null ? schemas.messageType(type) : null;
+        return messageType != null ? messageType : schemas.messageType(clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Class<?> messageType = messageType(type, value.getClass());
+        outputMessage.getHeaders().set("X-Protobuf-Message", messageType.getSimpleName());
+        outputMessage.getHeaders().set("X-Protobuf-Schema", "/api/schemas/" + messageType.getSimpleName() + ".proto");
+        schemas.write(value, messageType, StreamUtils.nonClosing(outputMessage.getBody()));
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+}
@@ -0,0 +1,105 @@
+package com.wipro.librarymanagementsystem.protobuf;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Protobuf schemas for books, users and loans, generated at startup from the entities'
+// Jackson mappings, so the binary form carries the same properties as the JSON one.
+// Field numbers follow the @JsonPropertyOrder on each entity. Dates are ISO strings as in
+// JSON, enums are protobuf enums and amounts are doubles. A protobuf message cannot be a
+// bare array, so lists are sent as a BookList/UserList/BorrowRecordList with a repeated
+// "items" field. Clients compile the .proto text from /api/schemas/{message}.proto.
+@Component
+public class ProtobufSchemas {
+
+    public record BookList(List<Book> items) {
+    }
+
+    public record UserList(List<User> items) {
+    }
+
+    public record BorrowRecordList(List<BorrowRecord> items) {
+    }
+
+    // Entity -> wrapper message used when a List of it is returned
+    private static final Map<Class<?>, Class<?>> LIST_MESSAGES = Map.of(
+            Book.class, BookList.class,
+            User.class, UserList.class,
+            BorrowRecord.class, BorrowRecordList.class
+    );
+
+    private final ProtobufMapper mapper = new ProtobufMapper();
+    private final Map<Class<?>, ObjectWriter> writers = new LinkedHashMap<>();
+    private final Map<String, ProtobufSchema> schemasByName = new LinkedHashMap<>();
+
+    // The Boot builder applies the same modules and features as the JSON ObjectMapper
+    public ProtobufSchemas(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        objectMapperBuilder.configure(mapper);
+        for (Class<?> type : List.of(Book.class, User.class, BorrowRecord.class,
+                BookList.class, UserList.class, BorrowRecordList.class)) {
+            try {
+                ProtobufSchema schema = mapper.generateSchemaFor(type);
+                writers.put(type, mapper.writer(schema));
+                schemasByName.put(type.getSimpleName(), schema);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot generate the protobuf schema for " + type.getSimpleName(), e);
+            }
+        }
+    }
+
+    // Message class for a declared body type: Book, User, BorrowRecord or a List of one; otherwise null
+    public Class<?> messageType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return writers.containsKey(clazz) && !LIST_MESSAGES.containsValue(clazz) ? clazz : null;
+        }
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == List.class) {
+            return LIST_MESSAGES.get(parameterized.getActualTypeArguments()[0]);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void write(Object value, Class<?> messageType, OutputStream out) throws IOException {
+        Object message = value;
+        if (messageType == BookList.class) {
+            message = new BookList((List<Book>) value);
+        } else if (messageType == UserList.class) {
+            message = new UserList((List<User>) value);
+        } else if (messageType == BorrowRecordList.class) {
+            message = new BorrowRecordList((List<BorrowRecord>) value);
+        }
+        writers.get(messageType).writeValue(out, message);
+    }
+
+    // .proto source of a message and the messages it uses, or null for an unknown name
+    public String getSource(String messageName) {
+        ProtobufSchema schema = schemasByName.get(messageName);
+        return schema == null ? null : schema.getSource().toString();
+    }
+
+    public List<String> getMessageNames() {
+        return List.copyOf(schemasByName.keySet());
+    }
+
+    public ProtobufMapper getMapper() {
+        return mapper;
+    }
+
+    public ProtobufSchema getSchema(String messageName) {
+        return schemasByName.get(messageName);
+    }
+}
@@ -0,0 +1,80 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.dto.LoanFact;
+import com.wipro.librarymanagementsystem.dto.LoanRollupRow;
+import com.wipro.librarymanagementsystem.dto.UserBookPair;
+import com.wipro.librarymanagementsystem.entity.ArchivedBorrowRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBorrowRecordRepository extends JpaRepository<ArchivedBorrowRecord, Long> {
+    
+    // Copy returned loans into the archive; the caller deletes them from borrow_records in the same transaction
+    @Modifying
+    @Query(value = "INSERT INTO borrow_records_archive (id, user_id, book_id, borrow_date, due_date, return_date, " +
+                   "status, fine_amount, notes, created_at, updated_at, archived_at) " +
+                   "SELECT id, user_id, book_id, borrow_date, due_date, return_date, status, fine_amount, notes, " +
+                   "created_at, updated_at, :now FROM borrow_records WHERE id IN (:ids) AND status = 'RETURNED'",
+           nativeQuery = true)
+    int copyFromBorrowRecords(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    // Archived loans of a user, newest first
+    List<ArchivedBorrowRecord> findByUserIdOrderByBorrowDateDesc(Long userId);
+    
+    // Archived loans of a book, newest first
+    List<ArchivedBorrowRecord> findByBookIdOrderByBorrowDateDesc(Long bookId);
+    
+    // Archived loans go with the user or book they belong to
+    @Modifying
+    @Query("DELETE FROM ArchivedBorrowRecord a WHERE a.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM ArchivedBorrowRecord a WHERE a.bookId = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+    
+    // Start of the archived loan history
+    @Query("SELECT MIN(a.borrowDate) FROM ArchivedBorrowRecord a")
+    LocalDateTime findEarliestBorrowDate();
+    
+    // Archived counterparts of the BorrowRecordRepository queries that read the whole loan history
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.LoanRollupRow(CAST(a.borrowDate AS LocalDate), b.genre, " +
+           "u.membershipType, COUNT(a)) " +
+           "FROM ArchivedBorrowRecord a JOIN Book b ON b.id = a.bookId JOIN User u ON u.id = a.userId " +
+           "WHERE a.borrowDate >= :from AND a.borrowDate < :to " +
+           "GROUP BY CAST(a.borrowDate AS LocalDate), b.genre, u.membershipType")
+    List<LoanRollupRow> sumLoansByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.LoanRollupRow(CAST(a.returnDate AS LocalDate), b.genre, " +
+           "u.membershipType, COUNT(a), SUM(CASE WHEN a.returnDate > a.dueDate THEN 1 ELSE 0 END), SUM(a.fineAmount)) " +
+           "FROM ArchivedBorrowRecord a JOIN Book b ON b.id = a.bookId JOIN User u ON u.id = a.userId " +
+           "WHERE a.returnDate >= :from AND a.returnDate < :to " +
+           "GROUP BY CAST(a.returnDate AS LocalDate), b.genre, u.membershipType")
+    List<LoanRollupRow> sumReturnsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.LoanFact(a.id, b.id, u.id, b.genre, u.membershipType, " +
+           "a.borrowDate, a.dueDate, a.returnDate, a.status, a.fineAmount) " +
+           "FROM ArchivedBorrowRecord a JOIN Book b ON b.id = a.bookId JOIN User u ON u.id = a.userId " +
+           "WHERE a.borrowDate >= :afterDate AND a.borrowDate < :to AND (a.borrowDate > :afterDate OR a.id > :afterId) " +
+           "ORDER BY a.borrowDate, a.id")
+    List<LoanFact> findLoanFactChunk(@Param("afterDate") LocalDateTime afterDate,
+                                     @Param("afterId") Long afterId,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+    
+    @Query("SELECT DISTINCT new com.wipro.librarymanagementsystem.dto.UserBookPair(a.userId, a.bookId) " +
+           "FROM ArchivedBorrowRecord a " +
+           "WHERE a.userId > :afterUserId OR (a.userId = :afterUserId AND a.bookId > :afterBookId) " +
+           "ORDER BY a.userId, a.bookId")
+    List<UserBookPair> findUserBookPairChunk(@Param("afterUserId") Long afterUserId,
+                                             @Param("afterBookId") Long afterBookId,
+                                             Pageable pageable);
+}
@@ -1,10 +1,15 @@
 package com.wipro.librarymanagementsystem.repository;
 
+import com.wipro.librarymanagementsystem.dto.BookAvailability;
+import com.wipro.librarymanagementsystem.dto.BookFacetValues;
 import com.wipro.librarymanagementsystem.entity.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +31,9 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     // Find available books (available copies > 0)
     List<Book> findByAvailableCopiesGreaterThan(Integer availableCopies);
     
+    // Count available books without loading them
+    long countByAvailableCopiesGreaterThan(Integer availableCopies);
+    
     // Find books by publication year
     List<Book> findByPublicationYear(Integer publicationYear);
     
@@ -44,7 +52,37 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE LOWER(b.genre) = LOWER(:genre) AND b.availableCopies > 0")
     List<Book> findAvailableBooksByGenre(@Param("genre") String genre);
     
-    // Get most borrowed books
-    @Query("SELECT b FROM Book b ORDER BY (b.totalCopies - b.availableCopies) DESC")
-    List<Book> findMostBorrowedBooks();
+    // One page of available books, ordered by id
+    @Query("SELECT b FROM Book b WHERE b.availableCopies > 0 ORDER BY b.id")
+    List<Book> findAvailableBooksPage(Pageable pageable);
+    
+    // One page of available books in a genre, ordered by id
+    @Query("SELECT b FROM Book b WHERE LOWER(b.genre) = LOWER(:genre) AND b.availableCopies > 0 ORDER BY b.id")
+    List<Book> findAvailableBooksByGenrePage(@Param("genre") String genre, Pageable pageable);
+    
+    // Id, genre and shelf count of every book, without loading the entities
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.BookAvailability(b.id, b.genre, b.availableCopies) FROM Book b")
+    List<BookAvailability> findAllAvailability();
+    
+    // Id, genre and shelf count of the given books
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.BookAvailability(b.id, b.genre, b.availableCopies) FROM Book b WHERE b.id IN :ids")
+    List<BookAvailability> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Take a copy off the shelf; changes nothing when none is left
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1 WHERE b.id = :id AND b.availableCopies > 0")
+    int takeCopy(@Param("id") Long id);
+    
+    // Put a copy back on the shelf; changes nothing when every copy is already there
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1 WHERE b.id = :id AND b.availableCopies < b.totalCopies")
+    int putBackCopy(@Param("id") Long id);
+    
+    // Shelf count as stored, bypassing a book already loaded in the persistence context
+    @Query("SELECT b.availableCopies FROM Book b WHERE b.id = :id")
+    Integer findAvailableCopiesById(@Param("id") Long id);
+    
+    // Genre, author and publication year of every book, without loading the entities
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.BookFacetValues(b.id, b.genre, b.author, b.publicationYear) FROM Book b")
+    List<BookFacetValues> findAllFacetValues();
 }
\ No newline at end of file
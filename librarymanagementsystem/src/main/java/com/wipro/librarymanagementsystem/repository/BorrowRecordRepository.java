@@ -3,11 +3,26 @@ package com.wipro.librarymanagementsystem.repository;
 import com.wipro.librarymanagementsystem.entity.BorrowRecord;
 import com.wipro.librarymanagementsystem.entity.User;
 import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.NotificationMarker;
+import com.wipro.librarymanagementsystem.dto.DailyBorrowCount;
+import com.wipro.librarymanagementsystem.dto.LoanFact;
+import com.wipro.librarymanagementsystem.dto.LoanNotice;
+import com.wipro.librarymanagementsystem.dto.LoanRollupRow;
+import com.wipro.librarymanagementsystem.dto.OverdueLoan;
+import com.wipro.librarymanagementsystem.dto.UserBookPair;
+import com.wipro.librarymanagementsystem.dto.UserLoanCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +39,9 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
     // Find borrow records by status
     List<BorrowRecord> findByStatus(BorrowRecord.BorrowStatus status);
     
+    // Count borrow records by status
+    long countByStatus(BorrowRecord.BorrowStatus status);
+    
     // Find currently borrowed books by user
     List<BorrowRecord> findByUserAndStatus(User user, BorrowRecord.BorrowStatus status);
     
@@ -35,8 +53,12 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
     @Query("SELECT br FROM BorrowRecord br WHERE br.status = 'BORROWED' AND br.dueDate < CURRENT_TIMESTAMP")
     List<BorrowRecord> findOverdueRecords();
     
+    // Count overdue books
+    @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.status = 'BORROWED' AND br.dueDate < CURRENT_TIMESTAMP")
+    long countOverdueRecords();
+    
     // Find books due today
-    @Query("SELECT br FROM BorrowRecord br WHERE br.status = 'BORROWED' AND DATE(br.dueDate) = CURRENT_DATE")
+    @Query("SELECT br FROM BorrowRecord br WHERE br.status = 'BORROWED' AND CAST(br.dueDate AS LocalDate) = CURRENT_DATE")
     List<BorrowRecord> findBooksDueToday();
     
     // Find active borrow record for specific user and book
@@ -56,6 +78,128 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
     // Find records between dates
     List<BorrowRecord> findByBorrowDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     
+    // Next keyset chunk of open loans due in [from, to) that have no marker of this kind yet,
+    // ordered by (user, loan) so each user's loans arrive together
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.LoanNotice(br.id, u.id, u.email, u.firstName, " +
+           "b.id, b.title, b.author, br.dueDate) " +
+           "FROM BorrowRecord br JOIN br.user u JOIN br.book b " +
+           "WHERE br.returnDate IS NULL AND br.status <> 'RETURNED' AND u.isActive = true " +
+           "AND br.dueDate >= :from AND br.dueDate < :to " +
+           "AND (u.id > :afterUserId OR (u.id = :afterUserId AND br.id > :afterId)) " +
+           "AND NOT EXISTS (SELECT m.id FROM NotificationMarker m WHERE m.borrowRecordId = br.id AND m.kind = :kind) " +
+           "ORDER BY u.id, br.id")
+    List<LoanNotice> findLoanNoticeChunk(@Param("kind") NotificationMarker.Kind kind,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("afterUserId") Long afterUserId,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+    
+    // Load a loan and lock its row, so a return and the nightly fine accrual never interleave
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT br FROM BorrowRecord br WHERE br.id = :id")
+    Optional<BorrowRecord> findByIdForUpdate(@Param("id") Long id);
+    
+    // Next keyset chunk of open loans past their due date, for the nightly fine accrual
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.OverdueLoan(br.id, u.id, u.membershipType, " +
+           "br.dueDate, br.fineAmount) " +
+           "FROM BorrowRecord br JOIN br.user u " +
+           "WHERE br.returnDate IS NULL AND br.status <> 'RETURNED' AND br.dueDate < :asOf AND br.id > :afterId " +
+           "ORDER BY br.id")
+    List<OverdueLoan> findOpenOverdueChunk(@Param("asOf") LocalDateTime asOf,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    // Raise a loan's accrued fine only if nobody changed it since it was read (compare-and-set);
+    // updatedAt moves too, so change-based exports pick the loan up
+    @Modifying
+    @Query("UPDATE BorrowRecord br SET br.fineAmount = :newAmount, br.updatedAt = :updatedAt " +
+           "WHERE br.id = :id AND COALESCE(br.fineAmount, 0) = :expectedAmount AND br.returnDate IS NULL")
+    int updateAccruedFine(@Param("id") Long id,
+                          @Param("expectedAmount") BigDecimal expectedAmount,
+                          @Param("newAmount") BigDecimal newAmount,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Due dates of a book's open loans (indexed by book), used for hold ETAs
+    @Query("SELECT br.dueDate FROM BorrowRecord br WHERE br.book.id = :bookId " +
+           "AND br.returnDate IS NULL AND br.status <> 'RETURNED'")
+    List<LocalDateTime> findOpenDueDatesByBookId(@Param("bookId") Long bookId);
+    
+    // Open and overdue loan counts per user, for the in-memory loan limit counters
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.UserLoanCount(br.user.id, COUNT(br), " +
+           "SUM(CASE WHEN br.dueDate < :asOf THEN 1 ELSE 0 END)) " +
+           "FROM BorrowRecord br WHERE br.returnDate IS NULL AND br.status <> 'RETURNED' GROUP BY br.user.id")
+    List<UserLoanCount> countOpenLoansByUser(@Param("asOf") LocalDateTime asOf);
+    
+    // Loans started per book and day since the given time, for the popularity counters
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.DailyBorrowCount(br.book.id, CAST(br.borrowDate AS LocalDate), COUNT(br)) " +
+           "FROM BorrowRecord br WHERE br.borrowDate >= :since " +
+           "GROUP BY br.book.id, CAST(br.borrowDate AS LocalDate)")
+    List<DailyBorrowCount> countDailyBorrowsSince(@Param("since") LocalDateTime since);
+    
+    // Loans per book and day since the given time, for the given books only
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.DailyBorrowCount(br.book.id, CAST(br.borrowDate AS LocalDate), COUNT(br)) " +
+           "FROM BorrowRecord br WHERE br.borrowDate >= :since AND br.book.id IN :bookIds " +
+           "GROUP BY br.book.id, CAST(br.borrowDate AS LocalDate)")
+    List<DailyBorrowCount> countDailyBorrowsSinceForBooks(@Param("since") LocalDateTime since,
+                                                          @Param("bookIds") Collection<Long> bookIds);
+    
+    // Next keyset chunk of distinct (user, book) loan pairs, for the recommendation model
+    @Query("SELECT DISTINCT new com.wipro.librarymanagementsystem.dto.UserBookPair(br.user.id, br.book.id) " +
+           "FROM BorrowRecord br " +
+           "WHERE br.user.id > :afterUserId OR (br.user.id = :afterUserId AND br.book.id > :afterBookId) " +
+           "ORDER BY br.user.id, br.book.id")
+    List<UserBookPair> findUserBookPairChunk(@Param("afterUserId") Long afterUserId,
+                                             @Param("afterBookId") Long afterBookId,
+                                             Pageable pageable);
+    
+    // Loans started per day, genre and membership type in [from, to), for backfilling the daily rollups
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.LoanRollupRow(CAST(br.borrowDate AS LocalDate), b.genre, " +
+           "u.membershipType, COUNT(br)) " +
+           "FROM BorrowRecord br JOIN br.book b JOIN br.user u WHERE br.borrowDate >= :from AND br.borrowDate < :to " +
+           "GROUP BY CAST(br.borrowDate AS LocalDate), b.genre, u.membershipType")
+    List<LoanRollupRow> sumLoansByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Returns, late returns and fines per day, genre and membership type in [from, to)
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.LoanRollupRow(CAST(br.returnDate AS LocalDate), b.genre, " +
+           "u.membershipType, COUNT(br), SUM(CASE WHEN br.returnDate > br.dueDate THEN 1 ELSE 0 END), SUM(br.fineAmount)) " +
+           "FROM BorrowRecord br JOIN br.book b JOIN br.user u WHERE br.returnDate >= :from AND br.returnDate < :to " +
+           "GROUP BY CAST(br.returnDate AS LocalDate), b.genre, u.membershipType")
+    List<LoanRollupRow> sumReturnsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Start of the loan history
+    @Query("SELECT MIN(br.borrowDate) FROM BorrowRecord br")
+    LocalDateTime findEarliestBorrowDate();
+    
+    // Next keyset chunk, in (borrowDate, id) order, of loans started before the given time;
+    // flattened for the columnar snapshot and served by the borrow-date index
+    @Query("SELECT new com.wipro.librarymanagementsystem.dto.LoanFact(br.id, b.id, u.id, b.genre, u.membershipType, " +
+           "br.borrowDate, br.dueDate, br.returnDate, br.status, br.fineAmount) " +
+           "FROM BorrowRecord br JOIN br.book b JOIN br.user u " +
+           "WHERE br.borrowDate >= :afterDate AND br.borrowDate < :to AND (br.borrowDate > :afterDate OR br.id > :afterId) " +
+           "ORDER BY br.borrowDate, br.id")
+    List<LoanFact> findLoanFactChunk(@Param("afterDate") LocalDateTime afterDate,
+                                     @Param("afterId") Long afterId,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+    
+    // Borrow dates of loans created or changed since the given time
+    @Query("SELECT DISTINCT CAST(br.borrowDate AS LocalDate) FROM BorrowRecord br " +
+           "WHERE br.borrowDate IS NOT NULL AND (br.updatedAt >= :since OR br.createdAt >= :since)")
+    List<LocalDate> findBorrowDaysChangedSince(@Param("since") LocalDateTime since);
+    
+    // Next keyset chunk of ids of loans returned before the cutoff, for the archival job
+    @Query("SELECT br.id FROM BorrowRecord br WHERE br.status = 'RETURNED' AND br.returnDate < :cutoff " +
+           "AND br.id > :afterId ORDER BY br.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+    
+    // Remove loans that were copied to the archive
+    @Modifying
+    @Query(value = "DELETE FROM borrow_records WHERE id IN (:ids) AND status = 'RETURNED'", nativeQuery = true)
+    int deleteArchived(@Param("ids") Collection<Long> ids);
+    
     // Get borrowing statistics
     @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.status = 'BORROWED'")
     long countCurrentlyBorrowedBooks();
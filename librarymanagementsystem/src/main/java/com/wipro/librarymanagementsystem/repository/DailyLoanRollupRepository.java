@@ -0,0 +1,48 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.entity.DailyLoanRollup;
+import com.wipro.librarymanagementsystem.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyLoanRollupRepository extends JpaRepository<DailyLoanRollup, Long> {
+    
+    // Add to one day's totals in a single statement, creating the row on first use
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO daily_loan_rollups (rollup_date, genre, membership_type, loans, returned_loans, " +
+                   "overdue_returns, fines, updated_at) " +
+                   "VALUES (:day, :genre, :membershipType, :loans, :returns, :overdueReturns, :fines, :now) " +
+                   "ON DUPLICATE KEY UPDATE loans = loans + :loans, returned_loans = returned_loans + :returns, " +
+                   "overdue_returns = overdue_returns + :overdueReturns, fines = fines + :fines, updated_at = :now",
+           nativeQuery = true)
+    int applyDelta(@Param("day") LocalDate day,
+                   @Param("genre") String genre,
+                   @Param("membershipType") String membershipType,
+                   @Param("loans") long loans,
+                   @Param("returns") long returns,
+                   @Param("overdueReturns") long overdueReturns,
+                   @Param("fines") BigDecimal fines,
+                   @Param("now") LocalDateTime now);
+    
+    // Clear a range of days before it is recomputed
+    @Modifying
+    @Query("DELETE FROM DailyLoanRollup r WHERE r.day >= :from AND r.day <= :to")
+    int deleteByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    // Rollups in a range, optionally for one genre and/or membership type
+    @Query("SELECT r FROM DailyLoanRollup r WHERE r.day >= :from AND r.day <= :to " +
+           "AND (:genre IS NULL OR r.genre = :genre) AND (:membershipType IS NULL OR r.membershipType = :membershipType) " +
+           "ORDER BY r.day")
+    List<DailyLoanRollup> findForReport(@Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("genre") String genre,
+                                        @Param("membershipType") User.MembershipType membershipType);
+}
@@ -0,0 +1,43 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.entity.FineBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface FineBalanceRepository extends JpaRepository<FineBalance, Long> {
+    
+    // Add to a user's running totals in a single statement, creating the row on first use
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO fine_balances (user_id, outstanding, total_accrued, total_paid, updated_at) " +
+                   "VALUES (:userId, :accrued - :paid, :accrued, :paid, :now) " +
+                   "ON DUPLICATE KEY UPDATE outstanding = outstanding + (:accrued - :paid), " +
+                   "total_accrued = total_accrued + :accrued, total_paid = total_paid + :paid, updated_at = :now",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("accrued") BigDecimal accrued,
+                   @Param("paid") BigDecimal paid,
+                   @Param("now") LocalDateTime now);
+    
+    // Take a payment off a user's balance only if it does not exceed what is outstanding;
+    // the check and the update are one statement, so concurrent payments cannot overdraw it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE fine_balances SET outstanding = outstanding - :paid, total_paid = total_paid + :paid, " +
+                   "updated_at = :now WHERE user_id = :userId AND outstanding >= :paid",
+           nativeQuery = true)
+    int applyPayment(@Param("userId") Long userId,
+                     @Param("paid") BigDecimal paid,
+                     @Param("now") LocalDateTime now);
+    
+    // System-wide outstanding fines
+    @Query("SELECT COALESCE(SUM(b.outstanding), 0) FROM FineBalance b")
+    BigDecimal sumOutstanding();
+    
+    // Users who currently owe something
+    long countByOutstandingGreaterThan(BigDecimal amount);
+}
@@ -0,0 +1,16 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.entity.FineLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface FineLedgerRepository extends JpaRepository<FineLedgerEntry, Long> {
+    
+    // Ledger of a user, oldest first
+    List<FineLedgerEntry> findByUserIdOrderByIdAsc(Long userId);
+    
+    // Ledger of a single loan
+    List<FineLedgerEntry> findByBorrowRecordIdOrderByIdAsc(Long borrowRecordId);
+}
@@ -0,0 +1,37 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.entity.Hold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+    
+    // Active holds in queue order, used to rebuild the in-memory queues at startup
+    List<Hold> findByStatusInOrderByIdAsc(Collection<Hold.HoldStatus> statuses);
+    
+    // Holds of a user in the given states
+    List<Hold> findByUserIdAndStatusInOrderByIdAsc(Long userId, Collection<Hold.HoldStatus> statuses);
+    
+    // Count a user's holds in the given states
+    long countByUserIdAndStatusIn(Long userId, Collection<Hold.HoldStatus> statuses);
+    
+    // Check for an existing hold of the user on the book
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<Hold.HoldStatus> statuses);
+    
+    // Load a hold and lock its row, so a return, cancellation, expiry or pickup never interleave
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Hold h WHERE h.id = :id")
+    Optional<Hold> findByIdForUpdate(@Param("id") Long id);
+    
+    // A hold of the user on the book in a given state, locked like findByIdForUpdate
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Hold> findFirstByUserIdAndBookIdAndStatus(Long userId, Long bookId, Hold.HoldStatus status);
+}
@@ -0,0 +1,20 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.entity.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+    
+    // Move the checkpoint in one statement, creating the row on first use
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO journal_checkpoints (name, applied_sequence, updated_at) VALUES (:name, :sequence, :now) " +
+                   "ON DUPLICATE KEY UPDATE applied_sequence = :sequence, updated_at = :now",
+           nativeQuery = true)
+    int advance(@Param("name") String name, @Param("sequence") long sequence, @Param("now") LocalDateTime now);
+}
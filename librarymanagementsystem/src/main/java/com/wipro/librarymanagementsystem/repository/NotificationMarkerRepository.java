@@ -0,0 +1,19 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.entity.NotificationMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+
+@Repository
+public interface NotificationMarkerRepository extends JpaRepository<NotificationMarker, Long> {
+    
+    // Release claimed markers after a failed send so the next run retries them
+    @Modifying
+    @Query("DELETE FROM NotificationMarker m WHERE m.kind = :kind AND m.borrowRecordId IN :borrowRecordIds")
+    int deleteClaims(@Param("kind") NotificationMarker.Kind kind,
+                     @Param("borrowRecordIds") Collection<Long> borrowRecordIds);
+}
@@ -0,0 +1,52 @@
+package com.wipro.librarymanagementsystem.repository;
+
+import com.wipro.librarymanagementsystem.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Next batch to claim, oldest first: undelivered and not claimed by a live relay; rows
+    // another relay instance is claiming right now are skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.publishedAt IS NULL " +
+           "AND (o.claimedUntil IS NULL OR o.claimedUntil < :now) ORDER BY o.id")
+    List<OutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Mark a delivered batch
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.publishedAt = :publishedAt, o.claimedUntil = NULL WHERE o.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    // Count events still waiting for delivery
+    long countByPublishedAtIsNull();
+    
+    // Creation time of the oldest undelivered event
+    @Query("SELECT MIN(o.createdAt) FROM OutboxEvent o WHERE o.publishedAt IS NULL")
+    LocalDateTime findOldestUnpublishedCreatedAt();
+    
+    // Note a failed delivery attempt for a batch and release its claim, unless the claim
+    // expired and another relay has taken the events over
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.attempts = o.attempts + 1, o.lastError = :error, o.claimedUntil = NULL " +
+           "WHERE o.id IN :ids AND o.claimedUntil = :claimedUntil")
+    int recordFailedAttempt(@Param("ids") List<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil,
+                            @Param("error") String error);
+    
+    // Remove delivered events past the retention window
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
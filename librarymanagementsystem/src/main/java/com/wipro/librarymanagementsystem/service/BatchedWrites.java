@@ -0,0 +1,101 @@
+package com.wipro.librarymanagementsystem.service;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Applies independent write commands in one transaction, so a batch pays for one commit. A
+// command the service refuses rolls the whole batch back; the commands are then re-run one
+// per transaction so that only the refused one fails. Connection and lock problems are not
+// refusals: they are thrown to the caller, which retries later.
+public final class BatchedWrites {
+
+    private BatchedWrites() {
+    }
+
+    public interface Handler<C, R> {
+
+        // Runs inside the transaction
+        R apply(C command);
+
+        // Runs inside the transaction after the commands it applied, e.g. to advance a checkpoint
+        default void beforeCommit(List<C> applied) {
+        }
+
+        // Outcome of a command the service refused; its transaction has rolled back
+        R refused(C command, RuntimeException e);
+
+        // Outcome of a command whose own transaction failed transiently during the re-run
+        default R unavailable(C command, RuntimeException e) {
+            throw e;
+        }
+
+        // Called once per command, in order, as soon as its outcome is final
+        default void completed(C command, R result) {
+        }
+
+        // Whether the re-run stops after the first refused command, leaving the rest for the next batch
+        default boolean stopAtRefusal() {
+            return false;
+        }
+    }
+
+    // Returns the outcomes of the commands processed: all of them, or up to the refused one
+    public static <C, R> List<R> apply(TransactionTemplate template, List<C> commands, Handler<C, R> handler) {
+        List<R> results = new ArrayList<>(commands.size());
+        try {
+            template.executeWithoutResult(status -> {
+                for (C command : commands) {
+                    results.add(handler.apply(command));
+                }
+                handler.beforeCommit(commands);
+            });
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            return applyOneByOne(template, commands, handler);
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            handler.completed(commands.get(i), results.get(i));
+        }
+        return results;
+    }
+
+    private static <C, R> List<R> applyOneByOne(TransactionTemplate template, List<C> commands, Handler<C, R> handler) {
+        List<R> results = new ArrayList<>(commands.size());
+        for (C command : commands) {
+            R result;
+            boolean refused = false;
+            try {
+                result = template.execute(status -> {
+                    R applied = handler.apply(command);
+                    handler.beforeCommit(List.of(command));
+                    return applied;
+                });
+            } catch (RuntimeException e) {
+                refused = !isTransient(e);
+                result = refused ? handler.refused(command, e) : handler.unavailable(command, e);
+            }
+            results.add(result);
+            handler.completed(command, result);
+            if (refused && handler.stopAtRefusal()) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Connection and lock problems are worth retrying; anything else is the service refusing the command
+    public static boolean isTransient(RuntimeException e) {
+        return e instanceof TransactionException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+}
@@ -0,0 +1,363 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.config.DataSourceRouting;
+import com.wipro.librarymanagementsystem.dto.BookAvailability;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory availability index: compressed bitmaps of book ids for the whole catalogue,
+// for books with a copy on the shelf, and per genre. "Available", "available in genre X"
+// and single-book checks are bitmap lookups and intersections instead of queries.
+// Changes are applied after their transaction commits; shelf counts are kept as deltas,
+// so two commits on the same book converge whatever order their callbacks run in.
+// A rebuild cannot tell whether a change committed while it was reading is in its rows, so
+// the books changed during a rebuild are read again once the new bitmaps are in place.
+@Service
+public class BookAvailabilityIndex {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private RoaringBitmap catalogue = new RoaringBitmap();
+    private RoaringBitmap available = new RoaringBitmap();
+    private Map<String, RoaringBitmap> genres = new HashMap<>();
+    private Map<Integer, String> genreOf = new HashMap<>();
+    private Map<Integer, Integer> shelfCopies = new HashMap<>();
+    // Books changed while a rebuild is running (rebuilding), to be read again after the swap
+    private boolean rebuilding;
+    private Set<Integer> changedDuringRebuild = new HashSet<>();
+    private volatile boolean ready;
+
+    @Value("${library.availability.rebuild-reread-passes:5}")
+    private int rereadPasses;
+
+    public BookAvailabilityIndex(PlatformTransactionManager transactionManager) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    // Until the first load completes callers fall back to the database
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    // Periodic full rebuild corrects drift from changes made outside BookService
+    @Scheduled(fixedDelayString = "${library.availability.rebuild-interval-ms:3600000}",
+               initialDelayString = "${library.availability.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            // From the primary: a lagging replica could miss changes whose callbacks came before the rebuild
+            List<BookAvailability> rows = DataSourceRouting.onPrimary(
+                    () -> readOnlyTemplate.execute(status -> bookRepository.findAllAvailability()));
+            swapIn(rows);
+            int reread = rereadChanged();
+            System.out.println("Availability index built: " + rows.size() + " books, " + countAvailable()
+                    + " available, " + reread + " re-read after changing during the build, "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                changedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void swapIn(List<BookAvailability> rows) {
+        RoaringBitmap newCatalogue = new RoaringBitmap();
+        RoaringBitmap newAvailable = new RoaringBitmap();
+        Map<String, RoaringBitmap> newGenres = new HashMap<>();
+        Map<Integer, String> newGenreOf = new HashMap<>();
+        Map<Integer, Integer> newShelfCopies = new HashMap<>();
+        for (BookAvailability row : rows) {
+            int id = Math.toIntExact(row.getBookId());
+            int copies = row.getAvailableCopies() == null ? 0 : row.getAvailableCopies();
+            String genre = genreKey(row.getGenre());
+            newCatalogue.add(id);
+            newShelfCopies.put(id, copies);
+            if (copies > 0) {
+                newAvailable.add(id);
+            }
+            if (genre != null) {
+                newGenreOf.put(id, genre);
+                newGenres.computeIfAbsent(genre, key -> new RoaringBitmap()).add(id);
+            }
+        }
+        newCatalogue.runOptimize();
+        newAvailable.runOptimize();
+        newGenres.values().forEach(RoaringBitmap::runOptimize);
+
+        lock.writeLock().lock();
+        try {
+            catalogue = newCatalogue;
+            available = newAvailable;
+            genres = newGenres;
+            genreOf = newGenreOf;
+            shelfCopies = newShelfCopies;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replace what the rebuild read for books changed since it started with their current rows.
+    // Changes arriving during a re-read are picked up by the next pass; the last pass normally
+    // finds none, and anything left after rereadPasses is corrected by the next rebuild.
+    private int rereadChanged() {
+        int reread = 0;
+        for (int pass = 0; pass < rereadPasses; pass++) {
+            Set<Integer> changed;
+            lock.writeLock().lock();
+            try {
+                changed = changedDuringRebuild;
+                changedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (changed.isEmpty()) {
+                break;
+            }
+            List<Long> ids = changed.stream().map(Integer::longValue).toList();
+            List<BookAvailability> rows = DataSourceRouting.onPrimary(
+                    () -> readOnlyTemplate.execute(status -> bookRepository.findAvailabilityByIdIn(ids)));
+            lock.writeLock().lock();
+            try {
+                Set<Integer> deleted = new HashSet<>(changed);
+                for (BookAvailability row : rows) {
+                    int id = Math.toIntExact(row.getBookId());
+                    deleted.remove(id);
+                    put(id, genreKey(row.getGenre()), row.getAvailableCopies() == null ? 0 : row.getAvailableCopies());
+                }
+                deleted.forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            reread += changed.size();
+        }
+        return reread;
+    }
+
+    // Whether the book exists; null while the index is not loaded
+    public Boolean contains(Long bookId) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return catalogue.contains(Math.toIntExact(bookId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isAvailable(Long bookId) {
+        lock.readLock().lock();
+        try {
+            return available.contains(Math.toIntExact(bookId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Copy of the available-books bitmap, for callers that combine it with their own bitmaps
+    public RoaringBitmap availableSnapshot() {
+        lock.readLock().lock();
+        try {
+            return available.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countAvailable() {
+        lock.readLock().lock();
+        try {
+            return available.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of available books in ascending order, optionally restricted to a genre;
+    // offset and limit select a page without materializing the ids before it
+    public List<Long> availableIds(String genre, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap ids;
+            if (genre == null) {
+                ids = available;
+            } else {
+                RoaringBitmap inGenre = genres.get(genreKey(genre));
+                if (inGenre == null) {
+                    return List.of();
+                }
+                ids = RoaringBitmap.and(available, inGenre);
+            }
+            List<Long> page = new ArrayList<>(Math.min(limit, ids.getCardinality()));
+            if (offset >= ids.getCardinality()) {
+                return page;
+            }
+            PeekableIntIterator iterator = ids.getIntIterator();
+            if (offset > 0) {
+                // select() finds the offset-th smallest id, so earlier pages are skipped, not walked
+                iterator.advanceIfNeeded(ids.select(offset));
+            }
+            while (iterator.hasNext() && page.size() < limit) {
+                page.add((long) iterator.next());
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A copy left or came back to the shelf
+    public void adjustCopiesAfterCommit(Long bookId, int delta) {
+        afterCommit(() -> {
+            int id = Math.toIntExact(bookId);
+            lock.writeLock().lock();
+            try {
+                markChanged(id);
+                if (!catalogue.contains(id)) {
+                    return;
+                }
+                int copies = shelfCopies.merge(id, delta, Integer::sum);
+                setAvailable(id, copies > 0);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // A book was created or edited: take its genre and shelf count as saved
+    public void putAfterCommit(Book book) {
+        Long bookId = book.getId();
+        String genre = genreKey(book.getGenre());
+        int copies = book.getAvailableCopies() == null ? 0 : book.getAvailableCopies();
+        afterCommit(() -> {
+            int id = Math.toIntExact(bookId);
+            lock.writeLock().lock();
+            try {
+                markChanged(id);
+                put(id, genre, copies);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void removeAfterCommit(Long bookId) {
+        afterCommit(() -> {
+            int id = Math.toIntExact(bookId);
+            lock.writeLock().lock();
+            try {
+                markChanged(id);
+                remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Callers hold the write lock
+    private void markChanged(int id) {
+        if (rebuilding) {
+            changedDuringRebuild.add(id);
+        }
+    }
+
+    private void put(int id, String genre, int copies) {
+        catalogue.add(id);
+        shelfCopies.put(id, copies);
+        setAvailable(id, copies > 0);
+        moveGenre(id, genre);
+    }
+
+    private void remove(int id) {
+        catalogue.remove(id);
+        available.remove(id);
+        shelfCopies.remove(id);
+        moveGenre(id, null);
+    }
+
+    private void setAvailable(int id, boolean onShelf) {
+        if (onShelf) {
+            available.add(id);
+        } else {
+            available.remove(id);
+        }
+    }
+
+    private void moveGenre(int id, String genre) {
+        String previous = genre == null ? genreOf.remove(id) : genreOf.put(id, genre);
+        if (previous != null && !previous.equals(genre)) {
+            RoaringBitmap bitmap = genres.get(previous);
+            if (bitmap != null) {
+                bitmap.remove(id);
+                if (bitmap.isEmpty()) {
+                    genres.remove(previous);
+                }
+            }
+        }
+        if (genre != null) {
+            genres.computeIfAbsent(genre, key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private static String genreKey(String genre) {
+        return genre == null || genre.isBlank() ? null : genre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,43 +1,85 @@
 package com.wipro.librarymanagementsystem.service;
 
 import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.event.BookChanged;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
 import com.wipro.librarymanagementsystem.repository.BookRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class BookService {
     
+    private static final int LOAD_CHUNK_SIZE = 500;
+    
     @Autowired
     private BookRepository bookRepository;
     
+    @Autowired
+    private TableVersionService tableVersionService;
+    
+    @Autowired
+    private DomainEventBus eventBus;
+    
+    @Autowired
+    private BookAvailabilityIndex availabilityIndex;
+    
+    @Autowired
+    private CatalogueFacetIndex facetIndex;
+    
+    @Autowired
+    private PopularityService popularityService;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+    
     // Get all books
+    @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
     
     // Get book by ID
+    @Transactional(readOnly = true)
     public Optional<Book> getBookById(Long id) {
         return bookRepository.findById(id);
     }
     
     // Get book by ISBN
+    @Transactional(readOnly = true)
     public Optional<Book> getBookByIsbn(String isbn) {
         return bookRepository.findByIsbn(isbn);
     }
     
     // Save book
+    @Transactional
     public Book saveBook(Book book) {
         // Check if ISBN already exists
         if (bookRepository.existsByIsbn(book.getIsbn())) {
             throw new RuntimeException("Book with ISBN '" + book.getIsbn() + "' already exists");
         }
-        return bookRepository.save(book);
+        tableVersionService.bump(TableVersionService.Table.BOOKS);
+        Book saved = bookRepository.save(book);
+        availabilityIndex.putAfterCommit(saved);
+        eventBus.publish(new BookChanged(saved.getId(), null, BookChanged.BookSnapshot.of(saved)));
+        return saved;
     }
     
     // Update book
+    @Transactional
     public Book updateBook(Long id, Book bookDetails) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
@@ -48,6 +90,7 @@ public class BookService {
             throw new RuntimeException("Book with ISBN '" + bookDetails.getIsbn() + "' already exists");
         }
         
+        BookChanged.BookSnapshot before = BookChanged.BookSnapshot.of(book);
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
         book.setIsbn(bookDetails.getIsbn());
@@ -56,85 +99,239 @@ public class BookService {
         book.setTotalCopies(bookDetails.getTotalCopies());
         book.setAvailableCopies(bookDetails.getAvailableCopies());
         
-        return bookRepository.save(book);
+        tableVersionService.bump(TableVersionService.Table.BOOKS);
+        availabilityIndex.putAfterCommit(book);
+        return saveChanged(book, before);
     }
     
     // Delete book
+    @Transactional
     public void deleteBook(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+        BookChanged.BookSnapshot before = BookChanged.BookSnapshot.of(book);
         bookRepository.delete(book);
+        // Deleting a book cascades to its borrow records; archived ones have no foreign key
+        archivedBorrowRecordRepository.deleteByBookId(id);
+        tableVersionService.bump(TableVersionService.Table.BOOKS);
+        tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
+        availabilityIndex.removeAfterCommit(id);
+        eventBus.publish(new BookChanged(id, before, null));
     }
     
     // Search books
+    @Transactional(readOnly = true)
     public List<Book> searchBooks(String keyword) {
         return bookRepository.searchByTitleOrAuthor(keyword);
     }
     
     // Get books by author
+    @Transactional(readOnly = true)
     public List<Book> getBooksByAuthor(String author) {
         return bookRepository.findByAuthorContainingIgnoreCase(author);
     }
     
     // Get books by genre
+    @Transactional(readOnly = true)
     public List<Book> getBooksByGenre(String genre) {
         return bookRepository.findByGenreIgnoreCase(genre);
     }
     
     // Get available books
+    @Transactional(readOnly = true)
     public List<Book> getAvailableBooks() {
-        return bookRepository.findAllAvailableBooks();
+        if (!availabilityIndex.isReady()) {
+            return bookRepository.findAllAvailableBooks();
+        }
+        return loadInOrder(availabilityIndex.availableIds(null, 0, Integer.MAX_VALUE));
+    }
+    
+    // Get one page of available books, ordered by id
+    @Transactional(readOnly = true)
+    public List<Book> getAvailableBooks(int page, int size) {
+        if (!availabilityIndex.isReady()) {
+            return bookRepository.findAvailableBooksPage(PageRequest.of(page, size));
+        }
+        return loadInOrder(availabilityIndex.availableIds(null, page * size, size));
     }
     
     // Get available books by genre
+    @Transactional(readOnly = true)
     public List<Book> getAvailableBooksByGenre(String genre) {
-        return bookRepository.findAvailableBooksByGenre(genre);
+        if (!availabilityIndex.isReady()) {
+            return bookRepository.findAvailableBooksByGenre(genre);
+        }
+        return loadInOrder(availabilityIndex.availableIds(genre, 0, Integer.MAX_VALUE));
+    }
+    
+    // Get one page of available books in a genre, ordered by id
+    @Transactional(readOnly = true)
+    public List<Book> getAvailableBooksByGenre(String genre, int page, int size) {
+        if (!availabilityIndex.isReady()) {
+            return bookRepository.findAvailableBooksByGenrePage(genre, PageRequest.of(page, size));
+        }
+        return loadInOrder(availabilityIndex.availableIds(genre, page * size, size));
+    }
+    
+    // Books most often borrowed by the patrons who borrowed this one
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRecommendations(Long bookId, int limit) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new RuntimeException("Book not found with id: " + bookId);
+        }
+        RecommendationService.Neighbours neighbours = recommendationService.getNeighbours(bookId);
+        if (neighbours == null) {
+            return List.of();
+        }
+        int size = Math.min(Math.max(limit, 0), neighbours.bookIds().length);
+        List<Long> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(neighbours.bookIds()[i]);
+        }
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(ids).forEach(book -> books.put(book.getId(), book));
+        List<Map<String, Object>> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Book book = books.get(ids.get(i));
+            if (book != null) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("score", neighbours.scores()[i]);
+                entry.put("book", book);
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+    
+    // Faceted browsing: facet counts under the current filters plus one page of matching books
+    @Transactional(readOnly = true)
+    public Map<String, Object> browseCatalogue(List<String> genres, List<Integer> decades, List<String> authors,
+                                               Boolean available, int authorLimit, int page, int size) {
+        CatalogueFacetIndex.FacetResult result = facetIndex.search(genres, decades, authors, available, authorLimit, page, size);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", result.total());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("facets", result.facets());
+        response.put("books", loadInOrder(result.pageIds()));
+        return response;
     }
     
-    // Get most borrowed books
+    // Get most borrowed books: the 30-day popularity ranking
+    @Transactional(readOnly = true)
     public List<Book> getMostBorrowedBooks() {
-        return bookRepository.findMostBorrowedBooks();
+        return getPopularBooks(PopularityService.Window.MONTH, 20).stream()
+                .map(entry -> (Book) entry.get("book"))
+                .toList();
+    }
+    
+    // Most borrowed books in a rolling window, with their loan counts
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPopularBooks(PopularityService.Window window, int limit) {
+        List<PopularityService.RankedBook> ranking = popularityService.getTopBooks(window, Math.min(limit, popularityService.getMaxLimit()));
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(ranking.stream().map(PopularityService.RankedBook::bookId).toList())
+                .forEach(book -> books.put(book.getId(), book));
+        List<Map<String, Object>> result = new ArrayList<>(ranking.size());
+        for (PopularityService.RankedBook ranked : ranking) {
+            Book book = books.get(ranked.bookId());
+            if (book != null) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("rank", result.size() + 1);
+                entry.put("borrowCount", ranked.borrowCount());
+                entry.put("book", book);
+                result.add(entry);
+            }
+        }
+        return result;
     }
     
     // Check if book is available for borrowing
+    @Transactional(readOnly = true)
     public boolean isBookAvailable(Long bookId) {
+        Boolean known = availabilityIndex.contains(bookId);
+        if (known != null) {
+            if (!known) {
+                throw new RuntimeException("Book not found with id: " + bookId);
+            }
+            return availabilityIndex.isAvailable(bookId);
+        }
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
         return book.isAvailable();
     }
     
-    // Decrease available copies (when book is borrowed)
+    // Decrease available copies (when book is borrowed). The check and the decrement are one
+    // conditional UPDATE, so concurrent borrows cannot both take the last copy; the row stays
+    // locked until the transaction ends.
+    @Transactional
     public Book decreaseAvailableCopies(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-        
-        if (book.getAvailableCopies() <= 0) {
-            throw new RuntimeException("No available copies of this book");
+        if (bookRepository.takeCopy(bookId) == 0) {
+            throw copiesUnchanged(bookId, "No available copies of this book");
         }
-        
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        return bookRepository.save(book);
+        return copiesChanged(bookId, -1);
     }
     
-    // Increase available copies (when book is returned)
+    // Increase available copies (when book is returned), never past the total
+    @Transactional
     public Book increaseAvailableCopies(Long bookId) {
+        if (bookRepository.putBackCopy(bookId) == 0) {
+            throw copiesUnchanged(bookId, "All copies are already available");
+        }
+        return copiesChanged(bookId, 1);
+    }
+    
+    private RuntimeException copiesUnchanged(Long bookId, String message) {
+        if (!bookRepository.existsById(bookId)) {
+            return new RuntimeException("Book not found with id: " + bookId);
+        }
+        return new RuntimeException(message);
+    }
+    
+    // Bring a loaded book in line with the count just written, then announce the change
+    private Book copiesChanged(Long bookId, int delta) {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-        
-        if (book.getAvailableCopies() >= book.getTotalCopies()) {
-            throw new RuntimeException("All copies are already available");
-        }
-        
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        return bookRepository.save(book);
+        int available = bookRepository.findAvailableCopiesById(bookId);
+        BookChanged.BookSnapshot loaded = BookChanged.BookSnapshot.of(book);
+        BookChanged.BookSnapshot before = new BookChanged.BookSnapshot(loaded.id(), loaded.title(), loaded.author(),
+                loaded.genre(), loaded.publicationYear(), loaded.totalCopies(), available - delta);
+        book.setAvailableCopies(available);
+        tableVersionService.bump(TableVersionService.Table.BOOKS);
+        availabilityIndex.adjustCopiesAfterCommit(bookId, delta);
+        return saveChanged(book, before);
     }
     
     // Get book statistics
+    @Transactional(readOnly = true)
     public long getTotalBooksCount() {
         return bookRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public long getAvailableBooksCount() {
-        return bookRepository.findAllAvailableBooks().size();
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.countAvailable();
+        }
+        return bookRepository.countByAvailableCopiesGreaterThan(0);
+    }
+    
+    // Load books by id in chunks, keeping the order of the ids
+    private List<Book> loadInOrder(List<Long> ids) {
+        List<Book> books = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ids.size()));
+            List<Book> loaded = bookRepository.findAllById(chunk);
+            loaded.sort(Comparator.comparing(Book::getId));
+            books.addAll(loaded);
+        }
+        return books;
+    }
+    
+    // Save and announce the change once the transaction commits
+    private Book saveChanged(Book book, BookChanged.BookSnapshot before) {
+        Book saved = bookRepository.save(book);
+        eventBus.publish(new BookChanged(saved.getId(), before, BookChanged.BookSnapshot.of(saved)));
+        return saved;
     }
 }
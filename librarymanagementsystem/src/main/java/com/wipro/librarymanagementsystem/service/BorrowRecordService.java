@@ -1,15 +1,30 @@
 package com.wipro.librarymanagementsystem.service;
 
+import com.wipro.librarymanagementsystem.entity.ArchivedBorrowRecord;
 import com.wipro.librarymanagementsystem.entity.BorrowRecord;
 import com.wipro.librarymanagementsystem.entity.User;
 import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.Hold;
+import com.wipro.librarymanagementsystem.event.BookBorrowed;
+import com.wipro.librarymanagementsystem.event.BookReturned;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.event.LoanExtended;
+import com.wipro.librarymanagementsystem.outbox.OutboxService;
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
 import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BorrowRecordService {
@@ -23,19 +38,64 @@ public class BorrowRecordService {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    @Autowired
+    private TableVersionService tableVersionService;
+    
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+    
+    @Autowired
+    private DomainEventBus eventBus;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private FineService fineService;
+    
+    @Autowired
+    private HoldService holdService;
+    
+    @Autowired
+    private LoanLimitService loanLimitService;
+    
+    @Autowired
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private LoanArchiveService loanArchiveService;
+    
     // Get all borrow records
+    @Transactional(readOnly = true)
     public List<BorrowRecord> getAllBorrowRecordsWithUserAndBook() {
         return borrowRecordRepository.findAllWithUserAndBook();
         
     }
     
     // Get borrow record by ID
+    @Transactional(readOnly = true)
     public Optional<BorrowRecord> getBorrowRecordById(Long id) {
         return borrowRecordRepository.findById(id);
     }
     
     // Borrow a book
+    @Transactional
     public BorrowRecord borrowBook(Long userId, Long bookId) {
+        return borrowBook(userId, bookId, LocalDateTime.now());
+    }
+    
+    // Borrow a book as of the given time (journaled checkouts are applied after they were accepted)
+    @Transactional
+    public BorrowRecord borrowBook(Long userId, Long bookId, LocalDateTime borrowedAt) {
         User user = userService.getUserById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         
@@ -47,8 +107,11 @@ public class BorrowRecordService {
             throw new RuntimeException("User account is inactive");
         }
         
+        // A copy set aside for this user's hold is not on the shelf, so it bypasses the availability check
+        Optional<Hold> readyHold = holdService.findReadyHold(userId, bookId);
+        
         // Check if book is available
-        if (!book.isAvailable()) {
+        if (readyHold.isEmpty() && !book.isAvailable()) {
             throw new RuntimeException("Book is not available for borrowing");
         }
         
@@ -59,8 +122,12 @@ public class BorrowRecordService {
             throw new RuntimeException("User already has this book borrowed");
         }
         
+        // Check loan and overdue limits against the in-memory counters; takes a slot on success
+        loanLimitService.reserveLoan(user);
+        
         // Create borrow record
         BorrowRecord borrowRecord = new BorrowRecord(user, book);
+        borrowRecord.setBorrowDate(borrowedAt);
         
         // Set due date based on membership type (different loan periods)
         int loanDays = switch (user.getMembershipType()) {
@@ -68,93 +135,184 @@ public class BorrowRecordService {
             case STUDENT -> 30; // 1 month
             default -> 14;      // 2 weeks for regular
         };
-        borrowRecord.setDueDate(LocalDateTime.now().plusDays(loanDays));
+        borrowRecord.setDueDate(borrowedAt.plusDays(loanDays));
         
         // Update book availability
-        bookService.decreaseAvailableCopies(bookId);
+        if (readyHold.isPresent()) {
+            holdService.fulfill(readyHold.get());
+        } else {
+            bookService.decreaseAvailableCopies(bookId);
+        }
         
-        return borrowRecordRepository.save(borrowRecord);
+        readYourWritesTracker.pin(userId);
+        tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
+        BorrowRecord saved = borrowRecordRepository.save(borrowRecord);
+        outboxService.recordLoanEvent(OutboxService.LOAN_CREATED, saved);
+        eventBus.publish(BookBorrowed.of(saved));
+        return saved;
     }
     
     // Return a book
+    @Transactional
     public BorrowRecord returnBook(Long borrowRecordId) {
-        BorrowRecord borrowRecord = borrowRecordRepository.findById(borrowRecordId)
+        return returnBook(borrowRecordId, LocalDateTime.now());
+    }
+    
+    // Return a book as of the given time
+    @Transactional
+    public BorrowRecord returnBook(Long borrowRecordId, LocalDateTime returnedAt) {
+        BorrowRecord borrowRecord = borrowRecordRepository.findByIdForUpdate(borrowRecordId)
                 .orElseThrow(() -> new RuntimeException("Borrow record not found with id: " + borrowRecordId));
         
-        if (borrowRecord.getStatus() != BorrowRecord.BorrowStatus.BORROWED) {
+        if (borrowRecord.getStatus() == BorrowRecord.BorrowStatus.RETURNED) {
             throw new RuntimeException("Book is already returned");
         }
         
+        LocalDateTime returnDate = returnedAt;
+        // Overdue as of the return, not of now: a journaled return is applied after it happened
+        boolean wasOverdue = borrowRecord.getDueDate().isBefore(returnDate);
+        BorrowRecord.BorrowStatus previousStatus = borrowRecord.getStatus();
+        
+        // Settle the fine before the status change; the ledger already holds what accrued nightly
+        fineService.settleOnReturn(borrowRecord, returnDate);
+        
         // Set return date and status
-        borrowRecord.setReturnDate(LocalDateTime.now());
+        borrowRecord.setReturnDate(returnDate);
         borrowRecord.setStatus(BorrowRecord.BorrowStatus.RETURNED);
         
-        // Calculate fine if overdue
-        if (borrowRecord.isOverdue()) {
-            long daysOverdue = borrowRecord.getDaysOverdue();
-            BigDecimal finePerDay = new BigDecimal("1.00"); // $1 per day
-            BigDecimal totalFine = finePerDay.multiply(BigDecimal.valueOf(daysOverdue));
-            borrowRecord.setFineAmount(totalFine);
-        }
+        // Hand the copy to the next hold in line, or put it back on the shelf
+        holdService.releaseCopy(borrowRecord.getBook().getId());
         
-        // Update book availability
-        bookService.increaseAvailableCopies(borrowRecord.getBook().getId());
+        loanLimitService.releaseLoan(borrowRecord.getUser().getId(), wasOverdue);
         
-        return borrowRecordRepository.save(borrowRecord);
+        readYourWritesTracker.pin(borrowRecord.getUser().getId());
+        tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
+        BorrowRecord saved = borrowRecordRepository.save(borrowRecord);
+        outboxService.recordLoanEvent(OutboxService.LOAN_RETURNED, saved);
+        if (saved.getFineAmount() != null && saved.getFineAmount().signum() > 0) {
+            outboxService.recordLoanEvent(OutboxService.FINE_ASSESSED, saved);
+        }
+        eventBus.publish(BookReturned.of(saved, wasOverdue, previousStatus));
+        return saved;
     }
     
     // Get borrow history by user
+    @Transactional(readOnly = true)
     public List<BorrowRecord> getBorrowHistoryByUser(Long userId) {
-        User user = userService.getUserById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        return borrowRecordRepository.findBorrowHistoryByUser(user);
+        return getBorrowHistoryByUser(userId, false);
+    }
+    
+    // Get borrow history by user, optionally including loans moved to the archive
+    @Transactional(readOnly = true)
+    public List<BorrowRecord> getBorrowHistoryByUser(Long userId, boolean includeArchived) {
+        return readYourWritesTracker.read(userId, () -> {
+            User user = userService.getUserById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+            List<BorrowRecord> history = borrowRecordRepository.findBorrowHistoryByUser(user);
+            if (!includeArchived) {
+                return history;
+            }
+            List<ArchivedBorrowRecord> archived = archivedBorrowRecordRepository.findByUserIdOrderByBorrowDateDesc(userId);
+            Map<Long, Book> books = bookRepository.findAllById(archived.stream().map(ArchivedBorrowRecord::getBookId).distinct().toList())
+                    .stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+            return mergeHistory(history, archived.stream()
+                    .map(record -> record.toBorrowRecord(user, books.get(record.getBookId())))
+                    .toList());
+        });
     }
     
     // Get currently borrowed books by user
+    @Transactional(readOnly = true)
     public List<BorrowRecord> getCurrentlyBorrowedBooksByUser(Long userId) {
-        User user = userService.getUserById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        return borrowRecordRepository.findByUserAndStatus(user, BorrowRecord.BorrowStatus.BORROWED);
+        return readYourWritesTracker.read(userId, () -> {
+            User user = userService.getUserById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+            return borrowRecordRepository.findByUserAndStatus(user, BorrowRecord.BorrowStatus.BORROWED);
+        });
     }
     
     // Get borrow history by book
+    @Transactional(readOnly = true)
     public List<BorrowRecord> getBorrowHistoryByBook(Long bookId) {
+        return getBorrowHistoryByBook(bookId, false);
+    }
+    
+    // Get borrow history by book, optionally including loans moved to the archive
+    @Transactional(readOnly = true)
+    public List<BorrowRecord> getBorrowHistoryByBook(Long bookId, boolean includeArchived) {
         Book book = bookService.getBookById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-        return borrowRecordRepository.findBorrowHistoryByBook(book);
+        List<BorrowRecord> history = borrowRecordRepository.findBorrowHistoryByBook(book);
+        if (!includeArchived) {
+            return history;
+        }
+        List<ArchivedBorrowRecord> archived = archivedBorrowRecordRepository.findByBookIdOrderByBorrowDateDesc(bookId);
+        Map<Long, User> users = userRepository.findAllById(archived.stream().map(ArchivedBorrowRecord::getUserId).distinct().toList())
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        return mergeHistory(history, archived.stream()
+                .map(record -> record.toBorrowRecord(users.get(record.getUserId()), book))
+                .toList());
+    }
+    
+    // Hot and archived loans never overlap, so the union only needs re-sorting newest first
+    private List<BorrowRecord> mergeHistory(List<BorrowRecord> hot, List<BorrowRecord> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<BorrowRecord> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(BorrowRecord::getBorrowDate).reversed());
+        return merged;
     }
     
     // Get overdue records
+    @Transactional(readOnly = true)
     public List<BorrowRecord> getOverdueRecords() {
         return borrowRecordRepository.findOverdueRecords();
     }
     
     // Get books due today
+    @Transactional(readOnly = true)
     public List<BorrowRecord> getBooksDueToday() {
         return borrowRecordRepository.findBooksDueToday();
     }
     
     // Update overdue status for all borrowed books
+    @Transactional
     public void updateOverdueStatus() {
         List<BorrowRecord> overdueRecords = borrowRecordRepository.findOverdueRecords();
         for (BorrowRecord record : overdueRecords) {
             if (record.getStatus() == BorrowRecord.BorrowStatus.BORROWED) {
                 record.setStatus(BorrowRecord.BorrowStatus.OVERDUE);
                 borrowRecordRepository.save(record);
+                tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
             }
         }
+        dashboardStatsService.requestRefresh();
+    }
+    
+    // Loan counts and limits of a user
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLoanLimitStatus(Long userId) {
+        User user = userService.getUserById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        return loanLimitService.getLoanStatus(user);
     }
     
     // Get borrowing statistics
+    @Transactional(readOnly = true)
     public long getCurrentlyBorrowedBooksCount() {
         return borrowRecordRepository.countCurrentlyBorrowedBooks();
     }
     
+    @Transactional(readOnly = true)
     public long getTotalBorrowRecordsCount() {
-        return borrowRecordRepository.count();
+        return loanArchiveService.countAllLoans();
     }
     
     // Extend due date
+    @Transactional
     public BorrowRecord extendDueDate(Long borrowRecordId, int additionalDays) {
         BorrowRecord borrowRecord = borrowRecordRepository.findById(borrowRecordId)
                 .orElseThrow(() -> new RuntimeException("Borrow record not found with id: " + borrowRecordId));
@@ -163,7 +321,14 @@ public class BorrowRecordService {
             throw new RuntimeException("Can only extend due date for borrowed books");
         }
         
-        borrowRecord.setDueDate(borrowRecord.getDueDate().plusDays(additionalDays));
-        return borrowRecordRepository.save(borrowRecord);
+        LocalDateTime previousDueDate = borrowRecord.getDueDate();
+        borrowRecord.setDueDate(previousDueDate.plusDays(additionalDays));
+        readYourWritesTracker.pin(borrowRecord.getUser().getId());
+        tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
+        BorrowRecord saved = borrowRecordRepository.save(borrowRecord);
+        outboxService.recordLoanEvent(OutboxService.LOAN_EXTENDED, saved);
+        eventBus.publish(new LoanExtended(saved.getId(), saved.getBook().getId(), saved.getUser().getId(),
+                previousDueDate, saved.getDueDate()));
+        return saved;
     }
 }
\ No newline at end of file
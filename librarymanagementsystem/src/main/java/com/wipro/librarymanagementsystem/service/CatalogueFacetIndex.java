@@ -0,0 +1,282 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.config.DataSourceRouting;
+import com.wipro.librarymanagementsystem.dto.BookFacetValues;
+import com.wipro.librarymanagementsystem.event.BookChanged;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Facet index for catalogue browsing: one bitmap of book ids per genre, publication
+// decade and author, kept current from BookChanged events. Availability comes from
+// BookAvailabilityIndex. Facet counts are bitmap intersection cardinalities; each
+// dimension is counted under the filters of the other dimensions, so a sidebar can
+// offer "or" choices within a facet and "and" across facets.
+@Service
+public class CatalogueFacetIndex {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final RoaringBitmap catalogue = new RoaringBitmap();
+    private final Map<String, Facet> genres = new HashMap<>();
+    private final Map<String, Facet> authors = new HashMap<>();
+    private final TreeMap<Integer, RoaringBitmap> decades = new TreeMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    public CatalogueFacetIndex(PlatformTransactionManager transactionManager) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventBus.subscribe("catalogue-facets", BookChanged.class, this::onBookChanged);
+        eventBus.onDropped("catalogue-facets", this::load);
+    }
+
+    // Events are applied as absolute values, so ones that race the load are harmless:
+    // the write lock is held across the query and replays land on the same state.
+    // Also the resync after a dropped event, which takes out books no longer in the table.
+    // Read on the primary: a lagging replica would undo changes whose events already landed.
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            List<BookFacetValues> rows = DataSourceRouting.onPrimary(
+                    () -> readOnlyTemplate.execute(status -> bookRepository.findAllFacetValues()));
+            Set<Integer> gone = new HashSet<>(entries.keySet());
+            for (BookFacetValues row : rows) {
+                int id = Math.toIntExact(row.getBookId());
+                put(id, row.getGenre(), row.getAuthor(), row.getPublicationYear());
+                gone.remove(id);
+            }
+            gone.forEach(this::remove);
+            catalogue.runOptimize();
+            System.out.println("Catalogue facet index built: " + rows.size() + " books, " + genres.size()
+                    + " genres, " + authors.size() + " authors, " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void onBookChanged(BookChanged event) {
+        int id = Math.toIntExact(event.bookId());
+        lock.writeLock().lock();
+        try {
+            if (event.isDeleted()) {
+                remove(id);
+            } else {
+                BookChanged.BookSnapshot book = event.after();
+                put(id, book.genre(), book.author(), book.publicationYear());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Facet counts and one page of matching book ids. Null or empty filter lists mean
+    // "any"; available is null for any, true for on the shelf, false for all lent out.
+    public FacetResult search(List<String> genreFilter, List<Integer> decadeFilter, List<String> authorFilter,
+                              Boolean available, int authorLimit, int page, int size) {
+        RoaringBitmap onShelf = availabilityIndex.isReady() ? availabilityIndex.availableSnapshot() : null;
+        lock.readLock().lock();
+        try {
+            RoaringBitmap byGenre = union(genreFilter, value -> bitmapOf(genres, value));
+            RoaringBitmap byDecade = union(decadeFilter, decades::get);
+            RoaringBitmap byAuthor = union(authorFilter, value -> bitmapOf(authors, value));
+            RoaringBitmap byAvailability = available == null || onShelf == null ? null
+                    : available ? onShelf : RoaringBitmap.andNot(catalogue, onShelf);
+
+            Map<String, Object> facets = new LinkedHashMap<>();
+            facets.put("genre", labelledCounts(genres, intersect(byDecade, byAuthor, byAvailability), Integer.MAX_VALUE));
+            facets.put("decade", decadeCounts(intersect(byGenre, byAuthor, byAvailability)));
+            facets.put("author", labelledCounts(authors, intersect(byGenre, byDecade, byAvailability), authorLimit));
+            if (onShelf != null) {
+                RoaringBitmap base = intersect(byGenre, byDecade, byAuthor);
+                int onShelfCount = RoaringBitmap.andCardinality(base, onShelf);
+                List<Map<String, Object>> availability = new ArrayList<>();
+                availability.add(count("available", onShelfCount));
+                availability.add(count("unavailable", base.getCardinality() - onShelfCount));
+                facets.put("availability", availability);
+            }
+
+            RoaringBitmap matching = intersect(byGenre, byDecade, byAuthor, byAvailability);
+            return new FacetResult(matching.getCardinality(), facets, page(matching, page * size, size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(int id, String genre, String author, Integer publicationYear) {
+        remove(id);
+        Entry entry = new Entry(key(genre), key(author), publicationYear == null ? null : Math.floorDiv(publicationYear, 10) * 10);
+        catalogue.add(id);
+        entries.put(id, entry);
+        if (entry.genre != null) {
+            genres.computeIfAbsent(entry.genre, key -> new Facet(genre.trim())).ids.add(id);
+        }
+        if (entry.author != null) {
+            authors.computeIfAbsent(entry.author, key -> new Facet(author.trim())).ids.add(id);
+        }
+        if (entry.decade != null) {
+            decades.computeIfAbsent(entry.decade, key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void remove(int id) {
+        Entry entry = entries.remove(id);
+        catalogue.remove(id);
+        if (entry == null) {
+            return;
+        }
+        if (entry.genre != null && genres.get(entry.genre).remove(id)) {
+            genres.remove(entry.genre);
+        }
+        if (entry.author != null && authors.get(entry.author).remove(id)) {
+            authors.remove(entry.author);
+        }
+        if (entry.decade != null) {
+            RoaringBitmap ids = decades.get(entry.decade);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                decades.remove(entry.decade);
+            }
+        }
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = catalogue;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private static <T> RoaringBitmap union(List<T> values, Function<T, RoaringBitmap> lookup) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (T value : values) {
+            RoaringBitmap ids = lookup.apply(value);
+            if (ids != null) {
+                result.or(ids);
+            }
+        }
+        return result;
+    }
+
+    private static RoaringBitmap bitmapOf(Map<String, Facet> facets, String value) {
+        Facet facet = facets.get(key(value));
+        return facet == null ? null : facet.ids;
+    }
+
+    // Non-zero counts, largest first
+    private static List<Map<String, Object>> labelledCounts(Map<String, Facet> facets, RoaringBitmap base, int limit) {
+        List<Map<String, Object>> counts = new ArrayList<>();
+        for (Facet facet : facets.values()) {
+            int count = RoaringBitmap.andCardinality(base, facet.ids);
+            if (count > 0) {
+                counts.add(count(facet.label, count));
+            }
+        }
+        counts.sort(Comparator.comparing((Map<String, Object> entry) -> (Integer) entry.get("count")).reversed()
+                .thenComparing(entry -> (String) entry.get("value")));
+        return counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+    }
+
+    // Non-zero counts in decade order
+    private List<Map<String, Object>> decadeCounts(RoaringBitmap base) {
+        List<Map<String, Object>> counts = new ArrayList<>();
+        decades.forEach((decade, ids) -> {
+            int count = RoaringBitmap.andCardinality(base, ids);
+            if (count > 0) {
+                counts.add(count(decade, count));
+            }
+        });
+        return counts;
+    }
+
+    private static Map<String, Object> count(Object value, int count) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("value", value);
+        entry.put("count", count);
+        return entry;
+    }
+
+    private static List<Long> page(RoaringBitmap ids, int offset, int limit) {
+        List<Long> page = new ArrayList<>();
+        if (offset >= ids.getCardinality()) {
+            return page;
+        }
+        PeekableIntIterator iterator = ids.getIntIterator();
+        if (offset > 0) {
+            iterator.advanceIfNeeded(ids.select(offset));
+        }
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add((long) iterator.next());
+        }
+        return page;
+    }
+
+    private static String key(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public record FacetResult(int total, Map<String, Object> facets, List<Long> pageIds) {
+    }
+
+    // Display label (as first seen) and the ids of the books carrying the value
+    private static class Facet {
+        private final String label;
+        private final RoaringBitmap ids = new RoaringBitmap();
+
+        Facet(String label) {
+            this.label = label;
+        }
+
+        // True when the value no longer has any books
+        boolean remove(int id) {
+            ids.remove(id);
+            return ids.isEmpty();
+        }
+    }
+
+    private record Entry(String genre, String author, Integer decade) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.event.BookBorrowed;
+import com.wipro.librarymanagementsystem.event.BookChanged;
+import com.wipro.librarymanagementsystem.event.BookReturned;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.event.UserChanged;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory dashboard counters. Loaded once from the database, then kept current by
+// consuming domain events; deltas are coalesced and pushed to the SSE stream.
+@Service
+public class DashboardStatsService {
+
+    public static final String TOTAL_BOOKS = "totalBooks";
+    public static final String AVAILABLE_BOOKS = "availableBooks";
+    public static final String TOTAL_USERS = "totalUsers";
+    public static final String ACTIVE_USERS = "activeUsers";
+    public static final String CURRENTLY_BORROWED = "currentlyBorrowed";
+    public static final String OVERDUE_BOOKS = "overdueBooks";
+
+    private static final String[] COUNTERS = {
+            TOTAL_BOOKS, AVAILABLE_BOOKS, TOTAL_USERS, ACTIVE_USERS, CURRENTLY_BORROWED, OVERDUE_BOOKS
+    };
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private DashboardStreamService dashboardStreamService;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    private final Map<String, AtomicLong> counters = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> pendingDeltas = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    public DashboardStatsService() {
+        for (String counter : COUNTERS) {
+            counters.put(counter, new AtomicLong());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventBus.subscribe("dashboard-stats", BookChanged.class, this::onBookChanged);
+        eventBus.subscribe("dashboard-stats", UserChanged.class, this::onUserChanged);
+        eventBus.subscribe("dashboard-stats", BookBorrowed.class,
+                event -> applyDelta(CURRENTLY_BORROWED, 1));
+        eventBus.subscribe("dashboard-stats", BookReturned.class, this::onBookReturned);
+        eventBus.onDropped("dashboard-stats", this::refresh);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    // Current values, answered from memory
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        counters.forEach((name, value) -> stats.put(name, value.get()));
+        return stats;
+    }
+
+    // For changes whose effect on the counters is not known locally (cascading deletes, bulk status updates)
+    public void requestRefresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshRequested.set(true);
+                }
+            });
+        } else {
+            refreshRequested.set(true);
+        }
+    }
+
+    private void onBookChanged(BookChanged event) {
+        if (event.isDeleted()) {
+            // Deleting a book cascades to its borrow records
+            refreshRequested.set(true);
+            return;
+        }
+        applyDelta(TOTAL_BOOKS, event.isCreated() ? 1 : 0);
+        applyDelta(AVAILABLE_BOOKS, availableFlag(event.after()) - availableFlag(event.before()));
+    }
+
+    private void onUserChanged(UserChanged event) {
+        if (event.isDeleted()) {
+            // Deleting a user cascades to their borrow records
+            refreshRequested.set(true);
+            return;
+        }
+        applyDelta(TOTAL_USERS, event.isCreated() ? 1 : 0);
+        applyDelta(ACTIVE_USERS, activeFlag(event.after()) - activeFlag(event.before()));
+    }
+
+    // Only loans refresh() counted leave the counters: status BORROWED, overdue when past due by now
+    private void onBookReturned(BookReturned event) {
+        if (event.previousStatus() != BorrowRecord.BorrowStatus.BORROWED) {
+            return;
+        }
+        applyDelta(CURRENTLY_BORROWED, -1);
+        applyDelta(OVERDUE_BOOKS, event.dueDate().isBefore(event.occurredAt()) ? -1 : 0);
+    }
+
+    private static int availableFlag(BookChanged.BookSnapshot book) {
+        return book != null && book.isAvailable() ? 1 : 0;
+    }
+
+    private static int activeFlag(UserChanged.UserSnapshot user) {
+        return user != null && user.active() ? 1 : 0;
+    }
+
+    private void applyDelta(String counter, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        counters.get(counter).addAndGet(delta);
+        pendingDeltas.computeIfAbsent(counter, name -> new AtomicLong()).addAndGet(delta);
+    }
+
+    // Coalescing window: everything that committed since the last tick goes out as one event
+    @Scheduled(fixedDelayString = "${library.dashboard.coalesce-window-ms:500}")
+    public void flush() {
+        if (refreshRequested.getAndSet(false)) {
+            refresh();
+            return;
+        }
+        if (pendingDeltas.isEmpty()) {
+            return;
+        }
+        Map<String, Object> deltas = new LinkedHashMap<>();
+        for (String counter : COUNTERS) {
+            AtomicLong pending = pendingDeltas.remove(counter);
+            if (pending != null && pending.get() != 0) {
+                deltas.put(counter, pending.get());
+            }
+        }
+        if (!deltas.isEmpty()) {
+            dashboardStreamService.publishDelta(deltas);
+        }
+    }
+
+    // Overdue is time-driven, so the counters are also reconciled against the database periodically
+    @Scheduled(fixedDelayString = "${library.dashboard.reconcile-interval-ms:60000}",
+               initialDelayString = "${library.dashboard.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        refreshRequested.set(true);
+    }
+
+    public synchronized void refresh() {
+        pendingDeltas.clear();
+        counters.get(TOTAL_BOOKS).set(bookRepository.count());
+        counters.get(AVAILABLE_BOOKS).set(bookRepository.countByAvailableCopiesGreaterThan(0));
+        counters.get(TOTAL_USERS).set(userRepository.count());
+        counters.get(ACTIVE_USERS).set(userRepository.countByIsActiveTrue());
+        counters.get(CURRENTLY_BORROWED).set(borrowRecordRepository.countByStatus(BorrowRecord.BorrowStatus.BORROWED));
+        counters.get(OVERDUE_BOOKS).set(borrowRecordRepository.countOverdueRecords());
+        dashboardStreamService.publishSnapshot(getStats());
+    }
+}
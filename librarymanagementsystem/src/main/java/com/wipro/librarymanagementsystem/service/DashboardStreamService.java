@@ -0,0 +1,142 @@
+package com.wipro.librarymanagementsystem.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Fan-out of dashboard counter events to Server-Sent Event subscribers.
+// Each client has a small bounded buffer; a client that falls behind has its
+// buffer dropped and is sent a fresh snapshot instead of the missed deltas.
+@Service
+public class DashboardStreamService {
+
+    @Value("${library.dashboard.stream.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${library.dashboard.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Map<String, Object>> lastSnapshot = new AtomicReference<>(Map.of());
+    private final ExecutorService sender = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Register a new subscriber; it starts with the current snapshot
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Client client = new Client(emitter, bufferSize);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(error -> clients.remove(client));
+        clients.add(client);
+        client.needsSnapshot.set(true);
+        drain(client);
+        return emitter;
+    }
+
+    public void publishSnapshot(Map<String, Object> snapshot) {
+        lastSnapshot.set(snapshot);
+        for (Client client : clients) {
+            client.pending.clear();
+            client.needsSnapshot.set(true);
+            drain(client);
+        }
+    }
+
+    public void publishDelta(Map<String, Object> deltas) {
+        for (Client client : clients) {
+            if (!client.pending.offer(deltas)) {
+                // Buffer full: the client is too slow, resync it with a snapshot
+                client.pending.clear();
+                client.needsSnapshot.set(true);
+            }
+            drain(client);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return clients.size();
+    }
+
+    // Comment line keeps idle connections open through proxies
+    @Scheduled(fixedDelay = 20000)
+    public void heartbeat() {
+        for (Client client : clients) {
+            if (client.pending.isEmpty() && !client.sending.get()) {
+                try {
+                    client.emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(client);
+                }
+            }
+        }
+    }
+
+    private void drain(Client client) {
+        if (!clients.contains(client) || !client.sending.compareAndSet(false, true)) {
+            return;
+        }
+        sender.execute(() -> {
+            try {
+                while (true) {
+                    if (client.needsSnapshot.getAndSet(false)) {
+                        client.emitter.send(SseEmitter.event().name("snapshot").data(lastSnapshot.get()));
+                    }
+                    Map<String, Object> deltas = client.pending.poll();
+                    if (deltas == null) {
+                        break;
+                    }
+                    client.emitter.send(SseEmitter.event().name("delta").data(deltas));
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(client);
+            } finally {
+                client.sending.set(false);
+            }
+            // Events may have arrived between the last poll and releasing the flag
+            if (!client.pending.isEmpty() || client.needsSnapshot.get()) {
+                drain(client);
+            }
+        });
+    }
+
+    private void remove(Client client) {
+        if (clients.remove(client)) {
+            client.emitter.complete();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.forEach(client -> client.emitter.complete());
+        sender.shutdownNow();
+    }
+
+    private static class Client {
+        private final SseEmitter emitter;
+        private final Queue<Map<String, Object>> pending;
+        private final AtomicBoolean needsSnapshot = new AtomicBoolean();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Client(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
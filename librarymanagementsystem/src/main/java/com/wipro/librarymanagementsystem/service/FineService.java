@@ -0,0 +1,203 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.config.FinePolicyProperties;
+import com.wipro.librarymanagementsystem.dto.OverdueLoan;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.FineBalance;
+import com.wipro.librarymanagementsystem.entity.FineLedgerEntry;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.FineBalanceRepository;
+import com.wipro.librarymanagementsystem.repository.FineLedgerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fine policy and ledger. BorrowRecord.fineAmount holds what a loan has accrued so far;
+// the nightly job only appends the difference to today's amount, and a return appends
+// the final settlement. Every ledger entry is mirrored into the user's FineBalance.
+@Service
+public class FineService {
+
+    private static final BigDecimal ZERO = BigDecimal.ZERO.setScale(2);
+
+    @Value("${library.fines.accrual-chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    private FinePolicyProperties finePolicyProperties;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private FineLedgerRepository fineLedgerRepository;
+
+    @Autowired
+    private FineBalanceRepository fineBalanceRepository;
+
+    @Autowired
+    private TableVersionService tableVersionService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public FineService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Fine for a loan due at dueDate that is still out (or was returned) at asOf
+    public BigDecimal calculateFine(User.MembershipType membershipType, LocalDateTime dueDate, LocalDateTime asOf) {
+        if (dueDate == null || asOf == null || !asOf.isAfter(dueDate)) {
+            return ZERO;
+        }
+        FinePolicyProperties.Policy policy = finePolicyProperties.policyFor(membershipType);
+        long chargeableDays = ChronoUnit.DAYS.between(dueDate, asOf) - policy.getGraceDays();
+        if (chargeableDays <= 0) {
+            return ZERO;
+        }
+        BigDecimal fine = policy.getDailyRate().multiply(BigDecimal.valueOf(chargeableDays));
+        if (policy.getMaxFine() != null && fine.compareTo(policy.getMaxFine()) > 0) {
+            fine = policy.getMaxFine();
+        }
+        return fine.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Final fine of a loan being returned; runs in the return transaction with the loan row locked
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal settleOnReturn(BorrowRecord record, LocalDateTime returnDate) {
+        BigDecimal accrued = record.getFineAmount() != null ? record.getFineAmount() : ZERO;
+        BigDecimal finalFine = calculateFine(record.getUser().getMembershipType(), record.getDueDate(), returnDate);
+        BigDecimal delta = finalFine.subtract(accrued);
+        if (delta.signum() != 0) {
+            Long userId = record.getUser().getId();
+            fineLedgerRepository.save(new FineLedgerEntry(userId, record.getId(),
+                    FineLedgerEntry.EntryType.RETURN_SETTLEMENT, delta, finalFine));
+            fineBalanceRepository.applyDelta(userId, delta, ZERO, LocalDateTime.now());
+        }
+        record.setFineAmount(finalFine);
+        return finalFine;
+    }
+
+    @Scheduled(cron = "${library.fines.accrual-cron:0 15 0 * * *}")
+    public void runScheduledAccrual() {
+        System.out.println("Fine accrual " + accrueOutstandingFines());
+    }
+
+    // Bring every open overdue loan up to today's fine, one keyset chunk per transaction
+    public synchronized Map<String, Object> accrueOutstandingFines() {
+        long start = System.currentTimeMillis();
+        LocalDateTime asOf = LocalDateTime.now();
+        long scanned = 0;
+        long accruedLoans = 0;
+        BigDecimal accruedAmount = ZERO;
+        long afterId = 0;
+        while (true) {
+            long chunkAfterId = afterId;
+            ChunkResult result = transactionTemplate.execute(status -> accrueChunk(asOf, chunkAfterId));
+            scanned += result.scanned();
+            accruedLoans += result.accruedLoans();
+            accruedAmount = accruedAmount.add(result.accruedAmount());
+            if (result.scanned() < chunkSize) {
+                break;
+            }
+            afterId = result.lastId();
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("asOf", asOf);
+        summary.put("loansScanned", scanned);
+        summary.put("loansAccrued", accruedLoans);
+        summary.put("amountAccrued", accruedAmount);
+        summary.put("durationMillis", System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    private ChunkResult accrueChunk(LocalDateTime asOf, long afterId) {
+        List<OverdueLoan> loans = borrowRecordRepository.findOpenOverdueChunk(asOf, afterId, PageRequest.of(0, chunkSize));
+        List<FineLedgerEntry> entries = new ArrayList<>();
+        Map<Long, BigDecimal> userDeltas = new HashMap<>();
+        BigDecimal total = ZERO;
+        for (OverdueLoan loan : loans) {
+            BigDecimal accrued = loan.getFineAmount() != null ? loan.getFineAmount().setScale(2, RoundingMode.HALF_UP) : ZERO;
+            BigDecimal target = calculateFine(loan.getMembershipType(), loan.getDueDate(), asOf);
+            BigDecimal delta = target.subtract(accrued);
+            // Capped loans and loans still in their grace period cost nothing here
+            if (delta.signum() <= 0) {
+                continue;
+            }
+            // Skipped if a return settled the loan since it was read
+            if (borrowRecordRepository.updateAccruedFine(loan.getBorrowRecordId(), accrued, target, LocalDateTime.now()) == 0) {
+                continue;
+            }
+            entries.add(new FineLedgerEntry(loan.getUserId(), loan.getBorrowRecordId(),
+                    FineLedgerEntry.EntryType.ACCRUAL, delta, target));
+            userDeltas.merge(loan.getUserId(), delta, BigDecimal::add);
+            total = total.add(delta);
+        }
+        fineLedgerRepository.saveAll(entries);
+        // Loan fines changed: cached loan listings of this table are stale once the chunk commits
+        if (!entries.isEmpty()) {
+            tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        userDeltas.forEach((userId, delta) -> fineBalanceRepository.applyDelta(userId, delta, ZERO, now));
+        long lastId = loans.isEmpty() ? afterId : loans.get(loans.size() - 1).getBorrowRecordId();
+        return new ChunkResult(loans.size(), entries.size(), total, lastId);
+    }
+
+    // Record a payment against a user's outstanding fines
+    @Transactional
+    public FineBalance recordPayment(Long userId, BigDecimal amount) {
+        if (amount == null || amount.setScale(2, RoundingMode.HALF_UP).signum() <= 0) {
+            throw new RuntimeException("Payment amount must be positive");
+        }
+        BigDecimal paid = amount.setScale(2, RoundingMode.HALF_UP);
+        // Checked and applied in one conditional update; nothing is written when it fails
+        if (fineBalanceRepository.applyPayment(userId, paid, LocalDateTime.now()) == 0) {
+            FineBalance balance = fineBalanceRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("No fines recorded for user id: " + userId));
+            throw new RuntimeException("Payment exceeds outstanding fines of " + balance.getOutstanding());
+        }
+        fineLedgerRepository.save(new FineLedgerEntry(userId, null, FineLedgerEntry.EntryType.PAYMENT,
+                paid.negate(), null));
+        return fineBalanceRepository.findById(userId).orElseThrow();
+    }
+
+    // Outstanding fines of a user, from the pre-summed balance
+    @Transactional(readOnly = true)
+    public FineBalance getBalance(Long userId) {
+        return fineBalanceRepository.findById(userId).orElseGet(() -> new FineBalance(userId));
+    }
+
+    // System-wide outstanding fines, from the pre-summed balances
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("totalOutstanding", fineBalanceRepository.sumOutstanding());
+        summary.put("usersWithOutstandingFines", fineBalanceRepository.countByOutstandingGreaterThan(BigDecimal.ZERO));
+        return summary;
+    }
+
+    @Transactional(readOnly = true)
+    public List<FineLedgerEntry> getLedger(Long userId) {
+        return fineLedgerRepository.findByUserIdOrderByIdAsc(userId);
+    }
+
+    private record ChunkResult(int scanned, int accruedLoans, BigDecimal accruedAmount, long lastId) {
+    }
+}
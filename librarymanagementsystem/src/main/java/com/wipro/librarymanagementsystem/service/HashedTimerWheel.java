@@ -0,0 +1,88 @@
+package com.wipro.librarymanagementsystem.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Hashed timing wheel: timers hash into wheelSize buckets by their deadline tick, so
+// scheduling and cancelling are O(1) and each tick only looks at one bucket. Deadlines
+// further out than one revolution simply stay in their bucket until their tick comes round.
+class HashedTimerWheel<K> {
+
+    private final long tickMillis;
+    private final List<List<Timer<K>>> buckets;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    HashedTimerWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    // Replaces any timer already scheduled for the key
+    synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        Timer<K> timer = new Timer<>(key, deadlineTick);
+        buckets.get(bucketIndex(deadlineTick)).add(timer);
+        timers.put(key, timer);
+    }
+
+    // Cancelled timers are dropped lazily when their bucket is next visited
+    synchronized boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.cancelled = true;
+        return true;
+    }
+
+    // Move the wheel up to now and return the keys whose deadline has passed
+    synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        // After a long pause one revolution visits every bucket; there is no need to spin more
+        long steps = Math.min(targetTick - currentTick, buckets.size());
+        for (long i = 1; i <= steps; i++) {
+            Iterator<Timer<K>> it = buckets.get(bucketIndex(currentTick + i)).iterator();
+            while (it.hasNext()) {
+                Timer<K> timer = it.next();
+                if (timer.cancelled) {
+                    it.remove();
+                } else if (timer.deadlineTick <= targetTick) {
+                    it.remove();
+                    timers.remove(timer.key);
+                    expired.add(timer.key);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    synchronized int size() {
+        return timers.size();
+    }
+
+    private int bucketIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+
+    private static class Timer<K> {
+        private final K key;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.Hold;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.event.BookBorrowed;
+import com.wipro.librarymanagementsystem.event.BookReturned;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.event.LoanExtended;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.HoldRepository;
+import com.wipro.librarymanagementsystem.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Hold queues. Holds are persisted, and each book with holds also has an in-memory FIFO
+// of waiting hold ids plus the due dates of its open loans. A returned copy goes to the
+// head of the queue in O(1) and is set aside (READY) for a pickup window; READY holds
+// expire through a hashed timer wheel and pass the copy on to the next in line.
+@Service
+public class HoldService {
+
+    private static final Set<Hold.HoldStatus> ACTIVE = EnumSet.of(Hold.HoldStatus.WAITING, Hold.HoldStatus.READY);
+    private static final long WHEEL_TICK_MILLIS = 60_000;
+    private static final int WHEEL_SIZE = 512;
+
+    @Value("${library.holds.pickup-window-hours:48}")
+    private long pickupWindowHours;
+
+    @Value("${library.holds.max-per-user:5}")
+    private int maxHoldsPerUser;
+
+    @Value("${library.holds.default-loan-days:14}")
+    private int defaultLoanDays;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate handOffTemplate;
+    private final Map<Long, BookQueue> queues = new ConcurrentHashMap<>();
+    private final HashedTimerWheel<Long> expiryWheel =
+            new HashedTimerWheel<>(WHEEL_TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+
+    public HoldService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Runs from after-commit callbacks, where the finished transaction's resources are still bound
+        this.handOffTemplate = new TransactionTemplate(transactionManager);
+        this.handOffTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Keep the due dates of queued books current so ETAs never query the loan table
+    @PostConstruct
+    public void subscribe() {
+        eventBus.subscribe("hold-queues", BookBorrowed.class, event ->
+                withQueue(event.bookId(), queue -> queue.addDueDate(event.dueDate())));
+        eventBus.subscribe("hold-queues", BookReturned.class, event ->
+                withQueue(event.bookId(), queue -> queue.removeDueDate(event.dueDate())));
+        eventBus.subscribe("hold-queues", LoanExtended.class, event ->
+                withQueue(event.bookId(), queue -> {
+                    queue.removeDueDate(event.previousDueDate());
+                    queue.addDueDate(event.dueDate());
+                }));
+        eventBus.onDropped("hold-queues", this::reloadDueDates);
+    }
+
+    // Rebuild the queues and pickup timers from the persisted holds
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Hold hold : holdRepository.findByStatusInOrderByIdAsc(ACTIVE)) {
+            BookQueue queue = queueFor(hold.getBookId());
+            if (hold.getStatus() == Hold.HoldStatus.WAITING) {
+                synchronized (queue) {
+                    queue.waiting.addLast(hold.getId());
+                }
+            } else {
+                scheduleExpiry(hold);
+            }
+        }
+    }
+
+    // Join the queue for a book with no copy on the shelf
+    @Transactional
+    public Hold placeHold(Long userId, Long bookId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+
+        if (!user.getIsActive()) {
+            throw new RuntimeException("User account is inactive");
+        }
+        if (book.isAvailable()) {
+            throw new RuntimeException("Book is available, borrow it directly");
+        }
+        if (holdRepository.existsByUserIdAndBookIdAndStatusIn(userId, bookId, ACTIVE)) {
+            throw new RuntimeException("User already has a hold on this book");
+        }
+        if (borrowRecordRepository.findByUserAndBookAndStatus(user, book, BorrowRecord.BorrowStatus.BORROWED).isPresent()) {
+            throw new RuntimeException("User already has this book borrowed");
+        }
+        if (holdRepository.countByUserIdAndStatusIn(userId, ACTIVE) >= maxHoldsPerUser) {
+            throw new RuntimeException("User already has the maximum of " + maxHoldsPerUser + " holds");
+        }
+
+        Hold hold = holdRepository.save(new Hold(userId, bookId));
+        BookQueue queue = queueFor(bookId);
+        // Queue only a committed hold: a return polling an uncommitted one could not load it
+        afterCommit(() -> {
+            synchronized (queue) {
+                queue.waiting.addLast(hold.getId());
+            }
+            handOffShelvedCopy(bookId);
+        });
+        return hold;
+    }
+
+    // A copy returned while the hold was not queued yet went back to the shelf: pass it down the queue
+    private void handOffShelvedCopy(Long bookId) {
+        try {
+            handOffTemplate.executeWithoutResult(status -> {
+                Book book = bookRepository.findById(bookId).orElse(null);
+                if (book != null && book.isAvailable()) {
+                    bookService.decreaseAvailableCopies(bookId);
+                    releaseCopy(bookId);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Borrowed from the shelf in the meantime; the hold waits for the next return
+            System.out.println("Could not hand a shelved copy of book " + bookId + " to its holds: " + e.getMessage());
+        }
+    }
+
+    // A copy came back (return, cancelled or expired pickup): set it aside for the next
+    // holder, or put it back on the shelf when nobody is waiting. Returns the hold served.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Hold> releaseCopy(Long bookId) {
+        BookQueue queue = queues.get(bookId);
+        while (queue != null) {
+            Long holdId;
+            synchronized (queue) {
+                holdId = queue.waiting.pollFirst();
+            }
+            if (holdId == null) {
+                break;
+            }
+            Hold hold = holdRepository.findByIdForUpdate(holdId).orElse(null);
+            if (hold == null || hold.getStatus() != Hold.HoldStatus.WAITING) {
+                // Stale entry, e.g. cancelled by a transaction that has not run its after-commit yet
+                continue;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            hold.setStatus(Hold.HoldStatus.READY);
+            hold.setReadyAt(now);
+            hold.setExpiresAt(now.plusHours(pickupWindowHours));
+            holdRepository.save(hold);
+            onRollback(() -> {
+                synchronized (queue) {
+                    queue.waiting.addFirst(holdId);
+                }
+            });
+            afterCommit(() -> scheduleExpiry(hold));
+            return Optional.of(hold);
+        }
+        bookService.increaseAvailableCopies(bookId);
+        return Optional.empty();
+    }
+
+    // The user's hold on this book whose copy is waiting for them, if any. Locked until the
+    // borrow commits, so an expiry or cancellation cannot pass the same copy on meanwhile.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Hold> findReadyHold(Long userId, Long bookId) {
+        return holdRepository.findFirstByUserIdAndBookIdAndStatus(userId, bookId, Hold.HoldStatus.READY);
+    }
+
+    // The holder borrowed the copy set aside for them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fulfill(Hold hold) {
+        hold.setStatus(Hold.HoldStatus.FULFILLED);
+        hold.setClosedAt(LocalDateTime.now());
+        holdRepository.save(hold);
+        afterCommit(() -> expiryWheel.cancel(hold.getId()));
+    }
+
+    @Transactional
+    public Hold cancelHold(Long holdId) {
+        Hold hold = holdRepository.findByIdForUpdate(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found with id: " + holdId));
+        if (!hold.isActive()) {
+            throw new RuntimeException("Hold is no longer active");
+        }
+        boolean wasReady = hold.getStatus() == Hold.HoldStatus.READY;
+        hold.setStatus(Hold.HoldStatus.CANCELLED);
+        hold.setClosedAt(LocalDateTime.now());
+        holdRepository.save(hold);
+        if (wasReady) {
+            afterCommit(() -> expiryWheel.cancel(holdId));
+            releaseCopy(hold.getBookId());
+        } else {
+            afterCommit(() -> withQueue(hold.getBookId(), queue -> queue.waiting.remove(holdId)));
+        }
+        return hold;
+    }
+
+    // Position and estimated availability, answered from the in-memory queue
+    @Transactional(readOnly = true)
+    public Map<String, Object> getQueueStatus(Long holdId) {
+        Hold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found with id: " + holdId));
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("holdId", hold.getId());
+        status.put("bookId", hold.getBookId());
+        status.put("status", hold.getStatus());
+        if (hold.getStatus() == Hold.HoldStatus.READY) {
+            status.put("position", 0);
+            status.put("pickupBy", hold.getExpiresAt());
+        } else if (hold.getStatus() == Hold.HoldStatus.WAITING) {
+            BookQueue queue = queueFor(hold.getBookId());
+            synchronized (queue) {
+                int position = queue.positionOf(holdId);
+                status.put("position", position);
+                status.put("queueLength", queue.waiting.size());
+                status.put("estimatedAvailableAt", queue.estimateAvailability(position, defaultLoanDays));
+            }
+        }
+        return status;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Hold> getActiveHoldsByUser(Long userId) {
+        return holdRepository.findByUserIdAndStatusInOrderByIdAsc(userId, ACTIVE);
+    }
+
+    public int getQueueLength(Long bookId) {
+        BookQueue queue = queues.get(bookId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.waiting.size();
+        }
+    }
+
+    // Wheel tick: expire READY holds whose pickup window has passed
+    @Scheduled(fixedRate = WHEEL_TICK_MILLIS)
+    public void expireUncollectedHolds() {
+        for (Long holdId : expiryWheel.advance(System.currentTimeMillis())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> expire(holdId));
+            } catch (RuntimeException e) {
+                System.out.println("Could not expire hold " + holdId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void expire(Long holdId) {
+        Hold hold = holdRepository.findByIdForUpdate(holdId).orElse(null);
+        if (hold == null || hold.getStatus() != Hold.HoldStatus.READY) {
+            return;
+        }
+        hold.setStatus(Hold.HoldStatus.EXPIRED);
+        hold.setClosedAt(LocalDateTime.now());
+        holdRepository.save(hold);
+        releaseCopy(hold.getBookId());
+    }
+
+    private void scheduleExpiry(Hold hold) {
+        long deadline = hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        expiryWheel.schedule(hold.getId(), deadline);
+    }
+
+    // Queue for a book, created with the due dates of its open loans on first use. The query runs
+    // outside the map, so it holds no bin lock; if two threads race, the first queue stored wins.
+    private BookQueue queueFor(Long bookId) {
+        BookQueue queue = queues.get(bookId);
+        if (queue != null) {
+            return queue;
+        }
+        BookQueue created = new BookQueue(borrowRecordRepository.findOpenDueDatesByBookId(bookId));
+        BookQueue existing = queues.putIfAbsent(bookId, created);
+        return existing != null ? existing : created;
+    }
+
+    // Resync after a dropped loan event: reread the due dates of every queued book
+    private void reloadDueDates() {
+        for (Map.Entry<Long, BookQueue> entry : queues.entrySet()) {
+            List<LocalDateTime> openDueDates = borrowRecordRepository.findOpenDueDatesByBookId(entry.getKey());
+            BookQueue queue = entry.getValue();
+            synchronized (queue) {
+                queue.dueDates.clear();
+                openDueDates.forEach(queue::addDueDate);
+            }
+        }
+    }
+
+    private void withQueue(Long bookId, Consumer<BookQueue> action) {
+        BookQueue queue = queues.get(bookId);
+        if (queue != null) {
+            synchronized (queue) {
+                action.accept(queue);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    // Guarded by its own monitor
+    private static class BookQueue {
+        private final Deque<Long> waiting = new ArrayDeque<>();
+        // Due date -> number of open loans due then
+        private final TreeMap<LocalDateTime, Integer> dueDates = new TreeMap<>();
+
+        BookQueue(List<LocalDateTime> openDueDates) {
+            openDueDates.forEach(this::addDueDate);
+        }
+
+        void addDueDate(LocalDateTime dueDate) {
+            if (dueDate != null) {
+                dueDates.merge(dueDate, 1, Integer::sum);
+            }
+        }
+
+        void removeDueDate(LocalDateTime dueDate) {
+            if (dueDate != null) {
+                dueDates.computeIfPresent(dueDate, (date, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        // 1-based; bounded by this book's queue length
+        int positionOf(Long holdId) {
+            int position = 1;
+            for (Long id : waiting) {
+                if (id.equals(holdId)) {
+                    return position;
+                }
+                position++;
+            }
+            return -1;
+        }
+
+        // The n-th holder gets the n-th copy to come back: open loans in due-date order
+        // (overdue ones as if returned now), then further loan periods after that
+        LocalDateTime estimateAvailability(int position, int loanDays) {
+            if (position < 1 || dueDates.isEmpty()) {
+                return null;
+            }
+            List<LocalDateTime> returns = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            dueDates.forEach((date, count) -> {
+                for (int i = 0; i < count; i++) {
+                    returns.add(date.isBefore(now) ? now : date);
+                }
+            });
+            int index = position - 1;
+            return returns.get(index % returns.size()).plusDays((long) (index / returns.size()) * loanDays);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves returned loans older than the configured age from borrow_records into
+// borrow_records_archive, so the hot table and its indexes only hold open and recent
+// loans. Each batch is copied and deleted in one short transaction; the job pauses
+// between batches and stops after a bounded number of them, so it never holds locks
+// or saturates the primary for long. Whatever is left is picked up by the next run.
+// Off by default: archived loans only show up in the history endpoints with includeArchived=true,
+// so turning it on is a decision for each deployment (library.archive.enabled).
+@Service
+public class LoanArchiveService {
+
+    @Value("${library.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${library.archive.min-age-days:365}")
+    private int minAgeDays;
+
+    @Value("${library.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${library.archive.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${library.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+
+    @Autowired
+    private TableVersionService tableVersionService;
+
+    private final TransactionTemplate writeTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LoanArchiveService(PlatformTransactionManager transactionManager) {
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // The popularity counters are loaded from the last year of borrow_records, so younger loans stay hot
+    @PostConstruct
+    public void checkMinAge() {
+        int floor = PopularityService.Window.YEAR.getDays();
+        if (minAgeDays < floor) {
+            System.out.println("library.archive.min-age-days=" + minAgeDays + " is below " + floor + "; using " + floor);
+            minAgeDays = floor;
+        }
+    }
+
+    @Scheduled(cron = "${library.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveReturnedLoans();
+        } catch (RuntimeException e) {
+            System.out.println("Loan archival skipped: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> archiveReturnedLoans() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Loan archival is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+            long afterId = 0;
+            int batches = 0;
+            long archived = 0;
+            boolean finished = false;
+            while (batches < maxBatchesPerRun) {
+                long batchAfterId = afterId;
+                List<Long> ids = writeTemplate.execute(status -> {
+                    List<Long> batch = borrowRecordRepository.findArchivableIds(cutoff, batchAfterId, PageRequest.of(0, batchSize));
+                    if (!batch.isEmpty()) {
+                        LocalDateTime now = LocalDateTime.now();
+                        int copied = archivedBorrowRecordRepository.copyFromBorrowRecords(batch, now);
+                        int deleted = borrowRecordRepository.deleteArchived(batch);
+                        if (copied != deleted) {
+                            // Roll back rather than lose or duplicate a loan
+                            throw new RuntimeException("Archive batch after id " + batchAfterId + " copied "
+                                    + copied + " loans but deleted " + deleted);
+                        }
+                        tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
+                    }
+                    return batch;
+                });
+                if (ids.isEmpty()) {
+                    finished = true;
+                    break;
+                }
+                batches++;
+                archived += ids.size();
+                afterId = ids.get(ids.size() - 1);
+                if (ids.size() < batchSize) {
+                    finished = true;
+                    break;
+                }
+                pause();
+            }
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("cutoff", cutoff);
+            summary.put("archived", archived);
+            summary.put("batches", batches);
+            summary.put("finished", finished);
+            summary.put("elapsedMs", System.currentTimeMillis() - start);
+            System.out.println("Returned loans archived: " + summary);
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Hot and archived loans together
+    public long countAllLoans() {
+        return borrowRecordRepository.count() + archivedBorrowRecordRepository.count();
+    }
+
+    // Start of the whole loan history; archived loans are older than hot ones but either table may be empty
+    public LocalDateTime findEarliestBorrowDate() {
+        LocalDateTime hot = borrowRecordRepository.findEarliestBorrowDate();
+        LocalDateTime archived = archivedBorrowRecordRepository.findEarliestBorrowDate();
+        if (hot == null || (archived != null && archived.isBefore(hot))) {
+            return archived;
+        }
+        return hot;
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Loan archival interrupted");
+        }
+    }
+}
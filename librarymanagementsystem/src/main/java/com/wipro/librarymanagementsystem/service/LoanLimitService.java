@@ -0,0 +1,208 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.config.LoanLimitProperties;
+import com.wipro.librarymanagementsystem.dto.UserLoanCount;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Per-user loan limits checked against in-memory counters instead of a COUNT per checkout.
+// A checkout reserves a slot with a single CAS before its transaction commits and gives it
+// back on rollback; returns release the slot after commit. The counters are warmed at
+// startup and reconciled against the database periodically.
+@Service
+public class LoanLimitService {
+
+    @Autowired
+    private LoanLimitProperties loanLimitProperties;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, LoanCounter> counters = new ConcurrentHashMap<>();
+
+    public LoanLimitService(PlatformTransactionManager transactionManager) {
+        // Read-write on purpose, so the reconcile query is routed to the primary
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+
+    // Take one loan slot for the user, or fail if a limit is reached.
+    // Must run inside the checkout transaction; a rollback returns the slot.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveLoan(User user) {
+        LoanLimitProperties.Limit limit = loanLimitProperties.limitFor(user.getMembershipType());
+        LoanCounter counter = counterFor(user.getId());
+        if (counter.overdue.get() > limit.getMaxOverdueLoans()) {
+            throw new RuntimeException("User has " + counter.overdue.get() + " overdue loans; return them before borrowing");
+        }
+        counter.pending.incrementAndGet();
+        if (!counter.tryIncrement(limit.getMaxActiveLoans())) {
+            counter.pending.decrementAndGet();
+            throw new RuntimeException("User has reached the limit of " + limit.getMaxActiveLoans()
+                    + " loans for " + user.getMembershipType() + " members");
+        }
+        afterCompletion(committed -> {
+            if (!committed) {
+                counter.add(-1);
+            }
+            counter.pending.decrementAndGet();
+        });
+    }
+
+    // Give back the user's loan slot once the return commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseLoan(Long userId, boolean overdue) {
+        LoanCounter counter = counterFor(userId);
+        counter.pending.incrementAndGet();
+        afterCompletion(committed -> {
+            if (committed) {
+                counter.add(-1);
+                if (overdue) {
+                    counter.overdue.updateAndGet(value -> Math.max(0, value - 1));
+                }
+            }
+            counter.pending.decrementAndGet();
+        });
+    }
+
+    // Current counters of one user, answered from memory
+    public Map<String, Object> getLoanStatus(User user) {
+        LoanLimitProperties.Limit limit = loanLimitProperties.limitFor(user.getMembershipType());
+        LoanCounter counter = counters.get(user.getId());
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("userId", user.getId());
+        status.put("membershipType", user.getMembershipType());
+        status.put("activeLoans", counter == null ? 0 : counter.active());
+        status.put("maxActiveLoans", limit.getMaxActiveLoans());
+        status.put("overdueLoans", counter == null ? 0 : counter.overdue.get());
+        status.put("maxOverdueLoans", limit.getMaxOverdueLoans());
+        return status;
+    }
+
+    // Reset the counters from the database. A user whose counter changed while the query ran,
+    // or who has a checkout or return in flight, keeps the in-memory value until the next pass.
+    // Overdue counts also pick up loans that passed their due date since the last pass.
+    @Scheduled(fixedDelayString = "${library.loans.reconcile-interval-ms:300000}",
+               initialDelayString = "${library.loans.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        // State first, then pending: a checkout that starts in between is seen as in flight
+        Map<Long, Long> snapshots = new HashMap<>();
+        counters.forEach((userId, counter) -> {
+            long state = counter.state.get();
+            snapshots.put(userId, counter.pending.get() > 0 ? null : state);
+        });
+
+        List<UserLoanCount> rows = transactionTemplate.execute(status ->
+                borrowRecordRepository.countOpenLoansByUser(LocalDateTime.now()));
+        Map<Long, UserLoanCount> byUser = new HashMap<>();
+        for (UserLoanCount row : rows) {
+            byUser.put(row.getUserId(), row);
+            if (!snapshots.containsKey(row.getUserId())) {
+                // No counter at snapshot time: one created since then started from 0 and has moved
+                snapshots.put(row.getUserId(), 0L);
+            }
+        }
+
+        int corrected = 0;
+        int skipped = 0;
+        for (Map.Entry<Long, Long> entry : snapshots.entrySet()) {
+            LoanCounter counter = counterFor(entry.getKey());
+            UserLoanCount row = byUser.get(entry.getKey());
+            int active = row == null ? 0 : (int) row.getActiveLoans();
+            Long snapshot = entry.getValue();
+            if (snapshot == null || counter.pending.get() > 0
+                    || !counter.state.compareAndSet(snapshot, LoanCounter.pack(LoanCounter.version(snapshot) + 1, active))) {
+                skipped++;
+                continue;
+            }
+            if (LoanCounter.count(snapshot) != active) {
+                corrected++;
+            }
+            counter.overdue.set(row == null ? 0 : (int) row.getOverdueLoans());
+        }
+        if (corrected > 0 || skipped > 0) {
+            System.out.println("Loan counters reconciled: " + corrected + " corrected, " + skipped + " busy users skipped");
+        }
+    }
+
+    private LoanCounter counterFor(Long userId) {
+        return counters.computeIfAbsent(userId, id -> new LoanCounter());
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    // Open loans of one user. The count and a change version share one long, so a
+    // checkout is one CAS and the reconciler can tell whether anything moved under it.
+    private static class LoanCounter {
+        // High 32 bits: version, low 32 bits: open loans
+        private final AtomicLong state = new AtomicLong();
+        // Checkouts and returns whose transaction has not completed yet
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger overdue = new AtomicInteger();
+
+        boolean tryIncrement(int max) {
+            while (true) {
+                long current = state.get();
+                if (count(current) >= max) {
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(version(current) + 1, count(current) + 1))) {
+                    return true;
+                }
+            }
+        }
+
+        void add(int delta) {
+            state.updateAndGet(current -> pack(version(current) + 1, Math.max(0, count(current) + delta)));
+        }
+
+        int active() {
+            return count(state.get());
+        }
+
+        static int count(long state) {
+            return (int) state;
+        }
+
+        static int version(long state) {
+            return (int) (state >>> 32);
+        }
+
+        static long pack(int version, int count) {
+            return ((long) version << 32) | (count & 0xFFFFFFFFL);
+        }
+    }
+}
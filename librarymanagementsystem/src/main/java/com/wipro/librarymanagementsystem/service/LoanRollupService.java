@@ -0,0 +1,385 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.dto.LoanRollupRow;
+import com.wipro.librarymanagementsystem.entity.DailyLoanRollup;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.event.BookBorrowed;
+import com.wipro.librarymanagementsystem.event.BookReturned;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.DailyLoanRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Daily circulation rollups for reporting: loans, returns, late returns and fines per day,
+// genre and membership type. Borrow and return events are coalesced in memory and added
+// to the rows with one upsert per key on a short schedule. History is backfilled by
+// recomputing ranges of past days from the borrow records in parallel chunks. Events only
+// ever land on today, so backfills stop at yesterday and never race the incremental path;
+// a nightly pass recomputes the last few days to repair anything a restart lost.
+@Service
+public class LoanRollupService {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        // First day of the period containing the given day; weeks start on Monday
+        public LocalDate periodOf(LocalDate day) {
+            switch (this) {
+                case WEEK: return day.with(DayOfWeek.MONDAY);
+                case MONTH: return day.withDayOfMonth(1);
+                default: return day;
+            }
+        }
+
+        public LocalDate next(LocalDate period) {
+            switch (this) {
+                case WEEK: return period.plusWeeks(1);
+                case MONTH: return period.plusMonths(1);
+                default: return period.plusDays(1);
+            }
+        }
+
+        public static Granularity fromLabel(String label) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(label)) {
+                    return granularity;
+                }
+            }
+            throw new RuntimeException("Unknown granularity '" + label + "', expected day, week or month");
+        }
+    }
+
+    @Value("${library.reports.backfill-chunk-days:7}")
+    private int chunkDays;
+
+    @Value("${library.reports.backfill-parallelism:4}")
+    private int parallelism;
+
+    @Value("${library.reports.repair-days:2}")
+    private int repairDays;
+
+    @Value("${library.reports.max-points:1000}")
+    private int maxPoints;
+
+    @Autowired
+    private DailyLoanRollupRepository rollupRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+
+    @Autowired
+    private LoanArchiveService loanArchiveService;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final Map<Key, Delta> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private ExecutorService backfillExecutor;
+
+    public LoanRollupService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        backfillExecutor = Executors.newFixedThreadPool(parallelism);
+        eventBus.subscribe("loan-rollups", BookBorrowed.class, event -> add(
+                key(event.borrowDate().toLocalDate(), event.genre(), event.membershipType()),
+                new Delta(1, 0, 0, BigDecimal.ZERO)));
+        eventBus.subscribe("loan-rollups", BookReturned.class, event -> add(
+                key(event.returnDate().toLocalDate(), event.genre(), event.membershipType()),
+                new Delta(0, 1, event.returnDate().isAfter(event.dueDate()) ? 1 : 0,
+                        event.fineAmount() == null ? BigDecimal.ZERO : event.fineAmount())));
+    }
+
+    // An empty rollup table is filled from the whole loan history, off the startup path
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (rollupRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime earliest = readOnlyTemplate.execute(status -> loanArchiveService.findEarliestBorrowDate());
+        if (earliest == null || !earliest.toLocalDate().isBefore(LocalDate.now())) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                backfill(earliest.toLocalDate(), null);
+            } catch (RuntimeException e) {
+                System.out.println("Initial rollup backfill failed: " + e.getMessage());
+            }
+        }, "rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void add(Key key, Delta delta) {
+        pending.merge(key, delta, Delta::plus);
+    }
+
+    // Write the coalesced deltas; on failure they go back into the buffer for the next run
+    @Scheduled(fixedDelayString = "${library.reports.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Key, Delta> batch = new HashMap<>();
+        for (Key key : pending.keySet()) {
+            Delta delta = pending.remove(key);
+            if (delta != null) {
+                batch.put(key, delta);
+            }
+        }
+        try {
+            writeTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                batch.forEach((key, delta) -> upsert(key, delta, now));
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(this::add);
+            System.out.println("Rollup flush failed, " + batch.size() + " keys kept for retry: " + e.getMessage());
+        }
+    }
+
+    // Recompute the last few days from the borrow records
+    @Scheduled(cron = "${library.reports.repair-cron:0 10 0 * * *}")
+    public void repairRecentDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        try {
+            backfill(yesterday.minusDays(Math.max(repairDays, 1) - 1), yesterday);
+        } catch (RuntimeException e) {
+            System.out.println("Rollup repair skipped: " + e.getMessage());
+        }
+    }
+
+    // Recompute the rollups of [from, to] in chunks of days, several chunks at a time.
+    // Each chunk replaces its days in one transaction, so a rerun is idempotent.
+    public Map<String, Object> backfill(LocalDate from, LocalDate to) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate last = to == null || to.isAfter(yesterday) ? yesterday : to;
+        if (from == null || from.isAfter(last)) {
+            throw new RuntimeException("Backfill range must start on or before " + last
+                    + "; today is maintained from live events");
+        }
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new RuntimeException("A rollup backfill is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int days = Math.max(chunkDays, 1);
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (LocalDate chunkStart = from; !chunkStart.isAfter(last); chunkStart = chunkStart.plusDays(days)) {
+                LocalDate chunkFrom = chunkStart;
+                LocalDate chunkTo = chunkStart.plusDays(days - 1).isAfter(last) ? last : chunkStart.plusDays(days - 1);
+                chunks.add(backfillExecutor.submit(() -> rebuildDays(chunkFrom, chunkTo)));
+            }
+            int rows = 0;
+            for (Future<Integer> chunk : chunks) {
+                rows += chunk.get();
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("from", from);
+            summary.put("to", last);
+            summary.put("days", ChronoUnit.DAYS.between(from, last) + 1);
+            summary.put("chunks", chunks.size());
+            summary.put("rows", rows);
+            summary.put("elapsedMs", System.currentTimeMillis() - start);
+            System.out.println("Loan rollups backfilled: " + summary);
+            return summary;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Rollup backfill interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Rollup backfill failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private int rebuildDays(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        return writeTemplate.execute(status -> {
+            // Old days live mostly in the archive, so both tables are summed
+            Map<Key, Delta> totals = new HashMap<>();
+            List<LoanRollupRow> loans = new ArrayList<>(borrowRecordRepository.sumLoansByDay(start, end));
+            loans.addAll(archivedBorrowRecordRepository.sumLoansByDay(start, end));
+            for (LoanRollupRow row : loans) {
+                totals.merge(key(row.getDay(), row.getGenre(), row.getMembershipType()),
+                        new Delta(row.getLoans(), 0, 0, BigDecimal.ZERO), Delta::plus);
+            }
+            List<LoanRollupRow> returns = new ArrayList<>(borrowRecordRepository.sumReturnsByDay(start, end));
+            returns.addAll(archivedBorrowRecordRepository.sumReturnsByDay(start, end));
+            for (LoanRollupRow row : returns) {
+                totals.merge(key(row.getDay(), row.getGenre(), row.getMembershipType()),
+                        new Delta(0, row.getReturns(), row.getOverdueReturns(), row.getFines()), Delta::plus);
+            }
+            rollupRepository.deleteByDayBetween(from, to);
+            LocalDateTime now = LocalDateTime.now();
+            totals.forEach((key, delta) -> upsert(key, delta, now));
+            return totals.size();
+        });
+    }
+
+    private void upsert(Key key, Delta delta, LocalDateTime now) {
+        rollupRepository.applyDelta(key.day(), key.genre(), key.membershipType().name(),
+                delta.loans(), delta.returns(), delta.overdueReturns(), delta.fines(), now);
+    }
+
+    // Totals per period between from and to (inclusive), every period present even when empty.
+    // groupBy splits the totals into one series per genre or membership type.
+    public Map<String, Object> getTimeSeries(LocalDate from, LocalDate to, Granularity granularity,
+                                             String genre, User.MembershipType membershipType, String groupBy) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        if (groupBy != null && !groupBy.equals("genre") && !groupBy.equals("membershipType")) {
+            throw new RuntimeException("Unknown groupBy '" + groupBy + "', expected genre or membershipType");
+        }
+        List<LocalDate> periods = new ArrayList<>();
+        for (LocalDate period = granularity.periodOf(from); !period.isAfter(to); period = granularity.next(period)) {
+            if (periods.size() == maxPoints) {
+                throw new RuntimeException("Range has more than " + maxPoints + " " + granularity.name().toLowerCase()
+                        + " periods; use a coarser granularity or a shorter range");
+            }
+            periods.add(period);
+        }
+        String genreFilter = genre == null || genre.isBlank() ? null : genre.trim();
+        List<DailyLoanRollup> rows = readOnlyTemplate.execute(status ->
+                rollupRepository.findForReport(from, to, genreFilter, membershipType));
+
+        Map<String, Map<LocalDate, Point>> series = new TreeMap<>();
+        for (DailyLoanRollup row : rows) {
+            String seriesKey = groupBy == null ? "all"
+                    : groupBy.equals("genre") ? row.getGenre() : row.getMembershipType().name();
+            series.computeIfAbsent(seriesKey, k -> emptyPoints(periods))
+                    .get(granularity.periodOf(row.getDay())).add(row);
+        }
+        if (series.isEmpty() && groupBy == null) {
+            series.put("all", emptyPoints(periods));
+        }
+
+        List<Map<String, Object>> seriesList = new ArrayList<>();
+        series.forEach((seriesKey, points) -> {
+            Point total = new Point();
+            List<Map<String, Object>> values = new ArrayList<>(points.size());
+            points.forEach((period, point) -> {
+                values.add(point.toMap(period));
+                total.add(point);
+            });
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("key", seriesKey);
+            entry.put("totals", total.toMap(null));
+            entry.put("points", values);
+            seriesList.add(entry);
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("granularity", granularity.name().toLowerCase());
+        result.put("groupBy", groupBy);
+        result.put("series", seriesList);
+        return result;
+    }
+
+    private static Map<LocalDate, Point> emptyPoints(List<LocalDate> periods) {
+        Map<LocalDate, Point> points = new LinkedHashMap<>();
+        for (LocalDate period : periods) {
+            points.put(period, new Point());
+        }
+        return points;
+    }
+
+    private static Key key(LocalDate day, String genre, User.MembershipType membershipType) {
+        return new Key(day,
+                genre == null || genre.isBlank() ? DailyLoanRollup.NO_GENRE : genre.trim(),
+                membershipType == null ? User.MembershipType.REGULAR : membershipType);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        backfillExecutor.shutdownNow();
+    }
+
+    private record Key(LocalDate day, String genre, User.MembershipType membershipType) {
+    }
+
+    private record Delta(long loans, long returns, long overdueReturns, BigDecimal fines) {
+        Delta plus(Delta other) {
+            return new Delta(loans + other.loans, returns + other.returns,
+                    overdueReturns + other.overdueReturns, fines.add(other.fines));
+        }
+    }
+
+    // Running totals of one period of a series
+    private static class Point {
+        private long loans;
+        private long returns;
+        private long overdueReturns;
+        private BigDecimal fines = BigDecimal.ZERO.setScale(2);
+
+        void add(DailyLoanRollup row) {
+            loans += row.getLoans();
+            returns += row.getReturns();
+            overdueReturns += row.getOverdueReturns();
+            fines = fines.add(row.getFines());
+        }
+
+        void add(Point other) {
+            loans += other.loans;
+            returns += other.returns;
+            overdueReturns += other.overdueReturns;
+            fines = fines.add(other.fines);
+        }
+
+        Map<String, Object> toMap(LocalDate period) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (period != null) {
+                map.put("period", period);
+            }
+            map.put("loans", loans);
+            map.put("returns", returns);
+            map.put("overdueReturns", overdueReturns);
+            map.put("fines", fines);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.config.DataSourceRouting;
+import com.wipro.librarymanagementsystem.dto.DailyBorrowCount;
+import com.wipro.librarymanagementsystem.event.BookBorrowed;
+import com.wipro.librarymanagementsystem.event.BookChanged;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Borrow popularity over rolling windows. Loans are counted in one sparse bucket per day
+// (a ring covering a year) and in a running total per window; when the day rolls over, the
+// bucket leaving each window is subtracted. The top books of each window are recomputed
+// with a bounded heap on a short schedule, so a ranking request is a cache read whatever
+// the size of the catalogue. A loan counted while a resync reads its rows may or may not be
+// in them, so the books counted meanwhile are read again once the rows are loaded.
+@Service
+public class PopularityService {
+
+    private static final int RING_DAYS = 365;
+
+    public enum Window {
+        WEEK("7d", 7), MONTH("30d", 30), YEAR("365d", 365);
+
+        private final String label;
+        private final int days;
+
+        Window(String label, int days) {
+            this.label = label;
+            this.days = days;
+        }
+
+        public String getLabel() { return label; }
+        public int getDays() { return days; }
+
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) {
+                    return window;
+                }
+            }
+            throw new RuntimeException("Unknown window '" + label + "', expected 7d, 30d or 365d");
+        }
+    }
+
+    public record RankedBook(Long bookId, long borrowCount) {
+    }
+
+    @Value("${library.popularity.max-limit:100}")
+    private int maxLimit;
+
+    @Value("${library.popularity.resync-reread-passes:5}")
+    private int rereadPasses;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    private final TransactionTemplate readOnlyTemplate;
+
+    // Guarded by this
+    @SuppressWarnings("unchecked")
+    private final Map<Long, Integer>[] dayBuckets = new HashMap[RING_DAYS];
+    private final Map<Window, Map<Long, Integer>> totals = new EnumMap<>(Window.class);
+    private long currentDay;
+    private boolean dirty;
+    // Books counted or forgotten while a resync is loading (resyncing), to be read again after it
+    private boolean resyncing;
+    private Set<Long> changedDuringResync = new HashSet<>();
+    private final Object resyncLock = new Object();
+
+    private volatile Map<Window, List<RankedBook>> rankings = new EnumMap<>(Window.class);
+
+    public PopularityService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        for (int i = 0; i < RING_DAYS; i++) {
+            dayBuckets[i] = new HashMap<>();
+        }
+        for (Window window : Window.values()) {
+            totals.put(window, new HashMap<>());
+        }
+        currentDay = LocalDate.now().toEpochDay();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventBus.subscribe("popularity", BookBorrowed.class,
+                event -> record(event.bookId(), event.borrowDate().toLocalDate()));
+        eventBus.subscribe("popularity", BookChanged.class, event -> {
+            if (event.isDeleted()) {
+                forget(event.bookId());
+            }
+        });
+        eventBus.onDropped("popularity", this::warmUp);
+    }
+
+    // Seed the buckets with the last year of loans; also the resync after a dropped event
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        synchronized (resyncLock) {
+            LocalDate since = LocalDate.now().minusDays(RING_DAYS - 1);
+            synchronized (this) {
+                resyncing = true;
+                changedDuringResync = new HashSet<>();
+            }
+            try {
+                // From the primary: a lagging replica could miss loans whose events came before the resync
+                List<DailyBorrowCount> rows = DataSourceRouting.onPrimary(() -> readOnlyTemplate.execute(status ->
+                        borrowRecordRepository.countDailyBorrowsSince(since.atStartOfDay())));
+                synchronized (this) {
+                    for (Map<Long, Integer> bucket : dayBuckets) {
+                        bucket.clear();
+                    }
+                    totals.values().forEach(Map::clear);
+                    for (DailyBorrowCount row : rows) {
+                        add(row.getBookId(), row.getDay().toEpochDay(), (int) row.getCount());
+                    }
+                }
+                int reread = rereadChanged(since);
+                refreshRankings();
+                System.out.println("Popularity counters loaded: " + rows.size() + " book-days, " + reread
+                        + " books re-read after changing during the load");
+            } finally {
+                synchronized (this) {
+                    resyncing = false;
+                    changedDuringResync = new HashSet<>();
+                }
+            }
+        }
+    }
+
+    // Replace the counts of books changed since the resync started with their current rows.
+    // Changes arriving during a re-read are picked up by the next pass; anything left after
+    // rereadPasses is corrected by the next resync.
+    private int rereadChanged(LocalDate since) {
+        int reread = 0;
+        for (int pass = 0; pass < rereadPasses; pass++) {
+            Set<Long> changed;
+            synchronized (this) {
+                changed = changedDuringResync;
+                changedDuringResync = new HashSet<>();
+            }
+            if (changed.isEmpty()) {
+                break;
+            }
+            List<DailyBorrowCount> rows = DataSourceRouting.onPrimary(() -> readOnlyTemplate.execute(status ->
+                    borrowRecordRepository.countDailyBorrowsSinceForBooks(since.atStartOfDay(), changed)));
+            synchronized (this) {
+                changed.forEach(this::removeCounts);
+                for (DailyBorrowCount row : rows) {
+                    add(row.getBookId(), row.getDay().toEpochDay(), (int) row.getCount());
+                }
+            }
+            reread += changed.size();
+        }
+        return reread;
+    }
+
+    // Top books of a window, answered from the cached ranking
+    public List<RankedBook> getTopBooks(Window window, int limit) {
+        List<RankedBook> ranking = rankings.getOrDefault(window, List.of());
+        return ranking.subList(0, Math.min(Math.max(limit, 0), ranking.size()));
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    private synchronized void record(Long bookId, LocalDate day) {
+        markChanged(bookId);
+        add(bookId, day.toEpochDay(), 1);
+    }
+
+    private void add(Long bookId, long day, int count) {
+        if (day > currentDay) {
+            rollTo(day);
+        }
+        if (day <= currentDay - RING_DAYS || count <= 0) {
+            return;
+        }
+        dayBuckets[slot(day)].merge(bookId, count, Integer::sum);
+        for (Window window : Window.values()) {
+            if (day > currentDay - window.days) {
+                totals.get(window).merge(bookId, count, Integer::sum);
+            }
+        }
+        dirty = true;
+    }
+
+    // Move the windows forward: each day that passes takes the bucket window.days back out of the window
+    private void rollTo(long day) {
+        if (day - currentDay >= RING_DAYS) {
+            for (Map<Long, Integer> bucket : dayBuckets) {
+                bucket.clear();
+            }
+            totals.values().forEach(Map::clear);
+            currentDay = day;
+            dirty = true;
+            return;
+        }
+        while (currentDay < day) {
+            currentDay++;
+            for (Window window : Window.values()) {
+                Map<Long, Integer> leaving = dayBuckets[slot(currentDay - window.days)];
+                Map<Long, Integer> total = totals.get(window);
+                leaving.forEach((bookId, count) ->
+                        total.computeIfPresent(bookId, (id, value) -> value > count ? value - count : null));
+            }
+            // The slot of the day a year back is reused for the new day
+            dayBuckets[slot(currentDay)].clear();
+        }
+        dirty = true;
+    }
+
+    private synchronized void forget(Long bookId) {
+        markChanged(bookId);
+        removeCounts(bookId);
+    }
+
+    // Callers hold the monitor
+    private void markChanged(Long bookId) {
+        if (resyncing) {
+            changedDuringResync.add(bookId);
+        }
+    }
+
+    private void removeCounts(Long bookId) {
+        for (Map<Long, Integer> bucket : dayBuckets) {
+            bucket.remove(bookId);
+        }
+        totals.values().forEach(total -> total.remove(bookId));
+        dirty = true;
+    }
+
+    private static int slot(long day) {
+        return (int) Math.floorMod(day, (long) RING_DAYS);
+    }
+
+    // Recompute the cached rankings when counts changed or the day rolled over
+    @Scheduled(fixedDelayString = "${library.popularity.refresh-interval-ms:10000}")
+    public void refreshRankings() {
+        Map<Window, List<RankedBook>> fresh = new EnumMap<>(Window.class);
+        synchronized (this) {
+            long today = LocalDate.now().toEpochDay();
+            if (today > currentDay) {
+                rollTo(today);
+            }
+            if (!dirty && !rankings.isEmpty()) {
+                return;
+            }
+            for (Window window : Window.values()) {
+                fresh.put(window, topOf(totals.get(window), maxLimit));
+            }
+            dirty = false;
+        }
+        rankings = fresh;
+    }
+
+    // Bounded min-heap: O(n log k) over the books borrowed in the window
+    private static List<RankedBook> topOf(Map<Long, Integer> counts, int k) {
+        Comparator<RankedBook> order = Comparator.comparingLong(RankedBook::borrowCount)
+                .thenComparing(RankedBook::bookId, Comparator.reverseOrder());
+        PriorityQueue<RankedBook> heap = new PriorityQueue<>(k + 1, order);
+        counts.forEach((bookId, count) -> {
+            heap.offer(new RankedBook(bookId, count));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        });
+        List<RankedBook> ranking = new ArrayList<>(heap);
+        ranking.sort(order.reversed());
+        return List.copyOf(ranking);
+    }
+}
@@ -0,0 +1,48 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.config.DataSourceRouting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Pins a user's reads to the primary for a short window after they borrow/return,
+// so their own loan history never comes back stale from a lagging replica
+@Component
+public class ReadYourWritesTracker {
+
+    @Value("${library.datasource.replicas.read-your-writes-window-ms:5000}")
+    private long windowMillis;
+
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    // Record a write by this user
+    public void pin(Long userId) {
+        if (userId != null) {
+            pinnedUntil.put(userId, System.currentTimeMillis() + windowMillis);
+        }
+    }
+
+    public boolean isPinned(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    // Run the read on the primary if the user wrote recently, otherwise let routing decide
+    public <T> T read(Long userId, Supplier<T> work) {
+        return isPinned(userId) ? DataSourceRouting.onPrimary(work) : work.get();
+    }
+
+    // Drop expired pins so the map only holds recently active users
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+}
@@ -0,0 +1,313 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.dto.UserBookPair;
+import com.wipro.librarymanagementsystem.event.BookBorrowed;
+import com.wipro.librarymanagementsystem.event.BookChanged;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// "Patrons who borrowed this also borrowed" recommendations. Loan history is held as
+// per-user and per-book sorted id arrays; for each book the co-borrow counts with every
+// other book are computed from its borrowers' histories, scored by cosine similarity,
+// and only the top neighbours are kept. Books are independent, so the work is spread
+// over a fork/join pool. New loans are queued and applied on a short schedule, which
+// recomputes only the books whose co-borrow counts changed.
+@Service
+public class RecommendationService {
+
+    @Value("${library.recommendations.neighbours:20}")
+    private int neighbourCount;
+
+    @Value("${library.recommendations.max-history:500}")
+    private int maxHistory;
+
+    @Value("${library.recommendations.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${library.recommendations.parallelism:0}")
+    private int parallelism;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final ConcurrentLinkedQueue<long[]> pendingLoans = new ConcurrentLinkedQueue<>();
+    private final Set<Long> deletedBooks = ConcurrentHashMap.newKeySet();
+    private ForkJoinPool pool;
+
+    // Loan history, only touched under this service's monitor
+    private Map<Long, long[]> booksByUser = new HashMap<>();
+    private Map<Long, long[]> usersByBook = new HashMap<>();
+
+    // Served to readers
+    private final Map<Long, Neighbours> neighbours = new ConcurrentHashMap<>();
+
+    public RecommendationService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    // Top neighbours of one book, best first
+    public record Neighbours(long[] bookIds, float[] scores) {
+    }
+
+    @PostConstruct
+    public void init() {
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : new ForkJoinPool();
+        eventBus.subscribe("recommendations", BookBorrowed.class,
+                event -> pendingLoans.add(new long[] {event.userId(), event.bookId()}));
+        eventBus.subscribe("recommendations", BookChanged.class, event -> {
+            if (event.isDeleted()) {
+                deletedBooks.add(event.bookId());
+            }
+        });
+        eventBus.onDropped("recommendations", this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    public Neighbours getNeighbours(Long bookId) {
+        return neighbours.get(bookId);
+    }
+
+    // Full rebuild from the loan history; also corrects the scores the incremental path leaves approximate
+    @Scheduled(cron = "${library.recommendations.rebuild-cron:0 30 3 * * *}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, List<Long>> byUser = new HashMap<>();
+        Map<Long, List<Long>> byBook = new HashMap<>();
+        int pairs = loadPairs(borrowRecordRepository::findUserBookPairChunk, byUser, byBook)
+                + loadPairs(archivedBorrowRecordRepository::findUserBookPairChunk, byUser, byBook);
+        booksByUser = toSortedArrays(byUser);
+        usersByBook = toSortedArrays(byBook);
+        // Loans queued during the load are either in it already or applied now; both are idempotent
+        applyPendingLoans();
+
+        long[] books = usersByBook.keySet().stream().mapToLong(Long::longValue).toArray();
+        pool.invoke(new NeighbourTask(books, 0, books.length));
+        neighbours.keySet().retainAll(usersByBook.keySet());
+        System.out.println("Recommendations built: " + pairs + " user-book pairs, " + books.length + " books, "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Apply queued loans and recompute the books whose co-borrow counts they changed
+    @Scheduled(fixedDelayString = "${library.recommendations.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        Set<Long> dirty = applyPendingLoans();
+        if (!dirty.isEmpty()) {
+            long[] books = dirty.stream().mapToLong(Long::longValue).toArray();
+            pool.invoke(new NeighbourTask(books, 0, books.length));
+        }
+    }
+
+    // Returns the books to recompute: the borrowed book and everything else its borrower has read
+    private Set<Long> applyPendingLoans() {
+        Set<Long> dirty = new HashSet<>();
+        for (Long bookId : deletedBooks) {
+            deletedBooks.remove(bookId);
+            long[] users = usersByBook.remove(bookId);
+            if (users != null) {
+                for (long userId : users) {
+                    booksByUser.computeIfPresent(userId, (id, books) -> without(books, bookId));
+                    dirty.addAll(asList(booksByUser.get(userId)));
+                }
+            }
+            neighbours.remove(bookId);
+        }
+        long[] loan;
+        while ((loan = pendingLoans.poll()) != null) {
+            long userId = loan[0];
+            long bookId = loan[1];
+            long[] history = booksByUser.getOrDefault(userId, new long[0]);
+            if (Arrays.binarySearch(history, bookId) >= 0) {
+                continue;
+            }
+            booksByUser.put(userId, with(history, bookId));
+            usersByBook.put(bookId, with(usersByBook.getOrDefault(bookId, new long[0]), userId));
+            dirty.add(bookId);
+            if (history.length <= maxHistory) {
+                for (long other : history) {
+                    dirty.add(other);
+                }
+            }
+        }
+        dirty.removeIf(bookId -> !usersByBook.containsKey(bookId));
+        return dirty;
+    }
+
+    // Co-borrow counts of one book with every other book, scored as count / sqrt(borrowers(a) * borrowers(b))
+    private Neighbours computeNeighbours(long bookId) {
+        long[] borrowers = usersByBook.get(bookId);
+        Map<Long, int[]> coCounts = new HashMap<>();
+        for (long userId : borrowers) {
+            long[] history = booksByUser.get(userId);
+            // Very long histories add noise and cost quadratic work; they are left out
+            if (history == null || history.length > maxHistory) {
+                continue;
+            }
+            for (long other : history) {
+                if (other != bookId) {
+                    coCounts.computeIfAbsent(other, id -> new int[1])[0]++;
+                }
+            }
+        }
+        PriorityQueue<ScoredBook> top = new PriorityQueue<>(neighbourCount + 1);
+        coCounts.forEach((other, count) -> {
+            long[] otherBorrowers = usersByBook.get(other);
+            if (otherBorrowers == null) {
+                return;
+            }
+            float score = (float) (count[0] / Math.sqrt((double) borrowers.length * otherBorrowers.length));
+            top.offer(new ScoredBook(other, score));
+            if (top.size() > neighbourCount) {
+                top.poll();
+            }
+        });
+        int size = top.size();
+        long[] ids = new long[size];
+        float[] scores = new float[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ScoredBook next = top.poll();
+            ids[i] = next.bookId;
+            scores[i] = next.score;
+        }
+        return new Neighbours(ids, scores);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Splits the books in half until a slice is small enough to score on one worker
+    private class NeighbourTask extends RecursiveAction {
+        private static final int THRESHOLD = 64;
+        private final long[] books;
+        private final int from;
+        private final int to;
+
+        NeighbourTask(long[] books, int from, int to) {
+            this.books = books;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    neighbours.put(books[i], computeNeighbours(books[i]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NeighbourTask(books, from, middle), new NeighbourTask(books, middle, to));
+        }
+    }
+
+    // Lowest score first, so the heap drops the weakest neighbour; ties keep the smaller id
+    private record ScoredBook(long bookId, float score) implements Comparable<ScoredBook> {
+        @Override
+        public int compareTo(ScoredBook other) {
+            int byScore = Float.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(other.bookId, bookId);
+        }
+    }
+
+    private interface PairSource {
+        List<UserBookPair> chunk(Long afterUserId, Long afterBookId, Pageable pageable);
+    }
+
+    // Keyset scan of one loan table; returns the number of pairs read
+    private int loadPairs(PairSource source, Map<Long, List<Long>> byUser, Map<Long, List<Long>> byBook) {
+        long afterUserId = 0;
+        long afterBookId = 0;
+        int pairs = 0;
+        while (true) {
+            long chunkUserId = afterUserId;
+            long chunkBookId = afterBookId;
+            List<UserBookPair> chunk = readOnlyTemplate.execute(status -> source.chunk(
+                    chunkUserId, chunkBookId, PageRequest.of(0, chunkSize)));
+            for (UserBookPair pair : chunk) {
+                byUser.computeIfAbsent(pair.getUserId(), id -> new ArrayList<>()).add(pair.getBookId());
+                byBook.computeIfAbsent(pair.getBookId(), id -> new ArrayList<>()).add(pair.getUserId());
+            }
+            pairs += chunk.size();
+            if (chunk.size() < chunkSize) {
+                return pairs;
+            }
+            UserBookPair last = chunk.get(chunk.size() - 1);
+            afterUserId = last.getUserId();
+            afterBookId = last.getBookId();
+        }
+    }
+
+    // A pair can appear in both the hot and the archived loans, so duplicates are dropped here
+    private static Map<Long, long[]> toSortedArrays(Map<Long, List<Long>> lists) {
+        Map<Long, long[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, values) -> {
+            long[] array = values.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+            arrays.put(key, array);
+        });
+        return arrays;
+    }
+
+    private static long[] with(long[] sorted, long value) {
+        int insertAt = -Arrays.binarySearch(sorted, value) - 1;
+        long[] result = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(sorted, insertAt, result, insertAt + 1, sorted.length - insertAt);
+        return result;
+    }
+
+    private static long[] without(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return sorted;
+        }
+        long[] result = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, index);
+        System.arraycopy(sorted, index + 1, result, index, sorted.length - index - 1);
+        return result;
+    }
+
+    private static List<Long> asList(long[] values) {
+        return values == null ? List.of() : Arrays.stream(values).boxed().toList();
+    }
+}
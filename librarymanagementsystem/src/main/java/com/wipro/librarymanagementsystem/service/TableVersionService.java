@@ -0,0 +1,62 @@
+package com.wipro.librarymanagementsystem.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-table change counters used to build ETags for the list endpoints.
+// Write paths bump the counter after commit, so an unchanged ETag means the list
+// cannot have changed and a 304 can be answered without touching the database.
+// The counters follow commits on the primary, so a list sent with an ETag must be read there
+// (DataSourceRouting.onPrimary): a lagging replica would pair an old body with the new ETag,
+// and every conditional request after that would keep the stale copy with a 304.
+@Service
+public class TableVersionService {
+
+    public enum Table {
+        BOOKS, USERS, BORROW_RECORDS
+    }
+
+    // Distinguishes counters of this process from those of an earlier run or another instance
+    private final String instanceToken = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Table, AtomicLong> versions = new EnumMap<>(Table.class);
+
+    public TableVersionService() {
+        for (Table table : Table.values()) {
+            versions.put(table, new AtomicLong());
+        }
+    }
+
+    // Mark a table as changed once the current transaction commits
+    public void bump(Table table) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.get(table).incrementAndGet();
+                }
+            });
+        } else {
+            versions.get(table).incrementAndGet();
+        }
+    }
+
+    public long getVersion(Table table) {
+        return versions.get(table).get();
+    }
+
+    // ETag covering every table the response is built from. It is marked weak because the
+    // same list may go out gzip-compressed or not (Tomcat will not compress strong-ETag responses)
+    public String etag(Table... tables) {
+        StringBuilder tag = new StringBuilder("W/\"").append(instanceToken);
+        for (Table table : tables) {
+            tag.append('-').append(versions.get(table).get());
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -1,9 +1,13 @@
 package com.wipro.librarymanagementsystem.service;
 
 import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.event.UserChanged;
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
 import com.wipro.librarymanagementsystem.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,27 +17,41 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private TableVersionService tableVersionService;
+    
+    @Autowired
+    private DomainEventBus eventBus;
+    
+    @Autowired
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+    
     // Get all users
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
     
     // Get user by ID
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
     
     // Get user by username
+    @Transactional(readOnly = true)
     public Optional<User> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
     
     // Get user by email
+    @Transactional(readOnly = true)
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
     
     // Save user
+    @Transactional
     public User saveUser(User user) {
         // Check if username already exists
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -45,10 +63,14 @@ public class UserService {
             throw new RuntimeException("Email '" + user.getEmail() + "' already exists");
         }
         
-        return userRepository.save(user);
+        tableVersionService.bump(TableVersionService.Table.USERS);
+        User saved = userRepository.save(user);
+        eventBus.publish(new UserChanged(saved.getId(), null, UserChanged.UserSnapshot.of(saved)));
+        return saved;
     }
     
     // Update user
+    @Transactional
     public User updateUser(Long id, User userDetails) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -65,6 +87,7 @@ public class UserService {
             throw new RuntimeException("Email '" + userDetails.getEmail() + "' already exists");
         }
         
+        UserChanged.UserSnapshot before = UserChanged.UserSnapshot.of(user);
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
         user.setFirstName(userDetails.getFirstName());
@@ -74,58 +97,85 @@ public class UserService {
         user.setMembershipType(userDetails.getMembershipType());
         user.setIsActive(userDetails.getIsActive());
         
-        return userRepository.save(user);
+        tableVersionService.bump(TableVersionService.Table.USERS);
+        return saveChanged(user, before);
     }
     
     // Delete user
+    @Transactional
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        UserChanged.UserSnapshot before = UserChanged.UserSnapshot.of(user);
         userRepository.delete(user);
+        // Deleting a user cascades to their borrow records; archived ones have no foreign key
+        archivedBorrowRecordRepository.deleteByUserId(id);
+        tableVersionService.bump(TableVersionService.Table.USERS);
+        tableVersionService.bump(TableVersionService.Table.BORROW_RECORDS);
+        eventBus.publish(new UserChanged(id, before, null));
     }
     
     // Deactivate user (soft delete)
+    @Transactional
     public User deactivateUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        UserChanged.UserSnapshot before = UserChanged.UserSnapshot.of(user);
         user.setIsActive(false);
-        return userRepository.save(user);
+        tableVersionService.bump(TableVersionService.Table.USERS);
+        return saveChanged(user, before);
     }
     
     // Activate user
+    @Transactional
     public User activateUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        UserChanged.UserSnapshot before = UserChanged.UserSnapshot.of(user);
         user.setIsActive(true);
-        return userRepository.save(user);
+        tableVersionService.bump(TableVersionService.Table.USERS);
+        return saveChanged(user, before);
     }
     
     // Search users by name
+    @Transactional(readOnly = true)
     public List<User> searchUsersByName(String name) {
         return userRepository.searchByName(name);
     }
     
     // Get active users
+    @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
         return userRepository.findByIsActiveTrue();
     }
     
     // Get users by membership type
+    @Transactional(readOnly = true)
     public List<User> getUsersByMembershipType(User.MembershipType membershipType) {
         return userRepository.findByMembershipType(membershipType);
     }
     
     // Get users with overdue books
+    @Transactional(readOnly = true)
     public List<User> getUsersWithOverdueBooks() {
         return userRepository.findUsersWithOverdueBooks();
     }
     
     // Get user statistics
+    @Transactional(readOnly = true)
     public long getActiveUsersCount() {
         return userRepository.countByIsActiveTrue();
     }
     
+    @Transactional(readOnly = true)
     public long getTotalUsersCount() {
         return userRepository.count();
     }
+    
+    // Save and announce the change once the transaction commits
+    private User saveChanged(User user, UserChanged.UserSnapshot before) {
+        User saved = userRepository.save(user);
+        eventBus.publish(new UserChanged(saved.getId(), before, UserChanged.UserSnapshot.of(saved)));
+        return saved;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.wipro.librarymanagementsystem;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Concurrent checkouts must not wait on the connection pool: each borrow holds a connection and
+// the table-backed id generator takes another, which ran a core-sized pool dry on small machines
+// until Hikari's 30 s connection timeout
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class ConcurrentBorrowTests {
+
+	private static final int BORROWERS = 8;
+
+	// Well below the connection timeout, far above a borrow on an idle machine
+	private static final long BORROW_BUDGET_MS = 10000;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void poolKeepsItsFloor() throws Exception {
+		HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+		assertTrue(hikari.getMaximumPoolSize() >= 10,
+				"Pool of " + hikari.getMaximumPoolSize() + " connections is below the floor of 10");
+	}
+
+	@Test
+	void concurrentBorrowsDoNotStall() throws Exception {
+		String tag = Long.toString(System.nanoTime(), 36);
+		List<Long> userIds = new ArrayList<>();
+		List<Long> bookIds = new ArrayList<>();
+		for (int i = 0; i < BORROWERS; i++) {
+			userIds.add(create("/api/users", Map.of("username", "cb" + tag + i, "email", "cb" + tag + i + "@example.com",
+					"firstName", "Concurrent", "lastName", "Borrower", "membershipType", "PREMIUM")));
+			bookIds.add(create("/api/books", Map.of("title", "Concurrent borrow " + i, "author", "Test",
+					"isbn", "cb" + tag + i, "totalCopies", 1, "availableCopies", 1)));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(BORROWERS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Long>> borrows = new ArrayList<>();
+		try {
+			for (int i = 0; i < BORROWERS; i++) {
+				String path = "/api/borrow/borrow?userId=" + userIds.get(i) + "&bookId=" + bookIds.get(i);
+				borrows.add(pool.submit(() -> {
+					start.await();
+					long begin = System.nanoTime();
+					ResponseEntity<String> response = restTemplate.postForEntity(path, null, String.class);
+					assertTrue(response.getStatusCode().is2xxSuccessful(),
+							"Borrow answered " + response.getStatusCode() + ": " + response.getBody());
+					return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+				}));
+			}
+			start.countDown();
+			for (Future<Long> borrow : borrows) {
+				long millis = borrow.get(60, TimeUnit.SECONDS);
+				assertTrue(millis <= BORROW_BUDGET_MS, "A concurrent borrow took " + millis + " ms");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private long create(String path, Map<String, Object> body) {
+		ResponseEntity<Map> response = restTemplate.postForEntity(path, body, Map.class);
+		assertTrue(response.getStatusCode().is2xxSuccessful(), "POST " + path + " answered " + response.getStatusCode());
+		return ((Number) response.getBody().get("id")).longValue();
+	}
+}
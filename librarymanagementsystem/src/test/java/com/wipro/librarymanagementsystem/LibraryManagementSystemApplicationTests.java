@@ -1,13 +1,90 @@
-//package com.wipro.librarymanagementsystem;
+package com.wipro.librarymanagementsystem;
 
-//import org.junit.jupiter.api.Test;
-//import org.springframework.boot.test.context.SpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
 
-//@SpringBootTest
-//class LibraryManagementSystemApplicationTests {
+import java.time.Duration;
 
-	//@Test
-	//void contextLoads() {
-	//}
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-//}
+// Boots the whole application on the embedded profile (in-process H2), so it runs without MySQL
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class LibraryManagementSystemApplicationTests {
+
+	// Raise with -Dlibrary.test.startup-budget-ms on slow machines
+	private static final long STARTUP_BUDGET_MS = Long.getLong("library.test.startup-budget-ms", 60000);
+
+	@Autowired
+	private StartupTimer startupTimer;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void contextLoads() {
+	}
+
+	@Test
+	void startsWithinBudget() {
+		Duration timeTaken = startupTimer.getTimeTaken();
+		assertNotNull(timeTaken, "ApplicationReadyEvent was not published");
+		System.out.println("Embedded startup took " + timeTaken.toMillis() + " ms");
+		assertTrue(timeTaken.toMillis() <= STARTUP_BUDGET_MS,
+				"Startup took " + timeTaken.toMillis() + " ms, budget is " + STARTUP_BUDGET_MS + " ms");
+	}
+
+	@Test
+	void servesSeededCatalogue() {
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/books", String.class);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertTrue(response.getBody() != null && response.getBody().contains("9780061120084"),
+				"Seeded books are missing from /api/books");
+	}
+
+	// Facet paging follows the same limits as the other paged book lists
+	@Test
+	void rejectsOutOfRangeFacetPages() {
+		for (String query : new String[] {"page=-1", "size=0", "size=101", "page=2147483647&size=2",
+				"authorLimit=0", "authorLimit=101"}) {
+			assertEquals(HttpStatus.BAD_REQUEST,
+					restTemplate.getForEntity("/api/books/facets?" + query, String.class).getStatusCode(), query);
+		}
+		assertEquals(HttpStatus.OK,
+				restTemplate.getForEntity("/api/books/facets?page=1&size=5&authorLimit=3", String.class).getStatusCode());
+	}
+
+	@TestConfiguration
+	static class StartupTimerConfig {
+		@Bean
+		StartupTimer startupTimer() {
+			return new StartupTimer();
+		}
+	}
+
+	// Time from launch until the application was ready to serve requests
+	static class StartupTimer implements ApplicationListener<ApplicationReadyEvent> {
+		private volatile Duration timeTaken;
+
+		@Override
+		public void onApplicationEvent(ApplicationReadyEvent event) {
+			timeTaken = event.getTimeTaken();
+		}
+
+		Duration getTimeTaken() {
+			return timeTaken;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.wipro.librarymanagementsystem.analytics;
+
+import com.wipro.librarymanagementsystem.dto.LoanFact;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A partition written and read back gives the same columns: deltas that go backwards or span
+// the whole long range, open loans (NO_DAY), null dictionary values and fines all survive the
+// varint, dictionary and gzip encodings, and a reader decodes only the columns it asks for
+class ColumnarLoanFileTests {
+
+	private static final Set<String> ALL_COLUMNS = Set.of(ColumnarLoanFile.ID, ColumnarLoanFile.BOOK_ID,
+			ColumnarLoanFile.USER_ID, ColumnarLoanFile.GENRE, ColumnarLoanFile.MEMBERSHIP, ColumnarLoanFile.STATUS,
+			ColumnarLoanFile.BORROW_DAY, ColumnarLoanFile.DUE_DAY, ColumnarLoanFile.RETURN_DAY,
+			ColumnarLoanFile.FINE_CENTS);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void everyColumnSurvivesARoundTrip() throws IOException {
+		LocalDateTime day = LocalDateTime.of(2024, 3, 1, 10, 0);
+		LoanColumns.Builder builder = new LoanColumns.Builder();
+		builder.add(new LoanFact(Long.MAX_VALUE, 7L, 1L, "Fiction", User.MembershipType.PREMIUM,
+				day, day.plusDays(14), day.plusDays(20), BorrowRecord.BorrowStatus.RETURNED, new BigDecimal("3.50")));
+		builder.add(new LoanFact(Long.MIN_VALUE, 3L, 900_000_000_000L, null, null,
+				day.plusDays(30), null, null, null, null));
+		builder.add(new LoanFact(5L, 7L, 2L, "  ", User.MembershipType.REGULAR,
+				day.minusDays(400), day.minusDays(386), null, BorrowRecord.BorrowStatus.OVERDUE, BigDecimal.ZERO));
+		builder.add(new LoanFact(6L, 3L, 2L, "Fiction", User.MembershipType.PREMIUM,
+				day, day.plusDays(14), day.plusDays(2), BorrowRecord.BorrowStatus.RETURNED, new BigDecimal("0.01")));
+		LoanColumns written = builder.build();
+
+		Path path = directory.resolve("loans-2024-03" + ColumnarLoanFile.EXTENSION);
+		long size = ColumnarLoanFile.write(path, written);
+		LoanColumns read = ColumnarLoanFile.read(path, ALL_COLUMNS);
+
+		assertEquals(Files.size(path), size);
+		assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+		assertEquals(4, read.getRows());
+		assertArrayEquals(new long[] {Long.MAX_VALUE, Long.MIN_VALUE, 5, 6}, read.id);
+		assertArrayEquals(written.bookId, read.bookId);
+		assertArrayEquals(written.userId, read.userId);
+		assertArrayEquals(written.borrowDay, read.borrowDay);
+		assertArrayEquals(written.dueDay, read.dueDay);
+		assertArrayEquals(written.returnDay, read.returnDay);
+		assertEquals(LoanColumns.NO_DAY, read.returnDay[1]);
+		assertEquals(LoanColumns.NO_DAY, read.dueDay[1]);
+		assertArrayEquals(new long[] {350, 0, 0, 1}, read.fineCents);
+		assertArrayEquals(written.genre, read.genre);
+		assertArrayEquals(written.membership, read.membership);
+		assertArrayEquals(written.status, read.status);
+		assertArrayEquals(new String[] {null, "Fiction"}, read.genreDictionary);
+		assertArrayEquals(new String[] {null, "PREMIUM", "REGULAR"}, read.membershipDictionary);
+		assertArrayEquals(new String[] {null, "RETURNED", "OVERDUE"}, read.statusDictionary);
+		assertEquals(0, read.genre[1]);
+		assertEquals(0, read.genre[2]);
+	}
+
+	@Test
+	void readerDecodesOnlyTheColumnsAskedFor() throws IOException {
+		Path path = directory.resolve("loans-2024-04" + ColumnarLoanFile.EXTENSION);
+		ColumnarLoanFile.write(path, sequentialLoans(10));
+
+		LoanColumns read = ColumnarLoanFile.read(path, Set.of(ColumnarLoanFile.STATUS, ColumnarLoanFile.FINE_CENTS));
+
+		assertEquals(10, read.getRows());
+		assertEquals(10, read.status.length);
+		assertEquals(10, read.fineCents.length);
+		assertNull(read.id);
+		assertNull(read.bookId);
+		assertNull(read.genre);
+		assertNull(read.genreDictionary);
+		assertNull(read.borrowDay);
+		assertNull(read.returnDay);
+	}
+
+	@Test
+	void increasingColumnsCompressToAFewBitsPerValue() throws IOException {
+		int rows = 20_000;
+		LoanColumns written = sequentialLoans(rows);
+		Path path = directory.resolve("loans-2024-05" + ColumnarLoanFile.EXTENSION);
+
+		long size = ColumnarLoanFile.write(path, written);
+		LoanColumns read = ColumnarLoanFile.read(path, ALL_COLUMNS);
+
+		// Ten columns of 8-byte values would be 80 bytes a row uncompressed
+		assertTrue(size < rows * 4L, "Partition of " + rows + " rows took " + size + " bytes");
+		assertArrayEquals(written.id, read.id);
+		assertArrayEquals(written.userId, read.userId);
+		assertArrayEquals(written.borrowDay, read.borrowDay);
+		assertArrayEquals(written.genre, read.genre);
+	}
+
+	@Test
+	void emptyPartitionRoundTrips() throws IOException {
+		Path path = directory.resolve("loans-2024-06" + ColumnarLoanFile.EXTENSION);
+		ColumnarLoanFile.write(path, new LoanColumns.Builder().build());
+
+		LoanColumns read = ColumnarLoanFile.read(path, ALL_COLUMNS);
+
+		assertEquals(0, read.getRows());
+		assertEquals(0, read.id.length);
+		assertArrayEquals(new String[] {null}, read.genreDictionary);
+	}
+
+	@Test
+	void rejectsFilesThatAreNotPartitions() throws IOException {
+		Path path = directory.resolve("loans-2024-07" + ColumnarLoanFile.EXTENSION);
+		Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+
+		assertThrows(IOException.class, () -> ColumnarLoanFile.read(path, ALL_COLUMNS));
+	}
+
+	private static LoanColumns sequentialLoans(int rows) {
+		String[] genres = {"Fiction", "History", "Science"};
+		LocalDateTime first = LocalDateTime.of(2024, 1, 1, 9, 0);
+		LoanColumns.Builder builder = new LoanColumns.Builder();
+		for (int i = 0; i < rows; i++) {
+			LocalDateTime borrowed = first.plusMinutes(i);
+			builder.add(new LoanFact(1000L + i, 1L + i % 50, 1L + i % 400, genres[i % genres.length],
+					User.MembershipType.REGULAR, borrowed, borrowed.plusDays(14),
+					i % 2 == 0 ? borrowed.plusDays(7) : null,
+					i % 2 == 0 ? BorrowRecord.BorrowStatus.RETURNED : BorrowRecord.BorrowStatus.BORROWED,
+					BigDecimal.ZERO));
+		}
+		return builder.build();
+	}
+}
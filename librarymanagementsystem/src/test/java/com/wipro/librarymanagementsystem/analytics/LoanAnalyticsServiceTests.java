@@ -0,0 +1,203 @@
+package com.wipro.librarymanagementsystem.analytics;
+
+import com.wipro.librarymanagementsystem.analytics.LoanAnalyticsService.Dimension;
+import com.wipro.librarymanagementsystem.analytics.LoanAnalyticsService.LoanQuery;
+import com.wipro.librarymanagementsystem.dto.LoanFact;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Aggregation over two month partitions whose dictionaries number the same values differently:
+// groups merge by label, overdue counts late returns and open loans past due, filters and the
+// borrow-date range narrow the rows, and the hashed path groups by id
+class LoanAnalyticsServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private LoanAnalyticsService analytics;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		LoanColumns.Builder january = new LoanColumns.Builder();
+		january.add(loan(1, 10, 1, "Fiction", User.MembershipType.PREMIUM, "2024-01-05", "2024-01-19", "2024-01-25", "1.50"));
+		january.add(loan(2, 11, 2, "History", User.MembershipType.REGULAR, "2024-01-10", "2024-01-24", "2024-01-14", "0"));
+		january.add(loan(3, 10, 2, "Fiction", User.MembershipType.REGULAR, "2024-01-20", "2024-02-03", null, null));
+		// History comes first here, so its dictionary code differs from January's
+		LoanColumns.Builder february = new LoanColumns.Builder();
+		february.add(loan(4, 11, 1, "History", User.MembershipType.PREMIUM, "2024-02-01", "2024-02-15", "2024-02-11", "0"));
+		february.add(loan(5, 10, 1, "Fiction", User.MembershipType.PREMIUM, "2024-02-20", "2024-03-05", "2024-02-22", "0.25"));
+		february.add(loan(6, 12, 3, null, User.MembershipType.STUDENT, "2024-02-25",
+				LocalDate.now().plusDays(10).toString(), null, null));
+
+		Map<YearMonth, Path> partitions = new TreeMap<>();
+		partitions.put(YearMonth.of(2024, 1), directory.resolve("loans-2024-01" + ColumnarLoanFile.EXTENSION));
+		partitions.put(YearMonth.of(2024, 2), directory.resolve("loans-2024-02" + ColumnarLoanFile.EXTENSION));
+		ColumnarLoanFile.write(partitions.get(YearMonth.of(2024, 1)), january.build());
+		ColumnarLoanFile.write(partitions.get(YearMonth.of(2024, 2)), february.build());
+
+		LoanSnapshotExporter exporter = mock(LoanSnapshotExporter.class);
+		when(exporter.partitions()).thenReturn(partitions);
+		analytics = new LoanAnalyticsService();
+		ReflectionTestUtils.setField(analytics, "exporter", exporter);
+		ReflectionTestUtils.setField(analytics, "parallelism", 2);
+		ReflectionTestUtils.setField(analytics, "maxGroupBy", 3);
+		analytics.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		analytics.shutdown();
+	}
+
+	@Test
+	void groupsMergeByLabelAcrossPartitions() {
+		Map<String, Object> result = analytics.query(query(null, null, List.of(Dimension.GENRE), null, null, 10));
+
+		assertEquals(2, result.get("partitionsScanned"));
+		assertEquals(6L, result.get("rowsScanned"));
+		assertEquals(6L, result.get("rowsMatched"));
+		assertEquals(3, result.get("totalGroups"));
+		List<Map<String, Object>> groups = groups(result);
+		assertEquals("Fiction", groups.get(0).get("genre"));
+
+		Map<String, Object> fiction = group(groups, "genre", "Fiction");
+		assertEquals(3L, fiction.get("loans"));
+		assertEquals(2L, fiction.get("returned"));
+		// Loan 1 came back late and loan 3 is still out past its due date
+		assertEquals(2L, fiction.get("overdue"));
+		assertEquals(new BigDecimal("1.75"), fiction.get("fines"));
+		assertEquals(11.0, fiction.get("avgLoanDays"));
+
+		Map<String, Object> history = group(groups, "genre", "History");
+		assertEquals(2L, history.get("loans"));
+		assertEquals(0L, history.get("overdue"));
+		assertEquals(new BigDecimal("0.00"), history.get("fines"));
+		assertEquals(7.0, history.get("avgLoanDays"));
+
+		// A loan not yet due is neither returned nor overdue
+		Map<String, Object> noGenre = group(groups, "genre", null);
+		assertEquals(1L, noGenre.get("loans"));
+		assertEquals(0L, noGenre.get("overdue"));
+		assertNull(noGenre.get("avgLoanDays"));
+	}
+
+	@Test
+	void filtersNarrowTheRowsBeforeGrouping() {
+		Map<String, Object> result = analytics.query(new LoanQuery(null, null,
+				List.of(Dimension.MONTH, Dimension.MEMBERSHIP_TYPE), null, null, "returned", null, null, 10));
+
+		assertEquals(4L, result.get("rowsMatched"));
+		List<Map<String, Object>> groups = groups(result);
+		assertEquals(3, groups.size());
+		assertEquals(2L, groupWith(groups, "2024-02", "PREMIUM").get("loans"));
+		assertEquals(1L, groupWith(groups, "2024-01", "PREMIUM").get("loans"));
+		assertEquals(1L, groupWith(groups, "2024-01", "REGULAR").get("loans"));
+
+		Map<String, Object> byUser = analytics.query(new LoanQuery(null, null,
+				List.of(Dimension.STATUS), null, null, null, null, 1L, 10));
+		assertEquals(1, byUser.get("totalGroups"));
+		assertEquals(3L, group(groups(byUser), "status", "RETURNED").get("loans"));
+	}
+
+	@Test
+	void valueMissingFromEveryPartitionMatchesNothing() {
+		Map<String, Object> result = analytics.query(query(null, null, List.of(Dimension.GENRE), "Science", null, 10));
+
+		assertEquals(6L, result.get("rowsScanned"));
+		assertEquals(0L, result.get("rowsMatched"));
+		assertTrue(groups(result).isEmpty());
+	}
+
+	@Test
+	void borrowDateRangeCutsInsideAPartitionAndGroupsById() {
+		Map<String, Object> result = analytics.query(query(LocalDate.parse("2024-01-15"), LocalDate.parse("2024-02-10"),
+				List.of(Dimension.BOOK_ID), null, null, 10));
+
+		assertEquals(2, result.get("partitionsScanned"));
+		assertEquals(2L, result.get("rowsMatched"));
+		List<Map<String, Object>> groups = groups(result);
+		assertEquals(2, groups.size());
+		assertEquals(1L, group(groups, "bookId", 10L).get("overdue"));
+		assertEquals(1L, group(groups, "bookId", 11L).get("returned"));
+
+		Map<String, Object> february = analytics.query(query(LocalDate.parse("2024-02-01"), null,
+				List.of(Dimension.USER_ID, Dimension.GENRE), null, null, 10));
+		assertEquals(1, february.get("partitionsScanned"));
+		assertEquals(3, february.get("totalGroups"));
+		assertEquals(1L, groupWith(groups(february), 1L, "Fiction").get("loans"));
+	}
+
+	@Test
+	void limitKeepsTheBusiestGroupsAndCountsTheRest() {
+		Map<String, Object> result = analytics.query(query(null, null, List.of(Dimension.GENRE), null, "PREMIUM", 1));
+
+		assertEquals(2, result.get("totalGroups"));
+		List<Map<String, Object>> groups = groups(result);
+		assertEquals(1, groups.size());
+		assertEquals("Fiction", groups.get(0).get("genre"));
+		assertEquals(2L, groups.get(0).get("loans"));
+	}
+
+	@Test
+	void rejectsInvalidQueries() {
+		assertThrows(RuntimeException.class, () -> analytics.query(query(null, null,
+				List.of(Dimension.GENRE, Dimension.STATUS, Dimension.MONTH, Dimension.BOOK_ID), null, null, 10)));
+		assertThrows(RuntimeException.class, () -> analytics.query(query(LocalDate.parse("2024-02-01"),
+				LocalDate.parse("2024-01-01"), List.of(Dimension.GENRE), null, null, 10)));
+	}
+
+	private static LoanQuery query(LocalDate from, LocalDate to, List<Dimension> groupBy, String genre,
+			String membershipType, int limit) {
+		return new LoanQuery(from, to, groupBy, genre, membershipType, null, null, null, limit);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> groups(Map<String, Object> result) {
+		return (List<Map<String, Object>>) result.get("groups");
+	}
+
+	private static Map<String, Object> group(List<Map<String, Object>> groups, String dimension, Object value) {
+		return groups.stream().filter(group -> Objects.equals(group.get(dimension), value)).findFirst().orElseThrow();
+	}
+
+	// The group whose dimension values, in groupBy order, are the given ones
+	private static Map<String, Object> groupWith(List<Map<String, Object>> groups, Object... values) {
+		return groups.stream()
+				.filter(group -> new ArrayList<>(group.values()).subList(0, values.length).equals(List.of(values)))
+				.findFirst().orElseThrow();
+	}
+
+	private static LoanFact loan(long id, long bookId, long userId, String genre, User.MembershipType membershipType,
+			String borrowed, String due, String returned, String fine) {
+		return new LoanFact(id, bookId, userId, genre, membershipType, day(borrowed), day(due), day(returned),
+				returned == null ? BorrowRecord.BorrowStatus.BORROWED : BorrowRecord.BorrowStatus.RETURNED,
+				fine == null ? null : new BigDecimal(fine));
+	}
+
+	private static LocalDateTime day(String date) {
+		return date == null ? null : LocalDate.parse(date).atTime(12, 0);
+	}
+}
@@ -0,0 +1,216 @@
+package com.wipro.librarymanagementsystem.benchmark;
+
+import com.wipro.librarymanagementsystem.config.PersistenceTuningConfig;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// Bulk inserts of book-like rows with the id strategy the entities used before (IDENTITY) and
+// the one they use now (pooled sequence, allocationSize 50), both under the JDBC batching the
+// application configures. IDENTITY needs the generated key of every row, so Hibernate sends
+// one INSERT per row; the pooled sequence hands out ids in memory and lets the inserts go in
+// batches of hibernate.jdbc.batch_size. Runs against the embedded H2 database in MySQL mode
+// by default, or any database given as -Djdbc.url (with -Djdbc.user and -Djdbc.password;
+// add rewriteBatchedStatements=true to a MySQL URL, as the application does). Not run by surefire:
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+//   java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+//       com.wipro.librarymanagementsystem.benchmark.BulkInsertBenchmark
+//
+// main first prints how many JDBC statements one operation of each strategy prepares. In memory
+// a statement costs no round trip, so there the count is the result and the times stay close;
+// against MySQL over a network the times follow the count.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    static final int ROWS = 1000;
+    static final int BATCH_SIZE = 50;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(PooledRow.class)
+                .setProperty("hibernate.connection.url", System.getProperty("jdbc.url",
+                        "jdbc:h2:mem:bulk_insert;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"))
+                .setProperty("hibernate.connection.username", System.getProperty("jdbc.user", "sa"))
+                .setProperty("hibernate.connection.password", System.getProperty("jdbc.password", ""))
+                // The table-backed sequence takes a second connection while the insert holds the first
+                .setProperty("hibernate.connection.pool_size", "2")
+                // As in the embedded profile: MySQL dialect without asking H2 for its version
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect")
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.generate_statistics", "true")
+                .setProperty("hibernate.session.events.log", "false")
+                // Same batching settings as application.properties
+                .setProperty("hibernate.jdbc.batch_size", Integer.toString(BATCH_SIZE))
+                .setProperty("hibernate.order_inserts", "true");
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    // Keep the tables small so every iteration inserts into the same index depth
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("DELETE FROM IdentityRow").executeUpdate();
+            session.createMutationQuery("DELETE FROM PooledRow").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public long insertIdentity() {
+        return insert(IdentityRow::new);
+    }
+
+    @Benchmark
+    public long insertPooledSequence() {
+        return insert(PooledRow::new);
+    }
+
+    // One transaction, flushed and cleared every batch as the application's batch jobs do
+    private long insert(IntFunction<BookRow> rows) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            long lastId = 0;
+            for (int i = 0; i < ROWS; i++) {
+                BookRow row = rows.apply(i);
+                session.persist(row);
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+                lastId = row.getId();
+            }
+            session.getTransaction().commit();
+            return lastId;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        BulkInsertBenchmark benchmark = new BulkInsertBenchmark();
+        benchmark.setUp();
+        Statistics statistics = benchmark.sessionFactory.getStatistics();
+        for (String strategy : new String[] {"identity", "pooled sequence"}) {
+            statistics.clear();
+            if ("identity".equals(strategy)) {
+                benchmark.insertIdentity();
+            } else {
+                benchmark.insertPooledSequence();
+            }
+            System.out.printf("%-15s %d rows: %d JDBC statements prepared%n",
+                    strategy, ROWS, statistics.getPrepareStatementCount());
+        }
+        benchmark.tearDown();
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // Columns of a book that matter for an insert; the id and its strategy are the subclass's
+    @MappedSuperclass
+    public abstract static class BookRow {
+        String title;
+        String author;
+        String isbn;
+        int totalCopies;
+        int availableCopies;
+        LocalDateTime createdAt;
+
+        BookRow() {
+        }
+
+        BookRow(int i) {
+            title = "Bulk insert title " + i;
+            author = "Author " + (i % 97);
+            isbn = "978" + String.format("%010d", i);
+            totalCopies = 3;
+            availableCopies = 3;
+            createdAt = LocalDateTime.now();
+        }
+
+        abstract Long getId();
+    }
+
+    @Entity(name = "IdentityRow")
+    @Table(name = "bench_identity_rows")
+    public static class IdentityRow extends BookRow {
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @Id
+        Long id;
+
+        IdentityRow() {
+        }
+
+        IdentityRow(int i) {
+            super(i);
+        }
+
+        @Override
+        Long getId() {
+            return id;
+        }
+    }
+
+    @Entity(name = "PooledRow")
+    @Table(name = "bench_pooled_rows")
+    public static class PooledRow extends BookRow {
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_pooled_seq")
+        @SequenceGenerator(name = "bench_pooled_seq", sequenceName = "bench_pooled_seq",
+                allocationSize = PersistenceTuningConfig.ID_ALLOCATION_SIZE)
+        @Id
+        Long id;
+
+        PooledRow() {
+        }
+
+        PooledRow(int i) {
+            super(i);
+        }
+
+        @Override
+        Long getId() {
+            return id;
+        }
+    }
+}
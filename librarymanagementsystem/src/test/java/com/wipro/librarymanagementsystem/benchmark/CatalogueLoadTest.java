@@ -0,0 +1,170 @@
+package com.wipro.librarymanagementsystem.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The catalogue reads of the servlet API against the reactive catalogue, each under the same
+// number of concurrent keep-alive connections (10,000 by default). Every connection is one
+// client that sends its requests one after the other; the report gives throughput, latency
+// percentiles, failures and the application's live threads before and at most during the run.
+// The reactive stack goes first, so that idle Tomcat workers left from the servlet run are not
+// counted against it. Runs against a started application with the reactive catalogue switched
+// on (--library.reactive-catalogue.enabled=true), not by surefire:
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+//   java -Dconnections=10000 -Drequests=5 -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+//       com.wipro.librarymanagementsystem.benchmark.CatalogueLoadTest [http://localhost:8083] [http://localhost:8084]
+//
+// Mind the file descriptor limit (ulimit -n) of both processes; each connection takes one on each side.
+public class CatalogueLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // One list, search, genre and availability read each, cycled through by every connection
+    private static final String[] PATHS = {
+            "/api/books/available?page=0&size=20",
+            "/api/books/search?keyword=the",
+            "/api/books/genre/Fiction",
+            "/api/books/genre/Fiction/available",
+    };
+
+    private final String servletUrl;
+    private final String reactiveUrl;
+    private final int connections = Integer.getInteger("connections", 10000);
+    private final int requestsPerConnection = Integer.getInteger("requests", 5);
+
+    CatalogueLoadTest(String servletUrl, String reactiveUrl) {
+        this.servletUrl = servletUrl;
+        this.reactiveUrl = reactiveUrl;
+    }
+
+    public static void main(String[] args) {
+        CatalogueLoadTest test = new CatalogueLoadTest(
+                args.length > 0 ? args[0] : "http://localhost:8083",
+                args.length > 1 ? args[1] : "http://localhost:8084");
+        // Warm up each stack with a few connections, then measure it at full concurrency
+        int warmup = Math.min(200, test.connections);
+        test.run("reactive", test.reactiveUrl, warmup, false);
+        test.run("reactive", test.reactiveUrl, test.connections, true);
+        test.run("servlet", test.servletUrl, warmup, false);
+        test.run("servlet", test.servletUrl, test.connections, true);
+    }
+
+    private void run(String stack, String baseUrl, int clients, boolean report) {
+        ConnectionProvider provider = ConnectionProvider.builder(stack)
+                .maxConnections(clients)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(Duration.ofMinutes(2))
+                .build();
+        HttpClient http = HttpClient.create(provider)
+                .baseUrl(baseUrl)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 30000)
+                .responseTimeout(Duration.ofSeconds(60));
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(clients * requestsPerConnection));
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        ThreadSampler threads = new ThreadSampler(servletUrl);
+        long start = System.nanoTime();
+        Flux.range(0, clients)
+                .flatMap(client -> Flux.range(0, requestsPerConnection)
+                        .concatMap(i -> timed(http, PATHS[(client + i) % PATHS.length], latencies, failures, bytes)), clients)
+                .blockLast();
+        long elapsed = System.nanoTime() - start;
+        threads.stop();
+        provider.disposeLater().block();
+        if (!report) {
+            return;
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        int answered = sorted.size();
+        System.out.printf("%-8s %5d connections, %6d requests in %6.2f s = %7.1f req/s, %6.1f MB; "
+                        + "p50 %8.2f ms, p90 %8.2f ms, p99 %8.2f ms, max %8.2f ms; %d failed; live threads %d -> %d%n",
+                stack, clients, answered, elapsed / 1e9, (answered - failures.get()) / (elapsed / 1e9), bytes.get() / 1e6,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                answered == 0 ? 0 : sorted.get(answered - 1) / 1e6, failures.get(), threads.before, threads.peak);
+    }
+
+    // A failed request (status, connect or timeout) counts as failed and its latency as observed
+    private static Mono<Void> timed(HttpClient http, String path, List<Long> latencies, AtomicInteger failures, AtomicLong bytes) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return http.get().uri(path)
+                    .responseSingle((response, body) -> body.asByteArray()
+                            .defaultIfEmpty(new byte[0])
+                            .doOnNext(content -> {
+                                bytes.addAndGet(content.length);
+                                if (response.status().code() / 100 != 2) {
+                                    failures.incrementAndGet();
+                                }
+                            }))
+                    .onErrorResume(e -> {
+                        failures.incrementAndGet();
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> latencies.add(System.nanoTime() - start))
+                    .then();
+        });
+    }
+
+    // Polls the application's live thread count (actuator metric) while a run is in progress
+    private static class ThreadSampler {
+        private final java.net.http.HttpClient http = java.net.http.HttpClient.newHttpClient();
+        private final HttpRequest request;
+        private final Thread poller;
+        private volatile boolean running = true;
+        private volatile int before = -1;
+        private volatile int peak;
+
+        ThreadSampler(String servletUrl) {
+            request = HttpRequest.newBuilder(URI.create(servletUrl + "/actuator/metrics/jvm.threads.live")).build();
+            poller = new Thread(() -> {
+                while (running) {
+                    try {
+                        String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+                        int live = MAPPER.readTree(body).path("measurements").path(0).path("value").asInt();
+                        if (before < 0) {
+                            before = live;
+                        }
+                        peak = Math.max(peak, live);
+                        Thread.sleep(250);
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Exception e) {
+                        // The servlet side may be too busy to answer; try again on the next tick
+                    }
+                }
+            }, "thread-sampler");
+            poller.setDaemon(true);
+            poller.start();
+        }
+
+        void stop() {
+            running = false;
+            poller.interrupt();
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(quantile * sorted.size()) - 1)) / 1e6;
+    }
+}
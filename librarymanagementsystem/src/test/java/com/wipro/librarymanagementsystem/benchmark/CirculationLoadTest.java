@@ -0,0 +1,262 @@
+package com.wipro.librarymanagementsystem.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-scan latency of kiosk traffic over the REST API (one HTTP/1.1 request per scan, each
+// waiting for the previous answer) against the circulation stream (one WebSocket per kiosk,
+// scans pipelined). Each kiosk is its own premium member with its own books; a round checks
+// the availability of each book, borrows it, extends the loan and returns it. Runs against a
+// started application, not by surefire:
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+//   java -Dkiosks=8 -Drounds=20 -Dbooks=5 -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+//       com.wipro.librarymanagementsystem.benchmark.CirculationLoadTest [http://localhost:8083]
+public class CirculationLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final int kiosks = Integer.getInteger("kiosks", 8);
+    private final int rounds = Integer.getInteger("rounds", 20);
+    private final int booksPerKiosk = Integer.getInteger("books", 5);
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    CirculationLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CirculationLoadTest test = new CirculationLoadTest(args.length > 0 ? args[0] : "http://localhost:8083");
+        // Warm up both paths on a throwaway set of members and books, then measure each on fresh ones
+        test.run("rest", test::restKiosk, Math.max(1, test.rounds / 4), false);
+        test.run("stream", test::streamKiosk, Math.max(1, test.rounds / 4), false);
+        test.run("rest", test::restKiosk, test.rounds, true);
+        test.run("stream", test::streamKiosk, test.rounds, true);
+    }
+
+    private interface Kiosk {
+        void run(long userId, List<Long> bookIds, int rounds, List<Long> latencies, AtomicInteger failures) throws Exception;
+    }
+
+    private void run(String mode, Kiosk kiosk, int rounds, boolean report) throws Exception {
+        String tag = Long.toString(System.nanoTime(), 36);
+        List<Long> userIds = new ArrayList<>();
+        List<List<Long>> bookIds = new ArrayList<>();
+        for (int k = 0; k < kiosks; k++) {
+            userIds.add(createUser(tag + "k" + k));
+            List<Long> books = new ArrayList<>();
+            for (int b = 0; b < booksPerKiosk; b++) {
+                books.add(createBook(tag + "k" + k + "b" + b));
+            }
+            bookIds.add(books);
+        }
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(kiosks);
+        long start = System.nanoTime();
+        List<Future<Object>> done = new ArrayList<>();
+        for (int k = 0; k < kiosks; k++) {
+            long userId = userIds.get(k);
+            List<Long> books = bookIds.get(k);
+            done.add(pool.submit(() -> {
+                kiosk.run(userId, books, rounds, latencies, failures);
+                return null;
+            }));
+        }
+        for (Future<Object> future : done) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        if (!report) {
+            return;
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        // Pipelined scans wait behind each other, so besides send-to-reply latency show the
+        // kiosk time each scan took: how long a kiosk was busy divided by its scans
+        System.out.printf("%-6s %d kiosks, %5d scans in %6.2f s = %7.1f scans/s, %6.2f ms kiosk time per scan; "
+                        + "send to reply p50 %6.2f ms, p90 %6.2f ms, p99 %6.2f ms, max %6.2f ms; %d failed%n",
+                mode, kiosks, sorted.size(), elapsed / 1e9, sorted.size() / (elapsed / 1e9),
+                elapsed / 1e6 * kiosks / sorted.size(),
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted.get(sorted.size() - 1) / 1e6, failures.get());
+    }
+
+    // Today's kiosk: every scan is a request, sent when the previous one has been answered
+    private void restKiosk(long userId, List<Long> bookIds, int rounds, List<Long> latencies, AtomicInteger failures) throws Exception {
+        for (int round = 0; round < rounds; round++) {
+            List<Long> loans = new ArrayList<>();
+            for (long bookId : bookIds) {
+                timed("GET", "/api/books/" + bookId, latencies, failures);
+                JsonNode loan = timed("POST", "/api/borrow/borrow?userId=" + userId + "&bookId=" + bookId, latencies, failures);
+                if (loan != null) {
+                    loans.add(loan.get("id").asLong());
+                }
+            }
+            for (long loanId : loans) {
+                timed("PUT", "/api/borrow/" + loanId + "/extend?additionalDays=7", latencies, failures);
+            }
+            for (long loanId : loans) {
+                timed("PUT", "/api/borrow/return/" + loanId, latencies, failures);
+            }
+        }
+    }
+
+    private JsonNode timed(String method, String path, List<Long> latencies, AtomicInteger failures) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        latencies.add(System.nanoTime() - start);
+        if (response.statusCode() / 100 != 2) {
+            failures.incrementAndGet();
+            return null;
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    // Streaming kiosk: one connection, each phase of the round sent without waiting for replies
+    private void streamKiosk(long userId, List<Long> bookIds, int rounds, List<Long> latencies, AtomicInteger failures) throws Exception {
+        StreamClient client = new StreamClient();
+        WebSocket socket = http.newWebSocketBuilder()
+                .buildAsync(URI.create(baseUrl.replaceFirst("^http", "ws") + "/api/circulation/stream"), client)
+                .get(10, TimeUnit.SECONDS);
+        try {
+            int next = 0;
+            for (int round = 0; round < rounds; round++) {
+                List<CompletableFuture<JsonNode>> borrows = new ArrayList<>();
+                for (long bookId : bookIds) {
+                    client.send(socket, scan(next++, "AVAILABILITY").put("bookId", bookId));
+                    borrows.add(client.send(socket, scan(next++, "BORROW").put("userId", userId).put("bookId", bookId)));
+                }
+                List<Long> loans = new ArrayList<>();
+                for (CompletableFuture<JsonNode> borrow : borrows) {
+                    JsonNode reply = borrow.get(30, TimeUnit.SECONDS);
+                    if (reply.has("borrowRecordId")) {
+                        loans.add(reply.get("borrowRecordId").asLong());
+                    }
+                }
+                List<CompletableFuture<JsonNode>> extensions = new ArrayList<>();
+                for (long loanId : loans) {
+                    extensions.add(client.send(socket, scan(next++, "EXTEND").put("borrowRecordId", loanId).put("additionalDays", 7)));
+                }
+                for (CompletableFuture<JsonNode> extend : extensions) {
+                    extend.get(30, TimeUnit.SECONDS);
+                }
+                List<CompletableFuture<JsonNode>> returns = new ArrayList<>();
+                for (long loanId : loans) {
+                    returns.add(client.send(socket, scan(next++, "RETURN").put("borrowRecordId", loanId)));
+                }
+                for (CompletableFuture<JsonNode> ret : returns) {
+                    ret.get(30, TimeUnit.SECONDS);
+                }
+            }
+            client.awaitAll();
+        } finally {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").get(10, TimeUnit.SECONDS);
+        }
+        latencies.addAll(client.latencies);
+        failures.addAndGet(client.failures.get());
+    }
+
+    private static ObjectNode scan(int id, String op) {
+        return MAPPER.createObjectNode().put("id", Integer.toString(id)).put("op", op);
+    }
+
+    // Matches replies to scans by id and times each one from send to reply
+    private static class StreamClient implements WebSocket.Listener {
+        private final Map<String, CompletableFuture<JsonNode>> waiting = new ConcurrentHashMap<>();
+        private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger failures = new AtomicInteger();
+        private final StringBuilder partial = new StringBuilder();
+
+        CompletableFuture<JsonNode> send(WebSocket socket, ObjectNode scan) throws Exception {
+            String id = scan.get("id").asText();
+            CompletableFuture<JsonNode> reply = new CompletableFuture<>();
+            waiting.put(id, reply);
+            sentAt.put(id, System.nanoTime());
+            socket.sendText(MAPPER.writeValueAsString(scan), true).get(10, TimeUnit.SECONDS);
+            return reply;
+        }
+
+        void awaitAll() throws Exception {
+            CompletableFuture.allOf(waiting.values().toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                try {
+                    JsonNode reply = MAPPER.readTree(partial.toString());
+                    String id = reply.path("id").asText();
+                    latencies.add(System.nanoTime() - sentAt.remove(id));
+                    if (!"OK".equals(reply.path("status").asText())) {
+                        failures.incrementAndGet();
+                    }
+                    waiting.get(id).complete(reply);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+                partial.setLength(0);
+            }
+            socket.request(1);
+            return null;
+        }
+    }
+
+    private long createUser(String name) throws Exception {
+        ObjectNode user = MAPPER.createObjectNode()
+                .put("username", "lt" + name).put("email", "lt" + name + "@example.com")
+                .put("firstName", "Load").put("lastName", "Test").put("membershipType", "PREMIUM");
+        return post("/api/users", user);
+    }
+
+    private long createBook(String name) throws Exception {
+        ObjectNode book = MAPPER.createObjectNode()
+                .put("title", "Load test " + name).put("author", "Load Test").put("isbn", name)
+                .put("totalCopies", 1).put("availableCopies", 1);
+        return post("/api/books", book);
+    }
+
+    private long post(String path, ObjectNode body) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("POST " + path + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return MAPPER.readTree(response.body()).get("id").asLong();
+    }
+
+    private static double percentile(List<Long> sorted, double quantile) {
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(quantile * sorted.size()) - 1)) / 1e6;
+    }
+}
@@ -0,0 +1,186 @@
+package com.wipro.librarymanagementsystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.json.ListingJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Bytes allocated per serialized record: ObjectMapper (what MappingJackson2HttpMessageConverter
+// does for List<Book> / List<BorrowRecord>) against ListingJsonWriter. Not run by surefire:
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+//   java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+//       com.wipro.librarymanagementsystem.benchmark.ListingSerializationBenchmark
+//
+// main first checks that both paths produce the same JSON, then runs JMH with the GC profiler.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingSerializationBenchmark {
+
+    static final int RECORDS = 100;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter bookWriter;
+    private ObjectWriter recordWriter;
+    private List<Book> books;
+    private List<BorrowRecord> records;
+    // Discards output and, unlike OutputStream.nullOutputStream(), survives being closed by the generators
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the application ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+        bookWriter = objectMapper.writerFor(new TypeReference<List<Book>>() { });
+        recordWriter = objectMapper.writerFor(new TypeReference<List<BorrowRecord>>() { });
+
+        records = sampleBorrowRecords(RECORDS);
+        books = records.stream().map(BorrowRecord::getBook).toList();
+    }
+
+    @Benchmark
+    public void jacksonBooks() throws IOException {
+        bookWriter.writeValue(sink, books);
+    }
+
+    @Benchmark
+    public void listingWriterBooks() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(sink)) {
+            new ListingJsonWriter(generator).writeBooks(books);
+        }
+    }
+
+    @Benchmark
+    public void jacksonBorrowRecords() throws IOException {
+        recordWriter.writeValue(sink, records);
+    }
+
+    @Benchmark
+    public void listingWriterBorrowRecords() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(sink)) {
+            new ListingJsonWriter(generator).writeBorrowRecords(records);
+        }
+    }
+
+    // Loans with distinct users and books; a third returned, some with a fine. Shared with WireFormatBenchmark
+    static List<BorrowRecord> sampleBorrowRecords(int count) {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000);
+        List<BorrowRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = new Book("Title " + i, "Author " + (i % 17), "97800000" + (10000 + i));
+            book.setId((long) i + 1);
+            book.setGenre(i % 5 == 0 ? null : "Genre " + (i % 7));
+            book.setPublicationYear(1900 + i);
+            book.setTotalCopies(3);
+            book.setAvailableCopies(i % 4);
+            book.setCreatedAt(base.minusDays(i));
+            book.setUpdatedAt(base.minusSeconds(i * 37L));
+
+            User user = new User("user" + i, "user" + i + "@example.com", "First" + i, "Last" + i);
+            user.setId((long) i + 1);
+            user.setPhone("555-01" + i);
+            user.setAddress(i + " Main St, City, State");
+            user.setCreatedAt(base.minusDays(400 + i));
+            user.setUpdatedAt(base.minusDays(i).withNano(0));
+
+            BorrowRecord record = new BorrowRecord(user, book, base.plusDays(14 - i));
+            record.setId((long) i + 1);
+            record.setBorrowDate(base.minusHours(i));
+            if (i % 3 == 0) {
+                record.setReturnDate(base.plusDays(i % 20));
+                record.setStatus(BorrowRecord.BorrowStatus.RETURNED);
+                record.setFineAmount(i % 2 == 0 ? new BigDecimal("0.00") : new BigDecimal("1.50").multiply(BigDecimal.valueOf(i)));
+            }
+            record.setCreatedAt(base.minusHours(i));
+            record.setUpdatedAt(base.minusMinutes(i));
+            records.add(record);
+        }
+        return records;
+    }
+
+    public static void main(String[] args) throws Exception {
+        checkSameOutput();
+        List<RunResult> results = new ArrayList<>(new Runner(new OptionsBuilder()
+                .include(ListingSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run());
+        System.out.println();
+        for (RunResult result : results) {
+            String name = result.getParams().getBenchmark();
+            Result<?> allocated = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            System.out.printf("%-28s %8.1f us/op %10.1f bytes/record%n",
+                    name.substring(name.lastIndexOf('.') + 1),
+                    result.getPrimaryResult().getScore(),
+                    allocated.getScore() / RECORDS);
+        }
+    }
+
+    private static void checkSameOutput() throws IOException {
+        ListingSerializationBenchmark benchmark = new ListingSerializationBenchmark();
+        benchmark.setUp();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = benchmark.objectMapper.getFactory().createGenerator(out)) {
+            ListingJsonWriter writer = new ListingJsonWriter(generator);
+            writer.writeBooks(benchmark.books);
+            writer.writeBorrowRecords(benchmark.records);
+        }
+        // Compared as trees, so property order (fixed by @JsonPropertyOrder on the entities) does not matter
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        benchmark.bookWriter.writeValue(expected, benchmark.books);
+        benchmark.recordWriter.writeValue(expected, benchmark.records);
+        MappingIterator<JsonNode> actualNodes = benchmark.objectMapper.readerFor(JsonNode.class).readValues(out.toByteArray());
+        MappingIterator<JsonNode> expectedNodes = benchmark.objectMapper.readerFor(JsonNode.class).readValues(expected.toByteArray());
+        if (!actualNodes.readAll().equals(expectedNodes.readAll())) {
+            throw new IllegalStateException("ListingJsonWriter output differs from Jackson:\n" + expected + "\n" + out);
+        }
+        System.out.println("Jackson and ListingJsonWriter produce the same JSON (" + out.size() + " bytes for "
+                + RECORDS + " books and " + RECORDS + " loans)");
+    }
+}
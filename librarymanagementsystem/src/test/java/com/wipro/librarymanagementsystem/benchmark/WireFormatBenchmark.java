@@ -0,0 +1,162 @@
+package com.wipro.librarymanagementsystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.protobuf.ProtobufSchemas;
+import com.wipro.librarymanagementsystem.protobuf.ProtobufSchemas.BorrowRecordList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Payload size and encode/decode time of a page of loans (each with its user and book) as
+// JSON, CBOR (application/cbor) and protobuf (application/x-protobuf), using the mappers the
+// converters use. Not run by surefire:
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+//   java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+//       com.wipro.librarymanagementsystem.benchmark.WireFormatBenchmark
+//
+// main first prints the payload sizes and checks that each format decodes back to the same loans.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    static final int RECORDS = 100;
+
+    private List<BorrowRecord> records;
+    private ObjectWriter jsonWriter;
+    private ObjectReader jsonReader;
+    private ObjectWriter cborWriter;
+    private ObjectReader cborReader;
+    private ProtobufSchemas protobufSchemas;
+    private ObjectReader protobufReader;
+    private byte[] json;
+    private byte[] cbor;
+    private byte[] protobuf;
+
+    @Setup
+    public void setUp() throws IOException {
+        records = ListingSerializationBenchmark.sampleBorrowRecords(RECORDS);
+        TypeReference<List<BorrowRecord>> listType = new TypeReference<>() { };
+
+        ObjectMapper jsonMapper = builder().build();
+        jsonWriter = jsonMapper.writerFor(listType);
+        jsonReader = jsonMapper.readerFor(listType);
+        ObjectMapper cborMapper = builder().factory(new CBORFactory()).build();
+        cborWriter = cborMapper.writerFor(listType);
+        cborReader = cborMapper.readerFor(listType);
+        protobufSchemas = new ProtobufSchemas(builder());
+        protobufReader = protobufSchemas.getMapper().readerFor(BorrowRecordList.class)
+                .with(protobufSchemas.getSchema("BorrowRecordList"));
+
+        json = jsonWriter.writeValueAsBytes(records);
+        cbor = cborWriter.writeValueAsBytes(records);
+        protobuf = encodeProtobuf();
+    }
+
+    // Same defaults Spring Boot applies to the application ObjectMapper
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return jsonWriter.writeValueAsBytes(records);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+        return cborWriter.writeValueAsBytes(records);
+    }
+
+    @Benchmark
+    public byte[] encodeProtobuf() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        protobufSchemas.write(records, BorrowRecordList.class, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public List<BorrowRecord> decodeJson() throws IOException {
+        return jsonReader.readValue(json);
+    }
+
+    @Benchmark
+    public List<BorrowRecord> decodeCbor() throws IOException {
+        return cborReader.readValue(cbor);
+    }
+
+    // ProtobufParser.nextFieldName() does not skip a string it has not read yet, which is what
+    // databind leaves behind for output-only properties (fullName, overdue...); going through
+    // nextToken() skips it
+    @Benchmark
+    public List<BorrowRecord> decodeProtobuf() throws IOException {
+        JsonParser parser = new JsonParserDelegate(protobufReader.createParser(protobuf)) {
+            @Override
+            public String nextFieldName() throws IOException {
+                return nextToken() == JsonToken.FIELD_NAME ? currentName() : null;
+            }
+        };
+        return protobufReader.<BorrowRecordList>readValue(parser).items();
+    }
+
+    public static void main(String[] args) throws Exception {
+        WireFormatBenchmark benchmark = new WireFormatBenchmark();
+        benchmark.setUp();
+        benchmark.checkRoundTrip();
+        System.out.printf("%d loans: json %d bytes, cbor %d bytes (%.0f%%), protobuf %d bytes (%.0f%%)%n",
+                RECORDS, benchmark.json.length,
+                benchmark.cbor.length, 100.0 * benchmark.cbor.length / benchmark.json.length,
+                benchmark.protobuf.length, 100.0 * benchmark.protobuf.length / benchmark.json.length);
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // Every format must decode to the same loans; numbers are compared by value because
+    // protobuf carries fine amounts as doubles, which drops the BigDecimal scale (0.00 -> 0.0)
+    private void checkRoundTrip() throws IOException {
+        ObjectMapper mapper = builder().build();
+        JsonNode expected = mapper.valueToTree(records);
+        Comparator<JsonNode> sameValue = (a, b) -> a.isNumber() && b.isNumber()
+                ? a.decimalValue().compareTo(b.decimalValue())
+                : a.equals(b) ? 0 : 1;
+        for (List<BorrowRecord> decoded : List.of(decodeJson(), decodeCbor(), decodeProtobuf())) {
+            JsonNode actual = mapper.valueToTree(decoded);
+            if (!expected.equals(sameValue, actual)) {
+                throw new IllegalStateException("Round trip changed the loans:\n" + expected + "\n" + actual);
+            }
+        }
+    }
+}
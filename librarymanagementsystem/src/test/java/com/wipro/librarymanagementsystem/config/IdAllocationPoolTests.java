@@ -0,0 +1,101 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// More inserting transactions than the shared pool has connections: each holds one connection
+// and needs a block of ids, which the table-backed generator allocates on a second connection.
+// From the shared pool that deadlocked every writer until Hikari's 30 s connection timeout.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class IdAllocationPoolTests {
+
+	// Enough rows per transaction that every writer allocates at least one block of ids
+	private static final int ROWS_PER_WRITER = PersistenceTuningConfig.ID_ALLOCATION_SIZE + 10;
+
+	// Well below the connection timeout, far above these inserts on an idle machine
+	private static final long WRITE_BUDGET_MS = 15000;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void idGeneratorHasItsOwnPool() throws Exception {
+		IdAllocationDataSource idAllocation = assertInstanceOfIdAllocation(dataSource);
+		assertEquals("id-allocation", idAllocation.getIdPool().getPoolName());
+		assertTrue(dataSource.unwrap(HikariDataSource.class) != idAllocation.getIdPool());
+	}
+
+	@Test
+	void moreWritersThanConnectionsDoNotStall() throws Exception {
+		int writers = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() + 6;
+		String tag = Long.toString(System.nanoTime(), 36);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<Book>>> inserts = new ArrayList<>();
+		List<Book> inserted = new ArrayList<>();
+		try {
+			for (int w = 0; w < writers; w++) {
+				int writer = w;
+				inserts.add(pool.submit(() -> {
+					start.await();
+					return transactionTemplate.execute(status -> {
+						List<Book> books = new ArrayList<>();
+						for (int i = 0; i < ROWS_PER_WRITER; i++) {
+							Book book = new Book("Id allocation " + writer + "-" + i, "Test", "ia" + tag + writer + "-" + i);
+							book.setTotalCopies(1);
+							book.setAvailableCopies(1);
+							books.add(bookRepository.save(book));
+						}
+						bookRepository.flush();
+						return books;
+					});
+				}));
+			}
+			long begin = System.nanoTime();
+			start.countDown();
+			for (Future<List<Book>> insert : inserts) {
+				inserted.addAll(insert.get(60, TimeUnit.SECONDS));
+			}
+			long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+			assertTrue(millis <= WRITE_BUDGET_MS, writers + " concurrent writers took " + millis + " ms");
+			assertEquals(writers * ROWS_PER_WRITER, inserted.stream().map(Book::getId).distinct().count());
+		} finally {
+			pool.shutdownNow();
+			bookRepository.deleteAll(inserted);
+		}
+	}
+
+	private static IdAllocationDataSource assertInstanceOfIdAllocation(DataSource dataSource) {
+		assertTrue(dataSource instanceof IdAllocationDataSource,
+				"Data source " + dataSource.getClass().getName() + " does not route id allocation to its own pool");
+		return (IdAllocationDataSource) dataSource;
+	}
+}
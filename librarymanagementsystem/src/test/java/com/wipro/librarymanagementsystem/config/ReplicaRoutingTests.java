@@ -0,0 +1,130 @@
+package com.wipro.librarymanagementsystem.config;
+
+import com.wipro.librarymanagementsystem.service.ReadYourWritesTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Read-only transactions go to a replica and everything else to the primary. The replica is the
+// primary's in-memory database opened through a second pool whose connections set @route, so it
+// has the schema and data of a caught-up replica and a statement can tell which pool served it.
+// A user who has just written reads from the primary until their pin expires.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:replica_routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"library.datasource.replicas.enabled=true",
+		"library.datasource.replicas.urls=jdbc:h2:mem:replica_routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;INIT=SET @route = 'replica'",
+		// H2 has no replication status; an empty lag query counts the replica as caught up
+		"library.datasource.replicas.lag-query="
+})
+@ActiveProfiles("embedded")
+class ReplicaRoutingTests {
+
+	private static final String ROUTE = "SELECT @route";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ReplicaRoutingDataSource routingDataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ReadYourWritesTracker readYourWritesTracker;
+
+	@AfterEach
+	void tearDown() {
+		routingDataSource.getReplicas().forEach(replica -> replica.setHealthy(true));
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		assertEquals("replica", route(true));
+	}
+
+	@Test
+	void writeTransactionsUseThePrimary() {
+		assertNull(route(false));
+		TransactionTemplate writeTemplate = new TransactionTemplate(transactionManager);
+		String written = writeTemplate.execute(status -> {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			jdbcTemplate.update("UPDATE books SET updated_at = updated_at WHERE id = 2");
+			return jdbcTemplate.queryForObject(ROUTE, String.class);
+		});
+		assertNull(written);
+	}
+
+	@Test
+	void forcedPrimaryReadsUseThePrimary() {
+		assertNull(DataSourceRouting.onPrimary(() -> route(true)));
+	}
+
+	@Test
+	void readOnlyTransactionsFallBackToThePrimaryWithoutAHealthyReplica() {
+		routingDataSource.getReplicas().forEach(replica -> replica.setHealthy(false));
+		assertNull(route(true));
+	}
+
+	@Test
+	void replicaWhoseLagCannotBeReadLeavesRotation() {
+		// H2 does not know SHOW REPLICA STATUS, like a MySQL user without the REPLICATION CLIENT grant
+		new ReplicaHealthMonitor(routingDataSource, "SHOW REPLICA STATUS", 5).checkReplicas();
+		routingDataSource.getReplicas().forEach(replica -> assertFalse(replica.isHealthy()));
+		assertNull(route(true));
+	}
+
+	@Test
+	void readsOfAUserWhoJustWroteUseThePrimary() {
+		long writer = System.nanoTime();
+		long other = writer + 1;
+		readYourWritesTracker.pin(writer);
+
+		assertTrue(readYourWritesTracker.isPinned(writer));
+		assertNull(readYourWritesTracker.read(writer, () -> route(true)));
+		assertFalse(readYourWritesTracker.isPinned(other));
+		assertEquals("replica", readYourWritesTracker.read(other, () -> route(true)));
+		assertEquals("replica", readYourWritesTracker.read(null, () -> route(true)));
+	}
+
+	@Test
+	void pinExpiresAfterTheWindowAndIsEvicted() throws InterruptedException {
+		long writer = System.nanoTime();
+		Object window = ReflectionTestUtils.getField(readYourWritesTracker, "windowMillis");
+		ReflectionTestUtils.setField(readYourWritesTracker, "windowMillis", 50L);
+		try {
+			readYourWritesTracker.pin(writer);
+			assertNull(readYourWritesTracker.read(writer, () -> route(true)));
+			Thread.sleep(100);
+
+			assertFalse(readYourWritesTracker.isPinned(writer));
+			assertEquals("replica", readYourWritesTracker.read(writer, () -> route(true)));
+			readYourWritesTracker.evictExpired();
+			@SuppressWarnings("unchecked")
+			Map<Long, Long> pinnedUntil = (Map<Long, Long>) ReflectionTestUtils.getField(readYourWritesTracker, "pinnedUntil");
+			assertFalse(pinnedUntil.containsKey(writer));
+		} finally {
+			ReflectionTestUtils.setField(readYourWritesTracker, "windowMillis", window);
+		}
+	}
+
+	private String route(boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(readOnly);
+		return template.execute(status -> new JdbcTemplate(dataSource).queryForObject(ROUTE, String.class));
+	}
+}
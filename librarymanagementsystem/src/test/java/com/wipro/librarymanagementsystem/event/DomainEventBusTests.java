@@ -0,0 +1,94 @@
+package com.wipro.librarymanagementsystem.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A consumer that misses an event because its partition was full is rebuilt, but only once
+// the events queued ahead of the dropped one have reached it
+class DomainEventBusTests {
+
+	private DomainEventBus bus;
+	private final CountDownLatch handlerEntered = new CountDownLatch(1);
+	private final CountDownLatch releaseHandler = new CountDownLatch(1);
+	private final AtomicInteger handled = new AtomicInteger();
+	private final AtomicInteger resyncs = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		bus = new DomainEventBus();
+		ReflectionTestUtils.setField(bus, "partitionCount", 1);
+		ReflectionTestUtils.setField(bus, "bufferSize", 1);
+		ReflectionTestUtils.setField(bus, "meterRegistry", new SimpleMeterRegistry());
+		bus.start();
+		bus.subscribe("slow", TestEvent.class, event -> {
+			handlerEntered.countDown();
+			try {
+				releaseHandler.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			handled.incrementAndGet();
+		});
+		bus.onDropped("slow", resyncs::incrementAndGet);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		releaseHandler.countDown();
+		bus.shutdown();
+	}
+
+	@Test
+	void droppedEventResyncsItsConsumerAfterTheBacklogDrains() throws Exception {
+		bus.publish(new TestEvent(1L));
+		assertTrue(handlerEntered.await(5, TimeUnit.SECONDS));
+		// One in flight, one queued, the third finds the partition full
+		bus.publish(new TestEvent(2L));
+		bus.publish(new TestEvent(3L));
+
+		bus.resyncStaleConsumers();
+		assertEquals(0, resyncs.get(), "Resynced while older events were still queued");
+
+		releaseHandler.countDown();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (resyncs.get() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+			bus.resyncStaleConsumers();
+		}
+		assertEquals(2, handled.get());
+		assertEquals(1, resyncs.get());
+
+		bus.resyncStaleConsumers();
+		assertEquals(1, resyncs.get(), "A consumer is resynced once per drop");
+	}
+
+	@Test
+	void fullPartitionDropsWithoutBlockingThePublisher() throws Exception {
+		bus.publish(new TestEvent(1L));
+		assertTrue(handlerEntered.await(5, TimeUnit.SECONDS));
+		bus.publish(new TestEvent(2L));
+
+		long start = System.nanoTime();
+		bus.publish(new TestEvent(3L));
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue(millis < 500, "Publishing into a full partition waited " + millis + " ms");
+	}
+
+	private record TestEvent(Long aggregateId) implements DomainEvent {
+		@Override
+		public LocalDateTime occurredAt() {
+			return LocalDateTime.now();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.wipro.librarymanagementsystem.journal;
+
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.JournalCheckpoint;
+import com.wipro.librarymanagementsystem.repository.JournalCheckpointRepository;
+import com.wipro.librarymanagementsystem.service.BorrowRecordService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Projection of the journal into the database: replay resumes after the checkpoint, a
+// rejected command is isolated from the rest of its batch, and an outage retries the batch
+class LoanJournalApplierTests {
+
+	private static final String CHECKPOINT = "loan-journal";
+
+	@TempDir
+	Path directory;
+
+	private LoanJournal journal;
+	private BorrowRecordService borrowRecordService;
+	private JournalCheckpointRepository checkpointRepository;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		journal = new LoanJournal();
+		ReflectionTestUtils.setField(journal, "directory", directory);
+		ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+		ReflectionTestUtils.setField(journal, "ackTimeoutMillis", 5000L);
+		ReflectionTestUtils.setField(journal, "meterRegistry", new SimpleMeterRegistry());
+		journal.open();
+		borrowRecordService = mock(BorrowRecordService.class);
+		checkpointRepository = mock(JournalCheckpointRepository.class);
+		when(borrowRecordService.borrowBook(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+			BorrowRecord record = new BorrowRecord();
+			record.setId(invocation.getArgument(1, Long.class) + 1000);
+			return record;
+		});
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		journal.close();
+	}
+
+	@Test
+	void replayStartsAfterTheCheckpoint() {
+		for (long bookId = 11; bookId <= 14; bookId++) {
+			journal.appendDurably(LoanCommand.Type.BORROW, 1, bookId, 0);
+		}
+		when(checkpointRepository.findById(CHECKPOINT)).thenReturn(Optional.of(new JournalCheckpoint(CHECKPOINT, 2)));
+
+		LoanJournalApplier applier = applier();
+		applier.replay();
+
+		verify(borrowRecordService, never()).borrowBook(anyLong(), eq(11L), any());
+		verify(borrowRecordService, never()).borrowBook(anyLong(), eq(12L), any());
+		verify(borrowRecordService).borrowBook(anyLong(), eq(13L), any());
+		verify(borrowRecordService).borrowBook(anyLong(), eq(14L), any());
+		verify(checkpointRepository).advance(eq(CHECKPOINT), eq(4L), any());
+		assertEquals(4, applier.getAppliedSequence());
+		assertEquals(0, applier.getLagCommands());
+	}
+
+	@Test
+	void rejectedCommandIsIsolatedFromItsBatch() {
+		for (long bookId = 21; bookId <= 23; bookId++) {
+			journal.appendDurably(LoanCommand.Type.BORROW, 1, bookId, 0);
+		}
+		when(checkpointRepository.findById(CHECKPOINT)).thenReturn(Optional.empty());
+		when(borrowRecordService.borrowBook(anyLong(), eq(22L), any()))
+				.thenThrow(new RuntimeException("Book is not available for borrowing"));
+
+		LoanJournalApplier applier = applier();
+		applier.apply();
+
+		assertEquals("APPLIED", applier.getOutcome(1).status());
+		assertEquals(1021L, applier.getOutcome(1).borrowRecordId());
+		assertEquals("REJECTED", applier.getOutcome(2).status());
+		assertEquals("Book is not available for borrowing", applier.getOutcome(2).error());
+		assertEquals("APPLIED", applier.getOutcome(3).status());
+		// The rejection moves the checkpoint past it, so it is not retried
+		verify(checkpointRepository).advance(eq(CHECKPOINT), eq(2L), any());
+		assertEquals(3, applier.getAppliedSequence());
+	}
+
+	@Test
+	void databaseOutageRetriesTheSameCommands() {
+		journal.appendDurably(LoanCommand.Type.BORROW, 1, 31, 0);
+		journal.appendDurably(LoanCommand.Type.BORROW, 1, 32, 0);
+		when(checkpointRepository.findById(CHECKPOINT)).thenReturn(Optional.empty());
+		when(borrowRecordService.borrowBook(anyLong(), eq(32L), any()))
+				.thenThrow(new TransientDataAccessResourceException("Connection is not available"));
+
+		LoanJournalApplier applier = applier();
+		applier.apply();
+		assertEquals(0, applier.getAppliedSequence());
+		assertEquals("PENDING", applier.getOutcome(1).status());
+
+		reset(borrowRecordService);
+		when(borrowRecordService.borrowBook(anyLong(), anyLong(), any())).thenReturn(new BorrowRecord());
+		applier.apply();
+		assertEquals(2, applier.getAppliedSequence());
+		verify(borrowRecordService).borrowBook(anyLong(), eq(31L), any());
+		verify(borrowRecordService).borrowBook(anyLong(), eq(32L), any());
+	}
+
+	private LoanJournalApplier applier() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		LoanJournalApplier applier = new LoanJournalApplier(transactionManager);
+		ReflectionTestUtils.setField(applier, "batchSize", 200);
+		ReflectionTestUtils.setField(applier, "maxBatchesPerRun", 50);
+		ReflectionTestUtils.setField(applier, "outcomesRetained", 100);
+		ReflectionTestUtils.setField(applier, "journal", journal);
+		ReflectionTestUtils.setField(applier, "borrowRecordService", borrowRecordService);
+		ReflectionTestUtils.setField(applier, "checkpointRepository", checkpointRepository);
+		ReflectionTestUtils.setField(applier, "meterRegistry", new SimpleMeterRegistry());
+		applier.start();
+		return applier;
+	}
+}
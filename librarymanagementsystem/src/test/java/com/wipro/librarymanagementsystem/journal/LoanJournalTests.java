@@ -0,0 +1,140 @@
+package com.wipro.librarymanagementsystem.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Recovery of the segment files after a crash: a torn record and everything after it is
+// discarded, and the journal carries on from the last intact sequence
+class LoanJournalTests {
+
+	// Length and CRC32 header plus the command body
+	private static final int RECORD_SIZE = 4 + 4 + 41;
+
+	@TempDir
+	Path directory;
+
+	@TempDir
+	Path otherDirectory;
+
+	private final List<LoanJournal> opened = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		for (LoanJournal journal : opened) {
+			journal.close();
+		}
+	}
+
+	@Test
+	void tornTailIsDiscardedAndItsSequenceReused() throws Exception {
+		LoanJournal journal = open(directory);
+		for (int i = 1; i <= 3; i++) {
+			assertTrue(journal.appendDurably(LoanCommand.Type.BORROW, 1, i, 0).durable());
+		}
+		close(journal);
+		corruptRecord(onlySegment(directory), 3);
+
+		LoanJournal reopened = open(directory);
+		assertEquals(2, reopened.getLastSequence());
+		assertEquals(List.of(1L, 2L), sequences(reopened.readAfter(0, 10)));
+		assertEquals(3, reopened.appendDurably(LoanCommand.Type.RETURN, 0, 0, 7).sequence());
+		assertEquals(LoanCommand.Type.RETURN, reopened.readAfter(2, 10).get(0).type());
+	}
+
+	@Test
+	void segmentAfterATornSegmentIsDiscarded() throws Exception {
+		LoanJournal journal = open(directory);
+		for (int i = 1; i <= 5; i++) {
+			journal.appendDurably(LoanCommand.Type.BORROW, 1, i, 0);
+		}
+		close(journal);
+		corruptRecord(onlySegment(directory), 5);
+
+		// A crash right after a roll: the next segment reached the disk, the tail of this one did not
+		LoanJournal next = open(otherDirectory);
+		next.skipTo(5);
+		next.appendDurably(LoanCommand.Type.BORROW, 2, 6, 0);
+		close(next);
+		Path nextSegment = onlySegment(otherDirectory);
+		Files.copy(nextSegment, directory.resolve(nextSegment.getFileName()));
+
+		LoanJournal reopened = open(directory);
+		assertEquals(4, reopened.getLastSequence());
+		assertEquals(List.of(1L, 2L, 3L, 4L), sequences(reopened.readAfter(0, 100)));
+		assertEquals(1, reopened.segmentCount());
+		assertTrue(Files.notExists(directory.resolve(nextSegment.getFileName())));
+	}
+
+	@Test
+	void recordsDiscardedByAFailedSyncAreNotRecovered() throws Exception {
+		LoanJournal journal = open(directory);
+		for (int i = 1; i <= 4; i++) {
+			journal.appendDurably(LoanCommand.Type.BORROW, 1, i, 0);
+		}
+		// What the flusher does when forcing a group fails: 3 and 4 were reported as failed
+		synchronized (journal) {
+			ReflectionTestUtils.setField(journal, "failure", "java.io.IOException: test");
+			ReflectionTestUtils.setField(journal, "durableSequence", 2L);
+			ReflectionTestUtils.invokeMethod(journal, "discardAfter", 2L);
+		}
+		assertTrue(journal.isDiscarded(3));
+		close(journal);
+
+		LoanJournal reopened = open(directory);
+		assertEquals(2, reopened.getLastSequence());
+		assertEquals(List.of(1L, 2L), sequences(reopened.readAfter(0, 10)));
+	}
+
+	private LoanJournal open(Path path) throws IOException {
+		LoanJournal journal = new LoanJournal();
+		ReflectionTestUtils.setField(journal, "directory", path);
+		ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+		ReflectionTestUtils.setField(journal, "ackTimeoutMillis", 5000L);
+		ReflectionTestUtils.setField(journal, "meterRegistry", new SimpleMeterRegistry());
+		journal.open();
+		opened.add(journal);
+		return journal;
+	}
+
+	private void close(LoanJournal journal) throws InterruptedException {
+		journal.close();
+		opened.remove(journal);
+	}
+
+	private static Path onlySegment(Path path) throws IOException {
+		try (Stream<Path> files = Files.list(path)) {
+			List<Path> segments = files.toList();
+			assertEquals(1, segments.size());
+			return segments.get(0);
+		}
+	}
+
+	// Flip a byte in the body of the record with the given 1-based position, so its checksum fails
+	private static void corruptRecord(Path segment, int position) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			long offset = (long) (position - 1) * RECORD_SIZE + 20;
+			file.seek(offset);
+			int value = file.read();
+			file.seek(offset);
+			file.write(value ^ 0xFF);
+		}
+	}
+
+	private static List<Long> sequences(List<LoanCommand> commands) {
+		return commands.stream().map(LoanCommand::sequence).toList();
+	}
+}
@@ -0,0 +1,151 @@
+package com.wipro.librarymanagementsystem.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The hand-written listing writer against the application's ObjectMapper, compared as JSON
+// trees and field order: books and loans with every field set, with nulls, with zero and
+// non-zero fines of several scales, fractional seconds, escaped and overlong strings, and
+// loans that are overdue, returned or missing their user and book
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class ListingJsonWriterTests {
+
+	private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 9, 30, 0);
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void booksMatchJackson() throws IOException {
+		Book full = book(1L, "Dune", "Frank Herbert", "9780441013593");
+		full.setGenre("Science \"Fiction\" é\t☃");
+		full.setPublicationYear(1965);
+		full.setTotalCopies(4);
+		full.setAvailableCopies(1);
+		full.setCreatedAt(CREATED.withNano(120_000_000));
+		full.setUpdatedAt(CREATED.plusDays(2).withNano(1));
+
+		Book sparse = new Book();
+		sparse.setCreatedAt(null);
+		sparse.setUpdatedAt(null);
+
+		Book unavailable = book(3L, "Out", "Nobody", "0000000000");
+		unavailable.setTotalCopies(1);
+		unavailable.setAvailableCopies(0);
+		unavailable.setCreatedAt(LocalDateTime.of(1, 1, 1, 0, 0));
+		unavailable.setUpdatedAt(LocalDateTime.of(12_000, 1, 1, 0, 0, 59));
+
+		List<Book> books = Arrays.asList(full, sparse, unavailable);
+		assertSameJson(objectMapper.writeValueAsString(books), write(writer -> writer.writeBooks(books)));
+	}
+
+	@Test
+	void borrowRecordsMatchJackson() throws IOException {
+		User member = new User("jdoe", "jdoe@example.com", "Jane", "Doe");
+		member.setId(7L);
+		member.setPhone("+1 555 0100");
+		member.setAddress("1 Library Way\nSpringfield");
+		member.setMembershipType(User.MembershipType.PREMIUM);
+		member.setIsActive(true);
+		member.setCreatedAt(CREATED);
+		member.setUpdatedAt(CREATED.withNano(999_999_999));
+
+		User unnamed = new User("anon", "anon@example.com", null, "Smith");
+		unnamed.setId(8L);
+		unnamed.setIsActive(null);
+
+		User longName = new User("long", "long@example.com", "A".repeat(200), "B".repeat(200));
+		longName.setId(9L);
+
+		Book book = book(1L, "Dune", "Frank Herbert", "9780441013593");
+		book.setTotalCopies(2);
+		book.setAvailableCopies(1);
+
+		BorrowRecord overdue = loan(100L, member, book, CREATED.minusDays(30), CREATED.minusDays(16), null);
+		overdue.setDueDate(LocalDateTime.now().minusDays(5).withNano(0));
+
+		BorrowRecord returnedWithFine = loan(101L, unnamed, book, CREATED.minusDays(20), CREATED.minusDays(6),
+				CREATED.minusDays(1).withNano(500_000));
+		returnedWithFine.setStatus(BorrowRecord.BorrowStatus.RETURNED);
+		returnedWithFine.setFineAmount(new BigDecimal("3.50"));
+		returnedWithFine.setNotes("Spine \"damaged\"");
+
+		BorrowRecord zeroScales = loan(102L, longName, book, CREATED, CREATED.plusDays(14), null);
+		zeroScales.setFineAmount(new BigDecimal("0.00"));
+		zeroScales.setDueDate(LocalDateTime.now().plusDays(3).withNano(0));
+
+		List<BorrowRecord> records = new ArrayList<>(List.of(overdue, returnedWithFine, zeroScales));
+		for (String fine : new String[] {"0", "0.0", "0.0000000", "0E+2", "-1.25", "1E+3", "12345678.90"}) {
+			BorrowRecord record = loan(103L, member, book, CREATED, CREATED.plusDays(14), CREATED.plusDays(15));
+			record.setStatus(BorrowRecord.BorrowStatus.RETURNED);
+			record.setFineAmount(new BigDecimal(fine));
+			records.add(record);
+		}
+
+		BorrowRecord orphan = new BorrowRecord();
+		orphan.setStatus(BorrowRecord.BorrowStatus.OVERDUE);
+		orphan.setFineAmount(null);
+		orphan.setDueDate(LocalDateTime.now().plusDays(1).withNano(0));
+		records.add(orphan);
+
+		assertSameJson(objectMapper.writeValueAsString(records), write(writer -> writer.writeBorrowRecords(records)));
+	}
+
+	// Equal trees, with the object fields in the same order
+	private void assertSameJson(String expected, String actual) throws IOException {
+		JsonNode expectedTree = objectMapper.readTree(expected);
+		JsonNode actualTree = objectMapper.readTree(actual);
+		assertEquals(expectedTree, actualTree, actual);
+		assertEquals(expectedTree.toString(), actualTree.toString());
+	}
+
+	private String write(Listing listing) throws IOException {
+		StringWriter out = new StringWriter();
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+			listing.write(new ListingJsonWriter(generator));
+		}
+		return out.toString();
+	}
+
+	private interface Listing {
+		void write(ListingJsonWriter writer) throws IOException;
+	}
+
+	private static Book book(Long id, String title, String author, String isbn) {
+		Book book = new Book(title, author, isbn);
+		book.setId(id);
+		return book;
+	}
+
+	private static BorrowRecord loan(Long id, User user, Book book, LocalDateTime borrowed, LocalDateTime due,
+			LocalDateTime returned) {
+		BorrowRecord record = new BorrowRecord(user, book, due);
+		record.setId(id);
+		record.setBorrowDate(borrowed);
+		record.setDueDate(due);
+		record.setReturnDate(returned);
+		record.setCreatedAt(borrowed);
+		record.setUpdatedAt(returned);
+		return record;
+	}
+}
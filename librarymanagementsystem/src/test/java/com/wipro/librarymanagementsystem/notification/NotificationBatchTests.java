@@ -0,0 +1,241 @@
+package com.wipro.librarymanagementsystem.notification;
+
+import com.wipro.librarymanagementsystem.entity.NotificationMarker;
+import com.wipro.librarymanagementsystem.repository.NotificationMarkerRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Overdue reminders sent through the SMTP sender to a stub server: one message per user however
+// the loans fall into chunks, nothing sent again on a rerun, and a rejected message sent on the
+// next run once the server accepts it; a loan another run already claimed is left out of its
+// user's message without holding back the rest
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:notification_batches;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"library.notifications.sender=smtp",
+		"library.notifications.cron=-",
+		// Small chunks, so a user's loans straddle chunk boundaries
+		"library.notifications.chunk-size=2"
+})
+@ActiveProfiles("embedded")
+class NotificationBatchTests {
+
+	private static final SmtpStub SMTP = new SmtpStub();
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NotificationMarkerRepository notificationMarkerRepository;
+
+	@DynamicPropertySource
+	static void mailProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.mail.host", () -> "localhost");
+		registry.add("spring.mail.port", SMTP::port);
+	}
+
+	@AfterAll
+	static void stopSmtp() throws IOException {
+		SMTP.close();
+	}
+
+	@Test
+	void overdueRunSendsOneMessagePerUserAndNoResendOnRerun() {
+		String tag = Long.toString(System.nanoTime(), 36);
+		String twoLoans = overdueBorrower(tag + "a", 2);
+		String oneLoan = overdueBorrower(tag + "b", 1);
+		String rejected = overdueBorrower(tag + "c", 3);
+		SMTP.rejected.add(rejected);
+
+		NotificationRunSummary first = notificationService.run(NotificationMarker.Kind.OVERDUE);
+		assertEquals(1, SMTP.messagesTo(twoLoans).size());
+		assertEquals(1, SMTP.messagesTo(oneLoan).size());
+		assertTrue(SMTP.messagesTo(rejected).isEmpty());
+		assertEquals(1, first.messagesFailed());
+		String message = SMTP.messagesTo(twoLoans).get(0);
+		assertTrue(message.contains("Overdue book " + tag + "a0") && message.contains("Overdue book " + tag + "a1"),
+				"Both loans belong in the one message:\n" + message);
+
+		// The rejected message is sent once the server takes it; the others are not sent again
+		SMTP.rejected.clear();
+		int delivered = SMTP.messages.size();
+		NotificationRunSummary second = notificationService.run(NotificationMarker.Kind.OVERDUE);
+		assertEquals(1, second.messagesSent());
+		assertEquals(delivered + 1, SMTP.messages.size());
+		assertEquals(1, SMTP.messagesTo(rejected).size());
+		assertEquals(1, SMTP.messagesTo(twoLoans).size());
+
+		NotificationRunSummary third = notificationService.run(NotificationMarker.Kind.OVERDUE);
+		assertEquals(0, third.messagesSent());
+		assertEquals(delivered + 1, SMTP.messages.size());
+	}
+
+	@Test
+	void loanClaimedElsewhereIsLeftOutOfItsUsersMessage() {
+		String tag = Long.toString(System.nanoTime(), 36);
+		String borrower = overdueBorrower(tag + "p", 3);
+		Long claimedLoan = loanOfBook(tag + "p1");
+		Long userId = jdbcTemplate.queryForObject("SELECT user_id FROM borrow_records WHERE id = ?", Long.class, claimedLoan);
+		notificationMarkerRepository.save(new NotificationMarker(claimedLoan, userId, NotificationMarker.Kind.OVERDUE));
+
+		NotificationRunSummary run = notificationService.run(NotificationMarker.Kind.OVERDUE);
+
+		assertEquals(0, run.messagesFailed());
+		List<String> messages = SMTP.messagesTo(borrower);
+		assertEquals(1, messages.size());
+		String message = messages.get(0);
+		assertTrue(message.contains("Overdue book " + tag + "p0") && message.contains("Overdue book " + tag + "p2"),
+				"The unclaimed loans belong in the message:\n" + message);
+		assertFalse(message.contains("Overdue book " + tag + "p1"), "A loan claimed elsewhere was sent again:\n" + message);
+		assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_markers WHERE user_id = ?",
+				Integer.class, userId));
+	}
+
+	private Long loanOfBook(String isbn) {
+		return jdbcTemplate.queryForObject("SELECT r.id FROM borrow_records r JOIN books b ON b.id = r.book_id WHERE b.isbn = ?",
+				Long.class, isbn);
+	}
+
+	// A user with the given number of loans, all three days overdue; returns the user's address
+	private String overdueBorrower(String name, int loans) {
+		String email = name + "@example.com";
+		long userId = create("/api/users", Map.of("username", name, "email", email,
+				"firstName", "Overdue", "lastName", "Borrower", "membershipType", "PREMIUM"));
+		for (int i = 0; i < loans; i++) {
+			long bookId = create("/api/books", Map.of("title", "Overdue book " + name + i, "author", "Test",
+					"isbn", name + i, "totalCopies", 1, "availableCopies", 1));
+			long loanId = create("/api/borrow/borrow?userId=" + userId + "&bookId=" + bookId, null);
+			jdbcTemplate.update("UPDATE borrow_records SET due_date = DATEADD('DAY', -3, CURRENT_TIMESTAMP) WHERE id = ?", loanId);
+		}
+		return email;
+	}
+
+	private long create(String path, Map<String, Object> body) {
+		ResponseEntity<Map> response = restTemplate.postForEntity(path, body, Map.class);
+		assertTrue(response.getStatusCode().is2xxSuccessful(), "POST " + path + " answered " + response.getStatusCode());
+		return ((Number) response.getBody().get("id")).longValue();
+	}
+
+	// Just enough SMTP for JavaMail: records each accepted message with its recipients and
+	// answers 550 to recipients in the rejected set
+	private static class SmtpStub implements AutoCloseable {
+		private final ServerSocket server;
+		private final List<Delivered> messages = new CopyOnWriteArrayList<>();
+		private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+
+		SmtpStub() {
+			try {
+				server = new ServerSocket(0);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			Thread acceptor = new Thread(() -> {
+				while (!server.isClosed()) {
+					try {
+						Socket socket = server.accept();
+						Thread session = new Thread(() -> serve(socket), "smtp-stub-session");
+						session.setDaemon(true);
+						session.start();
+					} catch (IOException e) {
+						return;
+					}
+				}
+			}, "smtp-stub");
+			acceptor.setDaemon(true);
+			acceptor.start();
+		}
+
+		int port() {
+			return server.getLocalPort();
+		}
+
+		List<String> messagesTo(String address) {
+			return messages.stream().filter(message -> message.recipients.contains(address)).map(Delivered::data).toList();
+		}
+
+		private void serve(Socket socket) {
+			try (socket;
+				 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+				reply(out, "220 localhost SMTP stub");
+				List<String> recipients = new CopyOnWriteArrayList<>();
+				String line;
+				while ((line = in.readLine()) != null) {
+					String command = line.toUpperCase();
+					if (command.startsWith("RCPT TO:")) {
+						String address = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+						if (rejected.contains(address)) {
+							reply(out, "550 Mailbox unavailable");
+						} else {
+							recipients.add(address);
+							reply(out, "250 OK");
+						}
+					} else if (command.equals("DATA")) {
+						reply(out, "354 End data with <CR><LF>.<CR><LF>");
+						StringBuilder data = new StringBuilder();
+						while ((line = in.readLine()) != null && !line.equals(".")) {
+							data.append(line).append('\n');
+						}
+						messages.add(new Delivered(List.copyOf(recipients), data.toString()));
+						recipients.clear();
+						reply(out, "250 OK");
+					} else if (command.equals("QUIT")) {
+						reply(out, "221 Bye");
+						return;
+					} else if (command.startsWith("RSET") || command.startsWith("MAIL FROM:")) {
+						recipients.clear();
+						reply(out, "250 OK");
+					} else {
+						reply(out, "250 OK");
+					}
+				}
+			} catch (IOException e) {
+				// Client went away
+			}
+		}
+
+		private static void reply(PrintWriter out, String line) {
+			out.print(line + "\r\n");
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			server.close();
+		}
+
+		private record Delivered(List<String> recipients, String data) {
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package com.wipro.librarymanagementsystem.outbox;
+
+import com.wipro.librarymanagementsystem.entity.OutboxEvent;
+import com.wipro.librarymanagementsystem.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The relay claims a batch, sends it with no transaction open and marks it published
+// afterwards; a failed send releases the claim and backs off, a claim left by a dead relay
+// is taken over once it expires, and a dedup key is recorded at most once. The scheduled
+// relay shares the sink swapped in here, so the tests only look at their own events.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class OutboxRelayTests {
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final String tag = Long.toString(System.nanoTime(), 36);
+	private final RecordingSink recordingSink = new RecordingSink();
+	private Object relay;
+	private Object originalSink;
+
+	@BeforeEach
+	void recordDeliveries() {
+		relay = AopTestUtils.getTargetObject(outboxRelay);
+		originalSink = ReflectionTestUtils.getField(relay, "sink");
+		ReflectionTestUtils.setField(relay, "sink", recordingSink);
+		resetBackoff();
+	}
+
+	@AfterEach
+	void restoreSink() {
+		ReflectionTestUtils.setField(relay, "sink", originalSink);
+		resetBackoff();
+	}
+
+	@Test
+	void batchIsSentOutsideTheClaimTransactionAndThenMarked() {
+		OutboxEvent event = record("sent");
+
+		outboxRelay.relay();
+
+		Delivery delivery = recordingSink.deliveryOf(event.getDedupKey());
+		assertNotNull(delivery, "The event was not delivered");
+		assertFalse(delivery.inTransaction(), "The sink ran inside a transaction");
+		// While the sink ran, the row was claimed and not yet published
+		assertNotNull(delivery.claimedUntil());
+		assertNull(delivery.publishedAt());
+		OutboxEvent published = reload(event);
+		assertNotNull(published.getPublishedAt());
+		assertNull(published.getClaimedUntil());
+	}
+
+	@Test
+	void failedSendReleasesTheClaimAndBacksOff() {
+		OutboxEvent event = record("failed");
+		recordingSink.failFor = event.getDedupKey();
+
+		outboxRelay.relay();
+
+		OutboxEvent failed = reload(event);
+		assertEquals(1, failed.getAttempts());
+		assertTrue(failed.getLastError().contains("sink unavailable"), failed.getLastError());
+		assertNull(failed.getClaimedUntil(), "A failed batch kept its claim");
+		assertNull(failed.getPublishedAt());
+		assertTrue((Integer) ReflectionTestUtils.getField(relay, "consecutiveFailures") > 0);
+
+		// Within the backoff the relay does not call the sink
+		recordingSink.failFor = null;
+		long attemptsBefore = recordingSink.attemptsFor(event.getDedupKey());
+		outboxRelay.relay();
+		assertEquals(attemptsBefore, recordingSink.attemptsFor(event.getDedupKey()));
+
+		// Once it has passed, the same event goes out again under the same dedup key
+		ReflectionTestUtils.setField(relay, "nextAttemptAt", 0L);
+		outboxRelay.relay();
+		assertNotNull(reload(event).getPublishedAt());
+		assertEquals(0, ReflectionTestUtils.getField(relay, "consecutiveFailures"));
+		assertTrue(recordingSink.attemptsFor(event.getDedupKey()) >= 2);
+	}
+
+	@Test
+	void expiredClaimIsTakenOverAndALiveOneIsLeftAlone() {
+		OutboxEvent abandoned = record("abandoned");
+		OutboxEvent inFlight = record("inflight");
+		claimUntil(abandoned, LocalDateTime.now().minusMinutes(1));
+		claimUntil(inFlight, LocalDateTime.now().plusMinutes(10));
+
+		outboxRelay.relay();
+
+		assertNotNull(reload(abandoned).getPublishedAt());
+		assertNull(recordingSink.deliveryOf(inFlight.getDedupKey()), "A live claim was taken over");
+		assertNull(reload(inFlight).getPublishedAt());
+		claimUntil(inFlight, null);
+	}
+
+	@Test
+	void dedupKeyIsRecordedOnce() {
+		OutboxEvent event = record("dedup");
+
+		assertThrows(DataIntegrityViolationException.class, () -> inTransaction(() ->
+				outboxService.record("TestEvent", "Test", 1L, event.getDedupKey(), Map.of("copy", true))));
+		assertEquals(1, outboxEventRepository.findAll().stream()
+				.filter(row -> row.getDedupKey().equals(event.getDedupKey())).count());
+	}
+
+	private OutboxEvent record(String name) {
+		return inTransaction(() -> outboxService.record("TestEvent", "Test", 1L, "test:" + tag + name, Map.of("name", name)));
+	}
+
+	private void claimUntil(OutboxEvent event, LocalDateTime claimedUntil) {
+		inTransaction(() -> {
+			OutboxEvent row = outboxEventRepository.findById(event.getId()).orElseThrow();
+			row.setClaimedUntil(claimedUntil);
+			return outboxEventRepository.save(row);
+		});
+	}
+
+	private OutboxEvent reload(OutboxEvent event) {
+		return outboxEventRepository.findById(event.getId()).orElseThrow();
+	}
+
+	private <T> T inTransaction(Supplier<T> work) {
+		return new TransactionTemplate(transactionManager).execute(status -> work.get());
+	}
+
+	private void resetBackoff() {
+		ReflectionTestUtils.setField(relay, "consecutiveFailures", 0);
+		ReflectionTestUtils.setField(relay, "nextAttemptAt", 0L);
+	}
+
+	private record Delivery(String dedupKey, boolean inTransaction, LocalDateTime claimedUntil,
+			LocalDateTime publishedAt, boolean failed) {
+	}
+
+	// Notes what each send saw of the event's row; fails batches holding one chosen event
+	private class RecordingSink implements OutboxSink {
+
+		private final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
+		private volatile String failFor;
+
+		@Override
+		public void send(List<OutboxEvent> batch) {
+			boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+			boolean failing = batch.stream().anyMatch(event -> event.getDedupKey().equals(failFor));
+			for (OutboxEvent event : batch) {
+				if (event.getDedupKey().startsWith("test:" + tag)) {
+					OutboxEvent row = reload(event);
+					deliveries.add(new Delivery(event.getDedupKey(), inTransaction, row.getClaimedUntil(),
+							row.getPublishedAt(), failing));
+				}
+			}
+			if (failing) {
+				throw new IllegalStateException("sink unavailable");
+			}
+		}
+
+		@Override
+		public String name() {
+			return "recording";
+		}
+
+		Delivery deliveryOf(String dedupKey) {
+			return deliveries.stream().filter(delivery -> delivery.dedupKey().equals(dedupKey) && !delivery.failed())
+					.findFirst().orElse(null);
+		}
+
+		long attemptsFor(String dedupKey) {
+			return deliveries.stream().filter(delivery -> delivery.dedupKey().equals(dedupKey)).count();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.wipro.librarymanagementsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The shared batch-then-one-by-one loop: a clean batch commits once, a refusal isolates the
+// refused command (stopping there when the caller asks), and a transient batch failure is
+// thrown rather than re-run
+class BatchedWritesTests {
+
+	private PlatformTransactionManager transactionManager;
+	private TransactionTemplate template;
+
+	@BeforeEach
+	void setUp() {
+		transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		template = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	void cleanBatchCommitsOnce() {
+		RecordingHandler handler = new RecordingHandler(Set.of(), false);
+
+		List<String> results = BatchedWrites.apply(template, List.of(1, 2, 3), handler);
+
+		assertEquals(List.of("ok1", "ok2", "ok3"), results);
+		assertEquals(List.of(List.of(1, 2, 3)), handler.checkpoints);
+		assertEquals(List.of(1, 2, 3), handler.completed);
+		verify(transactionManager, times(1)).commit(any());
+	}
+
+	@Test
+	void refusedCommandIsIsolatedFromTheRestOfItsBatch() {
+		RecordingHandler handler = new RecordingHandler(Set.of(2), false);
+
+		List<String> results = BatchedWrites.apply(template, List.of(1, 2, 3), handler);
+
+		assertEquals(List.of("ok1", "refused2", "ok3"), results);
+		assertEquals(List.of(List.of(1), List.of(3)), handler.checkpoints);
+		assertEquals(List.of(1, 2, 3), handler.completed);
+	}
+
+	@Test
+	void reRunStopsAtTheRefusalWhenAsked() {
+		RecordingHandler handler = new RecordingHandler(Set.of(2), true);
+
+		List<String> results = BatchedWrites.apply(template, List.of(1, 2, 3), handler);
+
+		assertEquals(List.of("ok1", "refused2"), results);
+		assertEquals(List.of(1, 2), handler.completed);
+	}
+
+	@Test
+	void transientBatchFailureIsThrown() {
+		RecordingHandler handler = new RecordingHandler(Set.of(), false);
+		handler.lockTimeout = true;
+
+		assertThrows(CannotAcquireLockException.class, () -> BatchedWrites.apply(template, List.of(1, 2), handler));
+		assertTrue(handler.completed.isEmpty());
+		assertEquals(1, handler.attempts, "A transient failure was re-run one by one");
+	}
+
+	@Test
+	void classifiesTransientFailures() {
+		assertTrue(BatchedWrites.isTransient(new CannotAcquireLockException("lock wait timeout")));
+		assertFalse(BatchedWrites.isTransient(new IllegalStateException("Book is not available")));
+		RuntimeException outage = new CannotAcquireLockException("down");
+		assertSame(outage, assertThrows(RuntimeException.class,
+				() -> new RecordingHandler(Set.of(), false).unavailable(1, outage)));
+	}
+
+	// Refuses the chosen commands and notes every callback
+	private static class RecordingHandler implements BatchedWrites.Handler<Integer, String> {
+
+		private final Set<Integer> refusing;
+		private final boolean stopAtRefusal;
+		private final List<List<Integer>> checkpoints = new ArrayList<>();
+		private final List<Integer> completed = new ArrayList<>();
+		private boolean lockTimeout;
+		private int attempts;
+
+		RecordingHandler(Set<Integer> refusing, boolean stopAtRefusal) {
+			this.refusing = refusing;
+			this.stopAtRefusal = stopAtRefusal;
+		}
+
+		@Override
+		public String apply(Integer command) {
+			attempts++;
+			if (lockTimeout) {
+				throw new CannotAcquireLockException("lock wait timeout");
+			}
+			if (refusing.contains(command)) {
+				throw new IllegalStateException("refused " + command);
+			}
+			return "ok" + command;
+		}
+
+		@Override
+		public void beforeCommit(List<Integer> applied) {
+			checkpoints.add(List.copyOf(applied));
+		}
+
+		@Override
+		public String refused(Integer command, RuntimeException e) {
+			return "refused" + command;
+		}
+
+		@Override
+		public void completed(Integer command, String result) {
+			completed.add(command);
+		}
+
+		@Override
+		public boolean stopAtRefusal() {
+			return stopAtRefusal;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.dto.BookAvailability;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A copy borrowed while a rebuild is reading must be counted exactly once, whether or not the
+// rebuild's rows already include it
+class BookAvailabilityIndexTests {
+
+	private static final long BOOK_ID = 7L;
+
+	private BookRepository bookRepository;
+	private BookAvailabilityIndex index;
+
+	@BeforeEach
+	void setUp() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		bookRepository = mock(BookRepository.class);
+		index = new BookAvailabilityIndex(transactionManager);
+		ReflectionTestUtils.setField(index, "bookRepository", bookRepository);
+		ReflectionTestUtils.setField(index, "rereadPasses", 5);
+
+		// One copy on the shelf to start with
+		when(bookRepository.findAllAvailability()).thenReturn(List.of(row(1)));
+		index.rebuild();
+		assertTrue(index.isAvailable(BOOK_ID));
+	}
+
+	@Test
+	void borrowCommittedAfterTheRebuildReadIsNotLost() {
+		when(bookRepository.findAllAvailability()).thenAnswer(invocation -> {
+			// The rebuild's rows were read before the borrow committed
+			index.adjustCopiesAfterCommit(BOOK_ID, -1);
+			return List.of(row(1));
+		});
+		when(bookRepository.findAvailabilityByIdIn(anyCollection())).thenReturn(List.of(row(0)));
+
+		index.rebuild();
+
+		assertFalse(index.isAvailable(BOOK_ID), "The borrow made during the rebuild was lost");
+	}
+
+	@Test
+	void borrowAlreadyInTheRebuildRowsIsNotAppliedTwice() {
+		when(bookRepository.findAllAvailability()).thenAnswer(invocation -> {
+			// The borrow committed just before the rebuild's snapshot, its callback ran just after
+			index.adjustCopiesAfterCommit(BOOK_ID, -1);
+			return List.of(row(0));
+		});
+		when(bookRepository.findAvailabilityByIdIn(anyCollection())).thenReturn(List.of(row(0)));
+
+		index.rebuild();
+		index.adjustCopiesAfterCommit(BOOK_ID, 1);
+
+		assertTrue(index.isAvailable(BOOK_ID), "The borrow made during the rebuild was counted twice");
+		assertEquals(List.of(BOOK_ID), index.availableIds(null, 0, 10));
+	}
+
+	@Test
+	void bookDeletedDuringTheRebuildStaysDeleted() {
+		when(bookRepository.findAllAvailability()).thenAnswer(invocation -> {
+			index.removeAfterCommit(BOOK_ID);
+			return List.of(row(1));
+		});
+		when(bookRepository.findAvailabilityByIdIn(anyCollection())).thenReturn(List.of());
+
+		index.rebuild();
+
+		assertFalse(index.contains(BOOK_ID));
+	}
+
+	private static BookAvailability row(int availableCopies) {
+		return new BookAvailability(BOOK_ID, "Fiction", availableCopies);
+	}
+}
@@ -0,0 +1,110 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The shelf count only moves through conditional updates: however many borrows or returns
+// race on one book, the count stays between zero and the total and no change is lost
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class BookCopiesTests {
+
+	private static final int THREADS = 8;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	private final ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+	private final String tag = Long.toString(System.nanoTime(), 36);
+
+	@AfterEach
+	void shutDown() {
+		workers.shutdownNow();
+	}
+
+	@Test
+	void concurrentBorrowsTakeEachCopyOnce() throws Exception {
+		Long bookId = book("take", 3, 3);
+
+		int taken = race(() -> bookService.decreaseAvailableCopies(bookId));
+
+		assertEquals(3, taken);
+		assertEquals(0, availableCopies(bookId));
+		assertEquals(0, bookService.getBookById(bookId).orElseThrow().getAvailableCopies());
+	}
+
+	@Test
+	void concurrentReturnsStopAtTheTotal() throws Exception {
+		Long bookId = book("put", 5, 2);
+
+		int returned = race(() -> bookService.increaseAvailableCopies(bookId));
+
+		assertEquals(3, returned);
+		assertEquals(5, availableCopies(bookId));
+	}
+
+	@Test
+	void unknownBookIsReportedAsSuch() {
+		RuntimeException missing = assertThrows(RuntimeException.class, () -> bookService.decreaseAvailableCopies(-1L));
+		assertEquals("Book not found with id: -1", missing.getMessage());
+		Long bookId = book("empty", 1, 0);
+		RuntimeException empty = assertThrows(RuntimeException.class, () -> bookService.decreaseAvailableCopies(bookId));
+		assertEquals("No available copies of this book", empty.getMessage());
+	}
+
+	// Runs the change on every worker at once; returns how many succeeded
+	private int race(Callable<Book> change) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Book>> results = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			results.add(workers.submit(() -> {
+				start.await();
+				return change.call();
+			}));
+		}
+		start.countDown();
+		int succeeded = 0;
+		for (Future<Book> result : results) {
+			try {
+				result.get(30, TimeUnit.SECONDS);
+				succeeded++;
+			} catch (ExecutionException e) {
+				// Refused: no copy left, or every copy already back
+			}
+		}
+		return succeeded;
+	}
+
+	private Long book(String name, int total, int available) {
+		Book book = new Book("Copies " + name, "Test", "bc" + tag + name);
+		book.setTotalCopies(total);
+		book.setAvailableCopies(available);
+		return bookService.saveBook(book).getId();
+	}
+
+	private int availableCopies(Long bookId) {
+		return bookRepository.findAvailableCopiesById(bookId);
+	}
+}
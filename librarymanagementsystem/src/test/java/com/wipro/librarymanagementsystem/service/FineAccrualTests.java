@@ -0,0 +1,62 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The nightly accrual writes borrow_records.fine_amount, so loan listings cached under the
+// borrow-records ETag must change with it; a chunk with nothing to accrue leaves the ETag alone
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class FineAccrualTests {
+
+	@Autowired
+	private FineService fineService;
+
+	@Autowired
+	private BorrowRecordService borrowRecordService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private BorrowRecordRepository borrowRecordRepository;
+
+	@Autowired
+	private TableVersionService tableVersionService;
+
+	@Test
+	void accrualChangesTheLoanListingVersion() {
+		String tag = Long.toString(System.nanoTime(), 36);
+		User user = new User("fa" + tag, "fa" + tag + "@example.com", "Fine", "Accrual");
+		Book book = new Book("Fine accrual", "Test", "fa" + tag);
+		book.setTotalCopies(1);
+		book.setAvailableCopies(1);
+		BorrowRecord loan = borrowRecordService.borrowBook(userService.saveUser(user).getId(),
+				bookService.saveBook(book).getId(), LocalDateTime.now().minusDays(60));
+
+		// Brings every overdue loan up to date, so the second run finds nothing to accrue
+		long before = tableVersionService.getVersion(TableVersionService.Table.BORROW_RECORDS);
+		fineService.accrueOutstandingFines();
+		long accrued = tableVersionService.getVersion(TableVersionService.Table.BORROW_RECORDS);
+		fineService.accrueOutstandingFines();
+
+		assertTrue(borrowRecordRepository.findById(loan.getId()).orElseThrow().getFineAmount().signum() > 0);
+		assertTrue(accrued > before, "Accrual did not bump the borrow-records version");
+		assertEquals(accrued, tableVersionService.getVersion(TableVersionService.Table.BORROW_RECORDS));
+	}
+}
@@ -0,0 +1,79 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.repository.FineBalanceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Payments racing each other must never take a balance below zero: of several payments that
+// each fit the balance on their own, only as many as the balance covers are accepted
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class FinePaymentTests {
+
+	private static final int PAYERS = 6;
+
+	// Seeded user without loans, so no accrual touches the balance during the test
+	private static final Long USER_ID = 10L;
+
+	@Autowired
+	private FineService fineService;
+
+	@Autowired
+	private FineBalanceRepository fineBalanceRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void concurrentPaymentsDoNotOverdrawTheBalance() throws Exception {
+		BigDecimal before = fineService.getBalance(USER_ID).getOutstanding();
+		BigDecimal owed = new BigDecimal("10.00");
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+				fineBalanceRepository.applyDelta(USER_ID, owed, BigDecimal.ZERO.setScale(2), LocalDateTime.now()));
+
+		ExecutorService pool = Executors.newFixedThreadPool(PAYERS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> payments = new ArrayList<>();
+		try {
+			for (int i = 0; i < PAYERS; i++) {
+				payments.add(pool.submit(() -> {
+					start.await();
+					try {
+						fineService.recordPayment(USER_ID, new BigDecimal("5.00"));
+						return true;
+					} catch (RuntimeException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+			int accepted = 0;
+			for (Future<Boolean> payment : payments) {
+				if (payment.get(30, TimeUnit.SECONDS)) {
+					accepted++;
+				}
+			}
+			assertEquals(2, accepted, "Payments accepted against a balance of " + owed);
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(0, before.compareTo(fineService.getBalance(USER_ID).getOutstanding()));
+	}
+}
@@ -0,0 +1,163 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.Hold;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.repository.BookRepository;
+import com.wipro.librarymanagementsystem.repository.HoldRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// A hold changes state from several transactions at once: placed while a copy comes back,
+// cancelled or expired while a return or the holder's borrow is in flight. Each test holds one
+// side open in a transaction while the other runs, then checks the copy went to exactly one place.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class HoldConcurrencyTests {
+
+	// Long enough for the other transaction to reach the row lock, well inside H2's lock timeout
+	private static final long LOCK_WAIT_MS = 300;
+
+	@Autowired
+	private HoldService holdService;
+
+	@Autowired
+	private BorrowRecordService borrowRecordService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private HoldRepository holdRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ExecutorService other = Executors.newSingleThreadExecutor();
+	private final String tag = Long.toString(System.nanoTime(), 36);
+
+	@AfterEach
+	void shutDown() {
+		other.shutdownNow();
+	}
+
+	@Test
+	void holdPlacedWhileTheCopyComesBackGetsIt() throws Exception {
+		Long bookId = book("placed");
+		BorrowRecord loan = borrowRecordService.borrowBook(user("lender"), bookId);
+		Long holderId = user("holder");
+
+		// The return commits while the hold is still uncommitted and not yet queued
+		Hold hold = inTransaction(() -> {
+			Hold placed = holdService.placeHold(holderId, bookId);
+			other.submit(() -> borrowRecordService.returnBook(loan.getId())).get(10, TimeUnit.SECONDS);
+			return placed;
+		});
+
+		assertEquals(Hold.HoldStatus.READY, status(hold.getId()));
+		assertEquals(0, availableCopies(bookId));
+	}
+
+	@Test
+	void holdCancelledDuringAReturnIsNotServed() throws Exception {
+		Long bookId = book("cancelled");
+		BorrowRecord loan = borrowRecordService.borrowBook(user("lender"), bookId);
+		Hold hold = holdService.placeHold(user("holder"), bookId);
+
+		// The return polls the hold while the cancellation holds its row
+		Future<BorrowRecord> returned = inTransaction(() -> {
+			holdService.cancelHold(hold.getId());
+			Future<BorrowRecord> pending = other.submit(() -> borrowRecordService.returnBook(loan.getId()));
+			Thread.sleep(LOCK_WAIT_MS);
+			return pending;
+		});
+		returned.get(10, TimeUnit.SECONDS);
+
+		assertEquals(Hold.HoldStatus.CANCELLED, status(hold.getId()));
+		assertEquals(1, availableCopies(bookId));
+	}
+
+	@Test
+	void expiredHoldCannotBeBorrowedOnceTheCopyMovedOn() throws Exception {
+		Long bookId = book("expired");
+		BorrowRecord loan = borrowRecordService.borrowBook(user("lender"), bookId);
+		Long firstId = user("first");
+		Hold first = holdService.placeHold(firstId, bookId);
+		Hold second = holdService.placeHold(user("second"), bookId);
+		borrowRecordService.returnBook(loan.getId());
+		assertEquals(Hold.HoldStatus.READY, status(first.getId()));
+
+		// The first holder borrows while their pickup window closes and the copy moves to the second
+		Object target = AopTestUtils.getTargetObject(holdService);
+		Future<BorrowRecord> borrow = inTransaction(() -> {
+			ReflectionTestUtils.invokeMethod(target, "expire", first.getId());
+			Future<BorrowRecord> pending = other.submit(() -> borrowRecordService.borrowBook(firstId, bookId));
+			Thread.sleep(LOCK_WAIT_MS);
+			return pending;
+		});
+
+		Exception refused = assertThrows(Exception.class, () -> borrow.get(10, TimeUnit.SECONDS));
+		assertEquals("Book is not available for borrowing", refused.getCause().getMessage());
+		assertEquals(Hold.HoldStatus.EXPIRED, status(first.getId()));
+		assertEquals(Hold.HoldStatus.READY, status(second.getId()));
+		assertEquals(0, availableCopies(bookId));
+	}
+
+	private interface Work<T> {
+		T run() throws Exception;
+	}
+
+	private <T> T inTransaction(Work<T> work) {
+		return new TransactionTemplate(transactionManager).execute(status -> {
+			try {
+				return work.run();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	private Long user(String name) {
+		User user = new User("hc" + tag + name, "hc" + tag + name + "@example.com", "Hold", "Racer");
+		user.setMembershipType(User.MembershipType.PREMIUM);
+		return userService.saveUser(user).getId();
+	}
+
+	private Long book(String name) {
+		Book book = new Book("Hold race " + name, "Test", "hc" + tag + name);
+		book.setTotalCopies(1);
+		book.setAvailableCopies(1);
+		return bookService.saveBook(book).getId();
+	}
+
+	private Hold.HoldStatus status(Long holdId) {
+		return holdRepository.findById(holdId).orElseThrow().getStatus();
+	}
+
+	private int availableCopies(Long bookId) {
+		return bookRepository.findById(bookId).orElseThrow().getAvailableCopies();
+	}
+}
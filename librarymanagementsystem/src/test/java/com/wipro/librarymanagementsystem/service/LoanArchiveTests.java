@@ -0,0 +1,151 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.repository.ArchivedBorrowRecordRepository;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+// Archival moves returned loans past the minimum age out of borrow_records in keyset batches;
+// a batch whose copy and delete disagree is rolled back whole, and the history endpoints still
+// show archived loans when asked to include them
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class LoanArchiveTests {
+
+	private static final int BATCH_SIZE = 2;
+
+	@Autowired
+	private LoanArchiveService loanArchiveService;
+
+	@Autowired
+	private BorrowRecordService borrowRecordService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private BorrowRecordRepository borrowRecordRepository;
+
+	@Autowired
+	private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+
+	private final String tag = Long.toString(System.nanoTime(), 36);
+	private Object archiver;
+	private Map<String, Object> defaults;
+
+	@BeforeEach
+	void smallBatches() {
+		archiver = AopTestUtils.getTargetObject(loanArchiveService);
+		defaults = Map.of("batchSize", ReflectionTestUtils.getField(archiver, "batchSize"),
+				"pauseMillis", ReflectionTestUtils.getField(archiver, "pauseMillis"),
+				"maxBatchesPerRun", ReflectionTestUtils.getField(archiver, "maxBatchesPerRun"));
+		ReflectionTestUtils.setField(archiver, "batchSize", BATCH_SIZE);
+		ReflectionTestUtils.setField(archiver, "pauseMillis", 0L);
+	}
+
+	@AfterEach
+	void restore() {
+		defaults.forEach((field, value) -> ReflectionTestUtils.setField(archiver, field, value));
+		ReflectionTestUtils.setField(archiver, "archivedBorrowRecordRepository", archivedBorrowRecordRepository);
+	}
+
+	@Test
+	void runsResumeWhereTheLastBatchEnded() {
+		Long userId = user("resume");
+		Long bookId = book("resume");
+		List<Long> old = new ArrayList<>();
+		for (int i = 0; i < 2 * BATCH_SIZE + 1; i++) {
+			old.add(returnedLoan(userId, bookId, 500 - i));
+		}
+		Long recent = returnedLoan(userId, bookId, 30);
+
+		// One batch per run: each run continues after the ids the previous one moved
+		ReflectionTestUtils.setField(archiver, "maxBatchesPerRun", 1);
+		while (old.stream().anyMatch(borrowRecordRepository::existsById)) {
+			Map<String, Object> summary = loanArchiveService.archiveReturnedLoans();
+			assertTrue((Long) summary.get("archived") > 0, "A run archived nothing: " + summary);
+		}
+
+		for (Long id : old) {
+			assertTrue(archivedBorrowRecordRepository.existsById(id), "Loan " + id + " is missing from the archive");
+		}
+		assertTrue(borrowRecordRepository.existsById(recent));
+		assertFalse(archivedBorrowRecordRepository.existsById(recent));
+	}
+
+	@Test
+	void batchWhoseCopyAndDeleteDisagreeIsRolledBack() {
+		Long userId = user("mismatch");
+		Long bookId = book("mismatch");
+		Long loan = returnedLoan(userId, bookId, 500);
+
+		// The copy reports nothing copied while the delete removes the batch
+		ArchivedBorrowRecordRepository copiesNothing = Mockito.mock(ArchivedBorrowRecordRepository.class);
+		Mockito.when(copiesNothing.copyFromBorrowRecords(any(), any())).thenReturn(0);
+		ReflectionTestUtils.setField(archiver, "archivedBorrowRecordRepository", copiesNothing);
+
+		assertThrows(RuntimeException.class, loanArchiveService::archiveReturnedLoans);
+		assertTrue(borrowRecordRepository.existsById(loan), "A rolled-back batch lost its loans");
+	}
+
+	@Test
+	void historyIncludesArchivedLoansWhenAsked() {
+		Long userId = user("history");
+		Long bookId = book("history");
+		Long archived = returnedLoan(userId, bookId, 500);
+		Long hot = returnedLoan(userId, bookId, 30);
+		loanArchiveService.archiveReturnedLoans();
+
+		assertEquals(List.of(hot), ids(borrowRecordService.getBorrowHistoryByUser(userId, false)));
+		assertEquals(List.of(hot, archived), ids(borrowRecordService.getBorrowHistoryByUser(userId, true)));
+		assertEquals(List.of(hot), ids(borrowRecordService.getBorrowHistoryByBook(bookId, false)));
+		assertEquals(List.of(hot, archived), ids(borrowRecordService.getBorrowHistoryByBook(bookId, true)));
+	}
+
+	private Long returnedLoan(Long userId, Long bookId, int daysAgo) {
+		LocalDateTime borrowedAt = LocalDateTime.now().minusDays(daysAgo);
+		BorrowRecord loan = borrowRecordService.borrowBook(userId, bookId, borrowedAt);
+		borrowRecordService.returnBook(loan.getId(), borrowedAt.plusDays(3));
+		return loan.getId();
+	}
+
+	private static List<Long> ids(List<BorrowRecord> records) {
+		return records.stream().map(BorrowRecord::getId).toList();
+	}
+
+	private Long user(String name) {
+		return userService.saveUser(new User("la" + tag + name, "la" + tag + name + "@example.com", "Loan", "Archive")).getId();
+	}
+
+	private Long book(String name) {
+		Book book = new Book("Loan archive " + name, "Test", "la" + tag + name);
+		book.setTotalCopies(1);
+		book.setAvailableCopies(1);
+		return bookService.saveBook(book).getId();
+	}
+}
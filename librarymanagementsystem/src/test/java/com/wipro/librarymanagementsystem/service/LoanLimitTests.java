@@ -0,0 +1,197 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.dto.UserLoanCount;
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The in-memory loan counters under concurrency: simultaneous checkouts never pass the
+// member's limit, and a reconcile pass leaves alone a counter that moved or still has a
+// checkout in flight while it counted, so it cannot overwrite a slot with a stale count;
+// a rolled-back checkout gives its slot back and an idle drifted counter is corrected
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class LoanLimitTests {
+
+	// library.loans.limits.STUDENT.max-active-loans
+	private static final int STUDENT_LIMIT = 3;
+	private static final int THREADS = 8;
+
+	@Autowired
+	private LoanLimitService loanLimitService;
+
+	@Autowired
+	private BorrowRecordService borrowRecordService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private BorrowRecordRepository borrowRecordRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+	private final String tag = Long.toString(System.nanoTime(), 36);
+	private Object limits;
+
+	@BeforeEach
+	void setUp() {
+		limits = AopTestUtils.getTargetObject(loanLimitService);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReflectionTestUtils.setField(limits, "borrowRecordRepository", borrowRecordRepository);
+		workers.shutdownNow();
+	}
+
+	@Test
+	void concurrentCheckoutsStopAtTheLimit() throws Exception {
+		User student = user("race");
+		List<Long> bookIds = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			bookIds.add(book("race" + i));
+		}
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<BorrowRecord>> results = new ArrayList<>();
+		for (Long bookId : bookIds) {
+			results.add(workers.submit(() -> {
+				start.await();
+				return borrowRecordService.borrowBook(student.getId(), bookId);
+			}));
+		}
+		start.countDown();
+		int borrowed = 0;
+		for (Future<BorrowRecord> result : results) {
+			try {
+				result.get(30, TimeUnit.SECONDS);
+				borrowed++;
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause().getMessage().contains("reached the limit of " + STUDENT_LIMIT),
+						e.getCause().getMessage());
+			}
+		}
+
+		assertEquals(STUDENT_LIMIT, borrowed);
+		assertEquals(STUDENT_LIMIT, openLoans(student));
+		assertEquals(STUDENT_LIMIT, activeLoans(student));
+	}
+
+	@Test
+	void reconcileKeepsACounterThatMovedWhileItCounted() throws Exception {
+		User student = user("moved");
+		Long first = book("moved1");
+		Long second = book("moved2");
+		borrowRecordService.borrowBook(student.getId(), first);
+
+		// The count is read before a second checkout commits, and returned after it
+		BorrowRecordRepository staleCounts = mock(BorrowRecordRepository.class);
+		when(staleCounts.countOpenLoansByUser(any())).thenAnswer(invocation -> {
+			List<UserLoanCount> rows = borrowRecordRepository.countOpenLoansByUser(invocation.getArgument(0));
+			workers.submit(() -> borrowRecordService.borrowBook(student.getId(), second)).get(30, TimeUnit.SECONDS);
+			return rows;
+		});
+		ReflectionTestUtils.setField(limits, "borrowRecordRepository", staleCounts);
+
+		loanLimitService.reconcile();
+
+		assertEquals(2, openLoans(student));
+		assertEquals(2, activeLoans(student), "Reconcile wrote back a count taken before the checkout");
+	}
+
+	@Test
+	void reconcileSkipsACheckoutInFlightAndItsRollbackReleasesTheSlot() throws Exception {
+		User student = user("inflight");
+		TransactionTemplate checkout = new TransactionTemplate(transactionManager);
+
+		checkout.executeWithoutResult(status -> {
+			loanLimitService.reserveLoan(student);
+			// The database has no loan yet; reconcile must not reset the reserved slot
+			reconcileElsewhere();
+			assertEquals(1, activeLoans(student));
+			status.setRollbackOnly();
+		});
+
+		assertEquals(0, activeLoans(student));
+		loanLimitService.reconcile();
+		assertEquals(0, activeLoans(student));
+	}
+
+	@Test
+	void reconcileCorrectsACounterOnceNothingIsInFlight() {
+		User student = user("drift");
+		// A slot taken by a transaction that committed without a loan
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> loanLimitService.reserveLoan(student));
+		assertEquals(1, activeLoans(student));
+
+		loanLimitService.reconcile();
+
+		assertEquals(0, activeLoans(student));
+	}
+
+	// On another thread, so its query does not join the caller's transaction
+	private void reconcileElsewhere() {
+		try {
+			workers.submit(loanLimitService::reconcile).get(30, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private int activeLoans(User user) {
+		return (Integer) loanLimitService.getLoanStatus(user).get("activeLoans");
+	}
+
+	private long openLoans(User user) {
+		return borrowRecordRepository.countOpenLoansByUser(LocalDateTime.now()).stream()
+				.filter(row -> row.getUserId().equals(user.getId()))
+				.mapToLong(UserLoanCount::getActiveLoans).sum();
+	}
+
+	private User user(String name) {
+		User user = new User("ll" + tag + name, "ll" + tag + name + "@example.com", "Loan", "Limit");
+		user.setMembershipType(User.MembershipType.STUDENT);
+		return userService.saveUser(user);
+	}
+
+	private Long book(String name) {
+		Book book = new Book("Loan limit " + name, "Test", "ll" + tag + name);
+		book.setTotalCopies(1);
+		book.setAvailableCopies(1);
+		return bookService.saveBook(book).getId();
+	}
+}
@@ -0,0 +1,95 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.dto.DailyBorrowCount;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A loan counted while a resync is reading must be counted exactly once, whether or not the
+// resync's rows already include it, and a book forgotten meanwhile must stay forgotten
+class PopularityResyncTests {
+
+	private static final long BOOK_ID = 7L;
+	private static final LocalDate TODAY = LocalDate.now();
+
+	private BorrowRecordRepository borrowRecordRepository;
+	private PopularityService popularity;
+
+	@BeforeEach
+	void setUp() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		borrowRecordRepository = mock(BorrowRecordRepository.class);
+		popularity = new PopularityService(transactionManager);
+		ReflectionTestUtils.setField(popularity, "borrowRecordRepository", borrowRecordRepository);
+		ReflectionTestUtils.setField(popularity, "maxLimit", 10);
+		ReflectionTestUtils.setField(popularity, "rereadPasses", 5);
+	}
+
+	@Test
+	void loanCountedAfterTheResyncReadIsNotLost() {
+		when(borrowRecordRepository.countDailyBorrowsSince(any())).thenAnswer(invocation -> {
+			// The resync's rows were read before today's loan committed
+			borrow();
+			return List.of(row(TODAY.minusDays(1), 1));
+		});
+		when(borrowRecordRepository.countDailyBorrowsSinceForBooks(any(), anyCollection()))
+				.thenReturn(List.of(row(TODAY.minusDays(1), 1), row(TODAY, 1)));
+
+		popularity.warmUp();
+
+		assertEquals(List.of(new PopularityService.RankedBook(BOOK_ID, 2)),
+				popularity.getTopBooks(PopularityService.Window.WEEK, 10));
+	}
+
+	@Test
+	void loanAlreadyInTheResyncRowsIsNotCountedTwice() {
+		when(borrowRecordRepository.countDailyBorrowsSince(any())).thenAnswer(invocation -> {
+			// The loan committed just before the rows were read, its event arrived just after
+			List<DailyBorrowCount> rows = List.of(row(TODAY, 1));
+			borrow();
+			return rows;
+		});
+		when(borrowRecordRepository.countDailyBorrowsSinceForBooks(any(), anyCollection()))
+				.thenReturn(List.of(row(TODAY, 1)));
+
+		popularity.warmUp();
+
+		assertEquals(List.of(new PopularityService.RankedBook(BOOK_ID, 1)),
+				popularity.getTopBooks(PopularityService.Window.WEEK, 10));
+	}
+
+	@Test
+	void bookForgottenDuringTheResyncStaysForgotten() {
+		when(borrowRecordRepository.countDailyBorrowsSince(any())).thenAnswer(invocation -> {
+			ReflectionTestUtils.invokeMethod(popularity, "forget", BOOK_ID);
+			return List.of(row(TODAY, 3));
+		});
+		when(borrowRecordRepository.countDailyBorrowsSinceForBooks(any(), anyCollection())).thenReturn(List.of());
+
+		popularity.warmUp();
+
+		assertTrue(popularity.getTopBooks(PopularityService.Window.YEAR, 10).isEmpty());
+	}
+
+	private void borrow() {
+		ReflectionTestUtils.invokeMethod(popularity, "record", BOOK_ID, TODAY);
+	}
+
+	private static DailyBorrowCount row(LocalDate day, long count) {
+		return new DailyBorrowCount(BOOK_ID, day, count);
+	}
+}
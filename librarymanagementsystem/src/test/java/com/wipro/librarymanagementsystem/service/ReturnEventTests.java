@@ -0,0 +1,116 @@
+package com.wipro.librarymanagementsystem.service;
+
+import com.wipro.librarymanagementsystem.entity.Book;
+import com.wipro.librarymanagementsystem.entity.BorrowRecord;
+import com.wipro.librarymanagementsystem.entity.User;
+import com.wipro.librarymanagementsystem.event.BookReturned;
+import com.wipro.librarymanagementsystem.event.DomainEventBus;
+import com.wipro.librarymanagementsystem.repository.BorrowRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// The BookReturned event describes the loan as it stood at its return, which for a journaled
+// return applied later is not the moment the event is published, and its status before it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "library.reactive-catalogue.port=0")
+@ActiveProfiles("embedded")
+class ReturnEventTests {
+
+	@Autowired
+	private BorrowRecordService borrowRecordService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private DomainEventBus eventBus;
+
+	@Autowired
+	private DashboardStatsService dashboardStatsService;
+
+	@Autowired
+	private BorrowRecordRepository borrowRecordRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final BlockingQueue<BookReturned> returned = new LinkedBlockingQueue<>();
+	private final String tag = Long.toString(System.nanoTime(), 36);
+
+	@BeforeEach
+	void listen() {
+		eventBus.subscribe("return-event-tests", BookReturned.class, returned::add);
+	}
+
+	@Test
+	void returnAppliedLateIsOverdueAsOfItsReturnDate() throws Exception {
+		LocalDateTime borrowedAt = LocalDateTime.now().minusDays(60);
+		BorrowRecord loan = borrowRecordService.borrowBook(user("ontime"), book("ontime"), borrowedAt);
+
+		// Due long ago by now, but returned within the loan period
+		borrowRecordService.returnBook(loan.getId(), borrowedAt.plusDays(5));
+
+		assertFalse(awaitReturned(loan.getId()).overdue());
+	}
+
+	@Test
+	void returnOfAnOverdueStatusLoanKeepsTheDashboardInStep() throws Exception {
+		BorrowRecord loan = borrowRecordService.borrowBook(user("marked"), book("marked"),
+				LocalDateTime.now().minusDays(60));
+		// As the overdue sweep does: the loan leaves the BORROWED count, and the counters are reloaded
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			BorrowRecord record = borrowRecordRepository.findById(loan.getId()).orElseThrow();
+			record.setStatus(BorrowRecord.BorrowStatus.OVERDUE);
+			borrowRecordRepository.save(record);
+		});
+		dashboardStatsService.refresh();
+
+		borrowRecordService.returnBook(loan.getId());
+
+		assertEquals(BorrowRecord.BorrowStatus.OVERDUE, awaitReturned(loan.getId()).previousStatus());
+		Map<String, Object> stats = dashboardStatsService.getStats();
+		assertEquals(borrowRecordRepository.countByStatus(BorrowRecord.BorrowStatus.BORROWED),
+				stats.get(DashboardStatsService.CURRENTLY_BORROWED));
+		assertEquals(borrowRecordRepository.countOverdueRecords(), stats.get(DashboardStatsService.OVERDUE_BOOKS));
+	}
+
+	private BookReturned awaitReturned(Long borrowRecordId) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			BookReturned event = returned.poll(100, TimeUnit.MILLISECONDS);
+			if (event != null && event.borrowRecordId().equals(borrowRecordId)) {
+				return event;
+			}
+		}
+		return fail("No BookReturned event for loan " + borrowRecordId);
+	}
+
+	private Long user(String name) {
+		return userService.saveUser(new User("re" + tag + name, "re" + tag + name + "@example.com", "Return", "Event")).getId();
+	}
+
+	private Long book(String name) {
+		Book book = new Book("Return event " + name, "Test", "re" + tag + name);
+		book.setTotalCopies(1);
+		book.setAvailableCopies(1);
+		return bookService.saveBook(book).getId();
+	}
+}